@@ -0,0 +1,7 @@
+-- Migration script to add alert keys to budget alerts
+-- Run this script in your database so the budget alert engine can update alerts in place
+
+-- "TRIP" for whole-trip alerts, a date for daily limits, a category name for category limits
+ALTER TABLE budget_alerts ADD COLUMN alert_key VARCHAR(64) NULL AFTER alert_type;
+
+CREATE INDEX idx_budget_alert_trip_type_key ON budget_alerts(trip_id, alert_type, alert_key);
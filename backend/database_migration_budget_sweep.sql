@@ -0,0 +1,21 @@
+-- Migration script for the partitioned budget sweep
+-- Run this script in your database to add the sweep checkpoint table
+
+-- One row per sweep partition; updated after every batch so an interrupted run resumes
+CREATE TABLE budget_sweep_checkpoints (
+    partition_id INT PRIMARY KEY,
+    partition_count INT NOT NULL,
+    sweep_date DATE NOT NULL,
+    last_trip_id BIGINT NOT NULL DEFAULT 0,
+    trips_processed BIGINT NOT NULL DEFAULT 0,
+    instance_id VARCHAR(190) NULL,
+    started_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Keeps the keyset scan over active trips on an index
+CREATE INDEX idx_trip_dates_id ON trips(start_date, end_date, id);
+
+-- The Quartz JDBC job store tables are created by the application on startup from
+-- src/main/resources/db/quartz/tables_mysql_innodb.sql (idempotent, no DROP statements)
@@ -0,0 +1,40 @@
+-- Migration script to add the exchange rate table
+-- Run this script in your database to store exchange rates with effective dates
+
+-- Units of each currency per one USD; the latest row on or before a date is in force on that date
+CREATE TABLE exchange_rates (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    currency VARCHAR(3) NOT NULL,
+    rate_per_usd DECIMAL(20,8) NOT NULL,
+    effective_date DATE NOT NULL,
+    source VARCHAR(32) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_exchange_rate (currency, effective_date)
+);
+
+-- Seed with the rates previously hardcoded in CurrencyService
+INSERT INTO exchange_rates (currency, rate_per_usd, effective_date, source) VALUES
+    ('USD', 1.0, '2024-01-01', 'seed'),
+    ('EUR', 0.85, '2024-01-01', 'seed'),
+    ('GBP', 0.73, '2024-01-01', 'seed'),
+    ('JPY', 110.0, '2024-01-01', 'seed'),
+    ('CAD', 1.25, '2024-01-01', 'seed'),
+    ('AUD', 1.35, '2024-01-01', 'seed'),
+    ('CHF', 0.92, '2024-01-01', 'seed'),
+    ('CNY', 6.45, '2024-01-01', 'seed'),
+    ('INR', 74.0, '2024-01-01', 'seed'),
+    ('BRL', 5.2, '2024-01-01', 'seed'),
+    ('MXN', 20.0, '2024-01-01', 'seed'),
+    ('KRW', 1180.0, '2024-01-01', 'seed'),
+    ('RUB', 90.0, '2024-01-01', 'seed'),
+    ('ZAR', 18.0, '2024-01-01', 'seed'),
+    ('SEK', 8.6, '2024-01-01', 'seed'),
+    ('NOK', 8.9, '2024-01-01', 'seed'),
+    ('DKK', 6.3, '2024-01-01', 'seed'),
+    ('PLN', 3.9, '2024-01-01', 'seed'),
+    ('CZK', 21.7, '2024-01-01', 'seed'),
+    ('HUF', 360.0, '2024-01-01', 'seed'),
+    ('SGD', 1.35, '2024-01-01', 'seed'),
+    ('HKD', 7.8, '2024-01-01', 'seed'),
+    ('NZD', 1.42, '2024-01-01', 'seed'),
+    ('LKR', 320.0, '2024-01-01', 'seed');
@@ -0,0 +1,45 @@
+-- Migration script to add pre-aggregated expense rollup tables
+-- Run this script in your database to add the rollup tables and backfill them from existing expenses
+
+-- Per-trip rollup keyed by (trip, date, category, currency)
+CREATE TABLE expense_daily_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    trip_id BIGINT NOT NULL,
+    rollup_date DATE NOT NULL,
+    category VARCHAR(32) NOT NULL,
+    currency VARCHAR(8) NOT NULL,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    expense_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_expense_daily_rollup (trip_id, rollup_date, category, currency)
+);
+
+CREATE INDEX idx_expense_daily_rollup_trip_date ON expense_daily_rollups(trip_id, rollup_date);
+
+-- Per-user rollup across all trips owned by the user
+CREATE TABLE user_expense_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    rollup_date DATE NOT NULL,
+    category VARCHAR(32) NOT NULL,
+    currency VARCHAR(8) NOT NULL,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    expense_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_user_expense_rollup (user_id, rollup_date, category, currency)
+);
+
+CREATE INDEX idx_user_expense_rollup_user_date ON user_expense_rollups(user_id, rollup_date);
+
+-- Backfill from existing expenses
+INSERT INTO expense_daily_rollups (trip_id, rollup_date, category, currency, total_amount, expense_count)
+SELECT e.trip_id, e.expense_date, e.category, e.currency, SUM(e.amount), COUNT(*)
+FROM expenses e
+GROUP BY e.trip_id, e.expense_date, e.category, e.currency;
+
+INSERT INTO user_expense_rollups (user_id, rollup_date, category, currency, total_amount, expense_count)
+SELECT t.user_id, e.expense_date, e.category, e.currency, SUM(e.amount), COUNT(*)
+FROM expenses e
+JOIN trips t ON t.id = e.trip_id
+WHERE t.user_id IS NOT NULL
+GROUP BY t.user_id, e.expense_date, e.category, e.currency;
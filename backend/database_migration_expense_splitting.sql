@@ -0,0 +1,25 @@
+-- Migration script to add group expense splitting
+-- Run this script in your database to add payer/share columns and the trip data version
+
+-- Trip data version, bumped on every expense write and used as a cache key
+ALTER TABLE trips
+ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
+
+-- Who paid for an expense (NULL means the trip owner)
+ALTER TABLE expenses
+ADD COLUMN paid_by_user_id BIGINT NULL,
+ADD CONSTRAINT fk_expenses_paid_by FOREIGN KEY (paid_by_user_id) REFERENCES users(id) ON DELETE SET NULL;
+
+-- Explicit split shares (no rows means an equal split between participants)
+CREATE TABLE expense_shares (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    expense_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    share_amount DECIMAL(12,2) NOT NULL CHECK (share_amount >= 0),
+    FOREIGN KEY (expense_id) REFERENCES expenses(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_expense_share_user (expense_id, user_id)
+);
+
+CREATE INDEX idx_expense_shares_expense ON expense_shares(expense_id);
+CREATE INDEX idx_expense_shares_user ON expense_shares(user_id);
@@ -0,0 +1,14 @@
+-- Migration script to add running spending statistics for unusual spending alerts
+-- Run this script in your database to add the spending_stats table
+
+-- One row per (user, category); mean and m2 are over log(1 + amount in USD)
+CREATE TABLE spending_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    category VARCHAR(32) NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    mean_value DOUBLE NOT NULL DEFAULT 0,
+    m2_value DOUBLE NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_spending_stats (user_id, category)
+);
@@ -0,0 +1,65 @@
+package com.example.tripplanner.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Configuration
+public class AsyncConfig {
+
+    public static final String BUDGET_ALERT_EXECUTOR = "budgetAlertExecutor";
+
+    public static final String ITINERARY_PLANNER_EXECUTOR = "itineraryPlannerExecutor";
+
+    private final AtomicLong budgetAlertsDropped = new AtomicLong();
+
+    /**
+     * Single worker so alert evaluations for a trip never race each other. The
+     * queue is bounded; when it is full the evaluation is dropped, logged and
+     * counted for the admin stats, and the next write to that trip re-evaluates
+     * from the rollups anyway.
+     */
+    @Bean(name = BUDGET_ALERT_EXECUTOR)
+    public ThreadPoolTaskExecutor budgetAlertExecutor(@Value("${budget.alerts.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("budget-alert-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            long dropped = budgetAlertsDropped.incrementAndGet();
+            System.err.println("⚠️ Budget alert queue full (" + queueCapacity + "), dropping evaluation (" + dropped + " dropped so far)");
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    // Evaluations refused because the budget alert queue was full, since startup
+    public long getBudgetAlertsDropped() {
+        return budgetAlertsDropped.get();
+    }
+
+    /**
+     * One worker per core (unless configured) for the clustering restarts of
+     * ItineraryGeneratorService. Restarts stop at the request's time budget, so
+     * the queue only holds work for the few requests running at once. When it is
+     * full, submissions are refused instead of running on the request thread, and
+     * the request makes do with the workers it got.
+     */
+    @Bean(name = ITINERARY_PLANNER_EXECUTOR)
+    public ThreadPoolTaskExecutor itineraryPlannerExecutor(@Value("${itinerary.generator.parallelism:0}") int parallelism) {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 4);
+        executor.setThreadNamePrefix("itinerary-planner-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
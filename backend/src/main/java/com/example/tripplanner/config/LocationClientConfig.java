@@ -0,0 +1,52 @@
+package com.example.tripplanner.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking HTTP client shared by the location search providers, on a
+ * bounded pool of keep-alive connections. Each provider sets its own response
+ * timeout per request; the connect timeout and pool are common. Waiting for a
+ * pooled connection is bounded too, so an exhausted pool fails fast.
+ */
+@Configuration
+public class LocationClientConfig {
+
+    public static final String LOCATION_CLIENT_CONNECTOR = "locationClientConnector";
+
+    // Disposed with the context so pooled connections and the eviction task do not outlive it
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider locationConnectionProvider(
+            @Value("${locations.http.max-connections:50}") int maxConnections,
+            @Value("${locations.http.pending-acquire-max:100}") int pendingAcquireMax,
+            @Value("${locations.http.pending-acquire-timeout-ms:500}") long pendingAcquireTimeoutMs,
+            @Value("${locations.http.max-idle-ms:30000}") long maxIdleMs,
+            @Value("${locations.http.max-life-ms:300000}") long maxLifeMs) {
+        return ConnectionProvider.builder("locations")
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMax)
+            .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+            .maxIdleTime(Duration.ofMillis(maxIdleMs))
+            .maxLifeTime(Duration.ofMillis(maxLifeMs))
+            .evictInBackground(Duration.ofSeconds(30))
+            .build();
+    }
+
+    @Bean(name = LOCATION_CLIENT_CONNECTOR)
+    public ReactorClientHttpConnector locationClientConnector(
+            ConnectionProvider locationConnectionProvider,
+            @Value("${locations.http.connect-timeout-ms:2000}") int connectTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(locationConnectionProvider)
+            .keepAlive(true)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            .compress(true);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
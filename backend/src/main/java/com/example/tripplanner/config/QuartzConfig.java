@@ -0,0 +1,112 @@
+package com.example.tripplanner.config;
+
+import com.example.tripplanner.job.BudgetForecastJob;
+import com.example.tripplanner.job.BudgetSweepJob;
+import com.example.tripplanner.job.DigestJob;
+import com.example.tripplanner.job.ExchangeRateRefreshJob;
+import com.example.tripplanner.job.PlaceLocationBackfillJob;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.quartz.SchedulerFactoryBeanCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class QuartzConfig {
+
+    /**
+     * Registers the scheduled jobs: one budget sweep job and cron trigger per
+     * partition (the partition count is configurable, so the jobs are built here
+     * instead of as one bean each), the hourly budget forecast and exchange rate
+     * refreshes, the daily email digest and the nightly place city/country backfill.
+     */
+    @Bean
+    public SchedulerFactoryBeanCustomizer scheduledJobs(@Value("${budget.sweep.partitions:4}") int partitions,
+                                                        @Value("${budget.sweep.cron:0 */30 * * * ?}") String sweepCron,
+                                                        @Value("${forecast.cron:0 15 * * * ?}") String forecastCron,
+                                                        @Value("${exchange-rates.refresh-cron:0 55 * * * ?}") String rateRefreshCron,
+                                                        @Value("${digest.cron:0 0 7 * * ?}") String digestCron,
+                                                        @Value("${locations.reverse-geocoding.backfill-cron:0 30 3 * * ?}") String backfillCron) {
+        List<JobDetail> jobs = new ArrayList<>();
+        List<Trigger> triggers = new ArrayList<>();
+
+        for (int partition = 0; partition < partitions; partition++) {
+            JobDetail job = JobBuilder.newJob(BudgetSweepJob.class)
+                .withIdentity("budget-sweep-" + partition, BudgetSweepJob.GROUP)
+                .withDescription("Budget alert sweep, partition " + partition + " of " + partitions)
+                .usingJobData(BudgetSweepJob.PARTITION_KEY, partition)
+                .storeDurably()
+                .requestRecovery()
+                .build();
+            jobs.add(job);
+            triggers.add(TriggerBuilder.newTrigger()
+                .forJob(job)
+                .withIdentity("budget-sweep-" + partition, BudgetSweepJob.GROUP)
+                .withSchedule(CronScheduleBuilder.cronSchedule(sweepCron).withMisfireHandlingInstructionFireAndProceed())
+                .build());
+        }
+
+        JobDetail forecast = JobBuilder.newJob(BudgetForecastJob.class)
+            .withIdentity(BudgetForecastJob.NAME, BudgetForecastJob.GROUP)
+            .withDescription("Budget forecasts and projected-overrun alerts for active trips")
+            .storeDurably()
+            .build();
+        jobs.add(forecast);
+        // The next hourly run recomputes everything, so a missed one is not worth catching up
+        triggers.add(TriggerBuilder.newTrigger()
+            .forJob(forecast)
+            .withIdentity(BudgetForecastJob.NAME, BudgetForecastJob.GROUP)
+            .withSchedule(CronScheduleBuilder.cronSchedule(forecastCron).withMisfireHandlingInstructionDoNothing())
+            .build());
+
+        JobDetail rateRefresh = JobBuilder.newJob(ExchangeRateRefreshJob.class)
+            .withIdentity(ExchangeRateRefreshJob.NAME, ExchangeRateRefreshJob.GROUP)
+            .withDescription("Fetch exchange rates from the configured provider")
+            .storeDurably()
+            .build();
+        jobs.add(rateRefresh);
+        // After downtime, fetch once straight away rather than waiting for the next hour
+        triggers.add(TriggerBuilder.newTrigger()
+            .forJob(rateRefresh)
+            .withIdentity(ExchangeRateRefreshJob.NAME, ExchangeRateRefreshJob.GROUP)
+            .withSchedule(CronScheduleBuilder.cronSchedule(rateRefreshCron).withMisfireHandlingInstructionFireAndProceed())
+            .build());
+
+        JobDetail digest = JobBuilder.newJob(DigestJob.class)
+            .withIdentity("daily-digest", DigestJob.GROUP)
+            .withDescription("Daily email digest")
+            .storeDurably()
+            .build();
+        jobs.add(digest);
+        // A digest missed while every node was down is skipped rather than sent late
+        triggers.add(TriggerBuilder.newTrigger()
+            .forJob(digest)
+            .withIdentity("daily-digest", DigestJob.GROUP)
+            .withSchedule(CronScheduleBuilder.cronSchedule(digestCron).withMisfireHandlingInstructionDoNothing())
+            .build());
+
+        JobDetail backfill = JobBuilder.newJob(PlaceLocationBackfillJob.class)
+            .withIdentity(PlaceLocationBackfillJob.NAME, PlaceLocationBackfillJob.GROUP)
+            .withDescription("Fill place city and country from coordinates")
+            .storeDurably()
+            .build();
+        jobs.add(backfill);
+        triggers.add(TriggerBuilder.newTrigger()
+            .forJob(backfill)
+            .withIdentity(PlaceLocationBackfillJob.NAME, PlaceLocationBackfillJob.GROUP)
+            .withSchedule(CronScheduleBuilder.cronSchedule(backfillCron).withMisfireHandlingInstructionDoNothing())
+            .build());
+
+        return schedulerFactoryBean -> {
+            schedulerFactoryBean.setJobDetails(jobs.toArray(new JobDetail[0]));
+            schedulerFactoryBean.setTriggers(triggers.toArray(new Trigger[0]));
+        };
+    }
+}
@@ -42,6 +42,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/users/**").permitAll()
                 .requestMatchers("/api/locations/**").permitAll()
                 .requestMatchers("/api/blog-posts/**").permitAll()
+                // Notification streams carry a user's alerts; the client sends its ID token as a Bearer header and the controller checks the uid against the path
+                .requestMatchers("/notifications/**", "/api/notifications/**").authenticated()
                 // Protected endpoints
                 .anyRequest().authenticated()
             )
@@ -1,15 +1,28 @@
 package com.example.tripplanner.controller;
 
+import com.example.tripplanner.config.AsyncConfig;
+import com.example.tripplanner.job.PlaceLocationBackfillJob;
 import com.example.tripplanner.model.User;
 import com.example.tripplanner.model.BlogPost;
 import com.example.tripplanner.model.BlogPostStatus;
 import com.example.tripplanner.repository.UserRepository;
 import com.example.tripplanner.repository.TripRepository;
 import com.example.tripplanner.repository.BlogPostRepository;
+import com.example.tripplanner.service.DigestService;
+import com.example.tripplanner.service.EmailDeliveryService;
+import com.example.tripplanner.service.ExchangeRateRefresher;
+import com.example.tripplanner.service.GazetteerService;
+import com.example.tripplanner.service.LocationSearchService;
+import com.example.tripplanner.service.TravelTimeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
@@ -39,6 +52,34 @@ public class AdminController {
     @Autowired
     private BlogPostRepository blogPostRepository;
 
+    @Autowired
+    private DigestService digestService;
+
+    @Autowired
+    private EmailDeliveryService emailDeliveryService;
+
+    @Autowired
+    private ExchangeRateRefresher exchangeRateRefresher;
+
+    @Autowired
+    private LocationSearchService locationSearchService;
+
+    @Autowired
+    private GazetteerService gazetteerService;
+
+    @Autowired
+    private TravelTimeService travelTimeService;
+
+    @Autowired
+    private Scheduler scheduler;
+
+    @Autowired
+    private AsyncConfig asyncConfig;
+
+    @Autowired
+    @Qualifier(AsyncConfig.BUDGET_ALERT_EXECUTOR)
+    private ThreadPoolTaskExecutor budgetAlertExecutor;
+
 
     @GetMapping("/stats")
     @Operation(summary = "Get admin dashboard statistics")
@@ -62,6 +103,11 @@ public class AdminController {
         LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
         stats.put("recentRegistrations", userRepository.countByCreatedAtAfter(weekAgo));
         
+        // Budget alert evaluations waiting, and dropped because the queue was full
+        stats.put("budgetAlertQueue", Map.of(
+            "queued", (long) budgetAlertExecutor.getQueueSize(),
+            "dropped", asyncConfig.getBudgetAlertsDropped()));
+        
         return ResponseEntity.ok(stats);
     }
 
@@ -148,6 +194,61 @@ public class AdminController {
         return ResponseEntity.ok(logs);
     }
 
+    @PostMapping("/digests/send")
+    @Operation(summary = "Queue the daily email digest now")
+    public ResponseEntity<Map<String, Object>> sendDigests(Authentication authentication) {
+        int queued = digestService.sendDailyDigests();
+        return ResponseEntity.ok(Map.of("queued", queued, "delivery", emailDeliveryService.getStats()));
+    }
+
+    @GetMapping("/email/stats")
+    @Operation(summary = "Get email delivery queue statistics")
+    public ResponseEntity<Map<String, Long>> getEmailStats(Authentication authentication) {
+        return ResponseEntity.ok(emailDeliveryService.getStats());
+    }
+
+    @GetMapping("/locations/cache/stats")
+    @Operation(summary = "Get location search cache statistics")
+    public ResponseEntity<Map<String, Long>> getLocationCacheStats(Authentication authentication) {
+        return ResponseEntity.ok(locationSearchService.getCacheStats());
+    }
+
+    @GetMapping("/locations/gazetteer/stats")
+    @Operation(summary = "Get offline gazetteer size and hit statistics")
+    public ResponseEntity<Map<String, Long>> getGazetteerStats(Authentication authentication) {
+        return ResponseEntity.ok(gazetteerService.getStats());
+    }
+
+    @GetMapping("/routing/stats")
+    @Operation(summary = "Get road network size and travel time query statistics")
+    public ResponseEntity<Map<String, Object>> getRoutingStats(Authentication authentication) {
+        return ResponseEntity.ok(travelTimeService.getStats());
+    }
+
+    @PostMapping("/places/backfill-locations")
+    @Operation(summary = "Run the place city/country backfill job now")
+    public ResponseEntity<Map<String, Object>> backfillPlaceLocations(Authentication authentication) {
+        try {
+            // Runs on a scheduler thread; progress and totals go to the log
+            scheduler.triggerJob(JobKey.jobKey(PlaceLocationBackfillJob.NAME, PlaceLocationBackfillJob.GROUP));
+            return ResponseEntity.accepted().body(Map.of("triggered", true));
+        } catch (SchedulerException e) {
+            System.err.println("❌ Could not trigger place location backfill: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("triggered", false, "error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/locations/providers")
+    @Operation(summary = "Get location provider circuit, bulkhead, latency and error statistics")
+    public ResponseEntity<Map<String, Map<String, Object>>> getLocationProviderStats(Authentication authentication) {
+        return ResponseEntity.ok(locationSearchService.getProviderStats());
+    }
+
+    @GetMapping("/exchange-rates/status")
+    @Operation(summary = "Get exchange rate refresh status and staleness")
+    public ResponseEntity<Map<String, Object>> getExchangeRateStatus(Authentication authentication) {
+        return ResponseEntity.ok(exchangeRateRefresher.getStatus());
+    }
 
     @GetMapping("/export/users")
     @Operation(summary = "Export user data")
@@ -1,5 +1,7 @@
 package com.example.tripplanner.controller;
 
+import com.example.tripplanner.dto.CurrencyConversionItemDTO;
+import com.example.tripplanner.dto.CurrencyConversionResultDTO;
 import com.example.tripplanner.dto.CurrencyResponse;
 import com.example.tripplanner.dto.CurrencyUpdateRequest;
 import com.example.tripplanner.service.CurrencyService;
@@ -10,9 +12,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,6 +29,9 @@ public class CurrencyController {
     @Autowired
     private CurrencyService currencyService;
 
+    @Value("${currency.batch.max-items:1000}")
+    private int maxBatchItems;
+
     @PutMapping("/user/{firebaseUid}")
     @Operation(summary = "Update user's preferred currency", 
                description = "Updates the preferred currency for a specific user")
@@ -100,7 +109,9 @@ public class CurrencyController {
     public ResponseEntity<Map<String, Object>> convertCurrency(
             @RequestParam double amount,
             @RequestParam String fromCurrency,
-            @RequestParam String toCurrency) {
+            @RequestParam String toCurrency,
+            @Parameter(description = "Convert at the rates in force on this date (yyyy-MM-dd); defaults to today")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         
         System.out.println("=== CURRENCY CONVERSION REQUEST ===");
         System.out.println("Amount: " + amount);
@@ -108,22 +119,16 @@ public class CurrencyController {
         System.out.println("To: " + toCurrency);
         
         try {
-            // Validate currencies
-            if (!currencyService.isValidCurrency(fromCurrency)) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "error", "Invalid source currency: " + fromCurrency
-                ));
-            }
-            
-            if (!currencyService.isValidCurrency(toCurrency)) {
+            // Same rule as the batch endpoint
+            String error = currencyService.validateConversion(fromCurrency, toCurrency, date);
+            if (error != null) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
-                    "error", "Invalid target currency: " + toCurrency
+                    "error", error
                 ));
             }
             
-            double convertedAmount = currencyService.convertAmount(amount, fromCurrency, toCurrency);
+            double convertedAmount = currencyService.convertAmount(amount, fromCurrency, toCurrency, date);
             
             System.out.println("✅ Conversion result: " + convertedAmount);
             
@@ -143,4 +148,38 @@ public class CurrencyController {
             ));
         }
     }
+
+    @PostMapping("/convert/batch")
+    @Operation(summary = "Convert many amounts between currencies",
+               description = "Converts a list of (amount, fromCurrency, toCurrency[, date]) items in one pass. " +
+                             "Results are returned in input order with errors reported per item")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; check each result for errors"),
+        @ApiResponse(responseCode = "400", description = "Missing or oversized batch")
+    })
+    public ResponseEntity<Map<String, Object>> convertCurrencyBatch(
+            @RequestBody List<CurrencyConversionItemDTO> items) {
+
+        if (items == null || items.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", "At least one item is required"
+            ));
+        }
+        if (items.size() > maxBatchItems) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "error", "Too many items: " + items.size() + " (maximum " + maxBatchItems + ")"
+            ));
+        }
+
+        List<CurrencyConversionResultDTO> results = currencyService.convertBatch(items);
+        long errorCount = results.stream().filter(result -> !result.isSuccess()).count();
+
+        return ResponseEntity.ok(Map.of(
+            "success", errorCount == 0,
+            "results", results,
+            "errorCount", errorCount
+        ));
+    }
 }
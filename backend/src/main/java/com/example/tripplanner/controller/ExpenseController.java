@@ -1,6 +1,16 @@
 package com.example.tripplanner.controller;
 
+import com.example.tripplanner.dto.DuplicateGroupDTO;
 import com.example.tripplanner.dto.ExpenseDTO;
+import com.example.tripplanner.dto.ExpenseMergeRequestDTO;
+import com.example.tripplanner.dto.ExpenseTotalDTO;
+import com.example.tripplanner.dto.ReimbursementReportDTO;
+import com.example.tripplanner.dto.ReimbursementRequestDTO;
+import com.example.tripplanner.dto.SettlementDTO;
+import com.example.tripplanner.service.ExpenseDeduplicationService;
+import com.example.tripplanner.service.ExpenseRollupService;
+import com.example.tripplanner.service.ReimbursementService;
+import com.example.tripplanner.service.SettleUpService;
 import com.example.tripplanner.service.TripService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,6 +20,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -21,6 +33,18 @@ public class ExpenseController {
     @Autowired
     private TripService tripService;
 
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private SettleUpService settleUpService;
+
+    @Autowired
+    private ReimbursementService reimbursementService;
+
+    @Autowired
+    private ExpenseDeduplicationService expenseDeduplicationService;
+
     @GetMapping("/trip/{tripId}")
     @Operation(summary = "Get expenses by trip ID", description = "Retrieve all expenses for a specific trip")
     public ResponseEntity<List<ExpenseDTO>> getExpensesByTripId(
@@ -80,12 +104,71 @@ public class ExpenseController {
     }
 
     @GetMapping("/trip/{tripId}/total")
-    @Operation(summary = "Get total expenses for trip", description = "Get the total amount of expenses for a trip")
+    @Operation(summary = "Get total expenses for trip", description = "Get the total amount of expenses for a trip, in the trip currency at each expense date's exchange rate")
     public ResponseEntity<Double> getTotalExpensesByTripId(
             @Parameter(description = "ID of the trip")
             @PathVariable Long tripId) {
-        // TODO: Implement total calculation
-        return ResponseEntity.ok(0.0);
+        return ResponseEntity.ok(expenseRollupService.getTotalAmount(tripId).doubleValue());
+    }
+
+    @GetMapping("/trip/{tripId}/totals/daily")
+    @Operation(summary = "Get daily expense totals for trip", description = "Get per-day expense totals for a trip from the rollup table")
+    public ResponseEntity<List<ExpenseTotalDTO>> getDailyTotalsByTripId(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long tripId) {
+        return ResponseEntity.ok(expenseRollupService.getDailyTotals(tripId));
+    }
+
+    @GetMapping("/trip/{tripId}/totals/monthly")
+    @Operation(summary = "Get monthly expense totals for trip", description = "Get per-month expense totals for a trip from the rollup table")
+    public ResponseEntity<List<ExpenseTotalDTO>> getMonthlyTotalsByTripId(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long tripId) {
+        return ResponseEntity.ok(expenseRollupService.getMonthlyTotals(tripId));
+    }
+
+    @GetMapping("/trip/{tripId}/totals/this-week")
+    @Operation(summary = "Get this week's expense totals for trip", description = "Get per-category totals for the current week (Monday to Sunday) from the rollup table")
+    public ResponseEntity<List<ExpenseTotalDTO>> getThisWeekTotalsByTripId(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long tripId) {
+        return ResponseEntity.ok(expenseRollupService.getWeekCategoryTotals(tripId, LocalDate.now()));
+    }
+
+    @GetMapping("/trip/{tripId}/totals/this-month")
+    @Operation(summary = "Get this month's expense totals for trip", description = "Get per-category totals for the current month from the rollup table")
+    public ResponseEntity<List<ExpenseTotalDTO>> getThisMonthTotalsByTripId(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long tripId) {
+        return ResponseEntity.ok(expenseRollupService.getMonthCategoryTotals(tripId, YearMonth.now()));
+    }
+
+    @GetMapping("/trip/{tripId}/totals/category")
+    @Operation(summary = "Get category expense totals for trip", description = "Get per-category expense totals for a trip from the rollup table")
+    public ResponseEntity<List<ExpenseTotalDTO>> getCategoryTotalsByTripId(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long tripId) {
+        return ResponseEntity.ok(expenseRollupService.getCategoryTotals(tripId));
+    }
+
+    @GetMapping("/user/{firebaseUid}/totals/this-week")
+    @Operation(summary = "Get this week's expense totals for user", description = "Get per-category totals for the current week (Monday to Sunday) across all of a user's trips, in the reporting currency")
+    public ResponseEntity<List<ExpenseTotalDTO>> getUserThisWeekTotals(
+            @Parameter(description = "Firebase UID of the user")
+            @PathVariable String firebaseUid) {
+        return expenseRollupService.getUserWeekCategoryTotals(firebaseUid, LocalDate.now())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/user/{firebaseUid}/totals/this-month")
+    @Operation(summary = "Get this month's expense totals for user", description = "Get per-category totals for the current month across all of a user's trips, in the reporting currency")
+    public ResponseEntity<List<ExpenseTotalDTO>> getUserThisMonthTotals(
+            @Parameter(description = "Firebase UID of the user")
+            @PathVariable String firebaseUid) {
+        return expenseRollupService.getUserMonthCategoryTotals(firebaseUid, YearMonth.now())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/trip/{tripId}/category/{category}")
@@ -111,4 +194,42 @@ public class ExpenseController {
         List<ExpenseDTO> expenses = tripService.getExpensesByTripId(tripId);
         return ResponseEntity.ok(expenses);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/trip/{tripId}/settle-up")
+    @Operation(summary = "Get settle-up for trip", description = "Compute net balances and the minimal set of transfers between trip participants")
+    public ResponseEntity<SettlementDTO> getSettlementByTripId(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long tripId) {
+        return ResponseEntity.ok(settleUpService.getSettlement(tripId));
+    }
+
+    @PostMapping("/trip/{tripId}/reimbursements")
+    @Operation(summary = "Reimburse expenses in bulk", description = "Mark a batch of reimbursable expenses (or all pending ones) as reimbursed and return a report")
+    public ResponseEntity<ReimbursementReportDTO> reimburseExpenses(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long tripId,
+            @Parameter(description = "Expense IDs and reimbursement reference")
+            @Valid @RequestBody ReimbursementRequestDTO request) {
+        return ResponseEntity.ok(reimbursementService.reimburse(tripId, request));
+    }
+
+    @GetMapping("/trip/{tripId}/duplicates")
+    @Operation(summary = "Get suspected duplicate expenses", description = "Find groups of near-duplicate expenses (same amount and currency, close dates, similar vendor/description)")
+    public ResponseEntity<List<DuplicateGroupDTO>> getSuspectedDuplicates(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long tripId) {
+        return ResponseEntity.ok(expenseDeduplicationService.findSuspectedDuplicates(tripId));
+    }
+
+    @PostMapping("/trip/{tripId}/duplicates/merge")
+    @Operation(summary = "Merge duplicate expenses", description = "Keep one expense, fill in its missing details from the duplicates and delete the duplicates. Duplicates with a different amount or currency are rejected unless confirmAmountMismatch is set")
+    public ResponseEntity<ExpenseDTO> mergeDuplicates(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long tripId,
+            @Parameter(description = "Expense to keep and duplicates to merge into it")
+            @Valid @RequestBody ExpenseMergeRequestDTO request) {
+        return ResponseEntity.ok(expenseDeduplicationService.mergeDuplicates(
+            tripId, request.getKeepExpenseId(), request.getDuplicateExpenseIds(),
+            Boolean.TRUE.equals(request.getConfirmAmountMismatch())));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.tripplanner.controller;
 
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
 import com.example.tripplanner.service.LocationSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/locations")
@@ -19,8 +21,8 @@ public class LocationSearchController {
     private LocationSearchService locationSearchService;
 
     @GetMapping("/search")
-    @Operation(summary = "Search locations", description = "Search for locations using Booking.com API")
-    public ResponseEntity<Map<String, Object>> searchLocations(
+    @Operation(summary = "Search locations", description = "Search for locations using Booking.com API, hedged with Nominatim")
+    public CompletableFuture<ResponseEntity<LocationSearchResponseDTO>> searchLocations(
             @Parameter(description = "Search query") 
             @RequestParam String query,
             @Parameter(description = "Language code (default: en)") 
@@ -28,50 +30,34 @@ public class LocationSearchController {
             @Parameter(description = "Maximum number of results (default: 3)") 
             @RequestParam(defaultValue = "3") int limit) {
         
-        System.out.println("🔍 LocationSearchController: Received search request");
-        System.out.println("   Query: " + query);
-        System.out.println("   Language: " + languageCode);
-        System.out.println("   Limit: " + limit);
-        
-        try {
-            Map<String, Object> results = locationSearchService.searchLocations(query, languageCode, limit);
-            System.out.println("✅ LocationSearchController: Successfully retrieved results");
-            return ResponseEntity.ok(results);
-        } catch (Exception e) {
-            System.err.println("❌ LocationSearchController: Error occurred - " + e.getMessage());
-            e.printStackTrace();
-            
-            return ResponseEntity.badRequest().body(Map.of(
-                "success", false,
-                "error", e.getMessage(),
-                "message", "Failed to search locations"
-            ));
-        }
+        // Served asynchronously; the request thread is released while providers are called
+        return locationSearchService.searchLocations(query, languageCode, limit)
+            .thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/popular")
+    @Operation(summary = "Popular destinations", description = "Suggestions for the most searched destinations, in the search response shape")
+    public ResponseEntity<LocationSearchResponseDTO> getPopularDestinations(
+            @Parameter(description = "Maximum number of suggestions (default: 10)") 
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(locationSearchService.getPopularDestinations(limit));
     }
 
     @GetMapping("/test")
     @Operation(summary = "Test Booking.com API", description = "Test if Booking.com API is accessible")
-    public ResponseEntity<Map<String, Object>> testAPI() {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> testAPI() {
         System.out.println("🧪 Testing Booking.com API connection...");
         
-        try {
-            // Test with a simple query
-            Map<String, Object> results = locationSearchService.searchLocations("Paris", "en", 1);
-            
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Booking.com API is working",
-                "testResults", results
-            ));
-        } catch (Exception e) {
-            System.err.println("❌ Booking.com API test failed: " + e.getMessage());
-            e.printStackTrace();
-            
-            return ResponseEntity.badRequest().body(Map.of(
-                "success", false,
-                "error", e.getMessage(),
-                "message", "Booking.com API test failed"
-            ));
-        }
+        // Test with a simple query
+        return locationSearchService.searchLocations("Paris", "en", 1)
+            .thenApply(results -> Boolean.TRUE.equals(results.success())
+                ? ResponseEntity.ok(Map.<String, Object>of(
+                    "success", true,
+                    "message", "Booking.com API is working",
+                    "testResults", results))
+                : ResponseEntity.badRequest().body(Map.<String, Object>of(
+                    "success", false,
+                    "error", results.error(),
+                    "message", "Booking.com API test failed")));
     }
 }
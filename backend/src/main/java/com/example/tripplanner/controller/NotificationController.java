@@ -0,0 +1,42 @@
+package com.example.tripplanner.controller;
+
+import com.example.tripplanner.dto.NotificationDTO;
+import com.example.tripplanner.service.NotificationHub;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/notifications")
+@Tag(name = "Notifications", description = "Server-sent events for budget alerts and trip changes")
+@CrossOrigin(origins = "*")
+public class NotificationController {
+
+    @Autowired
+    private NotificationHub notificationHub;
+
+    @GetMapping(value = "/user/{firebaseUid}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to notifications",
+               description = "Server-sent event stream of budget alerts (event \"budget-alert\") and changes to trips the user owns or has joined (event \"trip-changed\"). A comment line is sent as a heartbeat.")
+    public ResponseEntity<Flux<ServerSentEvent<NotificationDTO>>> stream(
+            @Parameter(description = "Firebase UID of the user")
+            @PathVariable String firebaseUid,
+            Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof String principal)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        // Users can only listen to their own notifications
+        if (!principal.equals(firebaseUid)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(notificationHub.subscribe(firebaseUid));
+    }
+}
@@ -2,6 +2,7 @@ package com.example.tripplanner.controller;
 
 import com.example.tripplanner.model.Place;
 import com.example.tripplanner.repository.PlaceRepository;
+import com.example.tripplanner.service.ReverseGeocodingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -20,6 +22,9 @@ public class PlaceController {
     @Autowired
     private PlaceRepository placeRepository;
 
+    @Autowired
+    private ReverseGeocodingService reverseGeocodingService;
+
     @GetMapping
     @Operation(summary = "Get all places", description = "Retrieve a list of all places")
     public ResponseEntity<List<Place>> getAllPlaces() {
@@ -42,6 +47,7 @@ public class PlaceController {
     public ResponseEntity<Place> createPlace(
             @Parameter(description = "Place object to create") 
             @RequestBody Place place) {
+        reverseGeocodingService.fill(place, false);
         Place savedPlace = placeRepository.save(place);
         return ResponseEntity.ok(savedPlace);
     }
@@ -56,6 +62,9 @@ public class PlaceController {
         Optional<Place> existingPlace = placeRepository.findById(id);
         if (existingPlace.isPresent()) {
             Place place = existingPlace.get();
+            // City and country follow the coordinates when the place moves
+            boolean moved = !Objects.equals(place.getLatitude(), placeDetails.getLatitude()) ||
+                !Objects.equals(place.getLongitude(), placeDetails.getLongitude());
             place.setName(placeDetails.getName());
             place.setLocation(placeDetails.getLocation());
             place.setDescription(placeDetails.getDescription());
@@ -66,6 +75,7 @@ public class PlaceController {
             place.setLatitude(placeDetails.getLatitude());
             place.setLongitude(placeDetails.getLongitude());
             place.setPhotos(placeDetails.getPhotos());
+            reverseGeocodingService.fill(place, moved);
             
             Place updatedPlace = placeRepository.save(place);
             return ResponseEntity.ok(updatedPlace);
@@ -1,5 +1,6 @@
 package com.example.tripplanner.controller;
 
+import com.example.tripplanner.dto.BudgetForecastDTO;
 import com.example.tripplanner.dto.TripDTO;
 import com.example.tripplanner.dto.PlaceDTO;
 import com.example.tripplanner.dto.ExpenseDTO;
@@ -7,6 +8,11 @@ import com.example.tripplanner.dto.ActivityDTO;
 import com.example.tripplanner.dto.ItineraryDTO;
 import com.example.tripplanner.dto.TripPlanDTO;
 import com.example.tripplanner.dto.PagedResponseDTO;
+import com.example.tripplanner.dto.PlaceSuggestionDTO;
+import com.example.tripplanner.model.Place;
+import com.example.tripplanner.service.BudgetForecastService;
+import com.example.tripplanner.service.ItineraryGeneratorService;
+import com.example.tripplanner.service.PoiSuggestionService;
 import com.example.tripplanner.service.TripService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,6 +35,15 @@ public class TripController {
     @Autowired
     private TripService tripService;
 
+    @Autowired
+    private BudgetForecastService budgetForecastService;
+
+    @Autowired
+    private PoiSuggestionService poiSuggestionService;
+
+    @Autowired
+    private ItineraryGeneratorService itineraryGeneratorService;
+
     // Trip CRUD Operations
     @GetMapping
     @Operation(summary = "Get all trips", description = "Retrieve a list of all trips")
@@ -134,6 +149,21 @@ public class TripController {
         }
     }
 
+    @GetMapping("/{id}/places/suggestions")
+    @Operation(summary = "Suggest places near a trip", description = "Nearby attractions, restaurants, hotels and more from the local POI index, excluding places already in the trip")
+    public ResponseEntity<List<PlaceSuggestionDTO>> suggestPlaces(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long id,
+            @Parameter(description = "Categories to include (default: all)")
+            @RequestParam(required = false) List<Place.PlaceCategory> category,
+            @Parameter(description = "Search radius around each place in km (default: 2)")
+            @RequestParam(defaultValue = "2") double radiusKm,
+            @Parameter(description = "Maximum number of suggestions (default: 10)")
+            @RequestParam(defaultValue = "10") int limit) {
+        List<PlaceSuggestionDTO> suggestions = poiSuggestionService.suggest(id, category, radiusKm, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
     @DeleteMapping("/{id}/places/{placeId}")
     @Operation(summary = "Remove place from trip", description = "Remove a place from a specific trip")
     public ResponseEntity<Void> removePlaceFromTrip(
@@ -155,6 +185,15 @@ public class TripController {
         return ResponseEntity.ok(expenses);
     }
 
+    @GetMapping("/{id}/forecast")
+    @Operation(summary = "Get budget forecast for a trip", description = "Projected end-of-trip spend based on the smoothed daily spending rate")
+    public ResponseEntity<BudgetForecastDTO> getBudgetForecast(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long id) {
+        BudgetForecastDTO forecast = budgetForecastService.getForecast(id);
+        return ResponseEntity.ok(forecast);
+    }
+
     // Trip Activities Operations
     @GetMapping("/{id}/activities")
     @Operation(summary = "Get activities for a trip", description = "Retrieve all activities associated with a trip")
@@ -175,6 +214,26 @@ public class TripController {
         return ResponseEntity.ok(itineraries);
     }
 
+    @PostMapping("/{id}/itinerary/generate")
+    @Operation(summary = "Generate itinerary from places", description = "Group the trip's unscheduled places into days by location, balanced by visit duration, and add them as activities")
+    public ResponseEntity<TripPlanDTO> generateItinerary(
+            @Parameter(description = "ID of the trip")
+            @PathVariable Long id,
+            @Parameter(description = "Number of days (default: trip length)")
+            @RequestParam(required = false) Integer days,
+            @Parameter(description = "Remove planned place activities first and schedule every place again")
+            @RequestParam(defaultValue = "false") boolean replace) {
+        try {
+            TripPlanDTO plan = itineraryGeneratorService.generate(id, days, replace);
+            return ResponseEntity.ok(plan);
+        } catch (Exception e) {
+            System.err.println("=== ERROR GENERATING ITINERARY ===");
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
     // Additional endpoints matching frontend expectations
     @GetMapping("/search")
     @Operation(summary = "Search trips", description = "Search trips by query")
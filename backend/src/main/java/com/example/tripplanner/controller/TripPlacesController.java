@@ -4,6 +4,7 @@ import com.example.tripplanner.model.Place;
 import com.example.tripplanner.model.Trip;
 import com.example.tripplanner.repository.PlaceRepository;
 import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.service.ReverseGeocodingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +13,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -24,6 +26,9 @@ public class TripPlacesController {
     
     @Autowired
     private TripRepository tripRepository;
+    
+    @Autowired
+    private ReverseGeocodingService reverseGeocodingService;
 
     // REMOVED: This endpoint conflicts with TripController.getPlacesByTripId
     // The new TripController handles place retrieval with PlaceDTO and proper service layer
@@ -69,6 +74,9 @@ public class TripPlacesController {
         
         // Update the place details
         Place place = existingPlace.get();
+        // City and country follow the coordinates when the place moves
+        boolean moved = !Objects.equals(place.getLatitude(), updatedPlace.getLatitude()) ||
+            !Objects.equals(place.getLongitude(), updatedPlace.getLongitude());
         place.setName(updatedPlace.getName());
         place.setLocation(updatedPlace.getLocation());
         place.setDescription(updatedPlace.getDescription());
@@ -79,6 +87,7 @@ public class TripPlacesController {
         place.setLongitude(updatedPlace.getLongitude());
         place.setCost(updatedPlace.getCost());
         place.setDuration(updatedPlace.getDuration());
+        reverseGeocodingService.fill(place, moved);
         
         Place savedPlace = placeRepository.save(place);
         System.out.println("✅ Place " + placeId + " updated in trip " + tripId);
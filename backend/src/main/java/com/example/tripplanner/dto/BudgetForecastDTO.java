@@ -0,0 +1,44 @@
+package com.example.tripplanner.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetForecastDTO {
+
+    private Long tripId;
+
+    // All amounts are in the trip currency
+    private String currency;
+
+    private BigDecimal budget;
+
+    private BigDecimal spentToDate;
+
+    // Exponentially smoothed spend per day over the days elapsed so far
+    private BigDecimal dailyRate;
+
+    private BigDecimal projectedTotal;
+
+    // projectedTotal - budget; negative means projected to finish under budget
+    private BigDecimal projectedOverrun;
+
+    private boolean projectedOverBudget;
+
+    private long daysElapsed;
+
+    private long daysRemaining;
+
+    private LocalDate forecastDate;
+
+    // Trip data version the forecast was computed from
+    @JsonIgnore
+    private Long dataVersion;
+}
@@ -0,0 +1,24 @@
+package com.example.tripplanner.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * One item of a batch conversion. Fields are validated per item by
+ * CurrencyService.convertBatch, so one bad item does not fail the batch; the
+ * optional date is an ISO yyyy-MM-dd string for the same reason.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyConversionItemDTO {
+
+    private Double amount;
+
+    private String fromCurrency;
+
+    private String toCurrency;
+
+    private String date;
+}
@@ -0,0 +1,42 @@
+package com.example.tripplanner.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyConversionResultDTO {
+
+    // Position of the item in the request
+    private int index;
+
+    private boolean success;
+
+    private Double originalAmount;
+
+    private String originalCurrency;
+
+    private Double convertedAmount;
+
+    private String targetCurrency;
+
+    private Double rate;
+
+    // Effective date of the rates used
+    private LocalDate rateDate;
+
+    private String error;
+
+    public static CurrencyConversionResultDTO error(int index, CurrencyConversionItemDTO item, String error) {
+        return new CurrencyConversionResultDTO(index, false,
+            item != null ? item.getAmount() : null,
+            item != null ? item.getFromCurrency() : null,
+            null,
+            item != null ? item.getToCurrency() : null,
+            null, null, error);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.tripplanner.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateGroupDTO {
+    
+    // Expenses suspected to be the same real-world expense, oldest first
+    private List<ExpenseDTO> expenses;
+    
+    // Lowest pairwise similarity that linked the group, in [0, 1]
+    private double similarity;
+}
@@ -1,12 +1,14 @@
 package com.example.tripplanner.dto;
 
 import com.example.tripplanner.model.Expense;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -66,7 +68,27 @@ public class ExpenseDTO {
     private Long activityId;
     private Long placeId;
     
+    // Group splitting (payer defaults to the trip owner; no shares means an equal split)
+    private Long paidByUserId;
+    
+    @Valid
+    private List<ShareDTO> shares;
+    
     // Timestamps
     private java.time.LocalDateTime createdAt;
     private java.time.LocalDateTime updatedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShareDTO {
+        
+        @NotNull(message = "Share user is required")
+        private Long userId;
+        
+        @NotNull(message = "Share amount is required")
+        @DecimalMin(value = "0.0", message = "Share amount must be non-negative")
+        @Digits(integer = 10, fraction = 2, message = "Share amount must have at most 10 digits and 2 decimal places")
+        private BigDecimal amount;
+    }
 }
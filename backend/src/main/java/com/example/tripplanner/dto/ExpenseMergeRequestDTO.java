@@ -0,0 +1,23 @@
+package com.example.tripplanner.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseMergeRequestDTO {
+    
+    @NotNull(message = "Expense to keep is required")
+    private Long keepExpenseId;
+    
+    @NotEmpty(message = "At least one duplicate expense is required")
+    private List<Long> duplicateExpenseIds;
+    
+    // Must be true to merge expenses whose amount or currency differ from the kept one
+    private Boolean confirmAmountMismatch = false;
+}
@@ -0,0 +1,26 @@
+package com.example.tripplanner.dto;
+
+import com.example.tripplanner.model.Expense;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseTotalDTO {
+
+    // "yyyy-MM-dd" for daily totals, "yyyy-MM" for monthly totals, null for category totals
+    private String period;
+
+    private Expense.ExpenseCategory category;
+
+    private BigDecimal totalAmount;
+
+    private long expenseCount;
+
+    // Currency of totalAmount: the trip currency for trip totals, the reporting currency for user totals
+    private String currency;
+}
@@ -0,0 +1,68 @@
+package com.example.tripplanner.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Destination autocomplete response, in the Booking.com shape the frontend reads
+ * (data.data.autoCompleteSuggestions.results). Also used to parse Booking.com
+ * responses; fields the frontend does not use are ignored.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LocationSearchResponseDTO(Boolean success, Integer code, String message, String error, Envelope data) {
+
+    // Image for results from sources that have none of their own
+    public static final String PLACEHOLDER_IMAGE = "https://images.unsplash.com/photo-1480714378408-67cf0d13bc02?w=400&h=300&fit=crop";
+
+    public static LocationSearchResponseDTO of(List<Result> results) {
+        return new LocationSearchResponseDTO(true, 200, null, null,
+            new Envelope(new Payload(new Suggestions(results))));
+    }
+
+    public static LocationSearchResponseDTO error(String error, String message) {
+        return new LocationSearchResponseDTO(false, null, message, error, null);
+    }
+
+    // Null when the response has no result list at all
+    @JsonIgnore
+    public List<Result> getResults() {
+        if (data == null || data.data() == null || data.data().autoCompleteSuggestions() == null) {
+            return null;
+        }
+        return data.data().autoCompleteSuggestions().results();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Envelope(Payload data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Payload(Suggestions autoCompleteSuggestions) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Suggestions(List<Result> results) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Result(Destination destination, DisplayInfo displayInfo) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Destination(String destId, String destType, String countryCode,
+                              Double latitude, Double longitude, Integer nbHotels) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record DisplayInfo(String title, String subTitle, List<LabelComponent> labelComponents,
+                              String absoluteImageUrl) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record LabelComponent(String type, String name) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.tripplanner.dto;
+
+import com.example.tripplanner.model.BudgetAlert;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDTO {
+
+    // "budget-alert" or "trip-changed"; also used as the SSE event name
+    private String type;
+
+    private Long tripId;
+
+    // Trip changes: what changed (UPDATED, PLAN_SAVED, ...)
+    private String change;
+
+    // Budget alerts
+    private Long alertId;
+    private BudgetAlert.AlertType alertType;
+    private BudgetAlert.AlertStatus alertStatus;
+    private BigDecimal currentAmount;
+    private BigDecimal budgetAmount;
+    private String message;
+
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,33 @@
+package com.example.tripplanner.dto;
+
+import com.example.tripplanner.model.Place;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaceSuggestionDTO {
+
+    // Id in the POI extract, e.g. "node/123" for an OSM node
+    private String sourceId;
+
+    private String name;
+
+    private Place.PlaceCategory category;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    // Distance to the nearest place already in the trip
+    private Double distanceKm;
+
+    private Long nearPlaceId;
+
+    private String nearPlaceName;
+
+    // Higher is better: the POI's importance plus a bonus for being close
+    private Double score;
+}
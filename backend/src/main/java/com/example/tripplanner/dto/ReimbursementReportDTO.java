@@ -0,0 +1,37 @@
+package com.example.tripplanner.dto;
+
+import com.example.tripplanner.model.Expense;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReimbursementReportDTO {
+    
+    private Long tripId;
+    
+    private String reference;
+    
+    // Rows changed by this batch
+    private int updatedCount;
+    
+    // Everything reimbursed under this reference, per currency
+    private List<CurrencyTotalDTO> reimbursed;
+    
+    // What is still waiting for reimbursement, per currency
+    private List<CurrencyTotalDTO> stillPending;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CurrencyTotalDTO {
+        private Expense.Currency currency;
+        private long expenseCount;
+        private BigDecimal totalAmount;
+    }
+}
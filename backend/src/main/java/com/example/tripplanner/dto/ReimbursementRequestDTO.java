@@ -0,0 +1,21 @@
+package com.example.tripplanner.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReimbursementRequestDTO {
+    
+    // Expenses to mark as reimbursed; null or empty means every pending reimbursable expense on the trip
+    private List<Long> expenseIds;
+    
+    // Generated when not provided
+    @Size(max = 100, message = "Reimbursement reference must not exceed 100 characters")
+    private String reference;
+}
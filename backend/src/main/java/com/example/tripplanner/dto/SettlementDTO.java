@@ -0,0 +1,47 @@
+package com.example.tripplanner.dto;
+
+import com.example.tripplanner.model.Expense;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementDTO {
+    
+    private Long tripId;
+    
+    // Trip data version this settlement was computed for
+    private Long dataVersion;
+    
+    private List<BalanceDTO> balances;
+    
+    private List<TransferDTO> transfers;
+    
+    // Positive balance: the participant is owed money; negative: the participant owes money
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BalanceDTO {
+        private Long userId;
+        private String displayName;
+        private Expense.Currency currency;
+        private BigDecimal balance;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TransferDTO {
+        private Long fromUserId;
+        private String fromDisplayName;
+        private Long toUserId;
+        private String toDisplayName;
+        private Expense.Currency currency;
+        private BigDecimal amount;
+    }
+}
@@ -62,6 +62,9 @@ public class TripDTO {
     // User association
     private String firebaseUid;
     
+    // Projected end-of-trip spend; null until a forecast has been computed for the current data
+    private BudgetForecastDTO budgetForecast;
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -66,5 +66,29 @@ public class TripPlanDTO {
         
         @Valid
         private List<ActivityDTO> activities;
+        
+        // Travel between consecutive activities; filled in when the plan is read
+        private List<LegDTO> legs;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LegDTO {
+        
+        private Long fromActivityId;
+        
+        private Long toActivityId;
+        
+        private Long fromPlaceId;
+        
+        private Long toPlaceId;
+        
+        private Double distanceKm;
+        
+        private Integer travelMinutes;
+        
+        // ROAD when routed over the road network, ESTIMATE for a straight-line estimate
+        private String source;
     }
 }
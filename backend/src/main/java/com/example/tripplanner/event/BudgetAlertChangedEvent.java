@@ -0,0 +1,25 @@
+package com.example.tripplanner.event;
+
+import com.example.tripplanner.model.BudgetAlert;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by the budget alert engine when an alert is raised, its amounts
+ * change, or it is resolved.
+ */
+public record BudgetAlertChangedEvent(
+    Long tripId,
+    Long alertId,
+    BudgetAlert.AlertType alertType,
+    BudgetAlert.AlertStatus status,
+    BigDecimal currentAmount,
+    BigDecimal budgetAmount,
+    String message
+) {
+
+    public static BudgetAlertChangedEvent of(BudgetAlert alert) {
+        return new BudgetAlertChangedEvent(alert.getTrip().getId(), alert.getId(), alert.getAlertType(),
+            alert.getStatus(), alert.getCurrentAmount(), alert.getBudgetAmount(), alert.getMessage());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.tripplanner.event;
+
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Published by the expense write paths once an expense has been added to or
+ * removed from a trip. Listeners receive it after the writing transaction commits.
+ * The amount is signed: negative when the expense was removed.
+ */
+public record ExpenseWrittenEvent(
+    Long tripId,
+    Long userId,
+    Long expenseId,
+    LocalDate expenseDate,
+    Expense.ExpenseCategory category,
+    Expense.Currency currency,
+    BigDecimal amount
+) {
+
+    public static ExpenseWrittenEvent created(Expense expense) {
+        return of(expense, expense.getAmount());
+    }
+
+    public static ExpenseWrittenEvent removed(Expense expense) {
+        return of(expense, expense.getAmount().negate());
+    }
+
+    public boolean isRemoval() {
+        return amount.signum() < 0;
+    }
+
+    private static ExpenseWrittenEvent of(Expense expense, BigDecimal amount) {
+        Trip trip = expense.getTrip();
+        Long userId = trip.getUser() != null ? trip.getUser().getId() : null;
+        return new ExpenseWrittenEvent(trip.getId(), userId, expense.getId(), expense.getExpenseDate(),
+            expense.getCategory(), expense.getCurrency(), amount);
+    }
+}
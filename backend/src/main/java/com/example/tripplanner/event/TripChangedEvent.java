@@ -0,0 +1,19 @@
+package com.example.tripplanner.event;
+
+import java.util.Set;
+
+/**
+ * Published when a trip or its plan changes, so connected participants can
+ * refresh. userIds is only set when the trip is being deleted and the recipients
+ * can no longer be looked up after commit.
+ */
+public record TripChangedEvent(Long tripId, Change change, Set<Long> userIds) {
+
+    public enum Change {
+        UPDATED, PLAN_SAVED, PLACE_ADDED, PLACE_REMOVED, EXPENSES_CHANGED, PARTICIPANTS_CHANGED, DELETED
+    }
+
+    public TripChangedEvent(Long tripId, Change change) {
+        this(tripId, change, null);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.tripplanner.event;
+
+import com.example.tripplanner.model.TripShare;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns every write to a trip share into a PARTICIPANTS_CHANGED event, whatever
+ * code path made it. Hibernate resolves entity listeners through Spring, so this
+ * is a regular bean.
+ */
+@Component
+public class TripShareListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onShareWritten(TripShare share) {
+        if (share.getTrip() != null) {
+            eventPublisher.publishEvent(new TripChangedEvent(share.getTrip().getId(), TripChangedEvent.Change.PARTICIPANTS_CHANGED));
+        }
+    }
+}
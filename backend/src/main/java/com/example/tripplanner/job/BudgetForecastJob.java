@@ -0,0 +1,27 @@
+package com.example.tripplanner.job;
+
+import com.example.tripplanner.service.BudgetForecastService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Refreshes budget forecasts for active trips and raises projected-overrun alerts.
+ * Runs through the clustered job store so one node does the pass and the alert
+ * upserts are not repeated on every node.
+ */
+@DisallowConcurrentExecution
+public class BudgetForecastJob extends QuartzJobBean {
+
+    public static final String GROUP = "budget-forecast";
+    public static final String NAME = "budget-forecast-refresh";
+
+    @Autowired
+    private BudgetForecastService budgetForecastService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        budgetForecastService.refreshActiveTrips();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.tripplanner.job;
+
+import com.example.tripplanner.service.BudgetSweepService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.SchedulerException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * One partition of the budget sweep. There is one durable job per partition in the
+ * clustered job store, so each partition runs on exactly one node at a time while
+ * different partitions spread across nodes.
+ */
+@DisallowConcurrentExecution
+public class BudgetSweepJob extends QuartzJobBean {
+
+    public static final String GROUP = "budget-sweep";
+    public static final String PARTITION_KEY = "partition";
+
+    @Autowired
+    private BudgetSweepService budgetSweepService;
+
+    @Value("${budget.sweep.partitions:4}")
+    private int partitionCount;
+
+    // Populated from the job data map
+    private int partition;
+
+    public void setPartition(int partition) {
+        this.partition = partition;
+    }
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) throws JobExecutionException {
+        try {
+            if (partition >= partitionCount) {
+                // Left in the job store from a configuration with more partitions
+                context.getScheduler().deleteJob(context.getJobDetail().getKey());
+                System.out.println("🗑️ Removed stale budget sweep partition " + partition);
+                return;
+            }
+            budgetSweepService.sweepPartition(partition, partitionCount, context.getScheduler().getSchedulerInstanceId());
+        } catch (SchedulerException e) {
+            throw new JobExecutionException(e);
+        }
+    }
+}
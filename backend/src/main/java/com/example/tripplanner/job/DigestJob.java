@@ -0,0 +1,25 @@
+package com.example.tripplanner.job;
+
+import com.example.tripplanner.service.DigestService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Daily email digest. Runs through the clustered job store so only one node
+ * sends digests each day.
+ */
+@DisallowConcurrentExecution
+public class DigestJob extends QuartzJobBean {
+
+    public static final String GROUP = "email-digest";
+
+    @Autowired
+    private DigestService digestService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        digestService.sendDailyDigests();
+    }
+}
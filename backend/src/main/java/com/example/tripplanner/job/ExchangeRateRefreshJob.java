@@ -0,0 +1,29 @@
+package com.example.tripplanner.job;
+
+import com.example.tripplanner.service.ExchangeRateRefresher;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.quartz.PersistJobDataAfterExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Fetches exchange rates from the configured provider. Runs through the clustered
+ * job store so only one node calls the provider per run; the refresh status is
+ * kept in the job data map so it survives whichever node runs next.
+ */
+@DisallowConcurrentExecution
+@PersistJobDataAfterExecution
+public class ExchangeRateRefreshJob extends QuartzJobBean {
+
+    public static final String GROUP = "exchange-rates";
+    public static final String NAME = "exchange-rate-refresh";
+
+    @Autowired
+    private ExchangeRateRefresher exchangeRateRefresher;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        exchangeRateRefresher.refresh(context.getJobDetail().getJobDataMap());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.tripplanner.job;
+
+import com.example.tripplanner.service.ReverseGeocodingService;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Fills city and country on places that have none, from their coordinates.
+ * Walks the places table in id order, one transaction per page, so it can run
+ * against a live database. Also triggered on demand from the admin API.
+ */
+@DisallowConcurrentExecution
+public class PlaceLocationBackfillJob extends QuartzJobBean {
+
+    public static final String GROUP = "place-maintenance";
+    public static final String NAME = "place-location-backfill";
+
+    @Autowired
+    private ReverseGeocodingService reverseGeocodingService;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        long afterId = 0L;
+        int scanned = 0;
+        int updated = 0;
+        ReverseGeocodingService.BackfillPage page;
+        do {
+            page = reverseGeocodingService.backfillPage(afterId);
+            scanned += page.scanned();
+            updated += page.updated();
+            afterId = page.lastId();
+        } while (!page.done());
+        System.out.println("✅ Place location backfill: " + updated + " of " + scanned + " places without a city or country filled");
+    }
+}
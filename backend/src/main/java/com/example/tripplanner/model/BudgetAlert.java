@@ -8,7 +8,10 @@ import lombok.AllArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.example.tripplanner.util.Money;
+
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 @Entity
@@ -32,6 +35,11 @@ public class BudgetAlert {
     @Column(name = "alert_type", nullable = false)
     private AlertType alertType;
     
+    // What the alert is about within its type: "TRIP", a date for daily limits, a category name for category limits
+    @Size(max = 64, message = "Alert key must not exceed 64 characters")
+    @Column(name = "alert_key", length = 64)
+    private String alertKey;
+    
     @NotNull(message = "Threshold percentage is required")
     @DecimalMin(value = "0.0", inclusive = true, message = "Threshold must be non-negative")
     @DecimalMax(value = "100.0", inclusive = true, message = "Threshold must be at most 100")
@@ -109,7 +117,7 @@ public class BudgetAlert {
         if (budgetAmount.compareTo(BigDecimal.ZERO) == 0) {
             return BigDecimal.ZERO;
         }
-        return currentAmount.divide(budgetAmount, 4, BigDecimal.ROUND_HALF_UP)
+        return currentAmount.divide(budgetAmount, 4, RoundingMode.HALF_UP)
                 .multiply(BigDecimal.valueOf(100));
     }
     
@@ -118,7 +126,7 @@ public class BudgetAlert {
     }
     
     public boolean isOverBudget() {
-        return currentAmount.compareTo(budgetAmount) > 0;
+        return Money.toMinorUnits(currentAmount) > Money.toMinorUnits(budgetAmount);
     }
     
     public boolean isNearThreshold() {
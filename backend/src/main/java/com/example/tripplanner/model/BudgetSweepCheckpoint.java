@@ -0,0 +1,56 @@
+package com.example.tripplanner.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the budget sweep for one partition. Written after every batch so a
+ * node that takes over an interrupted run continues after the last trip id.
+ */
+@Entity
+@Table(name = "budget_sweep_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetSweepCheckpoint {
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    // Partition count the run was started with; a different count invalidates the checkpoint
+    @Column(name = "partition_count", nullable = false)
+    private Integer partitionCount;
+
+    @Column(name = "sweep_date", nullable = false)
+    private LocalDate sweepDate;
+
+    @Column(name = "last_trip_id", nullable = false)
+    private Long lastTripId = 0L;
+
+    @Column(name = "trips_processed", nullable = false)
+    private Long tripsProcessed = 0L;
+
+    @Column(name = "instance_id", length = 190)
+    private String instanceId;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public boolean isResumable(int partitionCount, LocalDate today) {
+        return completedAt == null && this.partitionCount == partitionCount && today.equals(sweepDate);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.tripplanner.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every currency the application converts between: the expense currencies plus
+ * the additional trip and profile currencies. Ordinals index the exchange-rate
+ * snapshot, so new codes go at the end.
+ */
+public enum CurrencyCode {
+    USD, EUR, GBP, JPY, CAD, AUD, CHF, CNY, INR, BRL, MXN, KRW, RUB, ZAR, SEK, NOK, DKK, PLN, CZK, HUF,
+    SGD, HKD, NZD, LKR;
+
+    private static final Map<String, CurrencyCode> BY_CODE = new HashMap<>();
+    private static final CurrencyCode[] BY_EXPENSE_CURRENCY = new CurrencyCode[Expense.Currency.values().length];
+
+    static {
+        for (CurrencyCode code : values()) {
+            BY_CODE.put(code.name(), code);
+        }
+        for (Expense.Currency currency : Expense.Currency.values()) {
+            BY_EXPENSE_CURRENCY[currency.ordinal()] = valueOf(currency.name());
+        }
+    }
+
+    // Null for unknown codes; unlike valueOf, a miss does not throw
+    public static CurrencyCode fromCode(String code) {
+        return code == null ? null : BY_CODE.get(code);
+    }
+
+    public static CurrencyCode of(Expense.Currency currency) {
+        return BY_EXPENSE_CURRENCY[currency.ordinal()];
+    }
+}
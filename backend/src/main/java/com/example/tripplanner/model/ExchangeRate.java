@@ -0,0 +1,45 @@
+package com.example.tripplanner.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Units of a currency per one US dollar, in force from the effective date until
+ * a later row for the same currency takes over.
+ */
+@Entity
+@Table(name = "exchange_rates",
+       uniqueConstraints = @UniqueConstraint(name = "uk_exchange_rate", columnNames = {"currency", "effective_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 3)
+    private CurrencyCode currency;
+
+    @Column(name = "rate_per_usd", nullable = false, precision = 20, scale = 8)
+    private BigDecimal ratePerUsd;
+
+    @Column(name = "effective_date", nullable = false)
+    private LocalDate effectiveDate;
+
+    @Column(length = 32)
+    private String source;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
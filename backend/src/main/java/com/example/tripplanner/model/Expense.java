@@ -2,16 +2,22 @@ package com.example.tripplanner.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.example.tripplanner.util.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "expenses")
@@ -51,6 +57,11 @@ public class Expense {
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal amount;
     
+    // amount in minor units, kept in step with amount so totals sum longs
+    @Transient
+    @Setter(AccessLevel.NONE)
+    private long amountMinorUnits;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Currency currency = Currency.USD;
@@ -111,6 +122,17 @@ public class Expense {
     @JsonIgnore
     private Place place;
     
+    // Group splitting: who paid, and how the amount is divided. No shares means an equal split
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paid_by_user_id")
+    @JsonIgnore
+    private User paidBy;
+    
+    @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @JsonIgnore
+    private List<ExpenseShare> shares = new ArrayList<>();
+    
     // Enums
     public enum ExpenseCategory {
         ACCOMMODATION, FOOD, TRANSPORT, ACTIVITIES, SHOPPING, ENTERTAINMENT, 
@@ -129,7 +151,22 @@ public class Expense {
         DEFAULT, EXTRA
     }
     
+    @PostLoad
+    void cacheAmountMinorUnits() {
+        amountMinorUnits = Money.toMinorUnits(amount);
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+        this.amountMinorUnits = Money.toMinorUnits(amount);
+    }
+    
     // Helper methods
+    public void addShare(ExpenseShare share) {
+        shares.add(share);
+        share.setExpense(this);
+    }
+    
     public boolean isReimbursable() {
         return Boolean.TRUE.equals(reimbursable);
     }
@@ -162,15 +199,25 @@ public class Expense {
         return dayNumber.equals(day);
     }
     
+    @JsonIgnore
+    public long getAmountMinorUnits() {
+        return amountMinorUnits;
+    }
+    
+    @JsonIgnore
+    public Money getAmountMoney() {
+        return new Money(amountMinorUnits, CurrencyCode.of(currency));
+    }
+    
     public String getFormattedAmount() {
         return currency + " " + amount.toString();
     }
     
     public boolean isHighValue() {
-        return amount.compareTo(BigDecimal.valueOf(100)) > 0;
+        return getAmountMinorUnits() > 100_00L;
     }
     
     public boolean isLowValue() {
-        return amount.compareTo(BigDecimal.valueOf(10)) < 0;
+        return getAmountMinorUnits() < 10_00L;
     }
 }
@@ -0,0 +1,55 @@
+package com.example.tripplanner.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated expense totals for one trip, day, category and currency.
+ * Maintained on every expense write so charts read a handful of rows
+ * instead of grouping over the raw expenses table.
+ */
+@Entity
+@Table(name = "expense_daily_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_expense_daily_rollup",
+               columnNames = {"trip_id", "rollup_date", "category", "currency"}),
+       indexes = @Index(name = "idx_expense_daily_rollup_trip_date", columnList = "trip_id, rollup_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trip_id", nullable = false)
+    private Long tripId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Expense.ExpenseCategory category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Expense.Currency currency;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "expense_count", nullable = false)
+    private Long expenseCount = 0L;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,46 @@
+package com.example.tripplanner.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
+/**
+ * One participant's share of a split expense.
+ */
+@Entity
+@Table(name = "expense_shares",
+       uniqueConstraints = @UniqueConstraint(name = "uk_expense_share_user", columnNames = {"expense_id", "user_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseShare {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "expense_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Expense expense;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @NotNull(message = "Share amount is required")
+    @DecimalMin(value = "0.0", inclusive = true, message = "Share amount must be non-negative")
+    @Digits(integer = 10, fraction = 2, message = "Share amount must have at most 10 digits and 2 decimal places")
+    @Column(name = "share_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal shareAmount;
+}
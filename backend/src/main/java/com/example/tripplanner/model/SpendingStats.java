@@ -0,0 +1,46 @@
+package com.example.tripplanner.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of the running spending statistics for one user and category, used by
+ * SpendingAnomalyDetector. Mean and m2 are over log(1 + amount in USD).
+ */
+@Entity
+@Table(name = "spending_stats",
+       uniqueConstraints = @UniqueConstraint(name = "uk_spending_stats", columnNames = {"user_id", "category"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendingStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Expense.ExpenseCategory category;
+
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount = 0L;
+
+    @Column(name = "mean_value", nullable = false)
+    private Double meanValue = 0.0;
+
+    @Column(name = "m2_value", nullable = false)
+    private Double m2Value = 0.0;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -8,6 +8,8 @@ import lombok.AllArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.example.tripplanner.util.ExchangeRateHistory;
+import com.example.tripplanner.util.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -68,6 +70,12 @@ public class Trip {
     @Column(nullable = false)
     private TripVisibility visibility = TripVisibility.PRIVATE;
     
+    // Bumped with a single UPDATE on every expense write; keys caches of derived data such as settle-up.
+    // Not updatable through the entity so a stale copy can never write it back.
+    @Column(name = "data_version", nullable = false, updatable = false)
+    @JsonIgnore
+    private Long dataVersion = 0L;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -147,33 +155,64 @@ public class Trip {
         expense.setTrip(null);
     }
     
+    // Budget arithmetic runs on long minor units; see Money
+    @JsonIgnore
+    public CurrencyCode getCurrencyCode() {
+        CurrencyCode code = CurrencyCode.fromCode(currency);
+        return code != null ? code : CurrencyCode.USD;
+    }
+    
+    // Sum of every expense converted to the trip currency at the rate in force on its expense date.
+    // Expenses can be in any currency, so every total below takes the rates to convert them with
+    @JsonIgnore
+    public Money getTotalExpensesMoney(ExchangeRateHistory rates) {
+        CurrencyCode tripCurrency = getCurrencyCode();
+        long total = 0L;
+        for (Expense expense : expenses) {
+            int from = CurrencyCode.of(expense.getCurrency()).ordinal();
+            total = Money.add(total, rates.convertMinorUnits(expense.getAmountMinorUnits(), from, tripCurrency.ordinal(),
+                expense.getExpenseDate()));
+        }
+        return new Money(total, tripCurrency);
+    }
+    
+    @JsonIgnore
+    public long getTotalExpensesMinorUnits(ExchangeRateHistory rates) {
+        return getTotalExpensesMoney(rates).minorUnits();
+    }
+    
+    @JsonIgnore
+    public Money getBudgetMoney() {
+        return Money.of(budget, getCurrencyCode());
+    }
+    
+    @JsonIgnore
+    public long getBudgetMinorUnits() {
+        return Money.toMinorUnits(budget);
+    }
+    
     @JsonIgnore
-    public BigDecimal getTotalExpenses() {
-        return expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public BigDecimal getTotalExpenses(ExchangeRateHistory rates) {
+        return Money.fromMinorUnits(getTotalExpensesMinorUnits(rates));
     }
     
     @JsonIgnore
-    public BigDecimal getRemainingBudget() {
-        return budget.subtract(getTotalExpenses());
+    public BigDecimal getRemainingBudget(ExchangeRateHistory rates) {
+        return Money.fromMinorUnits(Money.subtract(getBudgetMinorUnits(), getTotalExpensesMinorUnits(rates)));
     }
     
     @JsonIgnore
-    public double getBudgetUsagePercentage() {
-        if (budget.compareTo(BigDecimal.ZERO) == 0) return 0.0;
-        return getTotalExpenses().divide(budget, 4, BigDecimal.ROUND_HALF_UP)
-                .multiply(BigDecimal.valueOf(100))
-                .doubleValue();
+    public double getBudgetUsagePercentage(ExchangeRateHistory rates) {
+        return Money.percentOf(getTotalExpensesMinorUnits(rates), getBudgetMinorUnits());
     }
     
     @JsonIgnore
-    public boolean isOverBudget() {
-        return getTotalExpenses().compareTo(budget) > 0;
+    public boolean isOverBudget(ExchangeRateHistory rates) {
+        return getTotalExpensesMinorUnits(rates) > getBudgetMinorUnits();
     }
     
     @JsonIgnore
-    public boolean isNearBudgetLimit(double threshold) {
-        return getBudgetUsagePercentage() >= threshold;
+    public boolean isNearBudgetLimit(ExchangeRateHistory rates, double threshold) {
+        return getBudgetUsagePercentage(rates) >= threshold;
     }
 }
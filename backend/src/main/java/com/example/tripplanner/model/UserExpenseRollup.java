@@ -0,0 +1,54 @@
+package com.example.tripplanner.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated expense totals across all trips owned by a user, per day,
+ * category and currency. Kept in step with {@link ExpenseDailyRollup}.
+ */
+@Entity
+@Table(name = "user_expense_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_user_expense_rollup",
+               columnNames = {"user_id", "rollup_date", "category", "currency"}),
+       indexes = @Index(name = "idx_user_expense_rollup_user_date", columnList = "user_id, rollup_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserExpenseRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Expense.ExpenseCategory category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Expense.Currency currency;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "expense_count", nullable = false)
+    private Long expenseCount = 0L;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
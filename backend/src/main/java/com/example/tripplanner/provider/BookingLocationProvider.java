@@ -0,0 +1,75 @@
+package com.example.tripplanner.provider;
+
+import com.example.tripplanner.config.LocationClientConfig;
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Booking.com autocomplete through RapidAPI. The response is decoded straight
+ * into LocationSearchResponseDTO as it streams in.
+ */
+@Component
+public class BookingLocationProvider implements LocationProvider {
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    @Qualifier(LocationClientConfig.LOCATION_CLIENT_CONNECTOR)
+    private ReactorClientHttpConnector connector;
+
+    @Value("${booking.api.key:a0997d222fmsh50214de9dec9326p145269jsn3f760d1a9ee5}")
+    private String apiKey;
+
+    @Value("${booking.api.host:booking-com-api5.p.rapidapi.com}")
+    private String apiHost;
+
+    @Value("${locations.booking.timeout-ms:2500}")
+    private long timeoutMs;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = webClientBuilder.clone()
+            .clientConnector(connector)
+            .baseUrl("https://" + apiHost)
+            .defaultHeader("X-Rapidapi-Key", apiKey)
+            .defaultHeader("X-Rapidapi-Host", apiHost)
+            .build();
+    }
+
+    @Override
+    public String getName() {
+        return "booking";
+    }
+
+    @Override
+    public Mono<LocationSearchResponseDTO> search(String query, String languageCode, int limit) {
+        return webClient.get()
+            .uri(uri -> uri.path("/accomodation/autocomplete")
+                .queryParam("languagecode", languageCode)
+                .queryParam("limit", limit)
+                .queryParam("query", query)
+                .queryParam("currency_code", "USD")
+                .build())
+            .accept(MediaType.APPLICATION_JSON)
+            .retrieve()
+            .bodyToMono(LocationSearchResponseDTO.class)
+            .timeout(Duration.ofMillis(timeoutMs))
+            .flatMap(body -> body.getResults() != null
+                ? Mono.just(LocationSearchResponseDTO.of(body.getResults()))
+                : Mono.error(new IllegalStateException("Booking.com response has no results"
+                    + (body.message() != null ? ": " + body.message() : ""))));
+    }
+}
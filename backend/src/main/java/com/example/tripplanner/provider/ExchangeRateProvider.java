@@ -0,0 +1,13 @@
+package com.example.tripplanner.provider;
+
+/**
+ * Source of exchange rates for ExchangeRateRefresher. Only the background
+ * refresher calls fetch; request handling reads the in-memory snapshot.
+ * Implementations throw on any failure and never return partial garbage.
+ */
+public interface ExchangeRateProvider {
+
+    String getName();
+
+    RateQuote fetch() throws Exception;
+}
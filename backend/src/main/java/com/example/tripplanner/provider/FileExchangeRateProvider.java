@@ -0,0 +1,59 @@
+package com.example.tripplanner.provider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Reads rates from a local JSON file or classpath resource. Used for offline
+ * runs and tests, and only when exchange-rates.provider is "file". A file without a date takes its last-modified date, so
+ * re-reading an unchanged file yields the same quote instead of a new row per day.
+ */
+@Component
+@ConditionalOnProperty(name = "exchange-rates.provider", havingValue = "file")
+public class FileExchangeRateProvider implements ExchangeRateProvider {
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${exchange-rates.file.location:classpath:exchange-rates/sample-rates.json}")
+    private String location;
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public RateQuote fetch() throws Exception {
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return RateQuote.fromJson(objectMapper.readTree(in), getName(), lastModifiedDate(resource));
+        }
+    }
+
+    private static LocalDate lastModifiedDate(Resource resource) {
+        try {
+            long lastModified = resource.lastModified();
+            if (lastModified > 0) {
+                return LocalDate.ofInstant(Instant.ofEpochMilli(lastModified), ZoneId.systemDefault());
+            }
+        } catch (IOException e) {
+            // Not resolvable to a file or URL with a timestamp
+        }
+        return LocalDate.now();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.tripplanner.provider;
+
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import com.example.tripplanner.util.CircuitBreaker;
+import com.example.tripplanner.util.LatencyTracker;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps a LocationProvider in its own circuit breaker and bulkhead, and keeps
+ * per-provider latency and error counts.
+ *
+ * The bulkhead is a semaphore taken without waiting, so a slow provider can hold
+ * at most maxConcurrent calls and everything beyond that fails immediately. An
+ * open circuit also fails immediately. Both raise ProviderUnavailableException,
+ * which the caller treats like any other failure and moves on to the other
+ * provider or the cache.
+ *
+ * A call cancelled because the other provider answered first still records its
+ * elapsed time as a latency sample (a lower bound), so hedging on slow calls does
+ * not leave only the fast ones in the percentile. A call that took at least
+ * slowCallMillis, whether it succeeded or was cancelled, counts as a failure for
+ * the circuit breaker; a quicker cancelled call has no outcome.
+ */
+public class GuardedLocationProvider implements LocationProvider {
+
+    private final LocationProvider delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final LatencyTracker latency;
+    private final long slowCallNanos;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder rejectedOpen = new LongAdder();
+    private final LongAdder rejectedFull = new LongAdder();
+
+    public GuardedLocationProvider(LocationProvider delegate, CircuitBreaker circuitBreaker, int maxConcurrent,
+                                   LatencyTracker latency, long slowCallMillis) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.latency = latency;
+        this.slowCallNanos = slowCallMillis * 1_000_000L;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Mono<LocationSearchResponseDTO> search(String query, String languageCode, int limit) {
+        return Mono.defer(() -> {
+            if (!bulkhead.tryAcquire()) {
+                rejectedFull.increment();
+                return Mono.error(new ProviderUnavailableException(getName() + " is at its concurrency limit"));
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                bulkhead.release();
+                rejectedOpen.increment();
+                return Mono.error(new ProviderUnavailableException(getName() + " circuit is open"));
+            }
+
+            calls.increment();
+            long started = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean();
+            return delegate.search(query, languageCode, limit)
+                .doOnSuccess(response -> {
+                    long elapsed = System.nanoTime() - started;
+                    latency.record(elapsed / 1_000_000L);
+                    successes.increment();
+                    if (elapsed >= slowCallNanos) {
+                        slowCalls.increment();
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                })
+                .doOnError(error -> {
+                    if (error instanceof TimeoutException) {
+                        timeouts.increment();
+                    }
+                    failures.increment();
+                    circuitBreaker.onFailure();
+                })
+                .doOnCancel(() -> {
+                    long elapsed = System.nanoTime() - started;
+                    latency.record(elapsed / 1_000_000L);
+                    cancelled.increment();
+                    if (elapsed >= slowCallNanos) {
+                        slowCalls.increment();
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onIgnored();
+                    }
+                })
+                .doFinally(signal -> {
+                    if (released.compareAndSet(false, true)) {
+                        bulkhead.release();
+                    }
+                });
+        });
+    }
+
+    public LatencyTracker getLatency() {
+        return latency;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuit", circuitBreaker.getState().name());
+        stats.put("inFlight", maxConcurrent - bulkhead.availablePermits());
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("calls", calls.sum());
+        stats.put("successes", successes.sum());
+        stats.put("failures", failures.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("slowCalls", slowCalls.sum());
+        stats.put("rejectedOpen", rejectedOpen.sum());
+        stats.put("rejectedFull", rejectedFull.sum());
+        stats.put("latencyP50Ms", latency.percentileMillis(0.50));
+        stats.put("latencyP95Ms", latency.percentileMillis(0.95));
+        stats.put("latencyP99Ms", latency.percentileMillis(0.99));
+        return stats;
+    }
+}
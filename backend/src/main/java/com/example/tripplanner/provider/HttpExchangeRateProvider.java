@@ -0,0 +1,57 @@
+package com.example.tripplanner.provider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Fetches rates from an HTTP endpoint returning the base/date/rates JSON shape
+ * (Frankfurter, exchangerate.host and most free rate APIs). A local stub serving
+ * the sample file works the same way.
+ */
+@Component
+@ConditionalOnProperty(name = "exchange-rates.provider", havingValue = "http")
+public class HttpExchangeRateProvider implements ExchangeRateProvider {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${exchange-rates.http.url:https://api.frankfurter.app/latest?from=USD}")
+    private String url;
+
+    @Value("${exchange-rates.http.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${exchange-rates.http.read-timeout-ms:5000}")
+    private int readTimeoutMs;
+
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    public void init() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @Override
+    public String getName() {
+        return "http";
+    }
+
+    @Override
+    public RateQuote fetch() throws Exception {
+        String body = restTemplate.getForObject(url, String.class);
+        if (body == null) {
+            throw new IllegalStateException("Empty response from " + url);
+        }
+        return RateQuote.fromJson(objectMapper.readTree(body), getName());
+    }
+}
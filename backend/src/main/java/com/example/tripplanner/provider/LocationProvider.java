@@ -0,0 +1,16 @@
+package com.example.tripplanner.provider;
+
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import reactor.core.publisher.Mono;
+
+/**
+ * Upstream destination autocomplete. Implementations are non-blocking, apply
+ * their own timeout, and only emit a response that has a result list; anything
+ * else is an error so the caller can use another provider.
+ */
+public interface LocationProvider {
+
+    String getName();
+
+    Mono<LocationSearchResponseDTO> search(String query, String languageCode, int limit);
+}
@@ -0,0 +1,107 @@
+package com.example.tripplanner.provider;
+
+import com.example.tripplanner.config.LocationClientConfig;
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OpenStreetMap Nominatim search (free), mapped into the Booking.com response
+ * shape. The JSON array is decoded element by element as it streams in.
+ */
+@Component
+public class NominatimLocationProvider implements LocationProvider {
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    @Qualifier(LocationClientConfig.LOCATION_CLIENT_CONNECTOR)
+    private ReactorClientHttpConnector connector;
+
+    @Value("${locations.nominatim.url:https://nominatim.openstreetmap.org}")
+    private String baseUrl;
+
+    @Value("${locations.nominatim.timeout-ms:3000}")
+    private long timeoutMs;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        webClient = webClientBuilder.clone()
+            .clientConnector(connector)
+            .baseUrl(baseUrl)
+            .defaultHeader("User-Agent", "TripPlanner/1.0")
+            .build();
+    }
+
+    @Override
+    public String getName() {
+        return "nominatim";
+    }
+
+    @Override
+    public Mono<LocationSearchResponseDTO> search(String query, String languageCode, int limit) {
+        return webClient.get()
+            .uri(uri -> uri.path("/search")
+                .queryParam("q", query)
+                .queryParam("format", "json")
+                .queryParam("limit", limit)
+                .queryParam("addressdetails", "1")
+                .queryParam("accept-language", languageCode)
+                .build())
+            .accept(MediaType.APPLICATION_JSON)
+            .retrieve()
+            .bodyToFlux(NominatimPlace.class)
+            .filter(place -> place.placeId() != null && place.displayName() != null)
+            .map(NominatimLocationProvider::toResult)
+            .collectList()
+            .timeout(Duration.ofMillis(timeoutMs))
+            .map(LocationSearchResponseDTO::of);
+    }
+
+    private static LocationSearchResponseDTO.Result toResult(NominatimPlace place) {
+        String title = place.displayName().split(",")[0];
+        NominatimAddress address = place.address();
+        String country = address != null && address.country() != null ? address.country() : "Unknown";
+        String countryCode = address != null ? address.countryCode() : null;
+
+        List<LocationSearchResponseDTO.LabelComponent> labels = new ArrayList<>(3);
+        labels.add(new LocationSearchResponseDTO.LabelComponent("CITY", title));
+        if (address != null && address.state() != null) {
+            labels.add(new LocationSearchResponseDTO.LabelComponent("REGION", address.state()));
+        }
+        labels.add(new LocationSearchResponseDTO.LabelComponent("COUNTRY", country));
+
+        return new LocationSearchResponseDTO.Result(
+            new LocationSearchResponseDTO.Destination(place.placeId(), "CITY", countryCode,
+                Double.parseDouble(place.lat()), Double.parseDouble(place.lon()), 0),
+            new LocationSearchResponseDTO.DisplayInfo(title, place.displayName(), labels, LocationSearchResponseDTO.PLACEHOLDER_IMAGE));
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record NominatimPlace(@JsonProperty("place_id") String placeId,
+                          String lat,
+                          String lon,
+                          @JsonProperty("display_name") String displayName,
+                          NominatimAddress address) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record NominatimAddress(String country, @JsonProperty("country_code") String countryCode, String state) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.tripplanner.provider;
+
+/**
+ * A provider call refused without being attempted: its circuit is open, its
+ * bulkhead is full, or its rate limit queue is full or too slow.
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ProviderUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.tripplanner.provider;
+
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import com.example.tripplanner.util.TokenBucket;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps calls to a LocationProvider under its published request rate.
+ *
+ * A call goes straight through when nothing is queued and the TokenBucket has a
+ * token. Otherwise it waits in a bounded FIFO queue that a timer drains as
+ * tokens refill. Every queued call has a deadline: it is refused up front when
+ * the queue is full or the estimated wait already exceeds the deadline, and
+ * dropped without spending a token if the deadline passes in the queue.
+ * Identical queries waiting at the same time share one upstream call, and a
+ * queued call whose callers have all gone away is dropped. Refusals and drops
+ * raise ProviderUnavailableException, so the caller falls back as it would for
+ * an open circuit.
+ */
+public class RateLimitedLocationProvider implements LocationProvider {
+
+    private final LocationProvider delegate;
+    private final TokenBucket bucket;
+    private final double ratePerSecond;
+    private final int queueCapacity;
+    private final long maxWaitNanos;
+
+    // Guards queue, pendingByKey and drainScheduled
+    private final Object lock = new Object();
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    private final Map<String, Pending> pendingByKey = new HashMap<>();
+    private boolean drainScheduled;
+
+    private final LongAdder immediate = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder rejectedFull = new LongAdder();
+    private final LongAdder rejectedDeadline = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    public RateLimitedLocationProvider(LocationProvider delegate, double burst, double ratePerSecond,
+                                       int queueCapacity, long maxWaitMs) {
+        this.delegate = delegate;
+        this.bucket = new TokenBucket(burst, ratePerSecond);
+        this.ratePerSecond = ratePerSecond;
+        this.queueCapacity = queueCapacity;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Mono<LocationSearchResponseDTO> search(String query, String languageCode, int limit) {
+        return Mono.defer(() -> {
+            String key = query + '\u0000' + languageCode + '\u0000' + limit;
+            Pending pending;
+            synchronized (lock) {
+                Pending existing = pendingByKey.get(key);
+                if (existing != null) {
+                    coalesced.increment();
+                    existing.abandoned = false;
+                    return existing.join();
+                }
+                if (queue.isEmpty() && bucket.tryAcquire() == 0) {
+                    immediate.increment();
+                    return delegate.search(query, languageCode, limit);
+                }
+                if (queue.size() >= queueCapacity) {
+                    rejectedFull.increment();
+                    return Mono.error(new ProviderUnavailableException(getName() + " rate limit queue is full"));
+                }
+                // Everything ahead of this call needs a token first
+                double tokensShort = queue.size() + 1 - bucket.getAvailableTokens();
+                if (tokensShort / ratePerSecond * 1_000_000_000L > maxWaitNanos) {
+                    rejectedDeadline.increment();
+                    return Mono.error(new ProviderUnavailableException(getName() + " rate limit wait would exceed the deadline"));
+                }
+
+                pending = new Pending(key, query, languageCode, limit, System.nanoTime() + maxWaitNanos);
+                queue.add(pending);
+                pendingByKey.put(key, pending);
+                queued.increment();
+                if (!drainScheduled) {
+                    drainScheduled = true;
+                    Schedulers.parallel().schedule(this::drain);
+                }
+            }
+            return pending.join();
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        int depth;
+        synchronized (lock) {
+            depth = queue.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ratePerSecond", ratePerSecond);
+        stats.put("queueDepth", depth);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("immediate", immediate.sum());
+        stats.put("queued", queued.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("rejectedFull", rejectedFull.sum());
+        stats.put("rejectedDeadline", rejectedDeadline.sum());
+        stats.put("expired", expired.sum());
+        stats.put("abandoned", abandoned.sum());
+        return stats;
+    }
+
+    // Releases queued calls while tokens last, then re-arms the timer for the next token
+    private void drain() {
+        List<Pending> dispatch = new ArrayList<>();
+        List<Pending> dropped = new ArrayList<>();
+        long nextTokenNanos = 0L;
+        synchronized (lock) {
+            long now = System.nanoTime();
+            while (!queue.isEmpty()) {
+                Pending head = queue.peek();
+                // Deadlines are assigned in queue order, so only the head needs checking
+                if (head.abandoned) {
+                    abandoned.increment();
+                } else if (now - head.deadlineNanos > 0) {
+                    expired.increment();
+                    dropped.add(head);
+                } else {
+                    long wait = bucket.tryAcquire();
+                    if (wait > 0) {
+                        nextTokenNanos = wait;
+                        break;
+                    }
+                    dispatch.add(head);
+                }
+                queue.poll();
+                pendingByKey.remove(head.key);
+            }
+            drainScheduled = nextTokenNanos > 0;
+        }
+        if (nextTokenNanos > 0) {
+            Schedulers.parallel().schedule(this::drain, nextTokenNanos, TimeUnit.NANOSECONDS);
+        }
+
+        for (Pending pending : dropped) {
+            pending.sink.tryEmitError(new ProviderUnavailableException(getName() + " rate limit wait exceeded the deadline"));
+        }
+        for (Pending pending : dispatch) {
+            pending.dispatch(delegate.search(pending.query, pending.languageCode, pending.limit));
+        }
+    }
+
+    private static final class Pending {
+        final String key;
+        final String query;
+        final String languageCode;
+        final int limit;
+        final long deadlineNanos;
+        final Sinks.One<LocationSearchResponseDTO> sink = Sinks.one();
+        final AtomicInteger waiters = new AtomicInteger();
+        volatile boolean abandoned;
+        volatile Disposable upstream;
+
+        Pending(String key, String query, String languageCode, int limit, long deadlineNanos) {
+            this.key = key;
+            this.query = query;
+            this.languageCode = languageCode;
+            this.limit = limit;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        // Each caller's view of the shared result; the last caller to cancel cancels the call
+        Mono<LocationSearchResponseDTO> join() {
+            return sink.asMono()
+                .doOnSubscribe(subscription -> waiters.incrementAndGet())
+                .doOnCancel(() -> {
+                    if (waiters.decrementAndGet() == 0) {
+                        abandoned = true;
+                        Disposable call = upstream;
+                        if (call != null) {
+                            call.dispose();
+                        }
+                    }
+                });
+        }
+
+        void dispatch(Mono<LocationSearchResponseDTO> call) {
+            upstream = call.subscribe(
+                sink::tryEmitValue,
+                sink::tryEmitError,
+                sink::tryEmitEmpty);
+            if (abandoned) {
+                upstream.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.tripplanner.provider;
+
+import com.example.tripplanner.model.CurrencyCode;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A set of rates from a provider: units of each currency per one USD, effective
+ * from the given date.
+ */
+public record RateQuote(LocalDate effectiveDate, Map<CurrencyCode, BigDecimal> ratesPerUsd, String source) {
+
+    /**
+     * Parses the common {"base": "EUR", "date": "2025-01-31", "rates": {"USD": 1.04, ...}}
+     * shape. Rates against another base are rebased to USD; unknown currency codes
+     * are skipped, and a missing date means today.
+     */
+    public static RateQuote fromJson(JsonNode root, String source) {
+        return fromJson(root, source, LocalDate.now());
+    }
+
+    // As above, with the date to use when the document has none
+    public static RateQuote fromJson(JsonNode root, String source, LocalDate defaultDate) {
+        JsonNode rates = root.path("rates");
+        if (!rates.isObject() || rates.isEmpty()) {
+            throw new IllegalArgumentException("No rates in response from " + source);
+        }
+        CurrencyCode base = CurrencyCode.fromCode(root.path("base").asText("USD"));
+        if (base == null) {
+            throw new IllegalArgumentException("Unsupported base currency from " + source + ": " + root.path("base").asText());
+        }
+
+        Map<CurrencyCode, BigDecimal> perBase = new EnumMap<>(CurrencyCode.class);
+        perBase.put(base, BigDecimal.ONE);
+        for (Map.Entry<String, JsonNode> field : rates.properties()) {
+            CurrencyCode code = CurrencyCode.fromCode(field.getKey());
+            if (code != null && field.getValue().isNumber() && field.getValue().decimalValue().signum() > 0) {
+                perBase.put(code, field.getValue().decimalValue());
+            }
+        }
+
+        BigDecimal usdPerBase = perBase.get(CurrencyCode.USD);
+        if (usdPerBase == null) {
+            throw new IllegalArgumentException("No USD rate in response from " + source);
+        }
+        Map<CurrencyCode, BigDecimal> perUsd = new EnumMap<>(CurrencyCode.class);
+        perBase.forEach((code, rate) -> perUsd.put(code, rate.divide(usdPerBase, MathContext.DECIMAL64)));
+
+        LocalDate date = root.hasNonNull("date") ? LocalDate.parse(root.get("date").asText()) : defaultDate;
+        return new RateQuote(date, perUsd, source);
+    }
+}
@@ -58,4 +58,9 @@ public interface BlogRatingRepository extends JpaRepository<BlogRating, Long> {
            "HAVING COUNT(br) >= :minRatings " +
            "ORDER BY avgRating DESC, ratingCount DESC")
     List<Object[]> getTopRatedBlogPosts(@Param("minRatings") Long minRatings);
+    
+    // Digest: new ratings per post since a point in time, for all authors at once [authorId, title, count, average]
+    @Query("SELECT bp.author.id, bp.title, COUNT(br), AVG(br.rating) FROM BlogRating br JOIN br.blogPost bp " +
+           "WHERE br.createdAt >= :since GROUP BY bp.author.id, bp.id, bp.title ORDER BY bp.author.id")
+    List<Object[]> findDigestRatingRows(@Param("since") LocalDateTime since);
 }
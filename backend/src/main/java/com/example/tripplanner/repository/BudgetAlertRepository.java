@@ -117,4 +117,17 @@ public interface BudgetAlertRepository extends JpaRepository<BudgetAlert, Long>
     // Find alerts triggered in date range
     @Query("SELECT ba FROM BudgetAlert ba WHERE ba.trip = :trip AND ba.triggeredAt BETWEEN :startDate AND :endDate")
     List<BudgetAlert> findByTripAndTriggeredDateRange(@Param("trip") Trip trip, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    // Open (not yet resolved) alerts for one trip/type/key, newest first; used for idempotent upserts
+    @Query("SELECT ba FROM BudgetAlert ba WHERE ba.trip.id = :tripId AND ba.alertType = :alertType AND ba.alertKey = :alertKey AND ba.status <> 'RESOLVED' ORDER BY ba.id DESC")
+    List<BudgetAlert> findOpenAlertsByKey(@Param("tripId") Long tripId, @Param("alertType") BudgetAlert.AlertType alertType, @Param("alertKey") String alertKey);
+    
+    // Open alerts of one type across all keys of a trip, newest first; lets the sweep upsert every category from one read
+    @Query("SELECT ba FROM BudgetAlert ba WHERE ba.trip.id = :tripId AND ba.alertType = :alertType AND ba.status <> 'RESOLVED' ORDER BY ba.id DESC")
+    List<BudgetAlert> findOpenAlertsByType(@Param("tripId") Long tripId, @Param("alertType") BudgetAlert.AlertType alertType);
+    
+    // Digest: active alerts touched since a point in time, for all trip owners at once [ownerId, tripTitle, alertType, message]
+    @Query("SELECT t.user.id, t.title, ba.alertType, ba.message FROM BudgetAlert ba JOIN ba.trip t " +
+           "WHERE ba.status = 'ACTIVE' AND t.user IS NOT NULL AND ba.updatedAt >= :since ORDER BY t.user.id, ba.updatedAt DESC")
+    List<Object[]> findDigestAlertRows(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,9 @@
+package com.example.tripplanner.repository;
+
+import com.example.tripplanner.model.BudgetSweepCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BudgetSweepCheckpointRepository extends JpaRepository<BudgetSweepCheckpoint, Integer> {
+}
@@ -0,0 +1,29 @@
+package com.example.tripplanner.repository;
+
+import com.example.tripplanner.model.ExchangeRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
+
+    // Full rate history as [currency, effectiveDate, ratePerUsd], grouped by currency in date order
+    @Query("SELECT r.currency, r.effectiveDate, r.ratePerUsd FROM ExchangeRate r ORDER BY r.currency, r.effectiveDate")
+    List<Object[]> findAllRates();
+
+    // Replaces the rate for a currency and date if one was already recorded
+    @Modifying
+    @Query(value = "INSERT INTO exchange_rates (currency, rate_per_usd, effective_date, source, created_at) " +
+                   "VALUES (:currency, :rate, :effectiveDate, :source, CURRENT_TIMESTAMP) " +
+                   "ON DUPLICATE KEY UPDATE rate_per_usd = :rate, source = :source",
+           nativeQuery = true)
+    int upsert(@Param("currency") String currency, @Param("rate") BigDecimal rate,
+               @Param("effectiveDate") LocalDate effectiveDate, @Param("source") String source);
+}
@@ -0,0 +1,94 @@
+package com.example.tripplanner.repository;
+
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.ExpenseDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExpenseDailyRollupRepository extends JpaRepository<ExpenseDailyRollup, Long> {
+
+    List<ExpenseDailyRollup> findByTripIdOrderByRollupDate(Long tripId);
+
+    // Atomic upsert of a delta; negative amounts/counts are used when an expense is removed
+    @Modifying
+    @Query(value = "INSERT INTO expense_daily_rollups (trip_id, rollup_date, category, currency, total_amount, expense_count, updated_at) " +
+                   "VALUES (:tripId, :rollupDate, :category, :currency, :amount, :count, CURRENT_TIMESTAMP) " +
+                   "ON DUPLICATE KEY UPDATE total_amount = total_amount + :amount, expense_count = expense_count + :count, updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int applyDelta(@Param("tripId") Long tripId, @Param("rollupDate") LocalDate rollupDate,
+                   @Param("category") String category, @Param("currency") String currency,
+                   @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseDailyRollup r WHERE r.tripId = :tripId AND r.expenseCount <= 0")
+    int deleteEmptyByTripId(@Param("tripId") Long tripId);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseDailyRollup r WHERE r.tripId = :tripId")
+    int deleteByTripId(@Param("tripId") Long tripId);
+
+    // Rebuild a trip's rollups from the raw expenses table (backfill / repair)
+    @Modifying
+    @Query(value = "INSERT INTO expense_daily_rollups (trip_id, rollup_date, category, currency, total_amount, expense_count, updated_at) " +
+                   "SELECT e.trip_id, e.expense_date, e.category, e.currency, SUM(e.amount), COUNT(*), CURRENT_TIMESTAMP " +
+                   "FROM expenses e WHERE e.trip_id = :tripId GROUP BY e.trip_id, e.expense_date, e.category, e.currency",
+           nativeQuery = true)
+    int rebuildFromExpenses(@Param("tripId") Long tripId);
+
+    // Per-day, per-currency totals with counts for the daily and monthly views [date, currency, sum, count]
+    @Query("SELECT r.rollupDate, r.currency, SUM(r.totalAmount), SUM(r.expenseCount) FROM ExpenseDailyRollup r WHERE r.tripId = :tripId " +
+           "GROUP BY r.rollupDate, r.currency ORDER BY r.rollupDate")
+    List<Object[]> findDailyCurrencyTotalsWithCountsByTripId(@Param("tripId") Long tripId);
+
+    // Per-category totals kept apart by day and currency so each converts at its own rate [category, date, currency, sum, count]
+    @Query("SELECT r.category, r.rollupDate, r.currency, SUM(r.totalAmount), SUM(r.expenseCount) FROM ExpenseDailyRollup r " +
+           "WHERE r.tripId = :tripId GROUP BY r.category, r.rollupDate, r.currency")
+    List<Object[]> findCategoryCurrencyTotalsByTripId(@Param("tripId") Long tripId);
+
+    @Query("SELECT r.category, r.rollupDate, r.currency, SUM(r.totalAmount), SUM(r.expenseCount) FROM ExpenseDailyRollup r " +
+           "WHERE r.tripId = :tripId AND r.rollupDate BETWEEN :startDate AND :endDate GROUP BY r.category, r.rollupDate, r.currency")
+    List<Object[]> findCategoryCurrencyTotalsByTripIdAndDateRange(@Param("tripId") Long tripId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT r FROM ExpenseDailyRollup r WHERE r.tripId = :tripId AND r.rollupDate BETWEEN :startDate AND :endDate ORDER BY r.rollupDate")
+    List<ExpenseDailyRollup> findByTripIdAndDateRange(@Param("tripId") Long tripId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT r FROM ExpenseDailyRollup r WHERE r.tripId = :tripId AND r.category = :category")
+    List<ExpenseDailyRollup> findByTripIdAndCategory(@Param("tripId") Long tripId, @Param("category") Expense.ExpenseCategory category);
+
+    // Per-day, per-currency totals for budget alert evaluation [date, currency, sum]; the date picks the
+    // exchange rate. Each reads at most days x categories x currencies rows
+    @Query("SELECT r.rollupDate, r.currency, SUM(r.totalAmount) FROM ExpenseDailyRollup r WHERE r.tripId = :tripId " +
+           "GROUP BY r.rollupDate, r.currency")
+    List<Object[]> findDailyCurrencyTotalsByTripId(@Param("tripId") Long tripId);
+
+    @Query("SELECT r.rollupDate, r.currency, SUM(r.totalAmount) FROM ExpenseDailyRollup r WHERE r.tripId = :tripId " +
+           "AND r.rollupDate BETWEEN :startDate AND :endDate GROUP BY r.rollupDate, r.currency")
+    List<Object[]> findDailyCurrencyTotalsByTripIdAndDateRange(@Param("tripId") Long tripId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT r.rollupDate, r.currency, SUM(r.totalAmount) FROM ExpenseDailyRollup r WHERE r.tripId = :tripId AND r.rollupDate = :rollupDate " +
+           "GROUP BY r.rollupDate, r.currency")
+    List<Object[]> findDailyCurrencyTotalsByTripIdAndDate(@Param("tripId") Long tripId, @Param("rollupDate") LocalDate rollupDate);
+
+    @Query("SELECT r.rollupDate, r.currency, SUM(r.totalAmount) FROM ExpenseDailyRollup r WHERE r.tripId = :tripId AND r.category = :category " +
+           "GROUP BY r.rollupDate, r.currency")
+    List<Object[]> findDailyCurrencyTotalsByTripIdAndCategory(@Param("tripId") Long tripId, @Param("category") Expense.ExpenseCategory category);
+
+    // [date, category, currency, sum]
+    @Query("SELECT r.rollupDate, r.category, r.currency, SUM(r.totalAmount) FROM ExpenseDailyRollup r WHERE r.tripId = :tripId " +
+           "GROUP BY r.rollupDate, r.category, r.currency")
+    List<Object[]> findDailyCategoryCurrencyTotalsByTripId(@Param("tripId") Long tripId);
+
+    // Daily totals per currency for a batch of trips [tripId, date, currency, sum]
+    @Query("SELECT r.tripId, r.rollupDate, r.currency, SUM(r.totalAmount) FROM ExpenseDailyRollup r WHERE r.tripId IN :tripIds " +
+           "GROUP BY r.tripId, r.rollupDate, r.currency")
+    List<Object[]> findDailyCurrencyTotalsByTripIds(@Param("tripIds") Collection<Long> tripIds);
+}
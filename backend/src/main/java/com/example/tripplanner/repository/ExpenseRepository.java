@@ -3,6 +3,7 @@ package com.example.tripplanner.repository;
 import com.example.tripplanner.model.Expense;
 import com.example.tripplanner.model.Trip;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -159,4 +160,27 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Object[]> findMonthlyTotalsByTrip(@Param("trip") Trip trip);
 
     List<Expense> findByTripAndExpenseType(Trip trip, Expense.ExpenseType expenseType);
+    
+    // Settle-up projections: (id, amount, currency, payer id) for expenses that still count
+    @Query("SELECT e.id, e.amount, e.currency, p.id FROM Expense e LEFT JOIN e.paidBy p WHERE e.trip.id = :tripId AND e.status NOT IN ('CANCELLED', 'REFUNDED')")
+    List<Object[]> findSettlementRowsByTripId(@Param("tripId") Long tripId);
+    
+    // (expense id, user id, share amount) for all explicit shares on a trip
+    @Query("SELECT s.expense.id, s.user.id, s.shareAmount FROM ExpenseShare s WHERE s.expense.trip.id = :tripId")
+    List<Object[]> findShareRowsByTripId(@Param("tripId") Long tripId);
+    
+    // Bulk reimbursement: one set-based UPDATE instead of a PUT per expense
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Expense e SET e.reimbursed = true, e.reimbursementReference = :reference, e.updatedAt = CURRENT_TIMESTAMP WHERE e.trip.id = :tripId AND e.reimbursable = true AND e.reimbursed = false AND e.id IN :expenseIds")
+    int markReimbursed(@Param("tripId") Long tripId, @Param("expenseIds") List<Long> expenseIds, @Param("reference") String reference);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Expense e SET e.reimbursed = true, e.reimbursementReference = :reference, e.updatedAt = CURRENT_TIMESTAMP WHERE e.trip.id = :tripId AND e.reimbursable = true AND e.reimbursed = false")
+    int markAllPendingReimbursed(@Param("tripId") Long tripId, @Param("reference") String reference);
+    
+    @Query("SELECT e.currency, COUNT(e), SUM(e.amount) FROM Expense e WHERE e.trip.id = :tripId AND e.reimbursed = true AND e.reimbursementReference = :reference GROUP BY e.currency")
+    List<Object[]> findReimbursedTotalsByReference(@Param("tripId") Long tripId, @Param("reference") String reference);
+    
+    @Query("SELECT e.currency, COUNT(e), SUM(e.amount) FROM Expense e WHERE e.trip.id = :tripId AND e.reimbursable = true AND e.reimbursed = false GROUP BY e.currency")
+    List<Object[]> findPendingReimbursementTotals(@Param("tripId") Long tripId);
 }
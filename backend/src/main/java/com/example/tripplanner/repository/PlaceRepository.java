@@ -5,6 +5,7 @@ import com.example.tripplanner.model.Trip;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -131,6 +132,21 @@ public interface PlaceRepository extends JpaRepository<Place, Long> {
     @Query("SELECT p FROM Place p WHERE p.trip = :trip AND p.category IN :categories")
     List<Place> findByTripAndCategoryIn(@Param("trip") Trip trip, @Param("categories") List<Place.PlaceCategory> categories);
     
+    // Reverse geocoding backfill: [id, latitude, longitude] of places missing a city or country, keyset-paged by id
+    @Query("SELECT p.id, p.latitude, p.longitude FROM Place p WHERE p.id > :afterId AND " +
+           "(p.city IS NULL OR p.city = '' OR p.country IS NULL OR p.country = '') ORDER BY p.id")
+    List<Object[]> findMissingCityOrCountryAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Fills only the blank columns; values someone has already set are kept
+    @Modifying
+    @Query("UPDATE Place p SET p.city = COALESCE(NULLIF(p.city, ''), :city), " +
+           "p.country = COALESCE(NULLIF(p.country, ''), :country) WHERE p.id IN :ids")
+    int fillCityAndCountry(@Param("ids") List<Long> ids, @Param("city") String city, @Param("country") String country);
+    
+    // Suggestion anchors: [id, name, category, latitude, longitude] of every place in the trip
+    @Query("SELECT p.id, p.name, p.category, p.latitude, p.longitude FROM Place p WHERE p.trip.id = :tripId")
+    List<Object[]> findSuggestionAnchorsByTripId(@Param("tripId") Long tripId);
+    
     // Find places with valid coordinates
     @Query("SELECT p FROM Place p WHERE p.trip = :trip AND p.latitude IS NOT NULL AND p.longitude IS NOT NULL")
     List<Place> findByTripAndHasValidCoordinates(@Param("trip") Trip trip);
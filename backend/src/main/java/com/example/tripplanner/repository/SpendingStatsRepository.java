@@ -0,0 +1,37 @@
+package com.example.tripplanner.repository;
+
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.SpendingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface SpendingStatsRepository extends JpaRepository<SpendingStats, Long> {
+
+    Optional<SpendingStats> findByUserIdAndCategory(Long userId, Expense.ExpenseCategory category);
+
+    /**
+     * Adds the moments of samples the row has not seen yet (Chan's parallel
+     * formula), so nodes flushing the same key add up instead of overwriting each
+     * other. MySQL applies the assignments left to right, so m2 and mean read the
+     * old sample_count and mean before they are updated. count must be positive.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO spending_stats (user_id, category, sample_count, mean_value, m2_value, updated_at) " +
+                   "VALUES (:userId, :category, :count, :mean, :m2, CURRENT_TIMESTAMP) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "m2_value = m2_value + :m2 + (:mean - mean_value) * (:mean - mean_value) * sample_count * :count / (sample_count + :count), " +
+                   "mean_value = mean_value + (:mean - mean_value) * :count / (sample_count + :count), " +
+                   "sample_count = sample_count + :count, " +
+                   "updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int mergeMoments(@Param("userId") Long userId, @Param("category") String category,
+               @Param("count") long count, @Param("mean") double mean, @Param("m2") double m2);
+}
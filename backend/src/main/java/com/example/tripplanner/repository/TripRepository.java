@@ -5,6 +5,7 @@ import com.example.tripplanner.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -105,4 +106,30 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
     List<Trip> findByDestinationContainingIgnoreCaseOrTitleContainingIgnoreCase(@Param("destination") String destination, @Param("title") String title);
     
     List<Trip> findByStatus(Trip.TripStatus status);
+    
+    // Data version (cache key for derived data such as settle-up)
+    @Modifying
+    @Query("UPDATE Trip t SET t.dataVersion = t.dataVersion + 1 WHERE t.id = :tripId")
+    int incrementDataVersion(@Param("tripId") Long tripId);
+    
+    @Query("SELECT t.dataVersion FROM Trip t WHERE t.id = :tripId")
+    Optional<Long> findDataVersionById(@Param("tripId") Long tripId);
+    
+    @Query("SELECT t.user.id FROM Trip t WHERE t.id = :tripId")
+    Optional<Long> findOwnerIdById(@Param("tripId") Long tripId);
+    
+    @Query("SELECT t.currency FROM Trip t WHERE t.id = :tripId")
+    Optional<String> findCurrencyById(@Param("tripId") Long tripId);
+    
+    // Keyset page of active trip ids in one partition (trip id modulo partition count), for the budget sweep
+    @Query("SELECT t.id FROM Trip t WHERE t.startDate <= :today AND t.endDate >= :today AND t.id > :afterId " +
+           "AND MOD(t.id, :partitionCount) = :partition ORDER BY t.id ASC")
+    List<Long> findActiveTripIdsAfter(@Param("today") LocalDate today, @Param("afterId") Long afterId,
+                                      @Param("partition") int partition, @Param("partitionCount") int partitionCount,
+                                      Pageable pageable);
+    
+    // Popular destination seeding: [destination, trip count], most common first
+    @Query("SELECT t.destination, COUNT(t) FROM Trip t WHERE t.destination IS NOT NULL AND t.destination <> '' " +
+           "GROUP BY t.destination ORDER BY COUNT(t) DESC")
+    List<Object[]> findDestinationCounts(Pageable pageable);
 }
@@ -49,6 +49,9 @@ public interface TripShareRepository extends JpaRepository<TripShare, Long> {
     @Query("SELECT ts FROM TripShare ts WHERE ts.sharedWith = :user AND ts.status = 'ACCEPTED'")
     List<TripShare> findAcceptedSharesForUser(@Param("user") User user);
     
+    @Query("SELECT ts.sharedWith.id FROM TripShare ts WHERE ts.trip.id = :tripId AND ts.status = 'ACCEPTED'")
+    List<Long> findAcceptedParticipantIds(@Param("tripId") Long tripId);
+    
     @Query("SELECT ts FROM TripShare ts WHERE ts.expiresAt IS NOT NULL AND ts.expiresAt < :now AND ts.status = 'PENDING'")
     List<TripShare> findExpiredShares(@Param("now") LocalDateTime now);
     
@@ -98,4 +101,9 @@ public interface TripShareRepository extends JpaRepository<TripShare, Long> {
     // Check if user has admin access to trip
     @Query("SELECT CASE WHEN COUNT(ts) > 0 THEN true ELSE false END FROM TripShare ts WHERE ts.trip = :trip AND ts.sharedWith = :user AND ts.status = 'ACCEPTED' AND ts.permission = 'ADMIN'")
     boolean hasAdminAccess(@Param("trip") Trip trip, @Param("user") User user);
+    
+    // Digest: open invitations for all users at once [invitedUserId, tripTitle, ownerName, permission]
+    @Query("SELECT ts.sharedWith.id, t.title, u.displayName, ts.permission FROM TripShare ts JOIN ts.trip t LEFT JOIN t.user u " +
+           "WHERE ts.status = 'PENDING' AND (ts.expiresAt IS NULL OR ts.expiresAt > :now) ORDER BY ts.sharedWith.id")
+    List<Object[]> findDigestInvitationRows(@Param("now") LocalDateTime now);
 }
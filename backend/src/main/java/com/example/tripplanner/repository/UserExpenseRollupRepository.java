@@ -0,0 +1,43 @@
+package com.example.tripplanner.repository;
+
+import com.example.tripplanner.model.UserExpenseRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserExpenseRollupRepository extends JpaRepository<UserExpenseRollup, Long> {
+
+    // Atomic upsert of a delta; negative amounts/counts are used when an expense is removed
+    @Modifying
+    @Query(value = "INSERT INTO user_expense_rollups (user_id, rollup_date, category, currency, total_amount, expense_count, updated_at) " +
+                   "VALUES (:userId, :rollupDate, :category, :currency, :amount, :count, CURRENT_TIMESTAMP) " +
+                   "ON DUPLICATE KEY UPDATE total_amount = total_amount + :amount, expense_count = expense_count + :count, updated_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId, @Param("rollupDate") LocalDate rollupDate,
+                   @Param("category") String category, @Param("currency") String currency,
+                   @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    @Modifying
+    @Query("DELETE FROM UserExpenseRollup r WHERE r.userId = :userId AND r.expenseCount <= 0")
+    int deleteEmptyByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT r FROM UserExpenseRollup r WHERE r.userId = :userId AND r.rollupDate BETWEEN :startDate AND :endDate ORDER BY r.rollupDate")
+    List<UserExpenseRollup> findByUserIdAndDateRange(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // A user's trips use different currencies, so totals stay apart by day and currency until converted [date, currency, sum, count]
+    @Query("SELECT r.rollupDate, r.currency, SUM(r.totalAmount), SUM(r.expenseCount) FROM UserExpenseRollup r WHERE r.userId = :userId " +
+           "AND r.rollupDate BETWEEN :startDate AND :endDate GROUP BY r.rollupDate, r.currency ORDER BY r.rollupDate")
+    List<Object[]> findDailyCurrencyTotalsByUserIdAndDateRange(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // [category, date, currency, sum, count]
+    @Query("SELECT r.category, r.rollupDate, r.currency, SUM(r.totalAmount), SUM(r.expenseCount) FROM UserExpenseRollup r WHERE r.userId = :userId " +
+           "AND r.rollupDate BETWEEN :startDate AND :endDate GROUP BY r.category, r.rollupDate, r.currency")
+    List<Object[]> findCategoryCurrencyTotalsByUserIdAndDateRange(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,277 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.config.AsyncConfig;
+import com.example.tripplanner.dto.BudgetForecastDTO;
+import com.example.tripplanner.event.BudgetAlertChangedEvent;
+import com.example.tripplanner.event.ExpenseWrittenEvent;
+import com.example.tripplanner.model.BudgetAlert;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.repository.BudgetAlertRepository;
+import com.example.tripplanner.repository.ExpenseDailyRollupRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raises and resolves budget alerts after expense writes.
+ *
+ * Runs on the budget alert executor once the writing transaction has committed, so
+ * the request thread never waits on it. Each evaluation reads three per-currency
+ * sums from the expense rollups (trip, the expense's day, the expense's category),
+ * which costs the same no matter how many expenses the trip has. Alerts are keyed
+ * by (trip, type, key) and updated in place, so re-evaluating is always safe.
+ */
+@Service
+@Transactional
+public class BudgetAlertEngine {
+
+    private static final String TRIP_KEY = "TRIP";
+    private static final String FORECAST_KEY = "FORECAST";
+    private static final BigDecimal FULL_THRESHOLD = BigDecimal.valueOf(100);
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private BudgetAlertRepository budgetAlertRepository;
+
+    @Autowired
+    private ExpenseDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private CurrencyService currencyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Share of the budget that triggers BUDGET_WARNING
+    @Value("${budget.alerts.warning-percentage:80}")
+    private int warningPercentage;
+
+    // A day's spend above this share of the even daily budget triggers DAILY_SPENDING_LIMIT
+    @Value("${budget.alerts.daily-limit-percentage:150}")
+    private int dailyLimitPercentage;
+
+    // A single category above this share of the budget triggers CATEGORY_LIMIT
+    @Value("${budget.alerts.category-limit-percentage:40}")
+    private int categoryLimitPercentage;
+
+    @Async(AsyncConfig.BUDGET_ALERT_EXECUTOR)
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onExpenseWritten(ExpenseWrittenEvent event) {
+        evaluate(event.tripId(), event.expenseDate(), event.category());
+    }
+
+    public void evaluate(Long tripId, LocalDate expenseDate, Expense.ExpenseCategory category) {
+        Trip trip = tripRepository.findById(tripId).orElse(null);
+        if (trip == null || trip.getBudgetMinorUnits() <= 0) {
+            return;
+        }
+        String currency = trip.getCurrency();
+
+        evaluateTripBudget(trip, sumInTripCurrency(dailyRollupRepository.findDailyCurrencyTotalsByTripId(tripId), currency));
+        if (expenseDate != null) {
+            evaluateDay(trip, expenseDate,
+                sumInTripCurrency(dailyRollupRepository.findDailyCurrencyTotalsByTripIdAndDate(tripId, expenseDate), currency));
+        }
+        if (category != null) {
+            evaluateCategory(trip, category,
+                sumInTripCurrency(dailyRollupRepository.findDailyCurrencyTotalsByTripIdAndCategory(tripId, category), currency),
+                budgetAlertRepository.findOpenAlertsByKey(tripId, BudgetAlert.AlertType.CATEGORY_LIMIT, category.name()));
+        }
+    }
+
+    /**
+     * Full re-evaluation used by the scheduled sweep: the trip budget, every
+     * category, and the given day. Two rollup reads per trip, and the open
+     * category alerts are read once for all categories.
+     */
+    public void evaluateTrip(Long tripId, LocalDate day) {
+        Trip trip = tripRepository.findById(tripId).orElse(null);
+        if (trip == null || trip.getBudgetMinorUnits() <= 0) {
+            return;
+        }
+        String currency = trip.getCurrency();
+
+        long total = 0L;
+        long[] categoryTotals = new long[Expense.ExpenseCategory.values().length];
+        for (Object[] row : dailyRollupRepository.findDailyCategoryCurrencyTotalsByTripId(tripId)) {
+            long amount = toTripCurrency((Expense.Currency) row[2], (BigDecimal) row[3], currency, (LocalDate) row[0]);
+            int category = ((Expense.ExpenseCategory) row[1]).ordinal();
+            categoryTotals[category] = Money.add(categoryTotals[category], amount);
+            total = Money.add(total, amount);
+        }
+
+        evaluateTripBudget(trip, total);
+        Map<String, List<BudgetAlert>> openByCategory = new HashMap<>();
+        for (BudgetAlert alert : budgetAlertRepository.findOpenAlertsByType(tripId, BudgetAlert.AlertType.CATEGORY_LIMIT)) {
+            openByCategory.computeIfAbsent(alert.getAlertKey(), key -> new ArrayList<>()).add(alert);
+        }
+        for (Expense.ExpenseCategory category : Expense.ExpenseCategory.values()) {
+            evaluateCategory(trip, category, categoryTotals[category.ordinal()],
+                openByCategory.getOrDefault(category.name(), List.of()));
+        }
+        evaluateDay(trip, day,
+            sumInTripCurrency(dailyRollupRepository.findDailyCurrencyTotalsByTripIdAndDate(tripId, day), currency));
+    }
+
+    // Whole-trip budget
+    private void evaluateTripBudget(Trip trip, long total) {
+        long budget = trip.getBudgetMinorUnits();
+        String currency = trip.getCurrency();
+        long warningAt = Money.divideHalfUp(Math.multiplyExact(budget, warningPercentage), 100);
+        boolean exceeded = total > budget;
+        upsert(trip, BudgetAlert.AlertType.BUDGET_EXCEEDED, TRIP_KEY, exceeded, total, budget, FULL_THRESHOLD,
+            String.format("Budget exceeded: spent %s %s of a %s %s budget",
+                Money.fromMinorUnits(total), currency, Money.fromMinorUnits(budget), currency));
+        upsert(trip, BudgetAlert.AlertType.BUDGET_WARNING, TRIP_KEY, !exceeded && total >= warningAt, total, budget,
+            BigDecimal.valueOf(warningPercentage),
+            String.format("Budget warning: you've used %.1f%% of your budget", Money.percentOf(total, budget)));
+    }
+
+    // Spend on one day against an even split of the budget
+    private void evaluateDay(Trip trip, LocalDate day, long dayTotal) {
+        String currency = trip.getCurrency();
+        long days = Math.max(1, ChronoUnit.DAYS.between(trip.getStartDate(), trip.getEndDate()) + 1);
+        long dailyLimit = Money.divideHalfUp(Math.multiplyExact(trip.getBudgetMinorUnits(), dailyLimitPercentage), days * 100);
+        upsert(trip, BudgetAlert.AlertType.DAILY_SPENDING_LIMIT, day.toString(), dayTotal > dailyLimit,
+            dayTotal, dailyLimit, FULL_THRESHOLD,
+            String.format("Daily spending limit reached on %s: spent %s %s against a limit of %s %s",
+                day, Money.fromMinorUnits(dayTotal), currency, Money.fromMinorUnits(dailyLimit), currency));
+    }
+
+    // Spend in one category against its share of the budget
+    private void evaluateCategory(Trip trip, Expense.ExpenseCategory category, long categoryTotal, List<BudgetAlert> open) {
+        String currency = trip.getCurrency();
+        long categoryLimit = Money.divideHalfUp(Math.multiplyExact(trip.getBudgetMinorUnits(), categoryLimitPercentage), 100);
+        upsert(trip, open, BudgetAlert.AlertType.CATEGORY_LIMIT, category.name(), categoryTotal > categoryLimit,
+            categoryTotal, categoryLimit, FULL_THRESHOLD,
+            String.format("Category limit reached for %s: spent %s %s against a limit of %s %s",
+                category, Money.fromMinorUnits(categoryTotal), currency,
+                Money.fromMinorUnits(categoryLimit), currency));
+    }
+
+    /**
+     * BUDGET_WARNING for a projected overrun, keyed separately from the threshold
+     * warning. Only raised while actual spend is still within budget; past that
+     * point BUDGET_EXCEEDED applies.
+     */
+    public void evaluateForecast(Trip trip, BudgetForecastDTO forecast) {
+        long budget = trip.getBudgetMinorUnits();
+        if (budget <= 0) {
+            return;
+        }
+        long projected = Money.toMinorUnits(forecast.getProjectedTotal());
+        boolean triggered = forecast.isProjectedOverBudget() && Money.toMinorUnits(forecast.getSpentToDate()) <= budget;
+        upsert(trip, BudgetAlert.AlertType.BUDGET_WARNING, FORECAST_KEY, triggered, projected, budget, FULL_THRESHOLD,
+            String.format("Budget forecast: at about %s %s a day you are on track to spend %s %s, %s %s over budget",
+                forecast.getDailyRate(), trip.getCurrency(), forecast.getProjectedTotal(), trip.getCurrency(),
+                forecast.getProjectedOverrun(), trip.getCurrency()));
+    }
+
+    /**
+     * Raises UNUSUAL_SPENDING for one expense. Keyed by expense id, so a replayed
+     * event updates the same alert instead of adding another.
+     */
+    public void raiseUnusualSpending(Long tripId, Long expenseId, Expense.ExpenseCategory category, LocalDate expenseDate,
+                                     BigDecimal amount, Expense.Currency expenseCurrency, double typicalUsd, double zScore) {
+        Trip trip = tripRepository.findById(tripId).orElse(null);
+        if (trip == null) {
+            return;
+        }
+        String currency = trip.getCurrency();
+        long current = toTripCurrency(expenseCurrency, amount, currency, expenseDate);
+        long typical = Money.fromDouble(currencyService.convertAmount(typicalUsd, "USD", currency, expenseDate));
+        upsert(trip, BudgetAlert.AlertType.UNUSUAL_SPENDING, "EXPENSE-" + expenseId, true, current, typical, FULL_THRESHOLD,
+            String.format("Unusual spending: %s %s on %s is well above your usual %s %s (%.1f standard deviations)",
+                Money.fromMinorUnits(current), currency, category, Money.fromMinorUnits(typical), currency, zScore));
+    }
+
+    /**
+     * Creates the alert when the condition first holds, refreshes its amounts while
+     * it keeps holding (a dismissed alert stays dismissed), and resolves it once the
+     * condition clears, e.g. after an expense is removed.
+     */
+    private void upsert(Trip trip, BudgetAlert.AlertType type, String key, boolean triggered,
+                        long current, long limit, BigDecimal threshold, String message) {
+        upsert(trip, budgetAlertRepository.findOpenAlertsByKey(trip.getId(), type, key), type, key, triggered,
+            current, limit, threshold, message);
+    }
+
+    // Same, with the open alerts for this type and key already loaded (newest first)
+    private void upsert(Trip trip, List<BudgetAlert> open, BudgetAlert.AlertType type, String key, boolean triggered,
+                        long current, long limit, BigDecimal threshold, String message) {
+        BudgetAlert alert = open.isEmpty() ? null : open.get(0);
+        // Left over from a concurrent write on another node; keep the newest only
+        for (int i = 1; i < open.size(); i++) {
+            open.get(i).resolve();
+        }
+
+        if (!triggered) {
+            if (alert != null) {
+                alert.setCurrentAmount(Money.fromMinorUnits(Math.max(0, current)));
+                alert.setActionTaken("Resolved automatically");
+                alert.resolve();
+                eventPublisher.publishEvent(BudgetAlertChangedEvent.of(alert));
+                System.out.println("✅ Resolved " + type + " alert for trip " + trip.getId() + " (" + key + ")");
+            }
+            return;
+        }
+
+        if (alert == null) {
+            alert = new BudgetAlert();
+            alert.setTrip(trip);
+            alert.setAlertType(type);
+            alert.setAlertKey(key);
+            alert.setTriggeredAt(LocalDateTime.now());
+            System.out.println("⚠️ Raised " + type + " alert for trip " + trip.getId() + " (" + key + ")");
+        }
+        // Only notify when something a user would see has changed; sweeps re-save unchanged alerts
+        boolean changed = alert.getId() == null
+            || Money.toMinorUnits(alert.getCurrentAmount()) != current
+            || Money.toMinorUnits(alert.getBudgetAmount()) != limit;
+        alert.setThresholdPercentage(threshold);
+        alert.setCurrentAmount(Money.fromMinorUnits(current));
+        alert.setBudgetAmount(Money.fromMinorUnits(limit));
+        alert.setMessage(message);
+        alert = budgetAlertRepository.save(alert);
+        if (changed) {
+            eventPublisher.publishEvent(BudgetAlertChangedEvent.of(alert));
+        }
+    }
+
+    // Rows are [date, currency, sum]; converts each sum into the trip currency at that day's rate
+    private long sumInTripCurrency(List<Object[]> rows, String tripCurrency) {
+        long total = 0L;
+        for (Object[] row : rows) {
+            total = Money.add(total, toTripCurrency((Expense.Currency) row[1], (BigDecimal) row[2], tripCurrency, (LocalDate) row[0]));
+        }
+        return total;
+    }
+
+    private long toTripCurrency(Expense.Currency currency, BigDecimal amount, String tripCurrency, LocalDate date) {
+        long minorUnits = Money.toMinorUnits(amount);
+        if (currency.name().equals(tripCurrency)) {
+            return minorUnits;
+        }
+        return Money.fromDouble(currencyService.convertAmount(Money.toDouble(minorUnits), currency.name(), tripCurrency, date));
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.BudgetForecastDTO;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.repository.ExpenseDailyRollupRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projects end-of-trip spend from the daily expense rollups.
+ *
+ * The daily series (converted to the trip currency, with zero for days without
+ * expenses) is smoothed with simple exponential smoothing; the smoothed level is
+ * the expected spend per remaining day. Active trips are refreshed in one batched
+ * pass: keyset pages of trip ids, one trip query and one rollup query per page.
+ * Forecasts are cached per trip (least recently used trips beyond
+ * MAX_CACHED_TRIPS are dropped) and reused while the trip's data version and the
+ * date are unchanged, so trip summaries can include them without extra queries.
+ * Only the refresh, run by BudgetForecastJob on one node of the cluster, raises
+ * forecast alerts; reading a forecast never writes.
+ */
+@Service
+@Transactional
+public class BudgetForecastService {
+
+    private static final int MAX_CACHED_TRIPS = 1000;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private ExpenseDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private CurrencyService currencyService;
+
+    @Autowired
+    private BudgetAlertEngine budgetAlertEngine;
+
+    // Weight of the most recent day; higher reacts faster to changes in spending
+    @Value("${forecast.smoothing-alpha:0.3}")
+    private double alpha;
+
+    @Value("${forecast.batch-size:500}")
+    private int batchSize;
+
+    private final Map<Long, BudgetForecastDTO> forecastCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BudgetForecastDTO> eldest) {
+                return size() > MAX_CACHED_TRIPS;
+            }
+        });
+
+    // No surrounding transaction: each page's reads and each alert update are short transactions of their own
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void refreshActiveTrips() {
+        LocalDate today = LocalDate.now();
+        PageRequest batch = PageRequest.of(0, batchSize);
+        long afterId = 0L;
+        int forecasts = 0;
+        int overruns = 0;
+
+        List<Long> tripIds;
+        do {
+            // A single partition covers every active trip
+            tripIds = tripRepository.findActiveTripIdsAfter(today, afterId, 0, 1, batch);
+            if (tripIds.isEmpty()) {
+                break;
+            }
+            List<Trip> trips = tripRepository.findAllById(tripIds);
+            List<BudgetForecastDTO> batchForecasts = computeForecasts(trips, today);
+            for (int i = 0; i < trips.size(); i++) {
+                BudgetForecastDTO forecast = batchForecasts.get(i);
+                budgetAlertEngine.evaluateForecast(trips.get(i), forecast);
+                forecasts++;
+                if (forecast.isProjectedOverBudget()) {
+                    overruns++;
+                }
+            }
+            afterId = tripIds.get(tripIds.size() - 1);
+        } while (tripIds.size() == batchSize);
+
+        System.out.println("✅ Budget forecasts refreshed for " + forecasts + " active trips, " + overruns + " projected over budget");
+    }
+
+    @Transactional(readOnly = true)
+    public BudgetForecastDTO getForecast(Long tripId) {
+        Trip trip = tripRepository.findById(tripId)
+            .orElseThrow(() -> new RuntimeException("Trip not found with ID: " + tripId));
+        BudgetForecastDTO cached = getCachedForecast(trip);
+        if (cached != null) {
+            return cached;
+        }
+        return computeForecasts(List.of(trip), LocalDate.now()).get(0);
+    }
+
+    // Cached forecast if it is still current for this trip; never queries
+    public BudgetForecastDTO getCachedForecast(Trip trip) {
+        BudgetForecastDTO cached = forecastCache.get(trip.getId());
+        if (cached != null && LocalDate.now().equals(cached.getForecastDate())
+                && cached.getDataVersion() != null && cached.getDataVersion().equals(trip.getDataVersion())) {
+            return cached;
+        }
+        return null;
+    }
+
+    public void evict(Long tripId) {
+        forecastCache.remove(tripId);
+    }
+
+    // One forecast per trip, in the order given
+    private List<BudgetForecastDTO> computeForecasts(List<Trip> trips, LocalDate today) {
+        Map<Long, Trip> tripsById = new HashMap<>();
+        for (Trip trip : trips) {
+            tripsById.put(trip.getId(), trip);
+        }
+
+        // Spend per trip per day, in trip-currency minor units
+        Map<Long, Map<LocalDate, Long>> dailyByTrip = new HashMap<>();
+        for (Object[] row : dailyRollupRepository.findDailyCurrencyTotalsByTripIds(tripsById.keySet())) {
+            Trip trip = tripsById.get((Long) row[0]);
+            long amount = toTripCurrency((Expense.Currency) row[2], (BigDecimal) row[3], trip.getCurrency(), (LocalDate) row[1]);
+            dailyByTrip.computeIfAbsent(trip.getId(), id -> new HashMap<>())
+                .merge((LocalDate) row[1], amount, Money::add);
+        }
+
+        List<BudgetForecastDTO> forecasts = new ArrayList<>(trips.size());
+        for (Trip trip : trips) {
+            BudgetForecastDTO forecast = forecast(trip, dailyByTrip.getOrDefault(trip.getId(), Map.of()), today);
+            forecastCache.put(trip.getId(), forecast);
+            forecasts.add(forecast);
+        }
+        return forecasts;
+    }
+
+    private BudgetForecastDTO forecast(Trip trip, Map<LocalDate, Long> daily, LocalDate today) {
+        long spent = 0L;
+        for (long amount : daily.values()) {
+            spent = Money.add(spent, amount);
+        }
+
+        // Days from the start of the trip through today (or the end, if it is over)
+        LocalDate lastObserved = today.isAfter(trip.getEndDate()) ? trip.getEndDate() : today;
+        long daysElapsed = Math.max(0, ChronoUnit.DAYS.between(trip.getStartDate(), lastObserved) + 1);
+        long daysRemaining = Math.max(0, ChronoUnit.DAYS.between(lastObserved, trip.getEndDate()));
+        if (today.isBefore(trip.getStartDate())) {
+            daysRemaining = ChronoUnit.DAYS.between(trip.getStartDate(), trip.getEndDate()) + 1;
+        }
+
+        double level = 0.0;
+        for (long day = 0; day < daysElapsed; day++) {
+            double value = daily.getOrDefault(trip.getStartDate().plusDays(day), 0L);
+            level = day == 0 ? value : alpha * value + (1 - alpha) * level;
+        }
+        long dailyRate = Math.round(level);
+        long projected = Money.add(spent, Math.multiplyExact(dailyRate, daysRemaining));
+        long budget = trip.getBudgetMinorUnits();
+
+        return new BudgetForecastDTO(
+            trip.getId(),
+            trip.getCurrency(),
+            Money.fromMinorUnits(budget),
+            Money.fromMinorUnits(spent),
+            Money.fromMinorUnits(dailyRate),
+            Money.fromMinorUnits(projected),
+            Money.fromMinorUnits(Money.subtract(projected, budget)),
+            budget > 0 && projected > budget,
+            daysElapsed,
+            daysRemaining,
+            today,
+            trip.getDataVersion()
+        );
+    }
+
+    private long toTripCurrency(Expense.Currency currency, BigDecimal amount, String tripCurrency, LocalDate date) {
+        long minorUnits = Money.toMinorUnits(amount);
+        if (currency.name().equals(tripCurrency)) {
+            return minorUnits;
+        }
+        return Money.fromDouble(currencyService.convertAmount(Money.toDouble(minorUnits), currency.name(), tripCurrency, date));
+    }
+}
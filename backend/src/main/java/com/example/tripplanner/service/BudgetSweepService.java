@@ -0,0 +1,85 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.model.BudgetSweepCheckpoint;
+import com.example.tripplanner.repository.BudgetSweepCheckpointRepository;
+import com.example.tripplanner.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Re-evaluates budget alerts for every active trip in one partition.
+ *
+ * Trips are split by id modulo the partition count and read in keyset-paged
+ * batches ordered by id. The checkpoint is saved after each batch, so a run that
+ * is interrupted resumes after the last processed trip. Not transactional at the
+ * class level on purpose: each trip is evaluated and each checkpoint saved in its
+ * own short transaction.
+ */
+@Service
+public class BudgetSweepService {
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private BudgetSweepCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private BudgetAlertEngine budgetAlertEngine;
+
+    @Value("${budget.sweep.batch-size:200}")
+    private int batchSize;
+
+    public long sweepPartition(int partition, int partitionCount, String instanceId) {
+        LocalDate today = LocalDate.now();
+        BudgetSweepCheckpoint checkpoint = checkpointRepository.findById(partition).orElse(null);
+
+        if (checkpoint != null && checkpoint.isResumable(partitionCount, today)) {
+            System.out.println("🔄 Resuming budget sweep partition " + partition + "/" + partitionCount +
+                " after trip " + checkpoint.getLastTripId());
+        } else {
+            if (checkpoint == null) {
+                checkpoint = new BudgetSweepCheckpoint();
+                checkpoint.setPartitionId(partition);
+            }
+            checkpoint.setPartitionCount(partitionCount);
+            checkpoint.setSweepDate(today);
+            checkpoint.setLastTripId(0L);
+            checkpoint.setTripsProcessed(0L);
+            checkpoint.setStartedAt(LocalDateTime.now());
+            checkpoint.setCompletedAt(null);
+        }
+        checkpoint.setInstanceId(instanceId);
+        checkpoint = checkpointRepository.save(checkpoint);
+
+        PageRequest firstBatch = PageRequest.of(0, batchSize);
+        List<Long> tripIds;
+        do {
+            tripIds = tripRepository.findActiveTripIdsAfter(today, checkpoint.getLastTripId(), partition, partitionCount, firstBatch);
+            for (Long tripId : tripIds) {
+                try {
+                    budgetAlertEngine.evaluateTrip(tripId, today);
+                } catch (Exception e) {
+                    System.err.println("Error sweeping budget alerts for trip " + tripId + ": " + e.getMessage());
+                }
+            }
+            if (!tripIds.isEmpty()) {
+                checkpoint.setLastTripId(tripIds.get(tripIds.size() - 1));
+                checkpoint.setTripsProcessed(checkpoint.getTripsProcessed() + tripIds.size());
+                checkpoint = checkpointRepository.save(checkpoint);
+            }
+        } while (tripIds.size() == batchSize);
+
+        checkpoint.setCompletedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        System.out.println("✅ Budget sweep partition " + partition + "/" + partitionCount + ": " +
+            checkpoint.getTripsProcessed() + " trips");
+        return checkpoint.getTripsProcessed();
+    }
+}
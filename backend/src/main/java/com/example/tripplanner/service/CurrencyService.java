@@ -1,14 +1,23 @@
 package com.example.tripplanner.service;
 
+import com.example.tripplanner.dto.CurrencyConversionItemDTO;
+import com.example.tripplanner.dto.CurrencyConversionResultDTO;
 import com.example.tripplanner.dto.CurrencyResponse;
 import com.example.tripplanner.dto.CurrencyUpdateRequest;
+import com.example.tripplanner.model.CurrencyCode;
 import com.example.tripplanner.model.User;
 import com.example.tripplanner.repository.UserRepository;
+import com.example.tripplanner.util.ExchangeRateSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,6 +27,9 @@ public class CurrencyService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
     // Supported currencies with their information
     private static final Map<String, Map<String, String>> SUPPORTED_CURRENCIES = new HashMap<>();
     
@@ -221,57 +233,96 @@ public class CurrencyService {
     }
 
     /**
-     * Convert amount between currencies (simplified conversion)
-     * In a real application, you would use a proper exchange rate API
+     * Convert amount between currencies using the current exchange-rate snapshot.
+     * Unknown currencies or currencies without a rate return the amount unchanged.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public double convertAmount(double amount, String fromCurrency, String toCurrency) {
-        // Sample exchange rates (in production, use real-time rates)
-        Map<String, Double> exchangeRates = new HashMap<>();
-        exchangeRates.put("USD", 1.0);
-        exchangeRates.put("EUR", 0.85);
-        exchangeRates.put("GBP", 0.73);
-        exchangeRates.put("JPY", 110.0);
-        exchangeRates.put("CAD", 1.25);
-        exchangeRates.put("AUD", 1.35);
-        exchangeRates.put("CHF", 0.92);
-        exchangeRates.put("CNY", 6.45);
-        exchangeRates.put("INR", 74.0);
-        exchangeRates.put("BRL", 5.2);
-        exchangeRates.put("MXN", 20.0);
-        exchangeRates.put("KRW", 1180.0);
-        exchangeRates.put("SGD", 1.35);
-        exchangeRates.put("HKD", 7.8);
-        exchangeRates.put("NZD", 1.42);
-        exchangeRates.put("SEK", 8.6);
-        exchangeRates.put("NOK", 8.9);
-        exchangeRates.put("DKK", 6.3);
-        exchangeRates.put("PLN", 3.9);
-        exchangeRates.put("CZK", 21.7);
-        exchangeRates.put("LKR", 320.0);
+        return convertAmount(amount, fromCurrency, toCurrency, null);
+    }
 
-        try {
-            if (fromCurrency.equals(toCurrency)) {
-                return amount;
-            }
+    /**
+     * Convert amount between currencies at the rates in force on the given date,
+     * e.g. an expense date; null means today.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public double convertAmount(double amount, String fromCurrency, String toCurrency, LocalDate date) {
+        if (fromCurrency.equals(toCurrency)) {
+            return amount;
+        }
+        CurrencyCode from = CurrencyCode.fromCode(fromCurrency);
+        CurrencyCode to = CurrencyCode.fromCode(toCurrency);
+        if (from == null || to == null) {
+            return amount;
+        }
+        return exchangeRateService.getSnapshot(date).convert(amount, from.ordinal(), to.ordinal());
+    }
+
+    /**
+     * The rule /convert and /convert/batch share: both currencies must be
+     * supported and have a rate on the date. Any date is accepted; future dates
+     * use the latest rates, as expense conversions do. Returns the error
+     * message, or null if the conversion is valid.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String validateConversion(String fromCurrency, String toCurrency, LocalDate date) {
+        return validateConversion(fromCurrency, toCurrency, exchangeRateService.getSnapshot(date));
+    }
 
-            Double fromRate = exchangeRates.get(fromCurrency);
-            Double toRate = exchangeRates.get(toCurrency);
+    private String validateConversion(String fromCurrency, String toCurrency, ExchangeRateSnapshot rates) {
+        if (!hasRate(fromCurrency, rates)) {
+            return "Invalid source currency: " + fromCurrency;
+        }
+        if (!hasRate(toCurrency, rates)) {
+            return "Invalid target currency: " + toCurrency;
+        }
+        return null;
+    }
 
-            if (fromRate == null || toRate == null) {
-                System.err.println("Exchange rate not found for: " + fromCurrency + " or " + toCurrency);
-                return amount;
-            }
+    private boolean hasRate(String currencyCode, ExchangeRateSnapshot rates) {
+        CurrencyCode code = CurrencyCode.fromCode(currencyCode);
+        return code != null && isValidCurrency(currencyCode) && rates.hasRate(code.ordinal());
+    }
 
-            // Convert from source currency to USD, then to target currency
-            double amountInUSD = amount / fromRate;
-            double convertedAmount = amountInUSD * toRate;
+    /**
+     * Convert a batch of amounts. Items without a date all use one snapshot, so
+     * they see the same rates; dated items use the rates in force on their date.
+     * Results are in input order; invalid items get an error result instead of
+     * failing the batch.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CurrencyConversionResultDTO> convertBatch(List<CurrencyConversionItemDTO> items) {
+        ExchangeRateSnapshot snapshot = exchangeRateService.getSnapshot();
+        List<CurrencyConversionResultDTO> results = new ArrayList<>(items.size());
 
-            System.out.println("Currency conversion: " + amount + " " + fromCurrency + " = " + convertedAmount + " " + toCurrency);
-            return convertedAmount;
+        for (int i = 0; i < items.size(); i++) {
+            CurrencyConversionItemDTO item = items.get(i);
+            if (item == null || item.getAmount() == null || !Double.isFinite(item.getAmount())) {
+                results.add(CurrencyConversionResultDTO.error(i, item, "Amount is required"));
+                continue;
+            }
+            LocalDate date = null;
+            if (item.getDate() != null) {
+                try {
+                    date = LocalDate.parse(item.getDate());
+                } catch (DateTimeParseException e) {
+                    results.add(CurrencyConversionResultDTO.error(i, item, "Invalid date: " + item.getDate()));
+                    continue;
+                }
+            }
+            ExchangeRateSnapshot rates = date != null ? exchangeRateService.getSnapshot(date) : snapshot;
+            String error = validateConversion(item.getFromCurrency(), item.getToCurrency(), rates);
+            if (error != null) {
+                results.add(CurrencyConversionResultDTO.error(i, item, error));
+                continue;
+            }
 
-        } catch (Exception e) {
-            System.err.println("Error converting currency: " + e.getMessage());
-            return amount;
+            CurrencyCode from = CurrencyCode.fromCode(item.getFromCurrency());
+            CurrencyCode to = CurrencyCode.fromCode(item.getToCurrency());
+            double rate = rates.rate(from.ordinal(), to.ordinal());
+            results.add(new CurrencyConversionResultDTO(i, true, item.getAmount(), from.name(),
+                item.getAmount() * rate, to.name(), rate, rates.getEffectiveDate(), null));
         }
+        return results;
     }
 }
@@ -0,0 +1,153 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.model.User;
+import com.example.tripplanner.repository.BlogRatingRepository;
+import com.example.tripplanner.repository.BudgetAlertRepository;
+import com.example.tripplanner.repository.TripShareRepository;
+import com.example.tripplanner.repository.UserRepository;
+import com.example.tripplanner.util.Template;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds and queues the daily email digest: active budget alerts, pending trip
+ * invitations and new ratings on the user's blog posts.
+ *
+ * Each kind of item is fetched for every user in one query, grouped in memory by
+ * user id, and the recipients are loaded with a single findAllById. Templates are
+ * compiled once at startup. Sending is handed to EmailDeliveryService.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DigestService {
+
+    @Autowired
+    private BudgetAlertRepository budgetAlertRepository;
+
+    @Autowired
+    private TripShareRepository tripShareRepository;
+
+    @Autowired
+    private BlogRatingRepository blogRatingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailDeliveryService emailDeliveryService;
+
+    @Value("${digest.lookback-hours:24}")
+    private long lookbackHours;
+
+    private Template digestTemplate;
+    private Template sectionTemplate;
+    private Template alertTemplate;
+    private Template invitationTemplate;
+    private Template ratingTemplate;
+
+    @PostConstruct
+    public void compileTemplates() {
+        digestTemplate = load("digest.html");
+        sectionTemplate = load("digest-section.html");
+        alertTemplate = load("digest-alert.html");
+        invitationTemplate = load("digest-invitation.html");
+        ratingTemplate = load("digest-rating.html");
+    }
+
+    /**
+     * Queues one digest per user who has anything to report. Returns the number of
+     * digests queued.
+     */
+    public int sendDailyDigests() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = now.minusHours(lookbackHours);
+
+        Map<Long, StringBuilder> alerts = new HashMap<>();
+        for (Object[] row : budgetAlertRepository.findDigestAlertRows(since)) {
+            append(alerts, (Long) row[0], alertTemplate, Map.of(
+                "trip", escape(row[1]),
+                "message", escape(row[3] != null ? row[3] : row[2])));
+        }
+
+        Map<Long, StringBuilder> invitations = new HashMap<>();
+        for (Object[] row : tripShareRepository.findDigestInvitationRows(now)) {
+            append(invitations, (Long) row[0], invitationTemplate, Map.of(
+                "trip", escape(row[1]),
+                "owner", escape(row[2] != null ? row[2] : "Someone"),
+                "permission", escape(row[3])));
+        }
+
+        Map<Long, StringBuilder> ratings = new HashMap<>();
+        for (Object[] row : blogRatingRepository.findDigestRatingRows(since)) {
+            append(ratings, (Long) row[0], ratingTemplate, Map.of(
+                "post", escape(row[1]),
+                "count", row[2].toString(),
+                "average", String.format("%.1f", ((Number) row[3]).doubleValue())));
+        }
+
+        Set<Long> userIds = new HashSet<>(alerts.keySet());
+        userIds.addAll(invitations.keySet());
+        userIds.addAll(ratings.keySet());
+
+        int queued = 0;
+        int rejected = 0;
+        List<User> users = userRepository.findAllById(userIds);
+        for (User user : users) {
+            if (!user.isActive() || user.getEmail() == null) {
+                continue;
+            }
+            String html = digestTemplate.render(Map.of(
+                "name", escape(user.getDisplayName() != null ? user.getDisplayName() : "traveller"),
+                "alerts", section("Budget alerts", alerts.get(user.getId())),
+                "invitations", section("Trip invitations", invitations.get(user.getId())),
+                "ratings", section("Ratings on your posts", ratings.get(user.getId()))));
+            if (emailDeliveryService.enqueue(user.getEmail(), "Your TripPlanner daily digest", html)) {
+                queued++;
+            } else {
+                rejected++;
+            }
+        }
+
+        System.out.println("✅ Queued " + queued + " daily digests" + (rejected > 0 ? " (" + rejected + " rejected)" : ""));
+        return queued;
+    }
+
+    private void append(Map<Long, StringBuilder> itemsByUser, Long userId, Template template, Map<String, String> values) {
+        itemsByUser.computeIfAbsent(userId, id -> new StringBuilder()).append(template.render(values));
+    }
+
+    private String section(String title, StringBuilder items) {
+        if (items == null) {
+            return "";
+        }
+        return sectionTemplate.render(Map.of("title", title, "items", items.toString()));
+    }
+
+    private static String escape(Object value) {
+        return value == null ? "" : HtmlUtils.htmlEscape(value.toString());
+    }
+
+    private static Template load(String name) {
+        try {
+            byte[] bytes = new ClassPathResource("templates/email/" + name).getContentAsByteArray();
+            return Template.compile(new String(bytes, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Email template not found: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous outbound mail with retry, backoff and per-domain rate limits.
+ *
+ * Messages wait in a delay queue with a "not before" time. Workers take the next
+ * due message; if its recipient domain has no token left it goes back in the
+ * queue until the bucket refills, and transient send failures go back with
+ * exponential backoff plus jitter. New messages are rejected once the number of
+ * queued messages reaches the capacity, so a burst cannot grow the heap without
+ * bound. On shutdown the workers finish their current send and whatever is still
+ * queued is flushed, skipping backoff delays but not the domain limits, until
+ * email.shutdown-flush-seconds runs out.
+ */
+@Service
+public class EmailDeliveryService {
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${email.from:no-reply@tripplanner.local}")
+    private String fromAddress;
+
+    @Value("${email.queue-capacity:5000}")
+    private int queueCapacity;
+
+    @Value("${email.workers:2}")
+    private int workerCount;
+
+    @Value("${email.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${email.initial-backoff-ms:2000}")
+    private long initialBackoffMs;
+
+    @Value("${email.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    // Per recipient domain: burst size and sustained messages per second
+    @Value("${email.domain-burst:20}")
+    private double domainBurst;
+
+    @Value("${email.domain-rate-per-second:2}")
+    private double domainRatePerSecond;
+
+    @Value("${email.shutdown-flush-seconds:20}")
+    private long shutdownFlushSeconds;
+
+    private final DelayQueue<OutgoingEmail> queue = new DelayQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<String, TokenBucket> bucketsByDomain = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean stopping;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofPlatform().name("email-sender-" + i).daemon().start(this::runWorker));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownFlushSeconds);
+        workers.forEach(Thread::interrupt);
+        try {
+            // A worker in the middle of an SMTP exchange finishes it before exiting
+            for (Thread worker : workers) {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush(deadline);
+    }
+
+    /**
+     * Queues an HTML email. Returns false when the queue is full or the address
+     * has no domain.
+     */
+    public boolean enqueue(String to, String subject, String html) {
+        String domain = domainOf(to);
+        if (domain == null || stopping) {
+            return false;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+        queue.put(new OutgoingEmail(to, domain, subject, html, 0, System.nanoTime()));
+        return true;
+    }
+
+    public Map<String, Long> getStats() {
+        return Map.of(
+            "queued", (long) queued.get(),
+            "sent", sentCount.get(),
+            "failed", failedCount.get(),
+            "rejected", rejectedCount.get());
+    }
+
+    private void runWorker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            OutgoingEmail email;
+            try {
+                email = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            long waitNanos = bucketFor(email.domain).tryAcquire();
+            if (waitNanos > 0) {
+                queue.put(email.deferredBy(waitNanos));
+                continue;
+            }
+
+            try {
+                send(email);
+                sentCount.incrementAndGet();
+                queued.decrementAndGet();
+            } catch (MailParseException | MailPreparationException | MailAuthenticationException e) {
+                // Retrying will not fix a bad message or bad credentials
+                giveUp(email, e);
+            } catch (MailException e) {
+                if (email.attempts + 1 >= maxAttempts) {
+                    giveUp(email, e);
+                } else {
+                    queue.put(email.retriedAfter(backoffNanos(email.attempts + 1)));
+                }
+            } catch (RuntimeException e) {
+                // Keep the worker alive whatever the mail stack throws
+                giveUp(email, e);
+            }
+        }
+    }
+
+    // Sends what is still queued, one attempt each, in due order until the deadline
+    private void flush(long deadline) {
+        List<OutgoingEmail> pending = new ArrayList<>(queue);
+        queue.clear();
+        pending.sort(null);
+
+        int flushed = 0;
+        int dropped = 0;
+        for (OutgoingEmail email : pending) {
+            TokenBucket bucket = bucketFor(email.domain);
+            long waitNanos = bucket.tryAcquire();
+            while (waitNanos > 0 && System.nanoTime() + waitNanos < deadline && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(waitNanos);
+                waitNanos = bucket.tryAcquire();
+            }
+            if (waitNanos > 0) {
+                dropped++;
+                queued.decrementAndGet();
+                continue;
+            }
+            try {
+                send(email);
+                sentCount.incrementAndGet();
+                queued.decrementAndGet();
+                flushed++;
+            } catch (RuntimeException e) {
+                giveUp(email, e);
+            }
+        }
+
+        if (flushed > 0) {
+            System.out.println("✅ Flushed " + flushed + " queued emails on shutdown");
+        }
+        if (dropped > 0) {
+            failedCount.addAndGet(dropped);
+            System.err.println("⚠️ Shut down with " + dropped + " emails unsent: domain rate limits outlasted email.shutdown-flush-seconds");
+        }
+    }
+
+    private TokenBucket bucketFor(String domain) {
+        return bucketsByDomain.computeIfAbsent(domain, d -> new TokenBucket(domainBurst, domainRatePerSecond));
+    }
+
+    private void send(OutgoingEmail email) {
+        MimeMessage message = mailSender.createMimeMessage();
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+            helper.setFrom(fromAddress);
+            helper.setTo(email.to);
+            helper.setSubject(email.subject);
+            helper.setText(email.html, true);
+        } catch (jakarta.mail.MessagingException e) {
+            throw new MailPreparationException(e);
+        }
+        mailSender.send(message);
+    }
+
+    private void giveUp(OutgoingEmail email, Exception e) {
+        failedCount.incrementAndGet();
+        queued.decrementAndGet();
+        System.err.println("Error sending email to " + email.to + " after " + (email.attempts + 1) + " attempts: " + e.getMessage());
+    }
+
+    // Exponential backoff, capped, with the delay drawn from the upper half of the window
+    private long backoffNanos(int attempt) {
+        long ceilingMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(ceilingMs / 2, ceilingMs + 1));
+    }
+
+    private static String domainOf(String address) {
+        int at = address == null ? -1 : address.lastIndexOf('@');
+        if (at < 0 || at == address.length() - 1) {
+            return null;
+        }
+        return address.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static final class OutgoingEmail implements Delayed {
+        final String to;
+        final String domain;
+        final String subject;
+        final String html;
+        final int attempts;
+        final long notBeforeNanos;
+
+        OutgoingEmail(String to, String domain, String subject, String html, int attempts, long notBeforeNanos) {
+            this.to = to;
+            this.domain = domain;
+            this.subject = subject;
+            this.html = html;
+            this.attempts = attempts;
+            this.notBeforeNanos = notBeforeNanos;
+        }
+
+        OutgoingEmail deferredBy(long nanos) {
+            return new OutgoingEmail(to, domain, subject, html, attempts, System.nanoTime() + nanos);
+        }
+
+        OutgoingEmail retriedAfter(long nanos) {
+            return new OutgoingEmail(to, domain, subject, html, attempts + 1, System.nanoTime() + nanos);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(notBeforeNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(notBeforeNanos, ((OutgoingEmail) other).notBeforeNanos);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.job.ExchangeRateRefreshJob;
+import com.example.tripplanner.provider.ExchangeRateProvider;
+import com.example.tripplanner.provider.RateQuote;
+import com.example.tripplanner.util.ExchangeRateSnapshot;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Pulls rates from the configured ExchangeRateProvider and stores them through
+ * ExchangeRateService, which swaps in a new snapshot.
+ *
+ * The provider is only ever called from ExchangeRateRefreshJob, which runs on one
+ * node of the cluster at a time; the other nodes pick the stored rates up on
+ * their next reload. A quote identical to the last stored one is not written
+ * again. When a fetch fails or returns an unusable quote, nothing is written and
+ * the last good snapshot (and the last good rows in the database) stay in use;
+ * the failure only shows up in the staleness status. That status lives in the
+ * job's data map in the clustered job store, so every node reports the same one.
+ */
+@Service
+public class ExchangeRateRefresher {
+
+    static final String LAST_ATTEMPT_AT = "lastAttemptAt";
+    static final String LAST_SUCCESS_AT = "lastSuccessAt";
+    static final String LAST_ERROR = "lastError";
+    static final String LAST_QUOTE = "lastQuote";
+    static final String CONSECUTIVE_FAILURES = "consecutiveFailures";
+    static final String SUCCESS_COUNT = "successCount";
+    static final String FAILURE_COUNT = "failureCount";
+    static final String REPORTED_STALE = "reportedStale";
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    // Absent when exchange-rates.provider is "none"
+    @Autowired
+    private Optional<ExchangeRateProvider> provider;
+
+    @Autowired
+    private Scheduler scheduler;
+
+    // Rates older than this are reported as stale
+    @Value("${exchange-rates.stale-after-ms:86400000}")
+    private long staleAfterMs;
+
+    /**
+     * One refresh. state is the job's data map; it is persisted after the job
+     * returns.
+     */
+    public void refresh(JobDataMap state) {
+        if (provider.isEmpty()) {
+            return;
+        }
+        ExchangeRateProvider source = provider.get();
+        state.put(LAST_ATTEMPT_AT, System.currentTimeMillis());
+        try {
+            RateQuote quote = source.fetch();
+            String fingerprint = quote.toString();
+            if (!fingerprint.equals(state.getString(LAST_QUOTE))) {
+                exchangeRateService.saveRates(quote.ratesPerUsd(), quote.effectiveDate(), quote.source());
+                state.put(LAST_QUOTE, fingerprint);
+            }
+            state.put(LAST_SUCCESS_AT, System.currentTimeMillis());
+            state.remove(LAST_ERROR);
+            state.put(CONSECUTIVE_FAILURES, 0);
+            state.put(SUCCESS_COUNT, count(state, SUCCESS_COUNT) + 1);
+            state.put(REPORTED_STALE, false);
+        } catch (Exception e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            int failures = (int) count(state, CONSECUTIVE_FAILURES) + 1;
+            state.put(LAST_ERROR, error);
+            state.put(CONSECUTIVE_FAILURES, failures);
+            state.put(FAILURE_COUNT, count(state, FAILURE_COUNT) + 1);
+            System.err.println("❌ Exchange rate refresh from " + source.getName() + " failed (" +
+                failures + " in a row), keeping last good rates: " + error);
+        }
+
+        if (isStale(state) && !Boolean.TRUE.equals(state.get(REPORTED_STALE))) {
+            state.put(REPORTED_STALE, true);
+            Instant lastSuccessAt = instant(state, LAST_SUCCESS_AT);
+            System.err.println("⚠️ Exchange rates are stale; last successful refresh: " +
+                (lastSuccessAt != null ? lastSuccessAt : "never"));
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        JobDataMap state;
+        try {
+            JobDetail job = scheduler.getJobDetail(JobKey.jobKey(ExchangeRateRefreshJob.NAME, ExchangeRateRefreshJob.GROUP));
+            state = job != null ? job.getJobDataMap() : new JobDataMap();
+        } catch (SchedulerException e) {
+            throw new RuntimeException("Exchange rate refresh status unavailable: " + e.getMessage(), e);
+        }
+
+        ExchangeRateSnapshot snapshot = exchangeRateService.getSnapshot();
+        Instant lastSuccessAt = instant(state, LAST_SUCCESS_AT);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("provider", provider.map(ExchangeRateProvider::getName).orElse("none"));
+        status.put("snapshotVersion", snapshot.getVersion());
+        status.put("effectiveDate", snapshot.getEffectiveDate());
+        status.put("lastAttemptAt", instant(state, LAST_ATTEMPT_AT));
+        status.put("lastSuccessAt", lastSuccessAt);
+        status.put("secondsSinceSuccess", lastSuccessAt != null ? Duration.between(lastSuccessAt, Instant.now()).getSeconds() : null);
+        status.put("stale", isStale(state));
+        status.put("consecutiveFailures", count(state, CONSECUTIVE_FAILURES));
+        status.put("successCount", count(state, SUCCESS_COUNT));
+        status.put("failureCount", count(state, FAILURE_COUNT));
+        status.put("lastError", state.get(LAST_ERROR));
+        return status;
+    }
+
+    // Stale once the last success is too old; before any success, only once an attempt has failed
+    boolean isStale(JobDataMap state) {
+        Instant lastSuccessAt = instant(state, LAST_SUCCESS_AT);
+        if (lastSuccessAt == null) {
+            return count(state, CONSECUTIVE_FAILURES) > 0;
+        }
+        return Duration.between(lastSuccessAt, Instant.now()).toMillis() > staleAfterMs;
+    }
+
+    private static long count(JobDataMap state, String key) {
+        Object value = state.get(key);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static Instant instant(JobDataMap state, String key) {
+        Object value = state.get(key);
+        return value instanceof Number number ? Instant.ofEpochMilli(number.longValue()) : null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.model.CurrencyCode;
+import com.example.tripplanner.repository.ExchangeRateRepository;
+import com.example.tripplanner.util.ExchangeRateHistory;
+import com.example.tripplanner.util.ExchangeRateSnapshot;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the exchange-rate history and the current snapshot.
+ *
+ * Rates are persisted in exchange_rates with effective dates. A reload reads the
+ * whole history in one query, builds a new ExchangeRateHistory (which includes
+ * today's immutable snapshot) and swaps it in with a single reference write;
+ * readers never lock and always see a complete matrix. Snapshots for past dates
+ * come from the history's day-slice cache. Currencies with no stored rate keep
+ * the bootstrap rate, so a fresh database still converts.
+ */
+@Service
+public class ExchangeRateService {
+
+    // Units per USD by CurrencyCode ordinal; used only for currencies with no stored rate
+    private static final double[] BOOTSTRAP_RATES_PER_USD = new double[CurrencyCode.values().length];
+
+    static {
+        Map<CurrencyCode, Double> bootstrap = new EnumMap<>(CurrencyCode.class);
+        bootstrap.put(CurrencyCode.USD, 1.0);
+        bootstrap.put(CurrencyCode.EUR, 0.85);
+        bootstrap.put(CurrencyCode.GBP, 0.73);
+        bootstrap.put(CurrencyCode.JPY, 110.0);
+        bootstrap.put(CurrencyCode.CAD, 1.25);
+        bootstrap.put(CurrencyCode.AUD, 1.35);
+        bootstrap.put(CurrencyCode.CHF, 0.92);
+        bootstrap.put(CurrencyCode.CNY, 6.45);
+        bootstrap.put(CurrencyCode.INR, 74.0);
+        bootstrap.put(CurrencyCode.BRL, 5.2);
+        bootstrap.put(CurrencyCode.MXN, 20.0);
+        bootstrap.put(CurrencyCode.KRW, 1180.0);
+        bootstrap.put(CurrencyCode.RUB, 90.0);
+        bootstrap.put(CurrencyCode.ZAR, 18.0);
+        bootstrap.put(CurrencyCode.SEK, 8.6);
+        bootstrap.put(CurrencyCode.NOK, 8.9);
+        bootstrap.put(CurrencyCode.DKK, 6.3);
+        bootstrap.put(CurrencyCode.PLN, 3.9);
+        bootstrap.put(CurrencyCode.CZK, 21.7);
+        bootstrap.put(CurrencyCode.HUF, 360.0);
+        bootstrap.put(CurrencyCode.SGD, 1.35);
+        bootstrap.put(CurrencyCode.HKD, 7.8);
+        bootstrap.put(CurrencyCode.NZD, 1.42);
+        bootstrap.put(CurrencyCode.LKR, 320.0);
+        bootstrap.forEach((code, rate) -> BOOTSTRAP_RATES_PER_USD[code.ordinal()] = rate);
+    }
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    // Day slices kept per history; a year of distinct expense dates fits
+    @Value("${exchange-rates.slice-cache-size:366}")
+    private int sliceCacheSize;
+
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicReference<ExchangeRateHistory> history = new AtomicReference<>();
+
+    @PostConstruct
+    public void init() {
+        // Bootstrap rates until the first reload
+        history.set(buildHistory(List.of(), 0L));
+    }
+
+    public ExchangeRateSnapshot getSnapshot() {
+        return history.get().getCurrent();
+    }
+
+    // The full history, for converting many amounts dated on different days
+    public ExchangeRateHistory getHistory() {
+        return history.get();
+    }
+
+    // Rates in force on the given date; today's snapshot when the date is null
+    public ExchangeRateSnapshot getSnapshot(LocalDate date) {
+        return history.get().snapshotOn(date);
+    }
+
+    /**
+     * Reloads the rate history and rebuilds today's snapshot. Runs at startup and
+     * hourly, so rates stored by another node's refresh are picked up and rates
+     * with a new effective date take over just after midnight.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${exchange-rates.reload-cron:0 1 * * * *}")
+    public void reload() {
+        List<Object[]> rows = exchangeRateRepository.findAllRates();
+        ExchangeRateHistory next = buildHistory(rows, versions.incrementAndGet());
+        history.set(next);
+
+        LocalDate effectiveDate = next.getCurrent().getEffectiveDate();
+        System.out.println("✅ Exchange rates loaded: " + rows.size() + " stored rates" +
+            (effectiveDate != null ? ", effective " + effectiveDate : ", using bootstrap rates") +
+            " (snapshot " + next.getVersion() + ")");
+    }
+
+    /**
+     * Stores units-per-USD rates effective from the given date and reloads the
+     * snapshot. A rate already stored for the same currency and date is replaced.
+     */
+    @Transactional
+    public void saveRates(Map<CurrencyCode, BigDecimal> ratesPerUsd, LocalDate effectiveDate, String source) {
+        for (Map.Entry<CurrencyCode, BigDecimal> entry : ratesPerUsd.entrySet()) {
+            if (entry.getValue() == null || entry.getValue().signum() <= 0) {
+                throw new IllegalArgumentException("Exchange rate must be positive for " + entry.getKey());
+            }
+            exchangeRateRepository.upsert(entry.getKey().name(), entry.getValue(), effectiveDate, source);
+        }
+        reload();
+    }
+
+    // Rows are [currency, effectiveDate, ratePerUsd] ordered by currency then date
+    private ExchangeRateHistory buildHistory(List<Object[]> rows, long version) {
+        int n = CurrencyCode.values().length;
+        int[] counts = new int[n];
+        for (Object[] row : rows) {
+            counts[((CurrencyCode) row[0]).ordinal()]++;
+        }
+
+        long[][] effectiveDays = new long[n][];
+        double[][] ratesPerUsd = new double[n][];
+        for (int c = 0; c < n; c++) {
+            effectiveDays[c] = new long[counts[c]];
+            ratesPerUsd[c] = new double[counts[c]];
+        }
+        int[] filled = new int[n];
+        for (Object[] row : rows) {
+            int c = ((CurrencyCode) row[0]).ordinal();
+            effectiveDays[c][filled[c]] = ((LocalDate) row[1]).toEpochDay();
+            ratesPerUsd[c][filled[c]] = ((BigDecimal) row[2]).doubleValue();
+            filled[c]++;
+        }
+        // Everything is quoted against USD
+        effectiveDays[CurrencyCode.USD.ordinal()] = new long[0];
+        ratesPerUsd[CurrencyCode.USD.ordinal()] = new double[0];
+
+        return new ExchangeRateHistory(effectiveDays, ratesPerUsd, BOOTSTRAP_RATES_PER_USD, version,
+            LocalDate.now(), sliceCacheSize);
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.DuplicateGroupDTO;
+import com.example.tripplanner.dto.ExpenseDTO;
+import com.example.tripplanner.event.ExpenseWrittenEvent;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.repository.ExpenseRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.util.StringSimilarity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Finds near-duplicate expenses produced by imports and offline replays.
+ *
+ * Expenses are bucketed by (amount, currency, day); each expense is only compared
+ * with the buckets for the same amount and currency within the date window, so
+ * the number of string comparisons stays proportional to the number of expenses
+ * that actually share an amount. Vendor and description are then compared with
+ * Jaro-Winkler on normalized text and matching pairs are grouped with union-find.
+ */
+@Service
+@Transactional
+public class ExpenseDeduplicationService {
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${expenses.dedup.date-window-days:1}")
+    private int dateWindowDays;
+
+    @Value("${expenses.dedup.similarity-threshold:0.85}")
+    private double similarityThreshold;
+
+    private record BucketKey(long amountMinorUnits, Expense.Currency currency, long epochDay) {
+    }
+
+    @Transactional(readOnly = true)
+    public List<DuplicateGroupDTO> findSuspectedDuplicates(Long tripId) {
+        List<Expense> expenses = new ArrayList<>(expenseRepository.findByTripId(tripId));
+        expenses.sort(Comparator.comparing(Expense::getId));
+        int n = expenses.size();
+
+        String[] vendors = new String[n];
+        String[] descriptions = new String[n];
+        Map<BucketKey, List<Integer>> buckets = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Expense expense = expenses.get(i);
+            vendors[i] = StringSimilarity.normalize(expense.getVendor());
+            descriptions[i] = StringSimilarity.normalize(expense.getDescription());
+            buckets.computeIfAbsent(bucketKey(expense, 0), key -> new ArrayList<>()).add(i);
+        }
+
+        int[] parent = new int[n];
+        double[] groupSimilarity = new double[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            groupSimilarity[i] = 1.0;
+        }
+
+        for (int i = 0; i < n; i++) {
+            Expense expense = expenses.get(i);
+            for (int offset = -dateWindowDays; offset <= dateWindowDays; offset++) {
+                List<Integer> candidates = buckets.get(bucketKey(expense, offset));
+                if (candidates == null) {
+                    continue;
+                }
+                for (int j : candidates) {
+                    // Each unordered pair is compared once
+                    if (j <= i) {
+                        continue;
+                    }
+                    double similarity = similarity(vendors[i], descriptions[i], vendors[j], descriptions[j]);
+                    if (similarity >= similarityThreshold) {
+                        int rootI = find(parent, i);
+                        int rootJ = find(parent, j);
+                        double linked = Math.min(similarity, Math.min(groupSimilarity[rootI], groupSimilarity[rootJ]));
+                        parent[rootJ] = rootI;
+                        groupSimilarity[rootI] = linked;
+                    }
+                }
+            }
+        }
+
+        Map<Integer, List<Expense>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(expenses.get(i));
+        }
+
+        List<DuplicateGroupDTO> result = new ArrayList<>();
+        for (Map.Entry<Integer, List<Expense>> group : groups.entrySet()) {
+            if (group.getValue().size() < 2) {
+                continue;
+            }
+            List<ExpenseDTO> expenseDTOs = group.getValue().stream()
+                .map(tripService::convertToExpenseDTO)
+                .collect(Collectors.toList());
+            result.add(new DuplicateGroupDTO(expenseDTOs, groupSimilarity[group.getKey()]));
+        }
+
+        System.out.println("✅ Found " + result.size() + " suspected duplicate groups in " + n + " expenses for trip " + tripId);
+        return result;
+    }
+
+    /**
+     * Keeps one expense, copies over any details it is missing from the duplicates,
+     * then deletes the duplicates and takes them out of the rollups. A duplicate
+     * with a different amount or currency is probably a separate charge, so it is
+     * only merged when the caller confirms the mismatch.
+     */
+    public ExpenseDTO mergeDuplicates(Long tripId, Long keepExpenseId, List<Long> duplicateExpenseIds,
+                                      boolean confirmAmountMismatch) {
+        Expense keep = expenseRepository.findById(keepExpenseId)
+            .orElseThrow(() -> new RuntimeException("Expense not found with ID: " + keepExpenseId));
+        if (!keep.getTrip().getId().equals(tripId)) {
+            throw new RuntimeException("Expense does not belong to the specified trip");
+        }
+
+        List<Expense> duplicates = expenseRepository.findAllById(duplicateExpenseIds);
+        if (duplicates.size() != new HashSet<>(duplicateExpenseIds).size()) {
+            throw new RuntimeException("One or more duplicate expenses were not found");
+        }
+
+        int merged = 0;
+        for (Expense duplicate : duplicates) {
+            if (duplicate.getId().equals(keepExpenseId)) {
+                continue;
+            }
+            if (!duplicate.getTrip().getId().equals(tripId)) {
+                throw new RuntimeException("Expense " + duplicate.getId() + " does not belong to the specified trip");
+            }
+            if (!confirmAmountMismatch && (duplicate.getAmountMinorUnits() != keep.getAmountMinorUnits()
+                    || duplicate.getCurrency() != keep.getCurrency())) {
+                throw new RuntimeException("Expense " + duplicate.getId() + " is " + duplicate.getFormattedAmount()
+                    + " but expense " + keepExpenseId + " is " + keep.getFormattedAmount()
+                    + "; confirm the amount mismatch to merge them");
+            }
+            if (keep.getReceiptUrl() == null) keep.setReceiptUrl(duplicate.getReceiptUrl());
+            if (keep.getVendor() == null) keep.setVendor(duplicate.getVendor());
+            if (keep.getLocation() == null) keep.setLocation(duplicate.getLocation());
+            if (keep.getPaymentMethod() == null) keep.setPaymentMethod(duplicate.getPaymentMethod());
+            if (keep.getNotes() == null) keep.setNotes(duplicate.getNotes());
+
+            expenseRollupService.removeExpense(duplicate);
+            eventPublisher.publishEvent(ExpenseWrittenEvent.removed(duplicate));
+            expenseRepository.delete(duplicate);
+            merged++;
+        }
+
+        Expense saved = expenseRepository.save(keep);
+        tripRepository.incrementDataVersion(tripId);
+        eventPublisher.publishEvent(new TripChangedEvent(tripId, TripChangedEvent.Change.EXPENSES_CHANGED));
+        System.out.println("✅ Merged " + merged + " duplicates into expense " + keepExpenseId);
+        return tripService.convertToExpenseDTO(saved);
+    }
+
+    private BucketKey bucketKey(Expense expense, int dayOffset) {
+        return new BucketKey(expense.getAmountMinorUnits(), expense.getCurrency(),
+            expense.getExpenseDate().toEpochDay() + dayOffset);
+    }
+
+    private double similarity(String vendorA, String descriptionA, String vendorB, String descriptionB) {
+        double descriptionSimilarity = StringSimilarity.jaroWinkler(descriptionA, descriptionB);
+        if (vendorA.isEmpty() || vendorB.isEmpty()) {
+            return descriptionSimilarity;
+        }
+        double vendorSimilarity = StringSimilarity.jaroWinkler(vendorA, vendorB);
+        return (vendorSimilarity + descriptionSimilarity) / 2.0;
+    }
+
+    private int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.ExpenseTotalDTO;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.CurrencyCode;
+import com.example.tripplanner.model.ExpenseDailyRollup;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.repository.ExpenseDailyRollupRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.repository.UserExpenseRollupRepository;
+import com.example.tripplanner.repository.UserRepository;
+import com.example.tripplanner.util.ExchangeRateHistory;
+import com.example.tripplanner.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Maintains the expense rollup tables. Every expense write applies a delta in the
+ * same transaction, so reads never have to re-aggregate the raw expenses table.
+ */
+@Service
+@Transactional
+public class ExpenseRollupService {
+
+    @Autowired
+    private ExpenseDailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private UserExpenseRollupRepository userRollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Value("${currency.reporting-currency:USD}")
+    private String reportingCurrency;
+
+    // Write path
+    public void recordExpense(Expense expense) {
+        applyDelta(expense, expense.getAmount(), 1);
+    }
+
+    public void removeExpense(Expense expense) {
+        applyDelta(expense, expense.getAmount().negate(), -1);
+        Trip trip = expense.getTrip();
+        dailyRollupRepository.deleteEmptyByTripId(trip.getId());
+        if (trip.getUser() != null) {
+            userRollupRepository.deleteEmptyByUserId(trip.getUser().getId());
+        }
+    }
+
+    // Removes a trip's rows and takes them back out of the owner's rollup
+    public void removeTrip(Trip trip) {
+        if (trip.getUser() != null) {
+            Long userId = trip.getUser().getId();
+            for (ExpenseDailyRollup row : dailyRollupRepository.findByTripIdOrderByRollupDate(trip.getId())) {
+                userRollupRepository.applyDelta(userId, row.getRollupDate(), row.getCategory().name(),
+                    row.getCurrency().name(), row.getTotalAmount().negate(), -row.getExpenseCount());
+            }
+            userRollupRepository.deleteEmptyByUserId(userId);
+        }
+        dailyRollupRepository.deleteByTripId(trip.getId());
+    }
+
+    // Recomputes a trip's rollups from the expenses table; used for backfill
+    public int rebuildTrip(Long tripId) {
+        dailyRollupRepository.deleteByTripId(tripId);
+        int rows = dailyRollupRepository.rebuildFromExpenses(tripId);
+        System.out.println("✅ Rebuilt " + rows + " expense rollup rows for trip " + tripId);
+        return rows;
+    }
+
+    // Rows are [date, currency, sum]
+    private BigDecimal sumInTripCurrency(Long tripId, List<Object[]> rows) {
+        CurrencyCode target = tripCurrency(tripId);
+        ExchangeRateHistory rates = exchangeRateService.getHistory();
+        long total = 0L;
+        for (Object[] row : rows) {
+            total = Money.add(total, convert(rates, (LocalDate) row[0], (Expense.Currency) row[1], (BigDecimal) row[2], target));
+        }
+        return Money.fromMinorUnits(total);
+    }
+
+    private CurrencyCode tripCurrency(Long tripId) {
+        CurrencyCode tripCurrency = CurrencyCode.fromCode(tripRepository.findCurrencyById(tripId)
+            .orElseThrow(() -> new RuntimeException("Trip not found with ID: " + tripId)));
+        return tripCurrency != null ? tripCurrency : CurrencyCode.USD;
+    }
+
+    // One rollup amount in minor units of the target currency, at the rate of its date
+    private static long convert(ExchangeRateHistory rates, LocalDate date, Expense.Currency currency, BigDecimal amount, CurrencyCode target) {
+        return rates.convertMinorUnits(Money.toMinorUnits(amount), CurrencyCode.of(currency).ordinal(), target.ordinal(), date);
+    }
+
+    // Rows are [date, currency, sum, count]; rows whose date maps to the same period are added up in order
+    private List<ExpenseTotalDTO> totalsByPeriod(List<Object[]> rows, CurrencyCode target, Function<LocalDate, String> period) {
+        ExchangeRateHistory rates = exchangeRateService.getHistory();
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            LocalDate date = (LocalDate) row[0];
+            long[] total = totals.computeIfAbsent(period.apply(date), key -> new long[2]);
+            total[0] = Money.add(total[0], convert(rates, date, (Expense.Currency) row[1], (BigDecimal) row[2], target));
+            total[1] += ((Number) row[3]).longValue();
+        }
+        List<ExpenseTotalDTO> result = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> result.add(new ExpenseTotalDTO(key, null, Money.fromMinorUnits(total[0]), total[1], target.name())));
+        return result;
+    }
+
+    // Rows are [category, date, currency, sum, count]
+    private List<ExpenseTotalDTO> totalsByCategory(List<Object[]> rows, CurrencyCode target) {
+        ExchangeRateHistory rates = exchangeRateService.getHistory();
+        Map<Expense.ExpenseCategory, long[]> totals = new EnumMap<>(Expense.ExpenseCategory.class);
+        for (Object[] row : rows) {
+            long[] total = totals.computeIfAbsent((Expense.ExpenseCategory) row[0], key -> new long[2]);
+            total[0] = Money.add(total[0], convert(rates, (LocalDate) row[1], (Expense.Currency) row[2], (BigDecimal) row[3], target));
+            total[1] += ((Number) row[4]).longValue();
+        }
+        List<ExpenseTotalDTO> result = new ArrayList<>(totals.size());
+        totals.forEach((category, total) -> result.add(new ExpenseTotalDTO(null, category, Money.fromMinorUnits(total[0]), total[1], target.name())));
+        return result;
+    }
+
+    private void applyDelta(Expense expense, BigDecimal amount, long count) {
+        Trip trip = expense.getTrip();
+        if (trip == null || trip.getId() == null || amount == null) {
+            return;
+        }
+        String category = expense.getCategory().name();
+        String currency = expense.getCurrency().name();
+        dailyRollupRepository.applyDelta(trip.getId(), expense.getExpenseDate(), category, currency, amount, count);
+        if (trip.getUser() != null) {
+            userRollupRepository.applyDelta(trip.getUser().getId(), expense.getExpenseDate(), category, currency, amount, count);
+        }
+    }
+
+    // Read path; trip totals are in the trip currency, each day's spend per currency converted at that day's rate
+    @Transactional(readOnly = true)
+    public List<ExpenseTotalDTO> getDailyTotals(Long tripId) {
+        return totalsByPeriod(dailyRollupRepository.findDailyCurrencyTotalsWithCountsByTripId(tripId), tripCurrency(tripId),
+            LocalDate::toString);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExpenseTotalDTO> getMonthlyTotals(Long tripId) {
+        return totalsByPeriod(dailyRollupRepository.findDailyCurrencyTotalsWithCountsByTripId(tripId), tripCurrency(tripId),
+            date -> YearMonth.from(date).toString());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExpenseTotalDTO> getCategoryTotals(Long tripId) {
+        return totalsByCategory(dailyRollupRepository.findCategoryCurrencyTotalsByTripId(tripId), tripCurrency(tripId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExpenseTotalDTO> getCategoryTotals(Long tripId, LocalDate startDate, LocalDate endDate) {
+        return totalsByCategory(dailyRollupRepository.findCategoryCurrencyTotalsByTripIdAndDateRange(tripId, startDate, endDate),
+            tripCurrency(tripId));
+    }
+
+    // "This week" (Monday to Sunday) and "this month" views for a trip
+    @Transactional(readOnly = true)
+    public List<ExpenseTotalDTO> getWeekCategoryTotals(Long tripId, LocalDate day) {
+        LocalDate weekStart = day.with(DayOfWeek.MONDAY);
+        return getCategoryTotals(tripId, weekStart, weekStart.plusDays(6));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExpenseTotalDTO> getMonthCategoryTotals(Long tripId, YearMonth month) {
+        return getCategoryTotals(tripId, month.atDay(1), month.atEndOfMonth());
+    }
+
+    // Trip total in the trip currency; each day's spend per currency is converted at that day's rate
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalAmount(Long tripId) {
+        return sumInTripCurrency(tripId, dailyRollupRepository.findDailyCurrencyTotalsByTripId(tripId));
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalAmount(Long tripId, LocalDate startDate, LocalDate endDate) {
+        return sumInTripCurrency(tripId, dailyRollupRepository.findDailyCurrencyTotalsByTripIdAndDateRange(tripId, startDate, endDate));
+    }
+
+    // User totals span trips in different currencies, so they are reported in one fixed currency
+    @Transactional(readOnly = true)
+    public List<ExpenseTotalDTO> getUserDailyTotals(Long userId, LocalDate startDate, LocalDate endDate) {
+        return totalsByPeriod(userRollupRepository.findDailyCurrencyTotalsByUserIdAndDateRange(userId, startDate, endDate),
+            reportingCurrency(), LocalDate::toString);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExpenseTotalDTO> getUserCategoryTotals(Long userId, LocalDate startDate, LocalDate endDate) {
+        return totalsByCategory(userRollupRepository.findCategoryCurrencyTotalsByUserIdAndDateRange(userId, startDate, endDate),
+            reportingCurrency());
+    }
+
+    // "This week" view for a user across all of their trips, Monday to Sunday; empty when there is no such user
+    @Transactional(readOnly = true)
+    public Optional<List<ExpenseTotalDTO>> getUserWeekCategoryTotals(String firebaseUid, LocalDate day) {
+        LocalDate weekStart = day.with(DayOfWeek.MONDAY);
+        return userRepository.findByFirebaseUid(firebaseUid)
+            .map(user -> getUserCategoryTotals(user.getId(), weekStart, weekStart.plusDays(6)));
+    }
+
+    // "This month" view for a user across all of their trips; empty when there is no such user
+    @Transactional(readOnly = true)
+    public Optional<List<ExpenseTotalDTO>> getUserMonthCategoryTotals(String firebaseUid, YearMonth month) {
+        return userRepository.findByFirebaseUid(firebaseUid)
+            .map(user -> getUserCategoryTotals(user.getId(), month.atDay(1), month.atEndOfMonth()));
+    }
+
+    private CurrencyCode reportingCurrency() {
+        CurrencyCode code = CurrencyCode.fromCode(reportingCurrency);
+        return code != null ? code : CurrencyCode.USD;
+    }
+}
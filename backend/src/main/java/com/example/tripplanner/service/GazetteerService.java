@@ -0,0 +1,174 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import com.example.tripplanner.util.Gazetteer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline city lookup for destination typeahead.
+ *
+ * Loads a GeoNames export (the cities15000 layout: tab-separated, one populated
+ * place per line) into a Gazetteer at startup. The bundled file is a small
+ * sample; locations.gazetteer.location can point at a full export on disk. Matches are
+ * returned in the same shape as the Nominatim results, so the frontend cannot
+ * tell which source answered.
+ */
+@Service
+public class GazetteerService {
+
+    // Column positions in the GeoNames dump format
+    private static final int COL_ID = 0;
+    private static final int COL_NAME = 1;
+    private static final int COL_ASCII_NAME = 2;
+    private static final int COL_ALTERNATE_NAMES = 3;
+    private static final int COL_LATITUDE = 4;
+    private static final int COL_LONGITUDE = 5;
+    private static final int COL_FEATURE_CLASS = 6;
+    private static final int COL_COUNTRY_CODE = 8;
+    private static final int COL_POPULATION = 14;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${locations.gazetteer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${locations.gazetteer.location:classpath:gazetteer/cities.tsv}")
+    private String location;
+
+    // Alternate names make the index several times larger on a full export
+    @Value("${locations.gazetteer.include-alternate-names:true}")
+    private boolean includeAlternateNames;
+
+    // Shorter queries go to the providers; one letter matches too much to rank well
+    @Value("${locations.gazetteer.min-query-length:2}")
+    private int minQueryLength;
+
+    private volatile Gazetteer gazetteer = new Gazetteer.Builder().build();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            System.out.println("ℹ️ Gazetteer disabled, location search goes straight to the providers");
+            return;
+        }
+        Resource resource = resourceLoader.getResource(location);
+        Gazetteer.Builder builder = new Gazetteer.Builder();
+        int skipped = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (!addPlace(builder, line.split("\t", -1))) {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Could not load gazetteer from " + location + ": " + e.getMessage());
+            return;
+        }
+        gazetteer = builder.build();
+        System.out.println("✅ Gazetteer loaded: " + gazetteer.size() + " places, " + gazetteer.keyCount() + " names" +
+            (skipped > 0 ? " (" + skipped + " lines skipped)" : ""));
+    }
+
+    /**
+     * Matching places, most populous first, or an empty list when the query is too
+     * short or nothing matches.
+     */
+    public List<LocationSearchResponseDTO.Result> search(String query, int limit) {
+        if (query == null || Gazetteer.fold(query).length() < minQueryLength) {
+            return List.of();
+        }
+        Gazetteer current = gazetteer;
+        int[] places = current.search(query, limit);
+        if (places.length == 0) {
+            missCount.incrementAndGet();
+            return List.of();
+        }
+        hitCount.incrementAndGet();
+
+        List<LocationSearchResponseDTO.Result> results = new ArrayList<>(places.length);
+        for (int place : places) {
+            results.add(toResult(current, place));
+        }
+        return results;
+    }
+
+    public Gazetteer getGazetteer() {
+        return gazetteer;
+    }
+
+    public Map<String, Long> getStats() {
+        Gazetteer current = gazetteer;
+        return Map.of(
+            "places", (long) current.size(),
+            "names", (long) current.keyCount(),
+            "hits", hitCount.get(),
+            "misses", missCount.get());
+    }
+
+    public static String countryName(String countryCode) {
+        if (countryCode == null || countryCode.isBlank()) {
+            return "Unknown";
+        }
+        String name = Locale.of("", countryCode).getDisplayCountry(Locale.ENGLISH);
+        return name.isBlank() ? countryCode : name;
+    }
+
+    private boolean addPlace(Gazetteer.Builder builder, String[] columns) {
+        if (columns.length <= COL_POPULATION || !"P".equals(columns[COL_FEATURE_CLASS])) {
+            return false;
+        }
+        try {
+            List<String> searchNames = new ArrayList<>();
+            searchNames.add(columns[COL_ASCII_NAME]);
+            if (includeAlternateNames && !columns[COL_ALTERNATE_NAMES].isEmpty()) {
+                searchNames.addAll(Arrays.asList(columns[COL_ALTERNATE_NAMES].split(",")));
+            }
+            builder.add(columns[COL_ID], columns[COL_NAME], columns[COL_COUNTRY_CODE].toUpperCase(Locale.ROOT),
+                Double.parseDouble(columns[COL_LATITUDE]), Double.parseDouble(columns[COL_LONGITUDE]),
+                columns[COL_POPULATION].isEmpty() ? 0L : Long.parseLong(columns[COL_POPULATION]), searchNames);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static LocationSearchResponseDTO.Result toResult(Gazetteer gazetteer, int place) {
+        String name = gazetteer.getName(place);
+        String countryCode = gazetteer.getCountryCode(place);
+        String country = countryName(countryCode);
+
+        List<LocationSearchResponseDTO.LabelComponent> labels = List.of(
+            new LocationSearchResponseDTO.LabelComponent("CITY", name),
+            new LocationSearchResponseDTO.LabelComponent("COUNTRY", country));
+
+        return new LocationSearchResponseDTO.Result(
+            new LocationSearchResponseDTO.Destination("geonames:" + gazetteer.getId(place), "CITY",
+                countryCode.toLowerCase(Locale.ROOT), gazetteer.getLatitude(place), gazetteer.getLongitude(place), 0),
+            new LocationSearchResponseDTO.DisplayInfo(name, name + ", " + country, labels,
+                LocationSearchResponseDTO.PLACEHOLDER_IMAGE));
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.config.AsyncConfig;
+import com.example.tripplanner.dto.TripPlanDTO;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.Activity;
+import com.example.tripplanner.model.Itinerary;
+import com.example.tripplanner.model.Place;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.repository.ActivityRepository;
+import com.example.tripplanner.repository.ItineraryRepository;
+import com.example.tripplanner.repository.PlaceRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.util.DayClusterer;
+import com.example.tripplanner.util.KdTree;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates a trip's day plan from its places.
+ *
+ * The trip's located places that no activity uses yet (hotels excluded) are
+ * split into one group per day with DayClusterer, so each day covers one area
+ * and days get similar total Place.duration. Clustering restarts run on the
+ * planner executor until the restart count or the time budget is used up, and
+ * the lowest-cost split wins. Days follow a short path through the group
+ * centres and each day's stops follow a short path too; start times chain the
+ * stop durations and the TravelTimeService travel time between stops.
+ *
+ * Reading, clustering and routing run outside any transaction, so the slow
+ * part holds no connection or row locks. Only the removal of replaced
+ * activities and the saveAll of the new Itinerary and Activity rows run in one
+ * short transaction at the end.
+ */
+@Service
+public class ItineraryGeneratorService {
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private ItineraryRepository itineraryRepository;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private TravelTimeService travelTimeService;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier(AsyncConfig.ITINERARY_PLANNER_EXECUTOR)
+    private ThreadPoolTaskExecutor plannerExecutor;
+
+    @Value("${itinerary.generator.restarts:64}")
+    private int restarts;
+
+    @Value("${itinerary.generator.time-budget-ms:400}")
+    private long timeBudgetMs;
+
+    // How far above the mean day length a day may go, as a fraction
+    @Value("${itinerary.generator.balance-slack:0.25}")
+    private double balanceSlack;
+
+    @Value("${itinerary.generator.day-start:09:00}")
+    private String dayStart;
+
+    @Value("${itinerary.generator.max-places:300}")
+    private int maxPlaces;
+
+    @Value("${itinerary.generator.max-days:60}")
+    private int maxDays;
+
+    /**
+     * Schedules the trip's unscheduled places over the given number of days (the
+     * trip length when null). With replace, the trip's PLANNED place activities
+     * are removed first and every place is scheduled again.
+     */
+    public TripPlanDTO generate(Long tripId, Integer days, boolean replace) {
+        Trip trip = tripRepository.findById(tripId)
+            .orElseThrow(() -> new RuntimeException("Trip not found with ID: " + tripId));
+        int dayCount = days != null ? days : (int) ChronoUnit.DAYS.between(trip.getStartDate(), trip.getEndDate()) + 1;
+        if (dayCount < 1 || dayCount > maxDays) {
+            throw new RuntimeException("Number of days must be between 1 and " + maxDays);
+        }
+
+        // Existing place activities: removed with replace, otherwise their places are already scheduled
+        Set<Long> scheduledPlaceIds = new HashSet<>();
+        Map<Long, LocalTime> dayEnds = new HashMap<>();
+        List<Activity> removed = new ArrayList<>();
+        for (Activity activity : activityRepository.findByTripId(tripId)) {
+            if (replace && activity.getPlace() != null && activity.getStatus() == Activity.ActivityStatus.PLANNED) {
+                removed.add(activity);
+                continue;
+            }
+            if (activity.getPlace() != null) {
+                scheduledPlaceIds.add(activity.getPlace().getId());
+            }
+            LocalTime end = activity.getEndTime() != null ? activity.getEndTime() : activity.getStartTime();
+            if (end != null) {
+                dayEnds.merge(activity.getItinerary().getId(), end, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+        List<Place> places = new ArrayList<>();
+        for (Place place : placeRepository.findByTripId(tripId)) {
+            if (place.getLatitude() != null && place.getLongitude() != null
+                    && place.getCategory() != Place.PlaceCategory.HOTEL && !scheduledPlaceIds.contains(place.getId())) {
+                places.add(place);
+            }
+        }
+        if (places.size() > maxPlaces) {
+            throw new RuntimeException("Too many places to schedule at once: " + places.size() + " (max " + maxPlaces + ")");
+        }
+        if (places.isEmpty()) {
+            if (!removed.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> activityRepository.deleteAllInBatch(removed));
+            }
+            System.out.println("ℹ️ No unscheduled places with coordinates for trip " + tripId);
+            return tripService.getTripPlan(tripId);
+        }
+
+        int n = places.size();
+        double[][] distances = new double[n][n];
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            Place a = places.get(i);
+            weights[i] = durationHours(a);
+            for (int j = i + 1; j < n; j++) {
+                Place b = places.get(j);
+                distances[i][j] = distances[j][i] = KdTree.distanceKm(a.getLatitude().doubleValue(), a.getLongitude().doubleValue(),
+                    b.getLatitude().doubleValue(), b.getLongitude().doubleValue());
+            }
+        }
+
+        long started = System.nanoTime();
+        DayClusterer clusterer = new DayClusterer(distances, weights, dayCount, balanceSlack);
+        DayClusterer.Result best = bestClustering(clusterer, tripId);
+        System.out.println("✅ Clustered " + n + " places into " + clusterer.getK() + " days in "
+            + (System.nanoTime() - started) / 1_000_000 + " ms (cost " + Math.round(best.cost()) + ")");
+
+        // Days in path order through the medoids, stops in path order within each day
+        int[] dayOrder = DayClusterer.orderPath(best.medoids(), distances);
+        Map<Integer, Integer> clusterOfMedoid = new HashMap<>();
+        for (int c = 0; c < best.medoids().length; c++) {
+            clusterOfMedoid.put(best.medoids()[c], c);
+        }
+
+        Map<Integer, Itinerary> itinerariesByDay = new HashMap<>();
+        for (Itinerary itinerary : itineraryRepository.findByTripId(tripId)) {
+            itinerariesByDay.put(itinerary.getDayNumber(), itinerary);
+        }
+        List<Itinerary> newItineraries = new ArrayList<>();
+        List<Activity> newActivities = new ArrayList<>();
+        LocalTime start = LocalTime.parse(dayStart);
+        for (int day = 1; day <= dayOrder.length; day++) {
+            int cluster = clusterOfMedoid.get(dayOrder[day - 1]);
+            List<Integer> members = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (best.assignment()[i] == cluster) {
+                    members.add(i);
+                }
+            }
+            int[] stops = DayClusterer.orderPath(members.stream().mapToInt(Integer::intValue).toArray(), distances);
+
+            Itinerary itinerary = itinerariesByDay.get(day);
+            if (itinerary == null) {
+                itinerary = new Itinerary();
+                itinerary.setDayNumber(day);
+                itinerary.setDate(trip.getStartDate().plusDays(day - 1));
+                itinerary.setTrip(trip);
+                newItineraries.add(itinerary);
+            }
+            LocalTime dayEnd = itinerary.getId() != null ? dayEnds.get(itinerary.getId()) : null;
+            int minute = minuteOfDay(dayEnd != null && dayEnd.isAfter(start) ? dayEnd : start);
+            for (int s = 0; s < stops.length; s++) {
+                Place place = places.get(stops[s]);
+                if (s > 0) {
+                    Place previous = places.get(stops[s - 1]);
+                    TravelTimeService.Estimate travel = travelTimeService.estimate(
+                        previous.getLatitude().doubleValue(), previous.getLongitude().doubleValue(),
+                        place.getLatitude().doubleValue(), place.getLongitude().doubleValue());
+                    // Rounded up to whole five minutes
+                    minute += (int) Math.ceil(travel.minutes() / 5.0) * 5;
+                }
+                int length = (int) Math.round(weights[stops[s]] * 60.0);
+                Activity activity = newActivity(place, trip, minute, length);
+                activity.setItinerary(itinerary);
+                newActivities.add(activity);
+                minute += length;
+            }
+        }
+
+        // The event is published inside the transaction so its listeners run after the commit
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!removed.isEmpty()) {
+                activityRepository.deleteAllInBatch(removed);
+            }
+            itineraryRepository.saveAll(newItineraries);
+            activityRepository.saveAll(newActivities);
+            eventPublisher.publishEvent(new TripChangedEvent(tripId, TripChangedEvent.Change.PLAN_SAVED));
+        });
+        System.out.println("✅ Generated " + newActivities.size() + " activities over " + dayOrder.length
+            + " days for trip " + tripId + (removed.isEmpty() ? "" : " (replaced " + removed.size() + ")"));
+        return tripService.getTripPlan(tripId);
+    }
+
+    /**
+     * Lowest-cost run over parallel restarts. Workers stop starting runs at the
+     * deadline, and the request waits for them no longer than that: workers still
+     * busy with their first run are cancelled, and when none finished in time one
+     * run is made here so there is always a result. Workers the full planner queue
+     * refuses are skipped; when it refuses all of them the request fails.
+     */
+    private DayClusterer.Result bestClustering(DayClusterer clusterer, Long tripId) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+        int runs = Math.max(1, restarts);
+        int workers = Math.min(runs, plannerExecutor.getMaxPoolSize());
+        // Seeds depend only on the trip, so the same input gives the same plan
+        long baseSeed = tripId * 0x9E3779B97F4A7C15L;
+        AtomicInteger nextRun = new AtomicInteger();
+
+        List<Future<DayClusterer.Result>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < workers; w++) {
+                futures.add(plannerExecutor.submit(() -> {
+                    DayClusterer.Result workerBest = null;
+                    int run;
+                    while ((workerBest == null || System.nanoTime() < deadline) && !Thread.currentThread().isInterrupted()
+                            && (run = nextRun.getAndIncrement()) < runs) {
+                        DayClusterer.Result result = clusterer.run(baseSeed + run);
+                        if (workerBest == null || result.cost() < workerBest.cost()) {
+                            workerBest = result;
+                        }
+                    }
+                    return workerBest;
+                }));
+            }
+        } catch (TaskRejectedException e) {
+            if (futures.isEmpty()) {
+                throw new RuntimeException("Itinerary planner is busy, please try again shortly");
+            }
+            System.err.println("⚠️ Itinerary planner queue full, clustering trip " + tripId + " with " + futures.size() + " of " + workers + " workers");
+        }
+
+        DayClusterer.Result best = null;
+        int cancelled = 0;
+        for (Future<DayClusterer.Result> future : futures) {
+            try {
+                DayClusterer.Result result = future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (result != null && (best == null || result.cost() < best.cost())) {
+                    best = result;
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                cancelled++;
+            } catch (InterruptedException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while generating itinerary", e);
+            } catch (ExecutionException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                throw new RuntimeException("Failed to generate itinerary: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        System.out.println("ℹ️ Itinerary clustering ran " + Math.min(nextRun.get(), runs) + " of " + runs + " restarts"
+            + (cancelled > 0 ? " (" + cancelled + " workers cancelled at the time budget)" : ""));
+        return best != null ? best : clusterer.run(baseSeed);
+    }
+
+    private Activity newActivity(Place place, Trip trip, int startMinute, int lengthMinutes) {
+        Activity activity = new Activity();
+        activity.setName(place.getName());
+        activity.setCost(place.getCost());
+        activity.setDurationHours(Math.max(1, (int) Math.round(lengthMinutes / 60.0)));
+        activity.setType(activityType(place.getCategory()));
+        activity.setStatus(Activity.ActivityStatus.PLANNED);
+        activity.setPlace(place);
+        activity.setTrip(trip);
+        // Stops that would run past midnight are left without times
+        if (startMinute + lengthMinutes < 24 * 60) {
+            activity.setStartTime(LocalTime.of(startMinute / 60, startMinute % 60));
+            activity.setEndTime(LocalTime.of((startMinute + lengthMinutes) / 60, (startMinute + lengthMinutes) % 60));
+        }
+        return activity;
+    }
+
+    private static double durationHours(Place place) {
+        BigDecimal duration = place.getDuration();
+        return duration != null && duration.signum() > 0 ? Math.max(0.25, duration.doubleValue()) : 2.0;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static Activity.ActivityType activityType(Place.PlaceCategory category) {
+        if (category == null) {
+            return Activity.ActivityType.SIGHTSEEING;
+        }
+        switch (category) {
+            case RESTAURANT:
+                return Activity.ActivityType.RESTAURANT;
+            case TRANSPORT:
+                return Activity.ActivityType.TRANSPORT;
+            case SHOPPING:
+                return Activity.ActivityType.SHOPPING;
+            case ENTERTAINMENT:
+            case SPORTS:
+                return Activity.ActivityType.ENTERTAINMENT;
+            default:
+                return Activity.ActivityType.SIGHTSEEING;
+        }
+    }
+}
@@ -1,160 +1,307 @@
 package com.example.tripplanner.service;
 
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import com.example.tripplanner.provider.BookingLocationProvider;
+import com.example.tripplanner.provider.GuardedLocationProvider;
+import com.example.tripplanner.provider.NominatimLocationProvider;
+import com.example.tripplanner.provider.RateLimitedLocationProvider;
+import com.example.tripplanner.util.CircuitBreaker;
+import com.example.tripplanner.util.LatencyTracker;
+import com.example.tripplanner.util.RefreshingCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Destination autocomplete: the offline gazetteer first, then Booking.com with
+ * Nominatim as a hedge.
+ *
+ * Queries that match a city in the gazetteer (GazetteerService) are answered
+ * from memory and never reach the cache or the providers; only misses go
+ * upstream.
+ *
+ * Both providers are called through WebClient, so a search holds no thread
+ * while it waits. Nominatim is started when Booking.com fails or has not
+ * answered within the hedge delay (a high percentile of recent Booking.com
+ * latencies), and the first good answer wins; the slower call is cancelled.
+ * Each provider sits behind its own circuit breaker and bulkhead
+ * (GuardedLocationProvider), so a struggling provider is skipped rather than
+ * waited on, and behind a rate limiter (RateLimitedLocationProvider) that
+ * keeps it under its published request rate; Nominatim's policy allows about
+ * one request per second, so when Booking.com is down the surplus is refused
+ * rather than sent. Results go through a RefreshingCache, so repeated prefixes rarely
+ * reach either provider, and an entry within its stale-if-error window covers
+ * both being down. The most popular queries (PopularDestinationService) are
+ * re-fetched on a fixed delay so they stay warm, and double as "popular
+ * destination" suggestions.
+ */
 @Service
 public class LocationSearchService {
     
-    @Value("${booking.api.key:a0997d222fmsh50214de9dec9326p145269jsn3f760d1a9ee5}")
-    private String apiKey;
-    
-    @Value("${booking.api.host:booking-com-api5.p.rapidapi.com}")
-    private String apiHost;
-    
-    private final RestTemplate restTemplate = new RestTemplate();
-    
-    public Map<String, Object> searchLocations(String query, String languageCode, int limit) {
-        try {
-            // ✅ Try Booking.com API first
-            String url = UriComponentsBuilder
-                .fromHttpUrl("https://" + apiHost + "/accomodation/autocomplete")
-                .queryParam("languagecode", languageCode)
-                .queryParam("limit", limit)
-                .queryParam("query", query)
-                .queryParam("currency_code", "USD")
-                .build()
-                .toUriString();
-            
-            System.out.println("🔍 Booking.com API URL: " + url);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-Rapidapi-Key", apiKey);
-            headers.set("X-Rapidapi-Host", apiHost);
-            headers.set("Accept", "application/json");
-            
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            
-            System.out.println("📡 Making request to Booking.com API...");
-            ResponseEntity<Map> response = restTemplate.exchange(
-                url, 
-                HttpMethod.GET, 
-                entity, 
-                Map.class
-            );
-            
-            System.out.println("✅ Booking.com API response status: " + response.getStatusCode());
-            System.out.println("📊 Response body: " + response.getBody());
-            
-            return response.getBody();
-            
-        } catch (Exception e) {
-            System.err.println("❌ Booking.com API failed: " + e.getMessage());
-            
-            // ✅ Fallback to OpenStreetMap Nominatim API (free)
-            try {
-                System.out.println("🔄 Trying OpenStreetMap Nominatim API as fallback...");
-                return searchWithNominatim(query, limit);
-            } catch (Exception fallbackError) {
-                System.err.println("❌ Nominatim API also failed: " + fallbackError.getMessage());
+    private static final int MAX_LIMIT = 50;
+    
+    @Autowired
+    private BookingLocationProvider bookingProvider;
+    
+    @Autowired
+    private NominatimLocationProvider nominatimProvider;
+    
+    @Autowired
+    private GazetteerService gazetteerService;
+    
+    @Autowired
+    private PopularDestinationService popularDestinationService;
+    
+    @Value("${locations.cache.max-size:10000}")
+    private int cacheMaxSize;
+    
+    @Value("${locations.cache.ttl-ms:600000}")
+    private long cacheTtlMs;
+    
+    @Value("${locations.cache.stale-while-revalidate-ms:3600000}")
+    private long cacheStaleWhileRevalidateMs;
+    
+    @Value("${locations.cache.stale-if-error-ms:86400000}")
+    private long cacheStaleIfErrorMs;
+    
+    // Hedge after this percentile of recent Booking.com latencies, clamped to [min, max]
+    @Value("${locations.hedge.percentile:0.95}")
+    private double hedgePercentile;
+    
+    @Value("${locations.hedge.min-delay-ms:150}")
+    private long hedgeMinDelayMs;
+    
+    @Value("${locations.hedge.max-delay-ms:1500}")
+    private long hedgeMaxDelayMs;
+    
+    // Used until enough latencies have been recorded
+    @Value("${locations.hedge.initial-delay-ms:600}")
+    private long hedgeInitialDelayMs;
+    
+    @Value("${locations.booking.max-concurrent:20}")
+    private int bookingMaxConcurrent;
+    
+    // Nominatim's usage policy asks for very low request rates
+    @Value("${locations.nominatim.max-concurrent:2}")
+    private int nominatimMaxConcurrent;
+    
+    @Value("${locations.booking.rate-per-second:20}")
+    private double bookingRatePerSecond;
+    
+    @Value("${locations.booking.burst:40}")
+    private double bookingBurst;
+    
+    @Value("${locations.booking.queue-capacity:100}")
+    private int bookingQueueCapacity;
+    
+    @Value("${locations.booking.max-queue-wait-ms:500}")
+    private long bookingMaxQueueWaitMs;
+    
+    @Value("${locations.nominatim.rate-per-second:1}")
+    private double nominatimRatePerSecond;
+    
+    @Value("${locations.nominatim.burst:1}")
+    private double nominatimBurst;
+    
+    @Value("${locations.nominatim.queue-capacity:10}")
+    private int nominatimQueueCapacity;
+    
+    @Value("${locations.nominatim.max-queue-wait-ms:3000}")
+    private long nominatimMaxQueueWaitMs;
+    
+    // Popular queries kept warm, with the language and limit the typeahead uses
+    @Value("${locations.popular.prewarm-count:25}")
+    private int prewarmCount;
+    
+    @Value("${locations.popular.prewarm-language:en}")
+    private String prewarmLanguage;
+    
+    @Value("${locations.popular.prewarm-limit:3}")
+    private int prewarmLimit;
+    
+    @Value("${locations.circuit-breaker.window-size:50}")
+    private int breakerWindowSize;
+    
+    @Value("${locations.circuit-breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+    
+    @Value("${locations.circuit-breaker.failure-rate-threshold:0.5}")
+    private double breakerFailureRate;
+    
+    @Value("${locations.circuit-breaker.open-ms:30000}")
+    private long breakerOpenMs;
+    
+    @Value("${locations.circuit-breaker.half-open-calls:3}")
+    private int breakerHalfOpenCalls;
+    
+    // Calls at least this slow, finished or cancelled, count as failures for the breaker
+    @Value("${locations.circuit-breaker.slow-call-ms:2000}")
+    private long breakerSlowCallMs;
+    
+    // Keyed by normalized (query, languageCode, limit); only successful upstream responses are cached
+    private RefreshingCache<SearchKey, LocationSearchResponseDTO> searchCache;
+    
+    private GuardedLocationProvider booking;
+    private GuardedLocationProvider nominatim;
+    
+    // Searches go through these; the guarded providers underneath keep latency and error stats
+    private RateLimitedLocationProvider bookingLimited;
+    private RateLimitedLocationProvider nominatimLimited;
+    
+    @PostConstruct
+    public void init() {
+        searchCache = new RefreshingCache<>(cacheMaxSize, cacheTtlMs, cacheStaleWhileRevalidateMs, cacheStaleIfErrorMs);
+        // The Booking.com tracker's percentile is the hedge delay
+        booking = new GuardedLocationProvider(bookingProvider, newCircuitBreaker(), bookingMaxConcurrent,
+            new LatencyTracker(256, hedgePercentile), breakerSlowCallMs);
+        nominatim = new GuardedLocationProvider(nominatimProvider, newCircuitBreaker(), nominatimMaxConcurrent,
+            new LatencyTracker(256, hedgePercentile), breakerSlowCallMs);
+        // Outside the guard, so queued calls do not hold bulkhead permits
+        bookingLimited = new RateLimitedLocationProvider(booking, bookingBurst, bookingRatePerSecond,
+            bookingQueueCapacity, bookingMaxQueueWaitMs);
+        nominatimLimited = new RateLimitedLocationProvider(nominatim, nominatimBurst, nominatimRatePerSecond,
+            nominatimQueueCapacity, nominatimMaxQueueWaitMs);
+    }
+    
+    public CompletableFuture<LocationSearchResponseDTO> searchLocations(String query, String languageCode, int limit) {
+        SearchKey key = SearchKey.of(query, languageCode, limit);
+        popularDestinationService.recordSearch(key.query());
+        return lookup(key)
+            .exceptionally(error -> {
+                System.err.println("❌ Location search failed for \"" + key.query() + "\": " + error.getMessage());
                 
                 // Return a structured error response
-                return Map.of(
-                    "success", false,
-                    "error", "Both Booking.com and Nominatim APIs failed",
-                    "message", "Failed to fetch location data from all APIs"
-                );
+                return LocationSearchResponseDTO.error("Both Booking.com and Nominatim APIs failed",
+                    "Failed to fetch location data from all APIs");
+            });
+    }
+    
+    /**
+     * Keeps the most popular queries warm: each one goes through the cache, which
+     * loads it if missing and revalidates it if stale. Queries run one after another
+     * so a pass never bursts the providers, and they are not counted as searches.
+     */
+    @Scheduled(fixedDelayString = "${locations.popular.prewarm-interval-ms:300000}",
+               initialDelayString = "${locations.popular.prewarm-initial-delay-ms:120000}")
+    public void prewarmPopular() {
+        List<Map.Entry<String, Long>> popular = popularDestinationService.getTop(prewarmCount);
+        CompletableFuture<Integer> pass = CompletableFuture.completedFuture(0);
+        for (Map.Entry<String, Long> entry : popular) {
+            SearchKey key = SearchKey.of(entry.getKey(), prewarmLanguage, prewarmLimit);
+            pass = pass.thenCompose(warmed -> lookup(key).handle((response, error) -> error == null ? warmed + 1 : warmed));
+        }
+        pass.thenAccept(warmed -> {
+            if (!popular.isEmpty()) {
+                System.out.println("✅ Pre-warmed " + warmed + " of " + popular.size() + " popular destination searches");
+            }
+        });
+    }
+    
+    /**
+     * One suggestion per popular query, most popular first, taken from the gazetteer
+     * or the cache only; a query with nothing local yet is skipped.
+     */
+    public LocationSearchResponseDTO getPopularDestinations(int limit) {
+        int wanted = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<LocationSearchResponseDTO.Result> results = new ArrayList<>(wanted);
+        Set<String> seen = new HashSet<>();
+        // Several prefixes of one name usually lead to the same place
+        for (Map.Entry<String, Long> entry : popularDestinationService.getTop(wanted * 4)) {
+            LocationSearchResponseDTO.Result top = localTopResult(entry.getKey());
+            if (top != null && top.destination() != null && seen.add(top.destination().destId())) {
+                results.add(top);
+                if (results.size() == wanted) {
+                    break;
+                }
             }
         }
+        return LocationSearchResponseDTO.of(results);
+    }
+    
+    public Map<String, Long> getCacheStats() {
+        return searchCache.getStats();
+    }
+    
+    public Map<String, Map<String, Object>> getProviderStats() {
+        return Map.of(booking.getName(), providerStats(booking, bookingLimited),
+            nominatim.getName(), providerStats(nominatim, nominatimLimited));
     }
     
-    private Map<String, Object> searchWithNominatim(String query, int limit) {
-        try {
-            String nominatimUrl = UriComponentsBuilder
-                .fromHttpUrl("https://nominatim.openstreetmap.org/search")
-                .queryParam("q", query)
-                .queryParam("format", "json")
-                .queryParam("limit", limit)
-                .queryParam("addressdetails", "1")
-                .build()
-                .toUriString();
-            
-            System.out.println("🌍 Nominatim API URL: " + nominatimUrl);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("User-Agent", "TripPlanner/1.0");
-            
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            
-            ResponseEntity<Object[]> response = restTemplate.exchange(
-                nominatimUrl,
-                HttpMethod.GET,
-                entity,
-                Object[].class
-            );
-            
-            Object[] results = response.getBody();
-            System.out.println("✅ Nominatim API response: " + results.length + " results");
-            
-            // Transform Nominatim results to match Booking.com format
-            return transformNominatimResults(results);
-            
-        } catch (Exception e) {
-            System.err.println("❌ Nominatim API error: " + e.getMessage());
-            throw e;
+    // Gazetteer first, then the cache in front of the providers
+    private CompletableFuture<LocationSearchResponseDTO> lookup(SearchKey key) {
+        List<LocationSearchResponseDTO.Result> cities = gazetteerService.search(key.query(), key.limit());
+        if (!cities.isEmpty()) {
+            return CompletableFuture.completedFuture(LocationSearchResponseDTO.of(cities));
         }
+        return searchCache.get(key, k -> fetchLocations(k).toFuture());
     }
     
-    private Map<String, Object> transformNominatimResults(Object[] results) {
-        // Transform Nominatim results to match expected format
-        java.util.List<Map<String, Object>> transformedResults = new java.util.ArrayList<>();
-        
-        for (Object result : results) {
-            if (result instanceof Map) {
-                Map<String, Object> place = (Map<String, Object>) result;
-                
-                Map<String, Object> transformedPlace = Map.of(
-                    "destination", Map.of(
-                        "destId", place.get("place_id").toString(),
-                        "destType", "CITY",
-                        "latitude", Double.parseDouble(place.get("lat").toString()),
-                        "longitude", Double.parseDouble(place.get("lon").toString()),
-                        "nbHotels", 0
-                    ),
-                    "displayInfo", Map.of(
-                        "title", place.get("display_name").toString().split(",")[0],
-                        "subTitle", place.get("display_name").toString(),
-                        "absoluteImageUrl", "https://images.unsplash.com/photo-1480714378408-67cf0d13bc02?w=400&h=300&fit=crop",
-                        "labelComponents", java.util.List.of(
-                            Map.of("type", "CITY", "name", place.get("display_name").toString().split(",")[0]),
-                            Map.of("type", "COUNTRY", "name", "Unknown")
-                        )
-                    )
-                );
-                
-                transformedResults.add(transformedPlace);
-            }
+    private LocationSearchResponseDTO.Result localTopResult(String query) {
+        List<LocationSearchResponseDTO.Result> cities = gazetteerService.search(query, 1);
+        if (!cities.isEmpty()) {
+            return cities.get(0);
         }
+        LocationSearchResponseDTO cached = searchCache.peek(SearchKey.of(query, prewarmLanguage, prewarmLimit));
+        List<LocationSearchResponseDTO.Result> results = cached != null ? cached.getResults() : null;
+        return results == null || results.isEmpty() ? null : results.get(0);
+    }
+    
+    // Upstream lookup behind the cache; fails only when every provider failed
+    Mono<LocationSearchResponseDTO> fetchLocations(SearchKey key) {
+        // An open circuit or full bulkhead fails at once, which starts the hedge at once
+        Sinks.Empty<Void> primaryFailed = Sinks.empty();
+        Mono<LocationSearchResponseDTO> primary = bookingLimited.search(key.query(), key.languageCode(), key.limit())
+            .doOnError(e -> {
+                System.err.println("❌ Booking.com API failed: " + e.getMessage());
+                primaryFailed.tryEmitEmpty();
+            });
+        
+        // Fires when the hedge delay passes or Booking.com fails, whichever is first
+        Mono<Void> hedgeTrigger = Mono.firstWithSignal(Mono.delay(hedgeDelay()).then(), primaryFailed.asMono());
+        Mono<LocationSearchResponseDTO> hedge = hedgeTrigger
+            .then(Mono.defer(() -> nominatimLimited.search(key.query(), key.languageCode(), key.limit())))
+            .doOnError(e -> System.err.println("❌ Nominatim API failed: " + e.getMessage()));
+        
+        return Mono.firstWithValue(primary, hedge);
+    }
+    
+    Duration hedgeDelay() {
+        long percentile = booking.getLatency().getPercentileMillis();
+        long delay = percentile < 0 ? hedgeInitialDelayMs : Math.max(hedgeMinDelayMs, Math.min(hedgeMaxDelayMs, percentile));
+        return Duration.ofMillis(delay);
+    }
+    
+    private static Map<String, Object> providerStats(GuardedLocationProvider guarded, RateLimitedLocationProvider limited) {
+        Map<String, Object> stats = new LinkedHashMap<>(guarded.getStats());
+        stats.put("rateLimit", limited.getStats());
+        return stats;
+    }
+    
+    private CircuitBreaker newCircuitBreaker() {
+        return new CircuitBreaker(breakerWindowSize, breakerMinimumCalls, breakerFailureRate, breakerOpenMs, breakerHalfOpenCalls);
+    }
+    
+    record SearchKey(String query, String languageCode, int limit) {
         
-        return Map.of(
-            "success", true,
-            "data", Map.of(
-                "data", Map.of(
-                    "autoCompleteSuggestions", Map.of(
-                        "results", transformedResults
-                    )
-                )
-            )
-        );
+        // Case and whitespace differences in what users type share one entry
+        static SearchKey of(String query, String languageCode, int limit) {
+            String normalizedQuery = query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            String normalizedLanguage = languageCode == null || languageCode.isBlank() ? "en" : languageCode.trim().toLowerCase(Locale.ROOT);
+            return new SearchKey(normalizedQuery, normalizedLanguage, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        }
     }
 }
@@ -0,0 +1,159 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.NotificationDTO;
+import com.example.tripplanner.event.BudgetAlertChangedEvent;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.User;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.repository.TripShareRepository;
+import com.example.tripplanner.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process fan-out of budget alerts and trip changes to connected users.
+ *
+ * Each connected user has one multicast sink; every SSE connection subscribes to
+ * it through its own bounded buffer that drops the oldest events when a client
+ * falls behind, so one slow browser never holds up the others. Connections are
+ * served as reactive streams on the servlet's async support, so an idle
+ * connection holds a timer for its heartbeat and no thread. A stream completes
+ * after notifications.stream-timeout-minutes and the browser reconnects after
+ * the advertised retry delay, so connections whose client vanished without a
+ * failed write are not kept forever.
+ */
+@Service
+public class NotificationHub {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripShareRepository tripShareRepository;
+
+    @Value("${notifications.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${notifications.heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+
+    @Value("${notifications.retry-seconds:5}")
+    private long retrySeconds;
+
+    @Value("${notifications.stream-timeout-minutes:30}")
+    private long streamTimeoutMinutes;
+
+    private final Map<Long, UserSink> sinksByUser = new ConcurrentHashMap<>();
+
+    public Flux<ServerSentEvent<NotificationDTO>> subscribe(String firebaseUid) {
+        User user = userRepository.findByFirebaseUid(firebaseUid)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        Long userId = user.getId();
+
+        // acquire and release always pair up, whatever way the connection ends
+        Flux<ServerSentEvent<NotificationDTO>> events = Flux.using(() -> acquire(userId), Sinks.Many::asFlux, sink -> release(userId))
+            .onBackpressureBuffer(bufferSize,
+                dropped -> System.err.println("⚠️ Notification buffer full for user " + userId + ", dropping oldest"),
+                BufferOverflowStrategy.DROP_OLDEST)
+            .map(notification -> ServerSentEvent.builder(notification)
+                .event(notification.getType())
+                .build());
+
+        Flux<ServerSentEvent<NotificationDTO>> heartbeats = Flux.interval(Duration.ofSeconds(heartbeatSeconds))
+            .map(tick -> ServerSentEvent.<NotificationDTO>builder().comment("heartbeat").build());
+
+        ServerSentEvent<NotificationDTO> hello = ServerSentEvent.<NotificationDTO>builder()
+            .comment("connected")
+            .retry(Duration.ofSeconds(retrySeconds))
+            .build();
+
+        return Flux.merge(events, heartbeats)
+            .take(Duration.ofMinutes(streamTimeoutMinutes))
+            .startWith(hello);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBudgetAlertChanged(BudgetAlertChangedEvent event) {
+        if (sinksByUser.isEmpty()) {
+            return;
+        }
+        NotificationDTO notification = new NotificationDTO("budget-alert", event.tripId(), null, event.alertId(),
+            event.alertType(), event.status(), event.currentAmount(), event.budgetAmount(), event.message(),
+            LocalDateTime.now());
+        publish(recipients(event.tripId()), notification);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripChanged(TripChangedEvent event) {
+        if (sinksByUser.isEmpty()) {
+            return;
+        }
+        NotificationDTO notification = new NotificationDTO("trip-changed", event.tripId(), event.change().name(),
+            null, null, null, null, null, null, LocalDateTime.now());
+        publish(event.userIds() != null ? event.userIds() : recipients(event.tripId()), notification);
+    }
+
+    // Trip owner plus accepted participants
+    public Set<Long> recipients(Long tripId) {
+        Set<Long> userIds = new HashSet<>(tripShareRepository.findAcceptedParticipantIds(tripId));
+        tripRepository.findOwnerIdById(tripId).ifPresent(userIds::add);
+        return userIds;
+    }
+
+    public int getConnectedUserCount() {
+        return sinksByUser.size();
+    }
+
+    private void publish(Collection<Long> userIds, NotificationDTO notification) {
+        for (Long userId : userIds) {
+            UserSink userSink = sinksByUser.get(userId);
+            if (userSink != null) {
+                // Emission must be serialized; alerts and trip changes arrive on different threads
+                synchronized (userSink.sink) {
+                    userSink.sink.tryEmitNext(notification);
+                }
+            }
+        }
+    }
+
+    // Counts the connection in and returns the user's sink, creating it for the first one
+    private Sinks.Many<NotificationDTO> acquire(Long userId) {
+        return sinksByUser.compute(userId, (id, userSink) -> {
+            UserSink current = userSink != null ? userSink : new UserSink(Sinks.many().multicast().directBestEffort());
+            current.connections++;
+            return current;
+        }).sink;
+    }
+
+    // Drops the user's sink once their last connection has gone; atomic with acquire
+    private void release(Long userId) {
+        sinksByUser.computeIfPresent(userId, (id, userSink) -> --userSink.connections == 0 ? null : userSink);
+    }
+
+    // Only read or written inside the map's compute methods
+    private static final class UserSink {
+        final Sinks.Many<NotificationDTO> sink;
+        int connections;
+
+        UserSink(Sinks.Many<NotificationDTO> sink) {
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.PlaceSuggestionDTO;
+import com.example.tripplanner.model.Place;
+import com.example.tripplanner.repository.PlaceRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.util.Gazetteer;
+import com.example.tripplanner.util.KdTree;
+import com.example.tripplanner.util.PoiIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Suggests places near a trip's existing places from a local POI extract, with
+ * no external calls.
+ *
+ * At startup an OSM-derived CSV (osm_id, name, latitude, longitude, tag,
+ * importance) is mapped onto Place.PlaceCategory by its OSM tag and loaded into
+ * a PoiIndex. A suggestion request reads the trip's place coordinates in one
+ * query and answers everything else from memory: candidates within the radius
+ * of any trip place, minus places the trip already has, ranked by importance
+ * with a bonus for being close.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PoiSuggestionService {
+
+    // OSM key=value (or just key) to category; the exact tag wins over the key
+    private static final Map<String, Place.PlaceCategory> TAG_CATEGORIES = new HashMap<>();
+
+    static {
+        TAG_CATEGORIES.put("tourism=attraction", Place.PlaceCategory.ATTRACTION);
+        TAG_CATEGORIES.put("tourism=viewpoint", Place.PlaceCategory.ATTRACTION);
+        TAG_CATEGORIES.put("man_made=lighthouse", Place.PlaceCategory.ATTRACTION);
+        TAG_CATEGORIES.put("tourism=museum", Place.PlaceCategory.CULTURAL);
+        TAG_CATEGORIES.put("tourism=gallery", Place.PlaceCategory.CULTURAL);
+        TAG_CATEGORIES.put("tourism=artwork", Place.PlaceCategory.CULTURAL);
+        TAG_CATEGORIES.put("amenity=arts_centre", Place.PlaceCategory.CULTURAL);
+        TAG_CATEGORIES.put("tourism=hotel", Place.PlaceCategory.HOTEL);
+        TAG_CATEGORIES.put("tourism=hostel", Place.PlaceCategory.HOTEL);
+        TAG_CATEGORIES.put("tourism=guest_house", Place.PlaceCategory.HOTEL);
+        TAG_CATEGORIES.put("tourism=motel", Place.PlaceCategory.HOTEL);
+        TAG_CATEGORIES.put("amenity=restaurant", Place.PlaceCategory.RESTAURANT);
+        TAG_CATEGORIES.put("amenity=cafe", Place.PlaceCategory.RESTAURANT);
+        TAG_CATEGORIES.put("amenity=fast_food", Place.PlaceCategory.RESTAURANT);
+        TAG_CATEGORIES.put("amenity=food_court", Place.PlaceCategory.RESTAURANT);
+        TAG_CATEGORIES.put("amenity=bar", Place.PlaceCategory.ENTERTAINMENT);
+        TAG_CATEGORIES.put("amenity=pub", Place.PlaceCategory.ENTERTAINMENT);
+        TAG_CATEGORIES.put("amenity=nightclub", Place.PlaceCategory.ENTERTAINMENT);
+        TAG_CATEGORIES.put("amenity=theatre", Place.PlaceCategory.ENTERTAINMENT);
+        TAG_CATEGORIES.put("amenity=cinema", Place.PlaceCategory.ENTERTAINMENT);
+        TAG_CATEGORIES.put("tourism=theme_park", Place.PlaceCategory.ENTERTAINMENT);
+        TAG_CATEGORIES.put("tourism=zoo", Place.PlaceCategory.ENTERTAINMENT);
+        TAG_CATEGORIES.put("amenity=place_of_worship", Place.PlaceCategory.RELIGIOUS);
+        TAG_CATEGORIES.put("historic", Place.PlaceCategory.HISTORICAL);
+        TAG_CATEGORIES.put("shop", Place.PlaceCategory.SHOPPING);
+        TAG_CATEGORIES.put("amenity=marketplace", Place.PlaceCategory.SHOPPING);
+        TAG_CATEGORIES.put("natural", Place.PlaceCategory.NATURE);
+        TAG_CATEGORIES.put("leisure=park", Place.PlaceCategory.NATURE);
+        TAG_CATEGORIES.put("leisure=garden", Place.PlaceCategory.NATURE);
+        TAG_CATEGORIES.put("leisure=nature_reserve", Place.PlaceCategory.NATURE);
+        TAG_CATEGORIES.put("leisure=stadium", Place.PlaceCategory.SPORTS);
+        TAG_CATEGORIES.put("leisure=sports_centre", Place.PlaceCategory.SPORTS);
+        TAG_CATEGORIES.put("leisure=golf_course", Place.PlaceCategory.SPORTS);
+        TAG_CATEGORIES.put("railway=station", Place.PlaceCategory.TRANSPORT);
+        TAG_CATEGORIES.put("amenity=bus_station", Place.PlaceCategory.TRANSPORT);
+        TAG_CATEGORIES.put("amenity=ferry_terminal", Place.PlaceCategory.TRANSPORT);
+        TAG_CATEGORIES.put("aeroway=aerodrome", Place.PlaceCategory.TRANSPORT);
+    }
+
+    // A candidate this close to a trip place of the same category is taken to be that place
+    private static final double SAME_PLACE_KM = 0.05;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${pois.location:classpath:poi/sample-pois.csv}")
+    private String location;
+
+    @Value("${pois.cell-degrees:0.05}")
+    private double cellDegrees;
+
+    @Value("${pois.max-radius-km:25}")
+    private double maxRadiusKm;
+
+    @Value("${pois.max-suggestions:50}")
+    private int maxSuggestions;
+
+    private volatile PoiIndex index;
+
+    @PostConstruct
+    public void load() {
+        PoiIndex.Builder builder = new PoiIndex.Builder(cellDegrees);
+        int loaded = 0;
+        int skipped = 0;
+        Resource resource = resourceLoader.getResource(location);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                if (addPoi(builder, parseCsvLine(line))) {
+                    loaded++;
+                } else {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Could not load POI extract from " + location + ": " + e.getMessage());
+        }
+        index = builder.build();
+        System.out.println("✅ POI index loaded: " + loaded + " places" + (skipped > 0 ? " (" + skipped + " skipped)" : ""));
+    }
+
+    /**
+     * Places worth adding to the trip: within radiusKm of one of its places, in the
+     * given categories (all when empty), not already in the trip. Best first.
+     */
+    public List<PlaceSuggestionDTO> suggest(Long tripId, Collection<Place.PlaceCategory> categories, double radiusKm, int limit) {
+        if (!tripRepository.existsById(tripId)) {
+            throw new RuntimeException("Trip not found with ID: " + tripId);
+        }
+        double radius = Math.max(0.1, Math.min(radiusKm, maxRadiusKm));
+        int wanted = Math.max(1, Math.min(limit, maxSuggestions));
+        int[] wantedCategories = (categories == null || categories.isEmpty()
+            ? List.of(Place.PlaceCategory.values()) : categories).stream()
+            .mapToInt(Enum::ordinal).distinct().toArray();
+
+        List<Object[]> anchors = placeRepository.findSuggestionAnchorsByTripId(tripId);
+        Set<String> tripNames = new HashSet<>();
+        for (Object[] anchor : anchors) {
+            tripNames.add(Gazetteer.fold((String) anchor[1]));
+        }
+
+        PoiIndex current = index;
+        // Best (closest) anchor per candidate
+        Map<Integer, PlaceSuggestionDTO> candidates = new HashMap<>();
+        Set<Integer> excluded = new HashSet<>();
+        for (Object[] anchor : anchors) {
+            if (anchor[3] == null || anchor[4] == null) {
+                continue;
+            }
+            double latitude = ((BigDecimal) anchor[3]).doubleValue();
+            double longitude = ((BigDecimal) anchor[4]).doubleValue();
+            Place.PlaceCategory anchorCategory = (Place.PlaceCategory) anchor[2];
+            for (int poi : current.within(latitude, longitude, radius, wantedCategories)) {
+                if (excluded.contains(poi)) {
+                    continue;
+                }
+                double distance = KdTree.distanceKm(latitude, longitude, current.getLatitude(poi), current.getLongitude(poi));
+                Place.PlaceCategory category = Place.PlaceCategory.values()[current.getCategory(poi)];
+                if (tripNames.contains(Gazetteer.fold(current.getName(poi)))
+                        || (distance <= SAME_PLACE_KM && category == anchorCategory)) {
+                    excluded.add(poi);
+                    candidates.remove(poi);
+                    continue;
+                }
+                PlaceSuggestionDTO existing = candidates.get(poi);
+                if (existing == null || distance < existing.getDistanceKm()) {
+                    candidates.put(poi, new PlaceSuggestionDTO(current.getId(poi), current.getName(poi), category,
+                        current.getLatitude(poi), current.getLongitude(poi), distance, (Long) anchor[0], (String) anchor[1],
+                        current.getImportance(poi) + 0.25 * (1.0 - distance / radius)));
+                }
+            }
+        }
+
+        List<PlaceSuggestionDTO> suggestions = new ArrayList<>(candidates.values());
+        suggestions.sort(Comparator.comparing(PlaceSuggestionDTO::getScore).reversed());
+        return suggestions.size() > wanted ? new ArrayList<>(suggestions.subList(0, wanted)) : suggestions;
+    }
+
+    private static boolean addPoi(PoiIndex.Builder builder, List<String> columns) {
+        if (columns.size() < 5 || columns.get(1).isBlank()) {
+            return false;
+        }
+        Place.PlaceCategory category = categoryOf(columns.get(4));
+        if (category == null) {
+            return false;
+        }
+        try {
+            double importance = columns.size() > 5 && !columns.get(5).isBlank() ? Double.parseDouble(columns.get(5)) : 0.0;
+            builder.add(columns.get(0), columns.get(1).trim(), category.ordinal(),
+                Double.parseDouble(columns.get(2)), Double.parseDouble(columns.get(3)), importance);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static Place.PlaceCategory categoryOf(String tag) {
+        Place.PlaceCategory category = TAG_CATEGORIES.get(tag);
+        if (category == null) {
+            int equals = tag.indexOf('=');
+            category = TAG_CATEGORIES.get(equals >= 0 ? tag.substring(0, equals) : tag);
+        }
+        return category;
+    }
+
+    // Comma-separated fields; double quotes around a field allow commas, "" is a literal quote
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
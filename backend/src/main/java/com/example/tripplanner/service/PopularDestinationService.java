@@ -0,0 +1,108 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.util.HeavyHitters;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tracks which destination queries are hot, in fixed memory.
+ *
+ * Fed by every /locations/search query and by trip destinations as trips are
+ * created or renamed (a trip counts as several searches). Counts live in a
+ * HeavyHitters sketch and decay on a fixed delay, so the list follows what is
+ * popular now. At startup the sketch is seeded from the most common
+ * destinations of existing trips. LocationSearchService keeps the top queries
+ * warm in its cache and serves them as popular destination suggestions.
+ */
+@Service
+public class PopularDestinationService {
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Value("${locations.popular.sketch-depth:4}")
+    private int sketchDepth;
+
+    @Value("${locations.popular.sketch-width:4096}")
+    private int sketchWidth;
+
+    @Value("${locations.popular.capacity:200}")
+    private int capacity;
+
+    // A trip destination is a stronger signal than one typeahead keystroke
+    @Value("${locations.popular.trip-destination-weight:5}")
+    private long tripDestinationWeight;
+
+    @Value("${locations.popular.decay-factor:0.9}")
+    private double decayFactor;
+
+    private HeavyHitters tracker;
+
+    @PostConstruct
+    public void init() {
+        tracker = new HeavyHitters(sketchDepth, sketchWidth, capacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void seedFromTrips() {
+        List<Object[]> rows = tripRepository.findDestinationCounts(PageRequest.of(0, capacity));
+        for (Object[] row : rows) {
+            String query = destinationQuery((String) row[0]);
+            if (!query.isEmpty()) {
+                tracker.add(query, ((Long) row[1]) * tripDestinationWeight);
+            }
+        }
+        System.out.println("✅ Popular destinations seeded from " + rows.size() + " trip destinations");
+    }
+
+    // Expects a query already normalized by the caller
+    public void recordSearch(String query) {
+        if (query != null && !query.isEmpty()) {
+            tracker.add(query, 1L);
+        }
+    }
+
+    public void recordTripDestination(String destination) {
+        String query = destinationQuery(destination);
+        if (!query.isEmpty()) {
+            tracker.add(query, tripDestinationWeight);
+        }
+    }
+
+    // Most popular queries with their estimated counts, highest first
+    public List<Map.Entry<String, Long>> getTop(int n) {
+        return tracker.top(n);
+    }
+
+    @Scheduled(fixedDelayString = "${locations.popular.decay-interval-ms:3600000}",
+               initialDelayString = "${locations.popular.decay-interval-ms:3600000}")
+    public void decay() {
+        tracker.decay(decayFactor);
+    }
+
+    public static String normalize(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // "Kandy, Sri Lanka" is tracked as "kandy", the part a user types into the typeahead
+    private static String destinationQuery(String destination) {
+        if (destination == null) {
+            return "";
+        }
+        int comma = destination.indexOf(',');
+        return normalize(comma >= 0 ? destination.substring(0, comma) : destination);
+    }
+}
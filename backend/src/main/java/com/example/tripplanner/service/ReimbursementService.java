@@ -0,0 +1,75 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.ReimbursementReportDTO;
+import com.example.tripplanner.dto.ReimbursementRequestDTO;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.repository.ExpenseRepository;
+import com.example.tripplanner.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class ReimbursementService {
+
+    private static final DateTimeFormatter REFERENCE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Marks a batch of reimbursable expenses as reimbursed with a single UPDATE,
+     * bumps the trip's data version once and reports totals aggregated in SQL.
+     */
+    public ReimbursementReportDTO reimburse(Long tripId, ReimbursementRequestDTO request) {
+        if (!tripRepository.existsById(tripId)) {
+            throw new RuntimeException("Trip not found with ID: " + tripId);
+        }
+
+        String reference = request.getReference() != null && !request.getReference().isBlank()
+            ? request.getReference().trim()
+            : "RB-" + LocalDateTime.now().format(REFERENCE_FORMAT) + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        int updated = request.getExpenseIds() == null || request.getExpenseIds().isEmpty()
+            ? expenseRepository.markAllPendingReimbursed(tripId, reference)
+            : expenseRepository.markReimbursed(tripId, request.getExpenseIds(), reference);
+
+        if (updated > 0) {
+            tripRepository.incrementDataVersion(tripId);
+            eventPublisher.publishEvent(new TripChangedEvent(tripId, TripChangedEvent.Change.EXPENSES_CHANGED));
+        }
+
+        System.out.println("✅ Reimbursed " + updated + " expenses on trip " + tripId + " under reference " + reference);
+
+        return new ReimbursementReportDTO(
+            tripId,
+            reference,
+            updated,
+            toCurrencyTotals(expenseRepository.findReimbursedTotalsByReference(tripId, reference)),
+            toCurrencyTotals(expenseRepository.findPendingReimbursementTotals(tripId))
+        );
+    }
+
+    private List<ReimbursementReportDTO.CurrencyTotalDTO> toCurrencyTotals(List<Object[]> rows) {
+        return rows.stream()
+            .map(row -> new ReimbursementReportDTO.CurrencyTotalDTO(
+                (Expense.Currency) row[0], ((Number) row[1]).longValue(), (BigDecimal) row[2]))
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.model.Place;
+import com.example.tripplanner.repository.PlaceRepository;
+import com.example.tripplanner.util.Gazetteer;
+import com.example.tripplanner.util.KdTree;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline reverse geocoding: the nearest gazetteer city (and its country) for a
+ * latitude/longitude.
+ *
+ * A KdTree over the gazetteer points answers in microseconds, so places get
+ * their city and country filled in on the request that writes them. Existing
+ * rows are filled by PlaceLocationBackfillJob one page at a time. The country is
+ * the nearest city's country, which can be wrong within a few kilometres of a
+ * border.
+ */
+@Service
+public class ReverseGeocodingService {
+
+    @Autowired
+    private GazetteerService gazetteerService;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    // Points further than this from every known city are left unresolved
+    @Value("${locations.reverse-geocoding.max-distance-km:75}")
+    private double maxDistanceKm;
+
+    @Value("${locations.reverse-geocoding.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private volatile Gazetteer gazetteer;
+    private volatile KdTree index;
+
+    @PostConstruct
+    public void buildIndex() {
+        Gazetteer current = gazetteerService.getGazetteer();
+        double[] latitudes = new double[current.size()];
+        double[] longitudes = new double[current.size()];
+        for (int i = 0; i < current.size(); i++) {
+            latitudes[i] = current.getLatitude(i);
+            longitudes[i] = current.getLongitude(i);
+        }
+        index = new KdTree(latitudes, longitudes);
+        gazetteer = current;
+        System.out.println("✅ Reverse geocoding index built over " + index.size() + " places");
+    }
+
+    /**
+     * Nearest city within the configured distance, or null.
+     */
+    public Match resolve(double latitude, double longitude) {
+        Gazetteer current = gazetteer;
+        int place = index.nearest(latitude, longitude, maxDistanceKm);
+        if (place < 0) {
+            return null;
+        }
+        String countryCode = current.getCountryCode(place);
+        return new Match(current.getName(place), GazetteerService.countryName(countryCode), countryCode,
+            KdTree.distanceKm(latitude, longitude, current.getLatitude(place), current.getLongitude(place)));
+    }
+
+    /**
+     * Sets the place's city and country from its coordinates. With overwrite false
+     * only blank fields are filled; returns whether anything was resolved.
+     */
+    public boolean fill(Place place, boolean overwrite) {
+        if (place.getLatitude() == null || place.getLongitude() == null) {
+            return false;
+        }
+        Match match = resolve(place.getLatitude().doubleValue(), place.getLongitude().doubleValue());
+        if (match == null) {
+            return false;
+        }
+        if (overwrite || isBlank(place.getCity())) {
+            place.setCity(match.city());
+        }
+        if (overwrite || isBlank(place.getCountry())) {
+            place.setCountry(match.country());
+        }
+        return true;
+    }
+
+    /**
+     * Fills blank city/country columns for the next page of places after afterId.
+     * Rows are grouped by the resolved (city, country), so a page costs one read and
+     * one update per distinct city.
+     */
+    @Transactional
+    public BackfillPage backfillPage(long afterId) {
+        List<Object[]> rows = placeRepository.findMissingCityOrCountryAfter(afterId, PageRequest.of(0, backfillBatchSize));
+        if (rows.isEmpty()) {
+            return new BackfillPage(afterId, 0, 0, true);
+        }
+
+        Map<CityKey, List<Long>> idsByCity = new HashMap<>();
+        for (Object[] row : rows) {
+            Match match = resolve(((BigDecimal) row[1]).doubleValue(), ((BigDecimal) row[2]).doubleValue());
+            if (match != null) {
+                idsByCity.computeIfAbsent(new CityKey(match.city(), match.country()), k -> new ArrayList<>())
+                    .add((Long) row[0]);
+            }
+        }
+
+        int updated = 0;
+        for (Map.Entry<CityKey, List<Long>> entry : idsByCity.entrySet()) {
+            updated += placeRepository.fillCityAndCountry(entry.getValue(), entry.getKey().city(), entry.getKey().country());
+        }
+        long lastId = (Long) rows.get(rows.size() - 1)[0];
+        return new BackfillPage(lastId, rows.size(), updated, rows.size() < backfillBatchSize);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    public record Match(String city, String country, String countryCode, double distanceKm) {
+    }
+
+    public record BackfillPage(long lastId, int scanned, int updated, boolean done) {
+    }
+
+    private record CityKey(String city, String country) {
+    }
+}
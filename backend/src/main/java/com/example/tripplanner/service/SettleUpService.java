@@ -0,0 +1,202 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.SettlementDTO;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.model.User;
+import com.example.tripplanner.repository.ExpenseRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.repository.TripShareRepository;
+import com.example.tripplanner.repository.UserRepository;
+import com.example.tripplanner.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Computes who owes whom on a shared trip.
+ *
+ * Net balances are built in one pass over two projection queries (expenses and
+ * explicit shares), then settled per currency with a greedy max-heap match of the
+ * largest creditor against the largest debtor. Each step settles at least one
+ * participant, so there are at most n - 1 transfers and the whole thing is
+ * O(e + n log n). The latest result per trip is cached (least recently used
+ * trips beyond MAX_CACHED_TRIPS are dropped) and reused until the trip's data
+ * version changes; a change in participants bumps the version too.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SettleUpService {
+
+    private static final int CURRENCY_COUNT = Expense.Currency.values().length;
+    private static final int MAX_CACHED_TRIPS = 1000;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private TripShareRepository tripShareRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Long, SettlementDTO> settlementCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SettlementDTO> eldest) {
+                return size() > MAX_CACHED_TRIPS;
+            }
+        });
+
+    public SettlementDTO getSettlement(Long tripId) {
+        Long dataVersion = tripRepository.findDataVersionById(tripId)
+            .orElseThrow(() -> new RuntimeException("Trip not found with ID: " + tripId));
+
+        SettlementDTO cached = settlementCache.get(tripId);
+        if (cached != null && dataVersion.equals(cached.getDataVersion())) {
+            return cached;
+        }
+
+        SettlementDTO settlement = computeSettlement(tripId, dataVersion);
+        settlementCache.put(tripId, settlement);
+        return settlement;
+    }
+
+    public void evict(Long tripId) {
+        settlementCache.remove(tripId);
+    }
+
+    // Equal splits depend on who is on the trip, so a participant change is a data change
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onTripChanged(TripChangedEvent event) {
+        if (event.change() != TripChangedEvent.Change.PARTICIPANTS_CHANGED) {
+            return;
+        }
+        tripRepository.incrementDataVersion(event.tripId());
+        evict(event.tripId());
+    }
+
+    private SettlementDTO computeSettlement(Long tripId, Long dataVersion) {
+        Trip trip = tripRepository.findById(tripId)
+            .orElseThrow(() -> new RuntimeException("Trip not found with ID: " + tripId));
+        Long ownerId = trip.getUser() != null ? trip.getUser().getId() : null;
+
+        // Participants: trip owner plus accepted shares, in a stable order for remainder cents
+        SortedSet<Long> participantSet = new TreeSet<>(tripShareRepository.findAcceptedParticipantIds(tripId));
+        if (ownerId != null) {
+            participantSet.add(ownerId);
+        }
+        long[] participants = participantSet.stream().mapToLong(Long::longValue).toArray();
+
+        // Explicit shares grouped by expense id
+        Map<Long, List<Object[]>> sharesByExpense = new HashMap<>();
+        for (Object[] row : expenseRepository.findShareRowsByTripId(tripId)) {
+            sharesByExpense.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row);
+        }
+
+        // Net balance per user, one slot per currency
+        Map<Long, long[]> balances = new HashMap<>();
+        for (Object[] row : expenseRepository.findSettlementRowsByTripId(tripId)) {
+            Long expenseId = (Long) row[0];
+            long amount = Money.toMinorUnits((BigDecimal) row[1]);
+            int currency = ((Expense.Currency) row[2]).ordinal();
+            Long payerId = row[3] != null ? (Long) row[3] : ownerId;
+            if (payerId == null) {
+                continue;
+            }
+
+            credit(balances, payerId, currency, amount);
+
+            List<Object[]> shares = sharesByExpense.get(expenseId);
+            if (shares != null) {
+                long remainder = amount;
+                for (Object[] share : shares) {
+                    long shareAmount = Money.toMinorUnits((BigDecimal) share[2]);
+                    credit(balances, (Long) share[1], currency, -shareAmount);
+                    remainder -= shareAmount;
+                }
+                // Anything not covered by explicit shares stays with the payer
+                credit(balances, payerId, currency, -remainder);
+            } else if (participants.length > 0) {
+                long base = amount / participants.length;
+                long extraCents = amount % participants.length;
+                for (int i = 0; i < participants.length; i++) {
+                    credit(balances, participants[i], currency, -(base + (i < extraCents ? 1 : 0)));
+                }
+            } else {
+                credit(balances, payerId, currency, -amount);
+            }
+        }
+
+        Map<Long, String> names = new HashMap<>();
+        for (User user : userRepository.findAllById(balances.keySet())) {
+            names.put(user.getId(), user.getDisplayName());
+        }
+
+        List<SettlementDTO.BalanceDTO> balanceDTOs = new ArrayList<>();
+        List<SettlementDTO.TransferDTO> transfers = new ArrayList<>();
+        for (int currency = 0; currency < CURRENCY_COUNT; currency++) {
+            settleCurrency(balances, currency, names, balanceDTOs, transfers);
+        }
+
+        System.out.println("✅ Settlement for trip " + tripId + " (v" + dataVersion + "): " + transfers.size() + " transfers");
+        return new SettlementDTO(tripId, dataVersion, balanceDTOs, transfers);
+    }
+
+    private void credit(Map<Long, long[]> balances, Long userId, int currency, long amount) {
+        long[] userBalances = balances.computeIfAbsent(userId, id -> new long[CURRENCY_COUNT]);
+        userBalances[currency] = Money.add(userBalances[currency], amount);
+    }
+
+    private void settleCurrency(Map<Long, long[]> balances, int currency, Map<Long, String> names,
+                                List<SettlementDTO.BalanceDTO> balanceDTOs, List<SettlementDTO.TransferDTO> transfers) {
+        Expense.Currency currencyCode = Expense.Currency.values()[currency];
+
+        // Entries are {userId, outstanding amount}; both heaps pop the largest amount first
+        Comparator<long[]> largestFirst = (a, b) -> Long.compare(b[1], a[1]);
+        PriorityQueue<long[]> creditors = new PriorityQueue<>(largestFirst);
+        PriorityQueue<long[]> debtors = new PriorityQueue<>(largestFirst);
+
+        for (Map.Entry<Long, long[]> entry : balances.entrySet()) {
+            long balance = entry.getValue()[currency];
+            if (balance == 0) {
+                continue;
+            }
+            balanceDTOs.add(new SettlementDTO.BalanceDTO(entry.getKey(), names.get(entry.getKey()),
+                currencyCode, Money.fromMinorUnits(balance)));
+            if (balance > 0) {
+                creditors.add(new long[] {entry.getKey(), balance});
+            } else {
+                debtors.add(new long[] {entry.getKey(), -balance});
+            }
+        }
+
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            long[] creditor = creditors.poll();
+            long[] debtor = debtors.poll();
+            long amount = Math.min(creditor[1], debtor[1]);
+
+            transfers.add(new SettlementDTO.TransferDTO(debtor[0], names.get(debtor[0]),
+                creditor[0], names.get(creditor[0]), currencyCode, Money.fromMinorUnits(amount)));
+
+            creditor[1] -= amount;
+            debtor[1] -= amount;
+            if (creditor[1] > 0) {
+                creditors.add(creditor);
+            }
+            if (debtor[1] > 0) {
+                debtors.add(debtor);
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.config.AsyncConfig;
+import com.example.tripplanner.event.ExpenseWrittenEvent;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.repository.SpendingStatsRepository;
+import com.example.tripplanner.util.RunningStats;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flags expenses that are far above what a user normally spends in a category.
+ *
+ * Keeps running statistics (count, mean, m2) per (user, category) over
+ * log(1 + amount in USD); spending is heavy-tailed, and on the log scale a fixed
+ * z-score threshold behaves sensibly for both coffee and hotels. Each new expense
+ * is scored against the statistics before it is added, so detection never scans
+ * expense history.
+ *
+ * Every key holds the moments last read from spending_stats plus the samples
+ * this node has added since. Only those pending moments are written, merged
+ * into the row on the database side, and the merged row is read back, so nodes
+ * updating the same key add up instead of overwriting each other. Flushes run
+ * on a fixed delay and on shutdown. Keys that have been idle for a while with
+ * nothing pending are dropped and reloaded on next use. All changes to an entry
+ * go through the map's compute methods, so eviction never loses a sample.
+ */
+@Service
+public class SpendingAnomalyDetector {
+
+    private static final int CATEGORY_COUNT = Expense.ExpenseCategory.values().length;
+
+    @Autowired
+    private SpendingStatsRepository spendingStatsRepository;
+
+    @Autowired
+    private BudgetAlertEngine budgetAlertEngine;
+
+    @Autowired
+    private CurrencyService currencyService;
+
+    // Expenses scored only once a user has this many in the category
+    @Value("${anomaly.min-samples:10}")
+    private int minSamples;
+
+    @Value("${anomaly.z-score-threshold:3.0}")
+    private double zScoreThreshold;
+
+    // Keys unused for this long and fully flushed are dropped from memory
+    @Value("${anomaly.idle-eviction-ms:3600000}")
+    private long idleEvictionMs;
+
+    // Key is userId * CATEGORY_COUNT + category ordinal
+    private final Map<Long, KeyStats> statsByKey = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyKeys = ConcurrentHashMap.newKeySet();
+
+    @Async(AsyncConfig.BUDGET_ALERT_EXECUTOR)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseWritten(ExpenseWrittenEvent event) {
+        if (event.isRemoval() || event.userId() == null || event.amount().signum() == 0) {
+            return;
+        }
+        double amountUsd = currencyService.convertAmount(event.amount().doubleValue(), event.currency().name(), "USD",
+            event.expenseDate());
+        double value = Math.log1p(amountUsd);
+
+        long key = event.userId() * CATEGORY_COUNT + event.category().ordinal();
+        // [zScore, typicalUsd]
+        double[] scored = new double[2];
+        statsByKey.compute(key, (k, existing) -> {
+            KeyStats stats = existing != null ? existing : new KeyStats(load(event.userId(), event.category()));
+            RunningStats combined = stats.combined();
+            scored[0] = combined.getCount() >= minSamples ? combined.zScore(value) : 0.0;
+            scored[1] = Math.expm1(combined.getMean());
+            stats.pending.add(value);
+            stats.lastUsedMillis = System.currentTimeMillis();
+            return stats;
+        });
+        dirtyKeys.add(key);
+
+        double zScore = scored[0];
+        if (zScore > zScoreThreshold) {
+            System.out.println("⚠️ Unusual " + event.category() + " expense " + event.expenseId() +
+                " for user " + event.userId() + " (z = " + String.format("%.2f", zScore) + ")");
+            budgetAlertEngine.raiseUnusualSpending(event.tripId(), event.expenseId(), event.category(), event.expenseDate(),
+                event.amount(), event.currency(), scored[1], zScore);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${anomaly.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        int written = 0;
+        // A copy, so keys re-marked dirty after a failed write wait for the next snapshot
+        for (Long key : List.copyOf(dirtyKeys)) {
+            dirtyKeys.remove(key);
+            if (flush(key)) {
+                written++;
+            }
+        }
+        int evicted = evictIdle();
+        if (written > 0 || evicted > 0) {
+            System.out.println("✅ Snapshotted spending statistics for " + written + " user categories, evicted " + evicted + " idle");
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int pending = dirtyKeys.size();
+        snapshot();
+        if (pending > 0) {
+            System.out.println("✅ Flushed spending statistics for " + pending + " user categories on shutdown");
+        }
+    }
+
+    // Writes the key's pending moments and reloads the merged row; false if there was nothing to write
+    private boolean flush(Long key) {
+        Long userId = key / CATEGORY_COUNT;
+        Expense.ExpenseCategory category = Expense.ExpenseCategory.values()[(int) (key % CATEGORY_COUNT)];
+        // [pending delta, base before the delta]
+        RunningStats[] taken = new RunningStats[2];
+        statsByKey.computeIfPresent(key, (k, stats) -> {
+            // Keep scoring against the delta while it is being written
+            taken[0] = stats.pending;
+            taken[1] = stats.base.copy();
+            stats.base.merge(stats.pending);
+            stats.pending = new RunningStats();
+            return stats;
+        });
+        RunningStats delta = taken[0];
+        if (delta == null || delta.getCount() == 0) {
+            return false;
+        }
+
+        try {
+            spendingStatsRepository.mergeMoments(userId, category.name(), delta.getCount(), delta.getMean(), delta.getM2());
+        } catch (RuntimeException e) {
+            // Put the samples back so the next snapshot retries them
+            RunningStats baseBefore = taken[1];
+            statsByKey.compute(key, (k, stats) -> {
+                KeyStats restored = stats != null ? stats : new KeyStats(baseBefore);
+                restored.base = baseBefore;
+                restored.pending.merge(delta);
+                return restored;
+            });
+            dirtyKeys.add(key);
+            System.err.println("❌ Could not write spending statistics for user " + userId + " " + category + ": " + e.getMessage());
+            return false;
+        }
+
+        // The row now holds every node's flushed samples, including this delta
+        try {
+            RunningStats stored = load(userId, category);
+            statsByKey.computeIfPresent(key, (k, stats) -> {
+                stats.base = stored;
+                return stats;
+            });
+        } catch (RuntimeException e) {
+            // The local base already includes the delta; other nodes' samples arrive with the next flush
+            System.err.println("⚠️ Could not reload spending statistics for user " + userId + " " + category + ": " + e.getMessage());
+        }
+        return true;
+    }
+
+    private int evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictionMs;
+        int[] evicted = new int[1];
+        for (Long key : statsByKey.keySet()) {
+            statsByKey.computeIfPresent(key, (k, stats) -> {
+                if (stats.lastUsedMillis < cutoff && stats.pending.getCount() == 0) {
+                    evicted[0]++;
+                    return null;
+                }
+                return stats;
+            });
+        }
+        return evicted[0];
+    }
+
+    private RunningStats load(Long userId, Expense.ExpenseCategory category) {
+        return spendingStatsRepository.findByUserIdAndCategory(userId, category)
+            .map(row -> new RunningStats(row.getSampleCount(), row.getMeanValue(), row.getM2Value()))
+            .orElseGet(RunningStats::new);
+    }
+
+    // Moments from the database plus samples added here since the last flush
+    private static final class KeyStats {
+        RunningStats base;
+        RunningStats pending = new RunningStats();
+        long lastUsedMillis = System.currentTimeMillis();
+
+        KeyStats(RunningStats base) {
+            this.base = base;
+        }
+
+        RunningStats combined() {
+            RunningStats combined = base.copy();
+            combined.merge(pending);
+            return combined;
+        }
+    }
+}
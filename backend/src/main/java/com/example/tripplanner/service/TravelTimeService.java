@@ -0,0 +1,257 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.ActivityDTO;
+import com.example.tripplanner.dto.PlaceDTO;
+import com.example.tripplanner.dto.TripPlanDTO;
+import com.example.tripplanner.util.KdTree;
+import com.example.tripplanner.util.RoadGraph;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Travel times between stops from a local road network, with no external calls.
+ *
+ * At startup a road extract (junction nodes and ways tagged with their OSM
+ * highway class, oneway and maxspeed) is loaded into a RoadGraph and its
+ * landmarks are precomputed. A query snaps both ends to the nearest junction,
+ * routes between them and adds the short access legs at local-street speed.
+ * Points the network does not cover, or that it cannot connect, get a
+ * straight-line estimate: distance times a detour factor at a fallback speed.
+ * getTripPlan uses this to annotate the legs between consecutive activities of
+ * every day.
+ */
+@Service
+public class TravelTimeService {
+
+    public static final String SOURCE_ROAD = "ROAD";
+    public static final String SOURCE_ESTIMATE = "ESTIMATE";
+
+    // Speed in km/h for ways without a usable maxspeed, by OSM highway class
+    private static final Map<String, Double> HIGHWAY_SPEEDS = new HashMap<>();
+
+    static {
+        HIGHWAY_SPEEDS.put("motorway", 90.0);
+        HIGHWAY_SPEEDS.put("motorway_link", 50.0);
+        HIGHWAY_SPEEDS.put("trunk", 55.0);
+        HIGHWAY_SPEEDS.put("trunk_link", 40.0);
+        HIGHWAY_SPEEDS.put("primary", 45.0);
+        HIGHWAY_SPEEDS.put("primary_link", 35.0);
+        HIGHWAY_SPEEDS.put("secondary", 40.0);
+        HIGHWAY_SPEEDS.put("secondary_link", 30.0);
+        HIGHWAY_SPEEDS.put("tertiary", 30.0);
+        HIGHWAY_SPEEDS.put("tertiary_link", 25.0);
+        HIGHWAY_SPEEDS.put("unclassified", 25.0);
+        HIGHWAY_SPEEDS.put("residential", 20.0);
+        HIGHWAY_SPEEDS.put("living_street", 10.0);
+        HIGHWAY_SPEEDS.put("service", 15.0);
+    }
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${routing.location:classpath:roads/sample-roads.txt}")
+    private String location;
+
+    @Value("${routing.landmarks:8}")
+    private int landmarkCount;
+
+    // Stops further than this from every junction are outside coverage
+    @Value("${routing.max-snap-km:3}")
+    private double maxSnapKm;
+
+    // Speed between a stop and its junction
+    @Value("${routing.access-speed-kmh:20}")
+    private double accessSpeedKmh;
+
+    @Value("${routing.fallback-speed-kmh:35}")
+    private double fallbackSpeedKmh;
+
+    // Road distance over straight-line distance for the fallback estimate
+    @Value("${routing.detour-factor:1.35}")
+    private double detourFactor;
+
+    private volatile RoadGraph graph;
+
+    private final LongAdder roadCount = new LongAdder();
+    private final LongAdder estimateCount = new LongAdder();
+    private final LongAdder routeNanos = new LongAdder();
+
+    @PostConstruct
+    public void load() {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        int ways = 0;
+        int skipped = 0;
+        Resource resource = resourceLoader.getResource(location);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                if ("n".equals(columns[0]) && columns.length >= 4 && addNode(builder, columns)) {
+                    continue;
+                }
+                if ("w".equals(columns[0]) && columns.length >= 6 && addWay(builder, columns)) {
+                    ways++;
+                    continue;
+                }
+                skipped++;
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Could not load road network from " + location + ": " + e.getMessage());
+        }
+        long started = System.nanoTime();
+        RoadGraph built = builder.build(landmarkCount);
+        graph = built;
+        System.out.println("✅ Road network loaded: " + built.nodeCount() + " junctions, " + ways + " ways, "
+            + built.landmarkCount() + " landmarks in " + (System.nanoTime() - started) / 1_000_000 + " ms"
+            + (skipped > 0 ? " (" + skipped + " lines skipped)" : ""));
+    }
+
+    /**
+     * Driving time and distance from one point to another.
+     */
+    public Estimate estimate(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double straightKm = KdTree.distanceKm(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        RoadGraph current = graph;
+        int from = current.nearestNode(fromLatitude, fromLongitude, maxSnapKm);
+        int to = current.nearestNode(toLatitude, toLongitude, maxSnapKm);
+        if (from >= 0 && to >= 0) {
+            double accessKm = KdTree.distanceKm(fromLatitude, fromLongitude, current.getLatitude(from), current.getLongitude(from))
+                + KdTree.distanceKm(toLatitude, toLongitude, current.getLatitude(to), current.getLongitude(to));
+            // Stops nearer each other than to the network are not worth routing
+            if (from != to && accessKm < straightKm) {
+                long started = System.nanoTime();
+                double[] route = current.route(from, to);
+                routeNanos.add(System.nanoTime() - started);
+                if (route != null) {
+                    roadCount.increment();
+                    return new Estimate(route[1] + accessKm, (route[0] + accessKm / accessSpeedKmh * 3600.0) / 60.0, SOURCE_ROAD);
+                }
+            }
+        }
+        estimateCount.increment();
+        double km = straightKm * detourFactor;
+        return new Estimate(km, km / fallbackSpeedKmh * 60.0, SOURCE_ESTIMATE);
+    }
+
+    /**
+     * One leg per pair of consecutive activities that both have a place with
+     * coordinates, in start time order (activities without a start time last).
+     */
+    public List<TripPlanDTO.LegDTO> legs(List<ActivityDTO> activities, Map<Long, PlaceDTO> placesById) {
+        List<ActivityDTO> located = new ArrayList<>();
+        for (ActivityDTO activity : activities) {
+            PlaceDTO place = activity.getPlaceId() != null ? placesById.get(activity.getPlaceId()) : null;
+            if (place != null && place.getLatitude() != null && place.getLongitude() != null) {
+                located.add(activity);
+            }
+        }
+        located.sort(Comparator.comparing((ActivityDTO activity) -> minuteOfDay(activity.getStartTime()),
+            Comparator.nullsLast(Comparator.naturalOrder())));
+
+        List<TripPlanDTO.LegDTO> legs = new ArrayList<>();
+        for (int i = 0; i + 1 < located.size(); i++) {
+            ActivityDTO from = located.get(i);
+            ActivityDTO to = located.get(i + 1);
+            PlaceDTO fromPlace = placesById.get(from.getPlaceId());
+            PlaceDTO toPlace = placesById.get(to.getPlaceId());
+            Estimate estimate = estimate(fromPlace.getLatitude().doubleValue(), fromPlace.getLongitude().doubleValue(),
+                toPlace.getLatitude().doubleValue(), toPlace.getLongitude().doubleValue());
+            legs.add(new TripPlanDTO.LegDTO(from.getId(), to.getId(), fromPlace.getId(), toPlace.getId(),
+                Math.round(estimate.distanceKm() * 10.0) / 10.0, (int) Math.ceil(estimate.minutes()), estimate.source()));
+        }
+        return legs;
+    }
+
+    public Map<String, Object> getStats() {
+        RoadGraph current = graph;
+        long routed = roadCount.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("junctions", current.nodeCount());
+        stats.put("roadSegments", current.edgeCount());
+        stats.put("landmarks", current.landmarkCount());
+        stats.put("routed", routed);
+        stats.put("estimated", estimateCount.sum());
+        stats.put("averageRouteMicros", routed > 0 ? routeNanos.sum() / routed / 1000 : 0L);
+        return stats;
+    }
+
+    private static boolean addNode(RoadGraph.Builder builder, String[] columns) {
+        try {
+            builder.addNode(Long.parseLong(columns[1].trim()), Double.parseDouble(columns[2]), Double.parseDouble(columns[3]));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean addWay(RoadGraph.Builder builder, String[] columns) {
+        Double speed = speedKmh(columns[2].trim(), columns[4].trim());
+        if (speed == null) {
+            return false;
+        }
+        String[] refs = columns[5].trim().split("\\s+");
+        long[] nodeIds = new long[refs.length];
+        try {
+            for (int i = 0; i < refs.length; i++) {
+                nodeIds[i] = Long.parseLong(refs[i]);
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        boolean oneway = "yes".equals(columns[3].trim()) || "1".equals(columns[3].trim());
+        return builder.addWay(nodeIds, speed, oneway) > 0;
+    }
+
+    // maxspeed when it is a number ("60" or "40 mph"), else the highway class default; null for non-roads
+    private static Double speedKmh(String highway, String maxspeed) {
+        if (!maxspeed.isEmpty()) {
+            try {
+                if (maxspeed.endsWith("mph")) {
+                    return Double.parseDouble(maxspeed.substring(0, maxspeed.length() - 3).trim()) * 1.609344;
+                }
+                return Double.parseDouble(maxspeed);
+            } catch (NumberFormatException e) {
+                // e.g. "walk" or "LK:urban"; use the class default
+            }
+        }
+        return HIGHWAY_SPEEDS.get(highway);
+    }
+
+    // "9:30" or "09:30" (seconds ignored) to minutes since midnight, or null
+    private static Integer minuteOfDay(String time) {
+        if (time == null) {
+            return null;
+        }
+        String[] parts = time.trim().split(":");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public record Estimate(double distanceKm, double minutes, String source) {
+    }
+}
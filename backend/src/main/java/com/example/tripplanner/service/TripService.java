@@ -9,13 +9,19 @@ import com.example.tripplanner.dto.TripPlanDTO;
 import com.example.tripplanner.dto.PagedResponseDTO;
 import com.example.tripplanner.model.*;
 import com.example.tripplanner.repository.*;
+import com.example.tripplanner.event.ExpenseWrittenEvent;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -47,6 +53,30 @@ public class TripService {
     
     @Autowired
     private TripShareRepository tripShareRepository;
+    
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+    
+    @Autowired
+    private SettleUpService settleUpService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private NotificationHub notificationHub;
+    
+    @Autowired
+    private BudgetForecastService budgetForecastService;
+    
+    @Autowired
+    private ReverseGeocodingService reverseGeocodingService;
+    
+    @Autowired
+    private PopularDestinationService popularDestinationService;
+    
+    @Autowired
+    private TravelTimeService travelTimeService;
 
     // Trip CRUD Operations
     public TripDTO createTrip(TripDTO tripDTO, String firebaseUid) {
@@ -88,6 +118,7 @@ public class TripService {
         // Save trip
         Trip savedTrip = tripRepository.save(trip);
         System.out.println("✅ Trip created with ID: " + savedTrip.getId());
+        popularDestinationService.recordTripDestination(savedTrip.getDestination());
         
         // Create initial itinerary day if provided
         if (tripDTO.getItineraryData() != null && tripDTO.getItineraryData().getDays() != null) {
@@ -123,9 +154,19 @@ public class TripService {
         Trip existingTrip = tripRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Trip not found with ID: " + id));
         
+        // Budget, dates and status feed derived data (forecasts, alerts) keyed by the data version
+        boolean budgetInputsChanged =
+            (tripDTO.getStartDate() != null && !tripDTO.getStartDate().equals(existingTrip.getStartDate()))
+            || (tripDTO.getEndDate() != null && !tripDTO.getEndDate().equals(existingTrip.getEndDate()))
+            || (tripDTO.getBudget() != null && (existingTrip.getBudget() == null || tripDTO.getBudget().compareTo(existingTrip.getBudget()) != 0))
+            || (tripDTO.getStatus() != null && tripDTO.getStatus() != existingTrip.getStatus());
+        
         // Update fields
         if (tripDTO.getTitle() != null) existingTrip.setTitle(tripDTO.getTitle());
-        if (tripDTO.getDestination() != null) existingTrip.setDestination(tripDTO.getDestination());
+        if (tripDTO.getDestination() != null && !tripDTO.getDestination().equals(existingTrip.getDestination())) {
+            existingTrip.setDestination(tripDTO.getDestination());
+            popularDestinationService.recordTripDestination(tripDTO.getDestination());
+        }
         if (tripDTO.getStartDate() != null) existingTrip.setStartDate(tripDTO.getStartDate());
         if (tripDTO.getEndDate() != null) existingTrip.setEndDate(tripDTO.getEndDate());
         if (tripDTO.getBudget() != null) existingTrip.setBudget(tripDTO.getBudget());
@@ -134,13 +175,25 @@ public class TripService {
         if (tripDTO.getVisibility() != null) existingTrip.setVisibility(tripDTO.getVisibility());
         
         Trip updatedTrip = tripRepository.save(existingTrip);
+        if (budgetInputsChanged) {
+            tripRepository.incrementDataVersion(id);
+            budgetForecastService.evict(id);
+        }
+        eventPublisher.publishEvent(new TripChangedEvent(id, TripChangedEvent.Change.UPDATED));
         System.out.println("✅ Trip updated successfully");
         
         return convertToTripDTO(updatedTrip);
     }
 
     public void deleteTrip(Long id) {
-        tripRepository.deleteById(id);
+        tripRepository.findById(id).ifPresent(trip -> {
+            // Recipients have to be resolved before the trip and its shares are gone
+            eventPublisher.publishEvent(new TripChangedEvent(id, TripChangedEvent.Change.DELETED, notificationHub.recipients(id)));
+            expenseRollupService.removeTrip(trip);
+            settleUpService.evict(id);
+            budgetForecastService.evict(id);
+            tripRepository.delete(trip);
+        });
     }
 
     // Place Operations
@@ -171,8 +224,10 @@ public class TripService {
         place.setLongitude(placeDTO.getLongitude());
         place.setPhotos(placeDTO.getPhotos());
         place.setTrip(trip);
+        reverseGeocodingService.fill(place, false);
         
         Place savedPlace = placeRepository.save(place);
+        eventPublisher.publishEvent(new TripChangedEvent(tripId, TripChangedEvent.Change.PLACE_ADDED));
         System.out.println("✅ Place added with ID: " + savedPlace.getId());
         
         return convertToPlaceDTO(savedPlace);
@@ -187,6 +242,7 @@ public class TripService {
         }
         
         placeRepository.delete(place);
+        eventPublisher.publishEvent(new TripChangedEvent(tripId, TripChangedEvent.Change.PLACE_REMOVED));
     }
 
     // Expense Operations
@@ -218,10 +274,73 @@ public class TripService {
         expense.setReimbursementReference(expenseDTO.getReimbursementReference());
         expense.setStatus(expenseDTO.getStatus());
         expense.setTrip(trip);
+        applySplit(expense, expenseDTO);
         
         Expense savedExpense = expenseRepository.save(expense);
+        expenseRollupService.recordExpense(savedExpense);
+        tripRepository.incrementDataVersion(trip.getId());
+        eventPublisher.publishEvent(ExpenseWrittenEvent.created(savedExpense));
+        eventPublisher.publishEvent(new TripChangedEvent(trip.getId(), TripChangedEvent.Change.EXPENSES_CHANGED));
         return convertToExpenseDTO(savedExpense);
     }
+    
+    // Sets payer and explicit shares; both must be trip participants and shares must add up to the expense amount
+    private void applySplit(Expense expense, ExpenseDTO expenseDTO) {
+        boolean hasShares = expenseDTO.getShares() != null && !expenseDTO.getShares().isEmpty();
+        if (expenseDTO.getPaidByUserId() == null && !hasShares) {
+            return;
+        }
+        Set<Long> participantIds = participantIds(expense.getTrip());
+        
+        if (expenseDTO.getPaidByUserId() != null) {
+            requireParticipant(participantIds, expenseDTO.getPaidByUserId(), expense.getTrip().getId());
+            expense.setPaidBy(userRepository.findById(expenseDTO.getPaidByUserId())
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + expenseDTO.getPaidByUserId())));
+        }
+        if (!hasShares) {
+            return;
+        }
+        
+        // One share per user (expense_shares is unique on expense and user); repeated users are merged
+        Map<Long, Long> shareByUser = new LinkedHashMap<>();
+        long sharedTotal = 0L;
+        for (ExpenseDTO.ShareDTO shareDTO : expenseDTO.getShares()) {
+            if (shareDTO.getUserId() == null) {
+                throw new RuntimeException("Expense shares need a user ID");
+            }
+            requireParticipant(participantIds, shareDTO.getUserId(), expense.getTrip().getId());
+            long amount = Money.toMinorUnits(shareDTO.getAmount());
+            shareByUser.merge(shareDTO.getUserId(), amount, Money::add);
+            sharedTotal = Money.add(sharedTotal, amount);
+        }
+        if (sharedTotal != expense.getAmountMinorUnits()) {
+            throw new RuntimeException("Expense shares must add up to the expense amount");
+        }
+        
+        for (Map.Entry<Long, Long> entry : shareByUser.entrySet()) {
+            User user = userRepository.findById(entry.getKey())
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + entry.getKey()));
+            ExpenseShare share = new ExpenseShare();
+            share.setUser(user);
+            share.setShareAmount(Money.fromMinorUnits(entry.getValue()));
+            expense.addShare(share);
+        }
+    }
+    
+    // Trip owner plus users with an accepted share, the people an expense can be split between
+    private Set<Long> participantIds(Trip trip) {
+        Set<Long> participantIds = new HashSet<>(tripShareRepository.findAcceptedParticipantIds(trip.getId()));
+        if (trip.getUser() != null) {
+            participantIds.add(trip.getUser().getId());
+        }
+        return participantIds;
+    }
+    
+    private void requireParticipant(Set<Long> participantIds, Long userId, Long tripId) {
+        if (!participantIds.contains(userId)) {
+            throw new RuntimeException("User with ID: " + userId + " is not a participant of trip with ID: " + tripId);
+        }
+    }
 
     // Activity Operations
     public List<ActivityDTO> getActivitiesByTripId(Long tripId) {
@@ -501,6 +620,9 @@ public class TripService {
         // Update trip basic information
         if (tripPlanDTO.getTitle() != null) trip.setTitle(tripPlanDTO.getTitle());
         if (tripPlanDTO.getDestination() != null && !tripPlanDTO.getDestination().trim().isEmpty()) {
+            if (!tripPlanDTO.getDestination().equals(trip.getDestination())) {
+                popularDestinationService.recordTripDestination(tripPlanDTO.getDestination());
+            }
             trip.setDestination(tripPlanDTO.getDestination());
         }
         if (tripPlanDTO.getStartDate() != null) trip.setStartDate(tripPlanDTO.getStartDate());
@@ -532,6 +654,7 @@ public class TripService {
                     place.setLongitude(placeDTO.getLongitude());
                     place.setPhotos(placeDTO.getPhotos());
                     place.setTrip(trip);
+                    reverseGeocodingService.fill(place, false);
                     placeRepository.save(place);
                 }
             }
@@ -584,14 +707,18 @@ public class TripService {
         }
         
         // Save expenses (only if they don't already exist)
+        boolean expensesAdded = false;
         if (tripPlanDTO.getExpenses() != null) {
+            // Load existing expenses once and index them, instead of re-querying per incoming expense
+            Set<String> existingExpenseKeys = new HashSet<>();
+            for (Expense existing : expenseRepository.findByTripId(tripId)) {
+                existingExpenseKeys.add(expenseKey(existing.getDescription(), existing.getAmount(), existing.getDayNumber()));
+            }
+            
             for (ExpenseDTO expenseDTO : tripPlanDTO.getExpenses()) {
-                // Check if expense already exists for this trip
-                List<Expense> existingExpenses = expenseRepository.findByTripId(tripId);
-                boolean expenseExists = existingExpenses.stream()
-                    .anyMatch(e -> e.getDescription().equals(expenseDTO.getDescription()) && 
-                             e.getAmount().equals(expenseDTO.getAmount()) &&
-                             e.getDayNumber().equals(expenseDTO.getDayNumber()));
+                // Check if expense already exists for this trip (fuzzy matches are reported by ExpenseDeduplicationService)
+                boolean expenseExists = !existingExpenseKeys.add(
+                    expenseKey(expenseDTO.getDescription(), expenseDTO.getAmount(), expenseDTO.getDayNumber()));
                 
                 if (!expenseExists) {
                     Expense expense = new Expense();
@@ -611,15 +738,28 @@ public class TripService {
                     expense.setReimbursementReference(expenseDTO.getReimbursementReference());
                     expense.setStatus(expenseDTO.getStatus());
                     expense.setTrip(trip);
+                    applySplit(expense, expenseDTO);
                     expenseRepository.save(expense);
+                    expenseRollupService.recordExpense(expense);
+                    eventPublisher.publishEvent(ExpenseWrittenEvent.created(expense));
+                    expensesAdded = true;
                 }
             }
         }
+        if (expensesAdded) {
+            tripRepository.incrementDataVersion(tripId);
+        }
         
+        eventPublisher.publishEvent(new TripChangedEvent(tripId, TripChangedEvent.Change.PLAN_SAVED));
         System.out.println("✅ Unified trip plan saved successfully");
         return getTripPlan(tripId);
     }
     
+    // Exact-match key for saveTripPlan; amounts compare by value so 12.5 and 12.50 match
+    private String expenseKey(String description, BigDecimal amount, Integer dayNumber) {
+        return description + "|" + (amount != null ? amount.stripTrailingZeros().toPlainString() : "") + "|" + dayNumber;
+    }
+    
     public TripPlanDTO getTripPlan(Long tripId) {
         System.out.println("=== GETTING UNIFIED TRIP PLAN ===");
         System.out.println("Trip ID: " + tripId);
@@ -645,6 +785,8 @@ public class TripService {
         tripPlanDTO.setExpenses(expenses);
         
         // Get days with activities
+        Map<Long, PlaceDTO> placesById = places.stream()
+            .collect(Collectors.toMap(PlaceDTO::getId, place -> place, (first, second) -> first));
         List<ItineraryDTO> itineraries = getItinerariesByTripId(tripId);
         List<TripPlanDTO.DayPlanDTO> days = new ArrayList<>();
         
@@ -660,6 +802,7 @@ public class TripService {
                 .map(this::convertToActivityDTO)
                 .collect(Collectors.toList());
             dayDTO.setActivities(dayActivities);
+            dayDTO.setLegs(travelTimeService.legs(dayActivities, placesById));
             
             days.add(dayDTO);
         }
@@ -685,6 +828,7 @@ public class TripService {
         dto.setCreatedAt(trip.getCreatedAt());
         dto.setUpdatedAt(trip.getUpdatedAt());
         dto.setFirebaseUid(trip.getUser() != null ? trip.getUser().getFirebaseUid() : null);
+        dto.setBudgetForecast(budgetForecastService.getCachedForecast(trip));
         
         // Convert places - handle lazy loading safely
         try {
@@ -732,7 +876,7 @@ public class TripService {
         return dto;
     }
 
-    private ExpenseDTO convertToExpenseDTO(Expense expense) {
+    ExpenseDTO convertToExpenseDTO(Expense expense) {
         ExpenseDTO dto = new ExpenseDTO();
         dto.setId(expense.getId());
         dto.setDayNumber(expense.getDayNumber());
@@ -753,6 +897,10 @@ public class TripService {
         dto.setTripId(expense.getTrip() != null ? expense.getTrip().getId() : null);
         dto.setActivityId(expense.getActivity() != null ? expense.getActivity().getId() : null);
         dto.setPlaceId(expense.getPlace() != null ? expense.getPlace().getId() : null);
+        dto.setPaidByUserId(expense.getPaidBy() != null ? expense.getPaidBy().getId() : null);
+        dto.setShares(expense.getShares().stream()
+            .map(share -> new ExpenseDTO.ShareDTO(share.getUser().getId(), share.getShareAmount()))
+            .collect(Collectors.toList()));
         dto.setCreatedAt(expense.getCreatedAt());
         dto.setUpdatedAt(expense.getUpdatedAt());
         return dto;
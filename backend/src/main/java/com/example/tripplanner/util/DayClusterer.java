@@ -0,0 +1,278 @@
+package com.example.tripplanner.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Splits points into k groups of roughly equal weight that are each as compact
+ * as possible: capacity-constrained k-medoids.
+ *
+ * Every group is represented by one of its own points (its medoid). A run seeds
+ * the medoids k-means++ style, then alternates assignment and medoid update
+ * until the medoids stop moving. Assignment places points in order of regret
+ * (how much farther their second-best medoid is), so the points that matter most
+ * choose first, and a point only joins a medoid whose group still has room under
+ * the capacity, which is the mean group weight plus a slack fraction. The result
+ * depends on the seed; callers run several seeds and keep the lowest cost. The
+ * distance matrix is read-only, so runs with different seeds can share it
+ * across threads.
+ */
+public final class DayClusterer {
+
+    private static final int MAX_ITERATIONS = 50;
+
+    // Cost of every unit of weight over capacity, in distance units
+    private static final double OVERFLOW_PENALTY = 1000.0;
+
+    private final double[][] distances;
+    private final double[] weights;
+    private final int k;
+    private final double capacity;
+
+    public DayClusterer(double[][] distances, double[] weights, int k, double slack) {
+        this.distances = distances;
+        this.weights = weights;
+        this.k = Math.max(1, Math.min(k, weights.length));
+        double total = 0.0;
+        double heaviest = 0.0;
+        for (double weight : weights) {
+            total += weight;
+            heaviest = Math.max(heaviest, weight);
+        }
+        this.capacity = Math.max(heaviest, total / this.k * (1.0 + slack));
+    }
+
+    /**
+     * One run from the given seed. There must be at least one point.
+     */
+    public Result run(long seed) {
+        int n = weights.length;
+        Random random = new Random(seed);
+        int[] medoids = seed(random);
+        int[] assignment = new int[n];
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            assign(medoids, assignment);
+            if (!updateMedoids(medoids, assignment)) {
+                break;
+            }
+        }
+        assign(medoids, assignment);
+        return new Result(assignment, medoids, cost(medoids, assignment));
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public double getCapacity() {
+        return capacity;
+    }
+
+    // k-means++: each next medoid is drawn with probability proportional to squared distance
+    private int[] seed(Random random) {
+        int n = weights.length;
+        int[] medoids = new int[k];
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.MAX_VALUE);
+        medoids[0] = random.nextInt(n);
+        for (int c = 1; c < k; c++) {
+            double total = 0.0;
+            for (int i = 0; i < n; i++) {
+                double d = distances[i][medoids[c - 1]];
+                nearest[i] = Math.min(nearest[i], d * d);
+                total += nearest[i];
+            }
+            int chosen = -1;
+            if (total > 0.0) {
+                double target = random.nextDouble() * total;
+                for (int i = 0; i < n && chosen < 0; i++) {
+                    target -= nearest[i];
+                    if (target < 0.0 && nearest[i] > 0.0) {
+                        chosen = i;
+                    }
+                }
+            }
+            if (chosen < 0) {
+                // All remaining points coincide with a medoid; take any point not yet used
+                chosen = unusedPoint(medoids, c, random);
+            }
+            medoids[c] = chosen;
+        }
+        return medoids;
+    }
+
+    private int unusedPoint(int[] medoids, int used, Random random) {
+        int n = weights.length;
+        int start = random.nextInt(n);
+        for (int offset = 0; offset < n; offset++) {
+            int candidate = (start + offset) % n;
+            boolean taken = false;
+            for (int c = 0; c < used && !taken; c++) {
+                taken = medoids[c] == candidate;
+            }
+            if (!taken) {
+                return candidate;
+            }
+        }
+        return start;
+    }
+
+    private void assign(int[] medoids, int[] assignment) {
+        int n = weights.length;
+        double[] loads = new double[k];
+        Arrays.fill(assignment, -1);
+        for (int c = 0; c < k; c++) {
+            assignment[medoids[c]] = c;
+            loads[c] += weights[medoids[c]];
+        }
+
+        Integer[] order = new Integer[n];
+        double[] regret = new double[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            double best = Double.MAX_VALUE;
+            double second = Double.MAX_VALUE;
+            for (int c = 0; c < k; c++) {
+                double d = distances[i][medoids[c]];
+                if (d < best) {
+                    second = best;
+                    best = d;
+                } else if (d < second) {
+                    second = d;
+                }
+            }
+            regret[i] = k > 1 ? second - best : 0.0;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(regret[b], regret[a]));
+
+        for (int i : order) {
+            if (assignment[i] >= 0) {
+                continue;
+            }
+            int chosen = -1;
+            for (int c = 0; c < k; c++) {
+                if (loads[c] + weights[i] <= capacity
+                        && (chosen < 0 || distances[i][medoids[c]] < distances[i][medoids[chosen]])) {
+                    chosen = c;
+                }
+            }
+            if (chosen < 0) {
+                // Nothing has room; overflow the lightest group
+                chosen = 0;
+                for (int c = 1; c < k; c++) {
+                    if (loads[c] < loads[chosen]) {
+                        chosen = c;
+                    }
+                }
+            }
+            assignment[i] = chosen;
+            loads[chosen] += weights[i];
+        }
+    }
+
+    // Moves each medoid to the member closest to all other members; returns whether any moved
+    private boolean updateMedoids(int[] medoids, int[] assignment) {
+        int n = weights.length;
+        boolean moved = false;
+        for (int c = 0; c < k; c++) {
+            int best = medoids[c];
+            double bestSum = Double.MAX_VALUE;
+            for (int candidate = 0; candidate < n; candidate++) {
+                if (assignment[candidate] != c) {
+                    continue;
+                }
+                double sum = 0.0;
+                for (int i = 0; i < n && sum < bestSum; i++) {
+                    if (assignment[i] == c) {
+                        sum += distances[candidate][i];
+                    }
+                }
+                if (sum < bestSum) {
+                    bestSum = sum;
+                    best = candidate;
+                }
+            }
+            if (best != medoids[c]) {
+                medoids[c] = best;
+                moved = true;
+            }
+        }
+        return moved;
+    }
+
+    private double cost(int[] medoids, int[] assignment) {
+        double[] loads = new double[k];
+        double cost = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            cost += distances[i][medoids[assignment[i]]];
+            loads[assignment[i]] += weights[i];
+        }
+        for (double load : loads) {
+            cost += Math.max(0.0, load - capacity) * OVERFLOW_PENALTY;
+        }
+        return cost;
+    }
+
+    /**
+     * Short open path through the given points: nearest neighbour from the point
+     * farthest from all others, then 2-opt until no reversal shortens it.
+     */
+    public static int[] orderPath(int[] points, double[][] distances) {
+        int m = points.length;
+        if (m <= 2) {
+            return points.clone();
+        }
+        int start = 0;
+        double farthest = -1.0;
+        for (int a = 0; a < m; a++) {
+            double sum = 0.0;
+            for (int b = 0; b < m; b++) {
+                sum += distances[points[a]][points[b]];
+            }
+            if (sum > farthest) {
+                farthest = sum;
+                start = a;
+            }
+        }
+        int[] path = new int[m];
+        boolean[] used = new boolean[m];
+        path[0] = points[start];
+        used[start] = true;
+        for (int step = 1; step < m; step++) {
+            int next = -1;
+            for (int b = 0; b < m; b++) {
+                if (!used[b] && (next < 0 || distances[path[step - 1]][points[b]] < distances[path[step - 1]][points[next]])) {
+                    next = b;
+                }
+            }
+            path[step] = points[next];
+            used[next] = true;
+        }
+
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < m - 1; i++) {
+                for (int j = i + 1; j < m; j++) {
+                    // Reversing path[i..j] swaps the edges into i and out of j
+                    double before = (i > 0 ? distances[path[i - 1]][path[i]] : 0.0)
+                        + (j < m - 1 ? distances[path[j]][path[j + 1]] : 0.0);
+                    double after = (i > 0 ? distances[path[i - 1]][path[j]] : 0.0)
+                        + (j < m - 1 ? distances[path[i]][path[j + 1]] : 0.0);
+                    if (after < before - 1e-9) {
+                        for (int a = i, b = j; a < b; a++, b--) {
+                            int swap = path[a];
+                            path[a] = path[b];
+                            path[b] = swap;
+                        }
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return path;
+    }
+
+    public record Result(int[] assignment, int[] medoids, double cost) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.tripplanner.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every stored rate, per currency, as parallel sorted arrays of effective days
+ * and units-per-USD rates.
+ *
+ * The rate in force on a date is found by binary search on the currency's
+ * effective days: the last entry on or before the date, or the earliest entry
+ * for dates before any recorded rate. A currency with no entries uses its
+ * fallback rate. Full snapshots for a date ("day slices") are built on demand
+ * and kept in a bounded LRU, so converting a trip's expenses touches a handful
+ * of slices and no database. Cached slices are read without locking; only a
+ * miss that overflows the cache takes a lock, to evict. Immutable apart from the slice cache; a reload
+ * builds a new history rather than changing this one.
+ */
+public final class ExchangeRateHistory {
+
+    private final long[][] effectiveDays;
+    private final double[][] ratesPerUsd;
+    private final double[] fallbackRatesPerUsd;
+    private final long version;
+    private final long today;
+    private final ExchangeRateSnapshot current;
+    private final Map<Long, Slice> slices = new ConcurrentHashMap<>();
+    private final int sliceCacheSize;
+    // Orders slice uses for eviction
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * effectiveDays[c] must be ascending epoch days with ratesPerUsd[c] the rate
+     * from each day; both indexed by currency ordinal. The arrays are not copied.
+     */
+    public ExchangeRateHistory(long[][] effectiveDays, double[][] ratesPerUsd, double[] fallbackRatesPerUsd,
+                               long version, LocalDate today, int sliceCacheSize) {
+        this.effectiveDays = effectiveDays;
+        this.ratesPerUsd = ratesPerUsd;
+        this.fallbackRatesPerUsd = fallbackRatesPerUsd;
+        this.version = version;
+        this.sliceCacheSize = sliceCacheSize;
+        this.today = today.toEpochDay();
+        this.current = buildSlice(this.today);
+    }
+
+    // Snapshot for the rates in force today, built when the history was loaded
+    public ExchangeRateSnapshot getCurrent() {
+        return current;
+    }
+
+    public ExchangeRateSnapshot snapshotOn(LocalDate date) {
+        if (date == null || date.toEpochDay() == today) {
+            return current;
+        }
+        long day = date.toEpochDay();
+        Slice slice = slices.get(day);
+        if (slice != null) {
+            slice.lastUsed = clock.incrementAndGet();
+            return slice.snapshot;
+        }
+        slice = slices.computeIfAbsent(day, d -> new Slice(buildSlice(d), clock.incrementAndGet()));
+        if (slices.size() > sliceCacheSize) {
+            evictLeastRecentlyUsed();
+        }
+        return slice.snapshot;
+    }
+
+    // Scans for the oldest slices; the cache holds at most a year of days, and this runs only on overflowing misses
+    private synchronized void evictLeastRecentlyUsed() {
+        while (slices.size() > sliceCacheSize) {
+            Map.Entry<Long, Slice> eldest = null;
+            for (Map.Entry<Long, Slice> entry : slices.entrySet()) {
+                if (eldest == null || entry.getValue().lastUsed < eldest.getValue().lastUsed) {
+                    eldest = entry;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            slices.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    // Units per USD for one currency on an epoch day
+    public double ratePerUsdOn(int currency, long day) {
+        long[] days = effectiveDays[currency];
+        if (days.length == 0) {
+            return fallbackRatesPerUsd[currency];
+        }
+        int index = Arrays.binarySearch(days, day);
+        if (index < 0) {
+            // Last entry before the day, or the first entry if the day precedes them all
+            index = Math.max(0, -index - 2);
+        }
+        return ratesPerUsd[currency][index];
+    }
+
+    /**
+     * Converts minor units between currencies (by ordinal) at the rates in force
+     * on the given date, rounding half away from zero. Reads the rate arrays
+     * directly, so it neither builds nor caches a day slice.
+     */
+    public long convertMinorUnits(long minorUnits, int from, int to, LocalDate date) {
+        if (from == to || minorUnits == 0) {
+            return minorUnits;
+        }
+        long day = date != null ? date.toEpochDay() : today;
+        // Math.round rounds halves up, so round the magnitude and put the sign back
+        long converted = Math.round(Math.abs(minorUnits) * (ratePerUsdOn(to, day) / ratePerUsdOn(from, day)));
+        return minorUnits < 0 ? -converted : converted;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    private ExchangeRateSnapshot buildSlice(long day) {
+        int n = effectiveDays.length;
+        double[] rates = new double[n];
+        long latest = Long.MIN_VALUE;
+        for (int c = 0; c < n; c++) {
+            rates[c] = ratePerUsdOn(c, day);
+            long[] days = effectiveDays[c];
+            int index = Arrays.binarySearch(days, day);
+            index = index >= 0 ? index : -index - 2;
+            if (index >= 0) {
+                latest = Math.max(latest, days[index]);
+            }
+        }
+        LocalDate effectiveDate = latest == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(latest);
+        return ExchangeRateSnapshot.of(rates, effectiveDate, version);
+    }
+
+    private static final class Slice {
+
+        final ExchangeRateSnapshot snapshot;
+        volatile long lastUsed;
+
+        Slice(ExchangeRateSnapshot snapshot, long lastUsed) {
+            this.snapshot = snapshot;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
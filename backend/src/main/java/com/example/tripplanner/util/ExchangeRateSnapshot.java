@@ -0,0 +1,79 @@
+package com.example.tripplanner.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable cross-rate matrix indexed by currency ordinal.
+ *
+ * Built once from units-per-USD rates; crossRates[from][to] is the multiplier
+ * from one currency to the other, so a conversion is two array loads and a
+ * multiply. A currency without a rate has NaN in its row and column. Instances
+ * are never modified after construction and can be shared freely between
+ * threads.
+ */
+public final class ExchangeRateSnapshot {
+
+    private final double[] ratesPerUsd;
+    private final double[][] crossRates;
+    private final LocalDate effectiveDate;
+    private final long version;
+
+    private ExchangeRateSnapshot(double[] ratesPerUsd, LocalDate effectiveDate, long version) {
+        int n = ratesPerUsd.length;
+        this.ratesPerUsd = ratesPerUsd;
+        this.crossRates = new double[n][n];
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                crossRates[from][to] = from == to ? 1.0 : ratesPerUsd[to] / ratesPerUsd[from];
+            }
+        }
+        this.effectiveDate = effectiveDate;
+        this.version = version;
+    }
+
+    /**
+     * Builds a snapshot from units of each currency per one USD, by ordinal. NaN,
+     * zero or negative entries mean no rate for that currency.
+     */
+    public static ExchangeRateSnapshot of(double[] ratesPerUsd, LocalDate effectiveDate, long version) {
+        double[] rates = Arrays.copyOf(ratesPerUsd, ratesPerUsd.length);
+        for (int i = 0; i < rates.length; i++) {
+            if (!(rates[i] > 0.0)) {
+                rates[i] = Double.NaN;
+            }
+        }
+        return new ExchangeRateSnapshot(rates, effectiveDate, version);
+    }
+
+    public boolean hasRate(int currency) {
+        return !Double.isNaN(ratesPerUsd[currency]);
+    }
+
+    // Multiplier from one currency to another; NaN if either has no rate
+    public double rate(int from, int to) {
+        return crossRates[from][to];
+    }
+
+    // Converted amount, or the amount unchanged if either currency has no rate
+    public double convert(double amount, int from, int to) {
+        double rate = crossRates[from][to];
+        return Double.isNaN(rate) ? amount : amount * rate;
+    }
+
+    public double ratePerUsd(int currency) {
+        return ratesPerUsd[currency];
+    }
+
+    public int size() {
+        return ratesPerUsd.length;
+    }
+
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.tripplanner.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory gazetteer of populated places with a prefix index for
+ * typeahead.
+ *
+ * Places are stored column-wise in parallel arrays. Every name of a place
+ * (primary, ASCII and, optionally, alternate names) is folded (accents
+ * stripped, lower-cased, punctuation collapsed to single spaces) and the folded
+ * keys are kept in one sorted array. A prefix lookup is two binary searches for
+ * the range of keys starting with the prefix, followed by a bounded heap that
+ * keeps the most populous distinct places in that range. Built once with a
+ * Builder and then safe to share between threads.
+ */
+public final class Gazetteer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final String[] ids;
+    private final String[] names;
+    private final String[] countryCodes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] populations;
+
+    // Sorted folded names and the place each one belongs to
+    private final String[] keys;
+    private final int[] keyPlaces;
+
+    private Gazetteer(Builder builder) {
+        int size = builder.ids.size();
+        ids = builder.ids.toArray(new String[0]);
+        names = builder.names.toArray(new String[0]);
+        countryCodes = builder.countryCodes.toArray(new String[0]);
+        latitudes = new double[size];
+        longitudes = new double[size];
+        populations = new long[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = builder.latitudes.get(i);
+            longitudes[i] = builder.longitudes.get(i);
+            populations[i] = builder.populations.get(i);
+        }
+
+        Integer[] order = new Integer[builder.keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> builder.keys.get(a).compareTo(builder.keys.get(b)));
+        keys = new String[order.length];
+        keyPlaces = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = builder.keys.get(order[i]);
+            keyPlaces[i] = builder.keyPlaces.get(order[i]);
+        }
+    }
+
+    /**
+     * Places with a name starting with the (folded) prefix, most populous first.
+     * Returns place indices; empty when nothing matches.
+     */
+    public int[] search(String prefix, int limit) {
+        String folded = fold(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        int from = lowerBound(folded);
+        // Every key with the prefix sorts before prefix + the highest character
+        int to = lowerBound(folded + Character.MAX_VALUE);
+        if (from >= to) {
+            return new int[0];
+        }
+
+        // Min-heap on population holds the best "limit" places seen so far
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1,
+            (a, b) -> Long.compare(populations[a], populations[b]));
+        Set<Integer> seen = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            int place = keyPlaces[i];
+            if (!seen.add(place)) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(place);
+            } else if (populations[place] > populations[best.peek()]) {
+                best.poll();
+                best.add(place);
+            }
+        }
+
+        int[] result = new int[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = best.poll();
+        }
+        return result;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int keyCount() {
+        return keys.length;
+    }
+
+    public String getId(int place) {
+        return ids[place];
+    }
+
+    public String getName(int place) {
+        return names[place];
+    }
+
+    public String getCountryCode(int place) {
+        return countryCodes[place];
+    }
+
+    public double getLatitude(int place) {
+        return latitudes[place];
+    }
+
+    public double getLongitude(int place) {
+        return longitudes[place];
+    }
+
+    public long getPopulation(int place) {
+        return populations[place];
+    }
+
+    // Accent- and case-insensitive form used for both index keys and queries
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = MARKS.matcher(decomposed).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static final class Builder {
+
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<String> countryCodes = new ArrayList<>();
+        private final List<Double> latitudes = new ArrayList<>();
+        private final List<Double> longitudes = new ArrayList<>();
+        private final List<Long> populations = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> keyPlaces = new ArrayList<>();
+
+        /**
+         * Adds a place; every non-blank name in names is indexed, duplicates after
+         * folding only once.
+         */
+        public Builder add(String id, String name, String countryCode, double latitude, double longitude,
+                           long population, Iterable<String> searchNames) {
+            int place = ids.size();
+            ids.add(id);
+            names.add(name);
+            countryCodes.add(countryCode);
+            latitudes.add(latitude);
+            longitudes.add(longitude);
+            populations.add(population);
+
+            Set<String> folded = new HashSet<>();
+            folded.add(fold(name));
+            for (String searchName : searchNames) {
+                folded.add(fold(searchName));
+            }
+            for (String key : folded) {
+                if (!key.isEmpty()) {
+                    keys.add(key);
+                    keyPlaces.add(place);
+                }
+            }
+            return this;
+        }
+
+        public Gazetteer build() {
+            return new Gazetteer(this);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.tripplanner.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate most-frequent items in a stream, in fixed memory.
+ *
+ * A count-min sketch (depth rows of width counters) estimates every item's
+ * count; it only ever overestimates, and conservative update (raising only the
+ * counters that are at the current minimum) keeps the overestimate small. Next
+ * to it, the capacity items with the highest estimates are kept in an indexed
+ * min-heap; a new item replaces the root once its estimate is higher, so an
+ * update costs O(log capacity). Memory is depth * width counters plus capacity
+ * entries, however many distinct items arrive. decay() scales everything down so
+ * old popularity fades.
+ * Thread-safe: items are hashed outside any lock, and the sketch and the top
+ * list each have their own lock, always taken in that order.
+ */
+public final class HeavyHitters {
+
+    private final long[][] counters;
+    private final int width;
+    private final TopList top;
+
+    public HeavyHitters(int depth, int width, int capacity) {
+        this.counters = new long[depth][width];
+        this.width = width;
+        this.top = new TopList(capacity);
+    }
+
+    public void add(String item, long count) {
+        int[] cells = cells(item);
+        long updated;
+        synchronized (counters) {
+            updated = min(cells) + count;
+            for (int row = 0; row < counters.length; row++) {
+                if (counters[row][cells[row]] < updated) {
+                    counters[row][cells[row]] = updated;
+                }
+            }
+        }
+        synchronized (top) {
+            top.offer(item, updated);
+        }
+    }
+
+    public long estimate(String item) {
+        int[] cells = cells(item);
+        synchronized (counters) {
+            return min(cells);
+        }
+    }
+
+    // The n items with the highest estimates, highest first
+    public List<Map.Entry<String, Long>> top(int n) {
+        List<Map.Entry<String, Long>> entries;
+        synchronized (top) {
+            entries = top.entries();
+        }
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    // Multiplies every count by factor (0..1); items whose count reaches zero leave the top list
+    public void decay(double factor) {
+        synchronized (counters) {
+            for (long[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (long) (row[i] * factor);
+                }
+            }
+            synchronized (top) {
+                top.scale(factor);
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (top) {
+            return top.size;
+        }
+    }
+
+    private long min(int[] cells) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row][cells[row]]);
+        }
+        return estimate;
+    }
+
+    // One cell per row from two base hashes (Kirsch-Mitzenmacher double hashing)
+    private int[] cells(String item) {
+        long hash = fnv1a64(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int[] cells = new int[counters.length];
+        for (int row = 0; row < counters.length; row++) {
+            cells[row] = Math.floorMod(h1 + row * h2, width);
+        }
+        return cells;
+    }
+
+    private static long fnv1a64(String item) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Min-heap of the tracked items by estimate, with each item's heap slot kept
+     * in a map so an item already in the list is found and re-sifted in O(log n).
+     * Guarded by its own monitor.
+     */
+    private static final class TopList {
+
+        private final String[] items;
+        private final long[] counts;
+        private final Map<String, Integer> slots;
+        private int size;
+
+        TopList(int capacity) {
+            this.items = new String[capacity];
+            this.counts = new long[capacity];
+            this.slots = new HashMap<>(capacity * 2);
+        }
+
+        void offer(String item, long count) {
+            Integer slot = slots.get(item);
+            if (slot != null) {
+                // Estimates only grow between decays
+                if (count > counts[slot]) {
+                    counts[slot] = count;
+                    siftDown(slot);
+                }
+            } else if (size < items.length) {
+                place(item, count, size++);
+                siftUp(size - 1);
+            } else if (size > 0 && count > counts[0]) {
+                slots.remove(items[0]);
+                place(item, count, 0);
+                siftDown(0);
+            }
+        }
+
+        // Scaling by one factor keeps the heap order; the zeros then sit at the root
+        void scale(double factor) {
+            for (int i = 0; i < size; i++) {
+                counts[i] = (long) (counts[i] * factor);
+            }
+            while (size > 0 && counts[0] == 0L) {
+                slots.remove(items[0]);
+                size--;
+                if (size > 0) {
+                    place(items[size], counts[size], 0);
+                    siftDown(0);
+                }
+                items[size] = null;
+            }
+        }
+
+        List<Map.Entry<String, Long>> entries() {
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                entries.add(Map.entry(items[i], counts[i]));
+            }
+            return entries;
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (counts[parent] <= counts[slot]) {
+                    return;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int smallest = slot;
+                int left = 2 * slot + 1;
+                int right = left + 1;
+                if (left < size && counts[left] < counts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && counts[right] < counts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == slot) {
+                    return;
+                }
+                swap(slot, smallest);
+                slot = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            String item = items[a];
+            long count = counts[a];
+            place(items[b], counts[b], a);
+            place(item, count, b);
+        }
+
+        private void place(String item, long count, int slot) {
+            items[slot] = item;
+            counts[slot] = count;
+            slots.put(item, slot);
+        }
+    }
+}
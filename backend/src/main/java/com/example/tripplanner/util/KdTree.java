@@ -0,0 +1,149 @@
+package com.example.tripplanner.util;
+
+/**
+ * Static 3-d tree for nearest-point queries on the globe.
+ *
+ * Points are stored as unit vectors, so straight-line (chord) distance orders
+ * points exactly as great-circle distance does and nothing special is needed
+ * at the poles or the antimeridian. The tree is implicit: a permutation of the
+ * point indices where the median of each subrange splits it on the x, y or z
+ * axis in turn. Built once, then read-only and safe to share between threads.
+ */
+public final class KdTree {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final double[][] coords;
+    private final int[] tree;
+
+    public KdTree(double[] latitudes, double[] longitudes) {
+        int size = latitudes.length;
+        coords = new double[3][size];
+        tree = new int[size];
+        for (int i = 0; i < size; i++) {
+            double lat = Math.toRadians(latitudes[i]);
+            double lon = Math.toRadians(longitudes[i]);
+            coords[0][i] = Math.cos(lat) * Math.cos(lon);
+            coords[1][i] = Math.cos(lat) * Math.sin(lon);
+            coords[2][i] = Math.sin(lat);
+            tree[i] = i;
+        }
+        build(0, size, 0);
+    }
+
+    /**
+     * Index of the point nearest to (latitude, longitude) within maxDistanceKm, or
+     * -1 if there is none.
+     */
+    public int nearest(double latitude, double longitude, double maxDistanceKm) {
+        if (tree.length == 0) {
+            return -1;
+        }
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double[] target = {Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+        // Chord length for the great-circle radius
+        double maxChord = 2 * Math.sin(Math.min(Math.PI, maxDistanceKm / EARTH_RADIUS_KM) / 2);
+
+        Search search = new Search(target, maxChord * maxChord);
+        nearest(0, tree.length, 0, search);
+        return search.best;
+    }
+
+    public int size() {
+        return tree.length;
+    }
+
+    // Great-circle distance in km between two points given in degrees
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+            Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void build(int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        select(from, to - 1, mid, coords[axis]);
+        int next = (axis + 1) % 3;
+        build(from, mid, next);
+        build(mid + 1, to, next);
+    }
+
+    private void nearest(int from, int to, int axis, Search search) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        int point = tree[mid];
+        double dx = coords[0][point] - search.target[0];
+        double dy = coords[1][point] - search.target[1];
+        double dz = coords[2][point] - search.target[2];
+        double distance = dx * dx + dy * dy + dz * dz;
+        if (distance < search.bestDistance) {
+            search.bestDistance = distance;
+            search.best = point;
+        }
+
+        double delta = search.target[axis] - coords[axis][point];
+        int next = (axis + 1) % 3;
+        // Nearer side first; the far side only if the splitting plane is within reach
+        if (delta < 0) {
+            nearest(from, mid, next, search);
+            if (delta * delta < search.bestDistance) {
+                nearest(mid + 1, to, next, search);
+            }
+        } else {
+            nearest(mid + 1, to, next, search);
+            if (delta * delta < search.bestDistance) {
+                nearest(from, mid, next, search);
+            }
+        }
+    }
+
+    // Quickselect: puts the k-th smallest (by values) of tree[left..right] at k
+    private void select(int left, int right, int k, double[] values) {
+        while (left < right) {
+            double pivot = values[tree[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[tree[i]] < pivot) {
+                    i++;
+                }
+                while (values[tree[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = tree[i];
+                    tree[i] = tree[j];
+                    tree[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static final class Search {
+        final double[] target;
+        double bestDistance;
+        int best = -1;
+
+        Search(double[] target, double maxDistance) {
+            this.target = target;
+            this.bestDistance = maxDistance;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.tripplanner.util;
+
+import java.util.Arrays;
+
+/**
+ * Percentile of the most recent latencies, over a fixed-size ring of samples.
+ * The percentile is recomputed from a sorted copy every few samples rather than
+ * on every read. Thread-safe.
+ */
+public final class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples;
+    private final double percentile;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long cachedPercentileMillis = -1L;
+
+    public LatencyTracker(int windowSize, double percentile) {
+        this.samples = new long[windowSize];
+        this.percentile = percentile;
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceRecompute >= RECOMPUTE_EVERY) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cachedPercentileMillis = sorted[(int) Math.min(count - 1, Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    // The percentile in milliseconds, or -1 until enough samples have been seen
+    public long getPercentileMillis() {
+        return cachedPercentileMillis;
+    }
+
+    // Any percentile of the current window, computed on the spot; -1 when there are no samples
+    public synchronized long percentileMillis(double p) {
+        if (count == 0) {
+            return -1L;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.max(0, Math.min(count - 1, Math.ceil(p * count) - 1))];
+    }
+
+    public synchronized int getSampleCount() {
+        return count;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.tripplanner.util;
+
+import com.example.tripplanner.model.CurrencyCode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as long minor units plus its currency.
+ *
+ * Amounts are persisted as DECIMAL(12,2), so one minor unit is 1/100 of the
+ * stored value for every currency. Converting at the persistence boundary is
+ * therefore exact for stored values (anything finer is rounded half up), and
+ * in-memory sums and comparisons stay on primitives instead of allocating
+ * intermediate BigDecimals. Hot loops can use the static long helpers and wrap
+ * the result once; the value type keeps the currency with the amount so
+ * amounts in different currencies are never added or compared by mistake.
+ */
+public record Money(long minorUnits, CurrencyCode currency) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    public Money {
+        if (currency == null) {
+            throw new IllegalArgumentException("Money needs a currency");
+        }
+    }
+
+    public static Money of(BigDecimal amount, CurrencyCode currency) {
+        return new Money(toMinorUnits(amount), currency);
+    }
+
+    public static Money zero(CurrencyCode currency) {
+        return new Money(0L, currency);
+    }
+
+    public Money plus(Money other) {
+        return new Money(add(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(subtract(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return minorUnits > sameCurrency(other).minorUnits;
+    }
+
+    // this / whole as a percentage with two decimals; see percentOf(long, long)
+    public double percentOf(Money whole) {
+        return percentOf(minorUnits, sameCurrency(whole).minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return fromMinorUnits(minorUnits);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, sameCurrency(other).minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return currency + " " + toBigDecimal().toPlainString();
+    }
+
+    private Money sameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Cannot combine " + currency + " and " + other.currency + " amounts without converting");
+        }
+        return other;
+    }
+
+    /**
+     * Converts a persisted amount to minor units, rounding anything finer than a
+     * minor unit half away from zero. Throws ArithmeticException only if the
+     * amount does not fit in a long.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        BigDecimal scaled = amount.scale() == SCALE ? amount : amount.setScale(SCALE, RoundingMode.HALF_UP);
+        return scaled.unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Converts a double amount (e.g. an exchange-rate conversion result) to minor
+     * units, rounding half away from zero on its shortest decimal form, so 2.675
+     * becomes 268 and -2.5 hundredths becomes -3.
+     */
+    public static long fromDouble(double amount) {
+        return toMinorUnits(BigDecimal.valueOf(amount));
+    }
+
+    public static double toDouble(long minorUnits) {
+        return minorUnits / 100.0;
+    }
+
+    /**
+     * part / whole as a percentage with two decimals, rounded half-up. Matches
+     * BigDecimal.divide(whole, 4, HALF_UP).multiply(100) without allocating.
+     */
+    public static double percentOf(long part, long whole) {
+        if (whole == 0) {
+            return 0.0;
+        }
+        long basisPoints = divideHalfUp(Math.multiplyExact(part, 10_000L), whole);
+        return basisPoints / 100.0;
+    }
+
+    /**
+     * Integer division rounding half away from zero.
+     */
+    public static long divideHalfUp(long numerator, long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (Math.abs(remainder) * 2 >= Math.abs(denominator)) {
+            quotient += Long.signum(numerator) * Long.signum(denominator);
+        }
+        return quotient;
+    }
+}
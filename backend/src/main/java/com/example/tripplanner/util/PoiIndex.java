@@ -0,0 +1,202 @@
+package com.example.tripplanner.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable grid index of points of interest, partitioned by category.
+ *
+ * The globe is cut into square cells of cellDegrees. Every point gets a key of
+ * (category, cell row, cell column) and the points are stored in key order in
+ * parallel arrays, so all points of one category in a run of neighbouring cells
+ * in the same row are one contiguous slice, found with a binary search. A
+ * radius query therefore costs one binary search per category per cell row of
+ * its bounding box, plus the points in those cells. Built once with a Builder
+ * and then safe to share between threads.
+ */
+public final class PoiIndex {
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final int columns;
+    private final int rows;
+
+    private final long[] keys;
+    private final String[] ids;
+    private final String[] names;
+    private final int[] categories;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] importances;
+
+    private PoiIndex(Builder builder) {
+        cellDegrees = builder.cellDegrees;
+        columns = (int) Math.ceil(360.0 / cellDegrees);
+        rows = (int) Math.ceil(180.0 / cellDegrees);
+
+        int size = builder.ids.size();
+        long[] unsorted = new long[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            unsorted[i] = key(builder.categories.get(i), row(builder.latitudes.get(i)), column(builder.longitudes.get(i)));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(unsorted[a], unsorted[b]));
+
+        keys = new long[size];
+        ids = new String[size];
+        names = new String[size];
+        categories = new int[size];
+        latitudes = new double[size];
+        longitudes = new double[size];
+        importances = new double[size];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            keys[i] = unsorted[from];
+            ids[i] = builder.ids.get(from);
+            names[i] = builder.names.get(from);
+            categories[i] = builder.categories.get(from);
+            latitudes[i] = builder.latitudes.get(from);
+            longitudes[i] = builder.longitudes.get(from);
+            importances[i] = builder.importances.get(from);
+        }
+    }
+
+    /**
+     * Indices of the points in the given categories within radiusKm of
+     * (latitude, longitude), in no particular order.
+     */
+    public int[] within(double latitude, double longitude, double radiusKm, int[] wantedCategories) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        // Meridians are closest together at the poleward edge; a circle over a pole spans every longitude
+        double poleward = Math.min(90.0, Math.abs(latitude) + latSpan);
+        double lonSpan = poleward >= 90.0 ? 360.0 : radiusKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(poleward)));
+        int rowFrom = row(Math.max(-90.0, latitude - latSpan));
+        int rowTo = row(Math.min(90.0, latitude + latSpan));
+        int columnSpan = (int) Math.min(columns, Math.ceil(lonSpan / cellDegrees));
+        int center = column(longitude);
+
+        List<Integer> found = new ArrayList<>();
+        for (int category : wantedCategories) {
+            for (int row = rowFrom; row <= rowTo; row++) {
+                if (2 * columnSpan + 1 >= columns) {
+                    scan(category, row, 0, columns - 1, latitude, longitude, radiusKm, found);
+                    continue;
+                }
+                int from = center - columnSpan;
+                int to = center + columnSpan;
+                // Split a run that crosses the antimeridian into its two ends
+                if (from < 0) {
+                    scan(category, row, from + columns, columns - 1, latitude, longitude, radiusKm, found);
+                    from = 0;
+                }
+                if (to >= columns) {
+                    scan(category, row, 0, to - columns, latitude, longitude, radiusKm, found);
+                    to = columns - 1;
+                }
+                scan(category, row, from, to, latitude, longitude, radiusKm, found);
+            }
+        }
+
+        int[] result = new int[found.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = found.get(i);
+        }
+        return result;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String getId(int poi) {
+        return ids[poi];
+    }
+
+    public String getName(int poi) {
+        return names[poi];
+    }
+
+    public int getCategory(int poi) {
+        return categories[poi];
+    }
+
+    public double getLatitude(int poi) {
+        return latitudes[poi];
+    }
+
+    public double getLongitude(int poi) {
+        return longitudes[poi];
+    }
+
+    public double getImportance(int poi) {
+        return importances[poi];
+    }
+
+    private void scan(int category, int row, int columnFrom, int columnTo, double latitude, double longitude,
+                      double radiusKm, List<Integer> found) {
+        int end = lowerBound(key(category, row, columnTo) + 1);
+        for (int i = lowerBound(key(category, row, columnFrom)); i < end; i++) {
+            if (KdTree.distanceKm(latitude, longitude, latitudes[i], longitudes[i]) <= radiusKm) {
+                found.add(i);
+            }
+        }
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((latitude + 90.0) / cellDegrees)));
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / cellDegrees), columns);
+    }
+
+    private static long key(int category, int row, int column) {
+        return ((long) category << 44) | ((long) row << 22) | column;
+    }
+
+    public static final class Builder {
+
+        private final double cellDegrees;
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> categories = new ArrayList<>();
+        private final List<Double> latitudes = new ArrayList<>();
+        private final List<Double> longitudes = new ArrayList<>();
+        private final List<Double> importances = new ArrayList<>();
+
+        public Builder(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+
+        public Builder add(String id, String name, int category, double latitude, double longitude, double importance) {
+            ids.add(id);
+            names.add(name);
+            categories.add(category);
+            latitudes.add(latitude);
+            longitudes.add(longitude);
+            importances.add(importance);
+            return this;
+        }
+
+        public PoiIndex build() {
+            return new PoiIndex(this);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.tripplanner.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache with a freshness TTL, stale-while-revalidate and
+ * stale-if-error, and one in-flight load per key.
+ *
+ * An entry younger than the TTL is served as is. Within the revalidate window
+ * after that it is still served, and a background reload is started. Past that
+ * window the caller waits for a load; if the load fails, an entry still inside
+ * the stale-if-error window is served instead of the error. Concurrent loads of
+ * the same key share one future, so a burst of identical misses makes one
+ * upstream call. Loaders are asynchronous, so no thread waits on a load. Only
+ * successful loads are cached.
+ */
+public final class RefreshingCache<K, V> {
+
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final long staleWhileRevalidateNanos;
+    private final long staleIfErrorNanos;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong staleOnError = new AtomicLong();
+
+    public RefreshingCache(int maxSize, long ttlMillis, long staleWhileRevalidateMillis, long staleIfErrorMillis) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.staleWhileRevalidateNanos = staleWhileRevalidateMillis * 1_000_000L;
+        this.staleIfErrorNanos = staleIfErrorMillis * 1_000_000L;
+    }
+
+    /**
+     * The cached value, or a future for the load. The future fails with the
+     * loader's exception when there is no entry fresh enough to fall back on.
+     */
+    public CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        long now = System.nanoTime();
+        if (entry != null) {
+            long age = now - entry.loadedAtNanos;
+            if (age < ttlNanos) {
+                hits.incrementAndGet();
+                return CompletableFuture.completedFuture(entry.value);
+            }
+            if (age < ttlNanos + staleWhileRevalidateNanos) {
+                staleHits.incrementAndGet();
+                if (!inFlight.containsKey(key)) {
+                    load(key, loader);
+                }
+                return CompletableFuture.completedFuture(entry.value);
+            }
+        }
+
+        misses.incrementAndGet();
+        Entry<V> fallback = entry != null && now - entry.loadedAtNanos < ttlNanos + staleIfErrorNanos ? entry : null;
+        // A copy per caller, so one caller cancelling cannot fail the shared load for the others
+        return load(key, loader).copy().exceptionallyCompose(error -> {
+            if (fallback != null) {
+                staleOnError.incrementAndGet();
+                return CompletableFuture.completedFuture(fallback.value);
+            }
+            return CompletableFuture.failedFuture(unwrap(error));
+        });
+    }
+
+    // The cached value however old, or null; never loads and is not counted in the stats
+    public V peek(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            return entry != null ? entry.value : null;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        return Map.of(
+            "size", (long) size(),
+            "hits", hits.get(),
+            "staleHits", staleHits.get(),
+            "misses", misses.get(),
+            "coalesced", coalesced.get(),
+            "staleOnError", staleOnError.get());
+    }
+
+    // Starts a load, or joins the one already under way for this key
+    private CompletableFuture<V> load(K key, Function<K, CompletableFuture<V>> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        CompletableFuture<V> upstream;
+        try {
+            upstream = loader.apply(key);
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        upstream.whenComplete((value, error) -> {
+            if (error == null && value != null) {
+                synchronized (entries) {
+                    entries.put(key, new Entry<>(value, System.nanoTime()));
+                }
+            }
+            inFlight.remove(key, mine);
+            if (error != null) {
+                mine.completeExceptionally(unwrap(error));
+            } else if (value == null) {
+                mine.completeExceptionally(new IllegalStateException("Loader returned no value for " + key));
+            } else {
+                mine.complete(value);
+            }
+        });
+        return mine;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private record Entry<V>(V value, long loadedAtNanos) {
+    }
+}
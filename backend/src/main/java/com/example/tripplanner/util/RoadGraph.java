@@ -0,0 +1,364 @@
+package com.example.tripplanner.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Immutable road network with ALT (A*, landmarks, triangle inequality) routing.
+ *
+ * Nodes are junctions with coordinates; every road segment is a directed edge
+ * weighted by its travel time in seconds, stored in compressed adjacency arrays
+ * for both directions. At build time a few landmarks are picked far apart from
+ * each other (each next one is the node farthest from those already picked) and
+ * the travel time from and to every landmark is computed for every node. For any
+ * node v and target t the triangle inequality then gives a lower bound on the
+ * time from v to t, which steers an A* search towards the target: on road
+ * networks it settles a small fraction of the nodes plain Dijkstra would. Built
+ * once with a Builder and then safe to share between threads; a search borrows
+ * its arrays from a small pool and hands them back when done.
+ */
+public final class RoadGraph {
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final KdTree nodeTree;
+
+    // Outgoing edges of node v are firstOut[v] until firstOut[v + 1], incoming likewise
+    private final int[] firstOut;
+    private final int[] outHead;
+    private final float[] outSeconds;
+    private final float[] outKm;
+    private final int[] firstIn;
+    private final int[] inTail;
+    private final float[] inSeconds;
+
+    private final int[] landmarks;
+    // Seconds from landmark l to node v at [l][v], and from node v to landmark l
+    private final float[][] fromLandmark;
+    private final float[][] toLandmark;
+
+    // Idle search states, at most one per core; more are made under load and dropped on return
+    private final BlockingQueue<Search> idleSearches;
+
+    private RoadGraph(Builder builder, int landmarkCount) {
+        int nodes = builder.latitudes.size();
+        latitudes = new double[nodes];
+        longitudes = new double[nodes];
+        for (int v = 0; v < nodes; v++) {
+            latitudes[v] = builder.latitudes.get(v);
+            longitudes[v] = builder.longitudes.get(v);
+        }
+        nodeTree = new KdTree(latitudes, longitudes);
+
+        int edges = builder.tails.size();
+        firstOut = new int[nodes + 1];
+        firstIn = new int[nodes + 1];
+        for (int e = 0; e < edges; e++) {
+            firstOut[builder.tails.get(e) + 1]++;
+            firstIn[builder.heads.get(e) + 1]++;
+        }
+        for (int v = 0; v < nodes; v++) {
+            firstOut[v + 1] += firstOut[v];
+            firstIn[v + 1] += firstIn[v];
+        }
+        outHead = new int[edges];
+        outSeconds = new float[edges];
+        outKm = new float[edges];
+        inTail = new int[edges];
+        inSeconds = new float[edges];
+        int[] nextOut = Arrays.copyOf(firstOut, nodes);
+        int[] nextIn = Arrays.copyOf(firstIn, nodes);
+        for (int e = 0; e < edges; e++) {
+            int tail = builder.tails.get(e);
+            int head = builder.heads.get(e);
+            int out = nextOut[tail]++;
+            outHead[out] = head;
+            outSeconds[out] = builder.seconds.get(e);
+            outKm[out] = builder.kilometres.get(e);
+            int in = nextIn[head]++;
+            inTail[in] = tail;
+            inSeconds[in] = builder.seconds.get(e);
+        }
+
+        int count = Math.min(landmarkCount, nodes);
+        landmarks = new int[count];
+        fromLandmark = new float[count][];
+        toLandmark = new float[count][];
+        float[] nearestLandmark = new float[nodes];
+        Arrays.fill(nearestLandmark, Float.POSITIVE_INFINITY);
+        int next = 0;
+        for (int l = 0; l < count; l++) {
+            landmarks[l] = next;
+            fromLandmark[l] = dijkstra(next, firstOut, outHead, outSeconds);
+            toLandmark[l] = dijkstra(next, firstIn, inTail, inSeconds);
+            // The next landmark is the reachable node farthest from every landmark so far
+            float farthest = -1f;
+            for (int v = 0; v < nodes; v++) {
+                nearestLandmark[v] = Math.min(nearestLandmark[v], fromLandmark[l][v]);
+                if (nearestLandmark[v] != Float.POSITIVE_INFINITY && nearestLandmark[v] > farthest) {
+                    farthest = nearestLandmark[v];
+                    next = v;
+                }
+            }
+        }
+
+        idleSearches = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Fastest route between two nodes as {seconds, kilometres}, or null when the
+     * target cannot be reached from the source.
+     */
+    public double[] route(int source, int target) {
+        if (source == target) {
+            return new double[]{0.0, 0.0};
+        }
+        Search search = idleSearches.poll();
+        if (search == null) {
+            search = new Search(nodeCount());
+        }
+        try {
+            search.reset();
+            search.open(source, 0.0, 0.0, lowerBound(source, target));
+            while (!search.isEmpty()) {
+                int v = search.pop();
+                if (v < 0) {
+                    continue;
+                }
+                if (v == target) {
+                    return new double[]{search.seconds[v], search.kilometres[v]};
+                }
+                for (int e = firstOut[v]; e < firstOut[v + 1]; e++) {
+                    int w = outHead[e];
+                    double seconds = search.seconds[v] + outSeconds[e];
+                    if (!search.reached(w) || seconds < search.seconds[w]) {
+                        search.open(w, seconds, search.kilometres[v] + outKm[e], seconds + lowerBound(w, target));
+                    }
+                }
+            }
+            return null;
+        } finally {
+            idleSearches.offer(search);
+        }
+    }
+
+    /**
+     * Node nearest to (latitude, longitude) within maxDistanceKm, or -1 when none is.
+     */
+    public int nearestNode(double latitude, double longitude, double maxDistanceKm) {
+        return nodeTree.nearest(latitude, longitude, maxDistanceKm);
+    }
+
+    public double getLatitude(int node) {
+        return latitudes[node];
+    }
+
+    public double getLongitude(int node) {
+        return longitudes[node];
+    }
+
+    public int nodeCount() {
+        return latitudes.length;
+    }
+
+    public int edgeCount() {
+        return outHead.length;
+    }
+
+    public int landmarkCount() {
+        return landmarks.length;
+    }
+
+    // Best triangle-inequality bound over all landmarks on the seconds from v to t
+    private double lowerBound(int v, int t) {
+        double bound = 0.0;
+        for (int l = 0; l < landmarks.length; l++) {
+            float fromV = fromLandmark[l][v];
+            float fromT = fromLandmark[l][t];
+            if (fromV != Float.POSITIVE_INFINITY && fromT != Float.POSITIVE_INFINITY) {
+                bound = Math.max(bound, fromT - fromV);
+            }
+            float toV = toLandmark[l][v];
+            float toT = toLandmark[l][t];
+            if (toV != Float.POSITIVE_INFINITY && toT != Float.POSITIVE_INFINITY) {
+                bound = Math.max(bound, toV - toT);
+            }
+        }
+        return bound;
+    }
+
+    // Seconds from source to every node along the given adjacency (infinite where unreachable)
+    private static float[] dijkstra(int source, int[] first, int[] adjacent, float[] weights) {
+        int nodes = first.length - 1;
+        Search search = new Search(nodes);
+        search.open(source, 0.0, 0.0, 0.0);
+        while (!search.isEmpty()) {
+            int v = search.pop();
+            if (v < 0) {
+                continue;
+            }
+            for (int e = first[v]; e < first[v + 1]; e++) {
+                int w = adjacent[e];
+                double seconds = search.seconds[v] + weights[e];
+                if (!search.reached(w) || seconds < search.seconds[w]) {
+                    search.open(w, seconds, 0.0, seconds);
+                }
+            }
+        }
+        float[] result = new float[nodes];
+        for (int v = 0; v < nodes; v++) {
+            result[v] = search.reached(v) ? (float) search.seconds[v] : Float.POSITIVE_INFINITY;
+        }
+        return result;
+    }
+
+    /**
+     * Search state, used by one route() at a time. Arrays are sized to the graph once and invalidated
+     * between searches by bumping a generation number instead of clearing them.
+     * The queue is a binary heap that may hold stale entries for nodes reached
+     * again more cheaply; pop() returns -1 for those.
+     */
+    private static final class Search {
+        final double[] seconds;
+        final double[] kilometres;
+        final int[] generationOf;
+        final boolean[] settled;
+        int generation = 1;
+
+        int[] heapNodes = new int[64];
+        double[] heapKeys = new double[64];
+        int heapSize;
+
+        Search(int nodes) {
+            seconds = new double[nodes];
+            kilometres = new double[nodes];
+            generationOf = new int[nodes];
+            settled = new boolean[nodes];
+        }
+
+        void reset() {
+            generation++;
+            heapSize = 0;
+        }
+
+        boolean reached(int v) {
+            return generationOf[v] == generation;
+        }
+
+        void open(int v, double secondsToV, double kilometresToV, double key) {
+            generationOf[v] = generation;
+            settled[v] = false;
+            seconds[v] = secondsToV;
+            kilometres[v] = kilometresToV;
+            if (heapSize == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapKeys[parent] <= key) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[parent];
+                heapKeys[i] = heapKeys[parent];
+                i = parent;
+            }
+            heapNodes[i] = v;
+            heapKeys[i] = key;
+        }
+
+        boolean isEmpty() {
+            return heapSize == 0;
+        }
+
+        int pop() {
+            int v = heapNodes[0];
+            int lastNode = heapNodes[--heapSize];
+            double lastKey = heapKeys[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                    child++;
+                }
+                if (heapKeys[child] >= lastKey) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[child];
+                heapKeys[i] = heapKeys[child];
+                i = child;
+            }
+            heapNodes[i] = lastNode;
+            heapKeys[i] = lastKey;
+            if (settled[v]) {
+                return -1;
+            }
+            settled[v] = true;
+            return v;
+        }
+    }
+
+    public static final class Builder {
+
+        private final Map<Long, Integer> nodeIndex = new HashMap<>();
+        private final List<Double> latitudes = new ArrayList<>();
+        private final List<Double> longitudes = new ArrayList<>();
+        private final List<Integer> tails = new ArrayList<>();
+        private final List<Integer> heads = new ArrayList<>();
+        private final List<Float> seconds = new ArrayList<>();
+        private final List<Float> kilometres = new ArrayList<>();
+
+        public Builder addNode(long id, double latitude, double longitude) {
+            if (!nodeIndex.containsKey(id)) {
+                nodeIndex.put(id, latitudes.size());
+                latitudes.add(latitude);
+                longitudes.add(longitude);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a way through the given nodes, travelled at speedKmh, in both
+         * directions unless oneway. Segments touching unknown nodes are skipped;
+         * returns how many segments were added.
+         */
+        public int addWay(long[] nodeIds, double speedKmh, boolean oneway) {
+            int added = 0;
+            for (int i = 0; i + 1 < nodeIds.length; i++) {
+                Integer from = nodeIndex.get(nodeIds[i]);
+                Integer to = nodeIndex.get(nodeIds[i + 1]);
+                if (from == null || to == null || from.equals(to)) {
+                    continue;
+                }
+                double km = KdTree.distanceKm(latitudes.get(from), longitudes.get(from), latitudes.get(to), longitudes.get(to));
+                float time = (float) (km / speedKmh * 3600.0);
+                addEdge(from, to, time, (float) km);
+                if (!oneway) {
+                    addEdge(to, from, time, (float) km);
+                }
+                added++;
+            }
+            return added;
+        }
+
+        public RoadGraph build(int landmarkCount) {
+            return new RoadGraph(this, landmarkCount);
+        }
+
+        private void addEdge(int from, int to, float time, float km) {
+            tails.add(from);
+            heads.add(to);
+            seconds.add(time);
+            kilometres.add(km);
+        }
+    }
+}
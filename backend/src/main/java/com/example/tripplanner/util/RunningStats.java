@@ -0,0 +1,80 @@
+package com.example.tripplanner.util;
+
+/**
+ * Running mean and variance with Welford's online algorithm. Constant state,
+ * numerically stable, and each update is O(1). Two sets of moments over
+ * disjoint samples combine exactly with Chan's parallel formula (merge), so
+ * nodes can accumulate separately and add their moments together later. Not
+ * thread-safe; callers synchronize on the instance.
+ */
+public final class RunningStats {
+
+    private long count;
+    private double mean;
+    // Sum of squared differences from the current mean
+    private double m2;
+
+    public RunningStats() {
+    }
+
+    public RunningStats(long count, double mean, double m2) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Adds the samples summarised by other, as if each had been passed to add.
+     */
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        mean += delta * other.count / total;
+        count = total;
+    }
+
+    public RunningStats copy() {
+        return new RunningStats(count, mean, m2);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getM2() {
+        return m2;
+    }
+
+    // Sample variance; 0 until there are two values
+    public double getVariance() {
+        return count < 2 ? 0.0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * How many standard deviations the value lies above the mean; 0 when there is
+     * no spread yet.
+     */
+    public double zScore(double value) {
+        double standardDeviation = getStandardDeviation();
+        return standardDeviation == 0.0 ? 0.0 : (value - mean) / standardDeviation;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.tripplanner.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * String similarity helpers for fuzzy matching of free-text fields.
+ */
+public final class StringSimilarity {
+
+    private StringSimilarity() {
+    }
+
+    /**
+     * Lower-cases, strips accents and collapses everything that is not a letter or
+     * digit to single spaces, so "Café  Central!" and "cafe central" compare equal.
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    /**
+     * Jaro-Winkler similarity in [0, 1]; 1 means identical. Inputs are expected to
+     * be normalized already.
+     */
+    public static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return 1.0;
+        }
+        int lengthA = a.length();
+        int lengthB = b.length();
+        if (lengthA == 0 || lengthB == 0) {
+            return 0.0;
+        }
+
+        int matchWindow = Math.max(0, Math.max(lengthA, lengthB) / 2 - 1);
+        boolean[] matchedA = new boolean[lengthA];
+        boolean[] matchedB = new boolean[lengthB];
+
+        int matches = 0;
+        for (int i = 0; i < lengthA; i++) {
+            int start = Math.max(0, i - matchWindow);
+            int end = Math.min(i + matchWindow + 1, lengthB);
+            for (int j = start; j < end; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+
+        int transpositions = 0;
+        int k = 0;
+        for (int i = 0; i < lengthA; i++) {
+            if (!matchedA[i]) {
+                continue;
+            }
+            while (!matchedB[k]) {
+                k++;
+            }
+            if (a.charAt(i) != b.charAt(k)) {
+                transpositions++;
+            }
+            k++;
+        }
+
+        double m = matches;
+        double jaro = (m / lengthA + m / lengthB + (m - transpositions / 2.0) / m) / 3.0;
+
+        int prefix = 0;
+        int maxPrefix = Math.min(4, Math.min(lengthA, lengthB));
+        while (prefix < maxPrefix && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.tripplanner.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal "{{name}}" template, split into literal and placeholder segments once
+ * when compiled so rendering is a single pass of appends. Values are inserted as
+ * given; callers escape them for the output format.
+ */
+public final class Template {
+
+    private final String[] literals;
+    private final String[] names;
+
+    private Template(String[] literals, String[] names) {
+        this.literals = literals;
+        this.names = names;
+    }
+
+    public static Template compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            int close = open < 0 ? -1 : source.indexOf("}}", open + 2);
+            if (close < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            literals.add(source.substring(position, open));
+            names.add(source.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        return new Template(literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    // Unknown placeholders render as empty strings
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(literals.length * 32);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            String value = values.get(names[i]);
+            if (value != null) {
+                out.append(value);
+            }
+        }
+        return out.append(literals[names.length]).toString();
+    }
+}
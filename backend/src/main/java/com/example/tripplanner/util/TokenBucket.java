@@ -0,0 +1,44 @@
+package com.example.tripplanner.util;
+
+/**
+ * Token bucket rate limiter. Holds up to capacity tokens and refills continuously
+ * at refillPerSecond; each acquire takes one token.
+ */
+public final class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a token if one is available and returns 0; otherwise takes nothing and
+     * returns how many nanoseconds until the next token.
+     */
+    public synchronized long tryAcquire() {
+        refill();
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0L;
+        }
+        return (long) Math.ceil((1.0 - tokens) / refillPerNano);
+    }
+
+    public synchronized double getAvailableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.tripplanner.benchmark;
+
+import com.example.tripplanner.model.CurrencyCode;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.util.ExchangeRateHistory;
+import com.example.tripplanner.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget summary of one large trip: the BigDecimal reduce-and-divide the
+ * budget code used to do against the long minor-unit sums it does now.
+ *
+ * Run from backend/ after mvn test-compile:
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)
+ *   com.example.tripplanner.benchmark.MoneyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"10000"})
+    private int expenseCount;
+
+    private Trip trip;
+
+    private ExchangeRateHistory rates;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int currencies = CurrencyCode.values().length;
+        rates = new ExchangeRateHistory(new long[currencies][0], new double[currencies][0], new double[currencies], 1L, LocalDate.now(), 4);
+        trip = new Trip();
+        trip.setCurrency("USD");
+        trip.setBudget(new BigDecimal("250000.00"));
+        for (int i = 0; i < expenseCount; i++) {
+            Expense expense = new Expense();
+            expense.setCurrency(Expense.Currency.USD);
+            expense.setAmount(BigDecimal.valueOf(100 + random.nextInt(50_000), 2));
+            trip.addExpense(expense);
+        }
+    }
+
+    @Benchmark
+    public double bigDecimalUsage() {
+        BigDecimal total = trip.getExpenses().stream()
+            .map(Expense::getAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return total.divide(trip.getBudget(), 4, RoundingMode.HALF_UP)
+            .multiply(BigDecimal.valueOf(100))
+            .doubleValue();
+    }
+
+    @Benchmark
+    public double minorUnitUsage() {
+        return Money.percentOf(trip.getTotalExpensesMinorUnits(rates), trip.getBudgetMinorUnits());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
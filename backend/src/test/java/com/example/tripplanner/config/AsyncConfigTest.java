@@ -0,0 +1,43 @@
+package com.example.tripplanner.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncConfigTest {
+
+    @Test
+    void budgetAlertEvaluationsRefusedByAFullQueueAreCounted() throws Exception {
+        AsyncConfig asyncConfig = new AsyncConfig();
+        ThreadPoolTaskExecutor executor = asyncConfig.budgetAlertExecutor(1);
+        executor.initialize();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // The single worker is busy and the queue holds one, so the last two are dropped
+            executor.execute(() -> { });
+            executor.execute(() -> { });
+            executor.execute(() -> { });
+
+            assertThat(asyncConfig.getBudgetAlertsDropped()).isEqualTo(2);
+            assertThat(executor.getQueueSize()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.tripplanner.controller;
+
+import com.example.tripplanner.dto.CurrencyConversionItemDTO;
+import com.example.tripplanner.dto.CurrencyConversionResultDTO;
+import com.example.tripplanner.service.CurrencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CurrencyControllerTest {
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @InjectMocks
+    private CurrencyController currencyController;
+
+    private final CurrencyConversionItemDTO item = new CurrencyConversionItemDTO(1.0, "EUR", "USD", null);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(currencyController, "maxBatchItems", 3);
+    }
+
+    @Test
+    void batchMustHaveBetweenOneAndTheMaximumItems() {
+        ResponseEntity<Map<String, Object>> empty = currencyController.convertCurrencyBatch(List.of());
+        ResponseEntity<Map<String, Object>> missing = currencyController.convertCurrencyBatch(null);
+        ResponseEntity<Map<String, Object>> oversized = currencyController.convertCurrencyBatch(Collections.nCopies(4, item));
+
+        assertThat(empty.getStatusCode().value()).isEqualTo(400);
+        assertThat(missing.getStatusCode().value()).isEqualTo(400);
+        assertThat(oversized.getStatusCode().value()).isEqualTo(400);
+        assertThat(oversized.getBody()).containsEntry("error", "Too many items: 4 (maximum 3)");
+        verify(currencyService, never()).convertBatch(anyList());
+    }
+
+    @Test
+    void batchAtTheMaximumReportsPerItemErrors() {
+        when(currencyService.convertBatch(anyList())).thenReturn(List.of(
+            new CurrencyConversionResultDTO(0, true, 1.0, "EUR", 1.1, "USD", 1.1, null, null),
+            CurrencyConversionResultDTO.error(1, item, "Invalid source currency: RUB"),
+            new CurrencyConversionResultDTO(2, true, 1.0, "EUR", 1.1, "USD", 1.1, null, null)));
+
+        ResponseEntity<Map<String, Object>> response = currencyController.convertCurrencyBatch(Collections.nCopies(3, item));
+
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+        assertThat(response.getBody()).containsEntry("success", false).containsEntry("errorCount", 1L);
+    }
+
+    @Test
+    void singleConversionUsesTheSharedRule() {
+        when(currencyService.validateConversion("RUB", "USD", null)).thenReturn("Invalid source currency: RUB");
+
+        ResponseEntity<Map<String, Object>> response = currencyController.convertCurrency(5.0, "RUB", "USD", null);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(400);
+        assertThat(response.getBody()).containsEntry("error", "Invalid source currency: RUB");
+        verify(currencyService, never()).convertAmount(anyDouble(), anyString(), anyString(), any());
+    }
+}
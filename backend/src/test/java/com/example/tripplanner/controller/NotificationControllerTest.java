@@ -0,0 +1,128 @@
+package com.example.tripplanner.controller;
+
+import com.example.tripplanner.config.FirebaseAuthenticationFilter;
+import com.example.tripplanner.dto.NotificationDTO;
+import com.example.tripplanner.service.NotificationHub;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.servletapi.SecurityContextHolderAwareRequestFilter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NotificationControllerTest {
+
+    private static final String STREAM = "/notifications/user/{firebaseUid}/stream";
+
+    @Mock
+    private NotificationHub notificationHub;
+
+    @Mock
+    private FirebaseAuth firebaseAuth;
+
+    @InjectMocks
+    private NotificationController notificationController;
+
+    private MockedStatic<FirebaseAuth> firebaseAuthStatic;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        firebaseAuthStatic = mockStatic(FirebaseAuth.class);
+        firebaseAuthStatic.when(FirebaseAuth::getInstance).thenReturn(firebaseAuth);
+        FirebaseToken token = mock(FirebaseToken.class);
+        when(token.getUid()).thenReturn("uid-1");
+        when(firebaseAuth.verifyIdToken("good-token")).thenReturn(token);
+        when(firebaseAuth.verifyIdToken("bad-token")).thenThrow(mock(FirebaseAuthException.class));
+
+        NotificationDTO notification = new NotificationDTO("trip-changed", 7L, "PARTICIPANTS_CHANGED",
+            null, null, null, null, null, null, LocalDateTime.of(2026, 3, 1, 12, 0));
+        when(notificationHub.subscribe(anyString())).thenReturn(Flux.just(
+            ServerSentEvent.<NotificationDTO>builder().comment("connected").build(),
+            ServerSentEvent.builder(notification).event("trip-changed").build()));
+
+        // Same filters the security chain runs: the Firebase filter, then the one exposing the principal to MVC
+        SecurityContextHolderAwareRequestFilter principalFilter = new SecurityContextHolderAwareRequestFilter();
+        principalFilter.afterPropertiesSet();
+        mockMvc = MockMvcBuilders.standaloneSetup(notificationController)
+            .addFilters(new FirebaseAuthenticationFilter(), principalFilter)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        firebaseAuthStatic.close();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void clientWithItsBearerTokenGetsItsStream() throws Exception {
+        // What notificationService.subscribe sends
+        MvcResult started = mockMvc.perform(get(STREAM, "uid-1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer good-token"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).contains(":connected", "event:trip-changed", "PARTICIPANTS_CHANGED");
+        verify(notificationHub).subscribe("uid-1");
+    }
+
+    @Test
+    void anotherUsersStreamIsForbidden() throws Exception {
+        mockMvc.perform(get(STREAM, "uid-2")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer good-token"))
+            .andExpect(status().isForbidden());
+
+        verify(notificationHub, never()).subscribe(anyString());
+    }
+
+    @Test
+    void streamWithoutAValidTokenIsForbidden() throws Exception {
+        mockMvc.perform(get(STREAM, "uid-1").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get(STREAM, "uid-1")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer bad-token"))
+            .andExpect(status().isForbidden());
+
+        verify(notificationHub, never()).subscribe(anyString());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.tripplanner.model;
+
+import com.example.tripplanner.util.ExchangeRateHistory;
+import com.example.tripplanner.util.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TripTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @Test
+    void mixedCurrencyTotalsAreConvertedToTheTripCurrency() {
+        Trip trip = trip(expense("50.00", Expense.Currency.USD), expense("45.00", Expense.Currency.EUR));
+
+        Money total = trip.getTotalExpensesMoney(rates());
+
+        assertThat(total).isEqualTo(new Money(10_000, CurrencyCode.USD));
+        assertThat(trip.getTotalExpensesMinorUnits(rates())).isEqualTo(10_000);
+    }
+
+    @Test
+    void budgetHelpersUseTheConvertedTotal() {
+        Trip trip = trip(expense("50.00", Expense.Currency.USD), expense("45.00", Expense.Currency.EUR));
+        trip.setBudget(new BigDecimal("120.00"));
+
+        assertThat(trip.getTotalExpenses(rates())).isEqualByComparingTo("100.00");
+        assertThat(trip.getRemainingBudget(rates())).isEqualByComparingTo("20.00");
+        assertThat(trip.getBudgetUsagePercentage(rates())).isCloseTo(83.33, within(0.01));
+        assertThat(trip.isOverBudget(rates())).isFalse();
+        assertThat(trip.isNearBudgetLimit(rates(), 80.0)).isTrue();
+
+        trip.getExpenses().add(expense("27.00", Expense.Currency.EUR));
+        assertThat(trip.isOverBudget(rates())).isTrue();
+        assertThat(trip.getRemainingBudget(rates())).isEqualByComparingTo("-10.00");
+    }
+
+    private static ExchangeRateHistory rates() {
+        int n = CurrencyCode.values().length;
+        double[] fallback = new double[n];
+        Arrays.fill(fallback, 1.0);
+        fallback[CurrencyCode.EUR.ordinal()] = 0.90;
+        return new ExchangeRateHistory(new long[n][0], new double[n][0], fallback, 1L, DAY, 4);
+    }
+
+    private static Trip trip(Expense... expenses) {
+        Trip trip = new Trip();
+        trip.setCurrency("USD");
+        for (Expense expense : expenses) {
+            trip.getExpenses().add(expense);
+        }
+        return trip;
+    }
+
+    private static Expense expense(String amount, Expense.Currency currency) {
+        Expense expense = new Expense();
+        expense.setAmount(new BigDecimal(amount));
+        expense.setCurrency(currency);
+        expense.setExpenseDate(DAY);
+        return expense;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.tripplanner.provider;
+
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import com.example.tripplanner.util.CircuitBreaker;
+import com.example.tripplanner.util.LatencyTracker;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuardedLocationProviderTest {
+
+    private static final LocationSearchResponseDTO RESPONSE = LocationSearchResponseDTO.of(List.of());
+
+    @Test
+    void slowCancelledCallsCountAgainstTheBreakerAndTheLatency() {
+        // Opens after two recorded failures out of two
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 0.5, 60_000, 1);
+        LatencyTracker latency = new LatencyTracker(16, 0.95);
+        GuardedLocationProvider guarded = new GuardedLocationProvider(provider(Mono.never()), breaker, 4, latency, 20);
+
+        for (int i = 0; i < 2; i++) {
+            Disposable call = guarded.search("rome", "en", 3).subscribe();
+            LockSupport.parkNanos(Duration.ofMillis(40).toNanos());
+            call.dispose();
+        }
+
+        assertThat(latency.getSampleCount()).isEqualTo(2);
+        assertThat(latency.percentileMillis(0.5)).isGreaterThanOrEqualTo(20);
+        assertThat(guarded.getStats()).containsEntry("cancelled", 2L).containsEntry("slowCalls", 2L);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> guarded.search("rome", "en", 3).block())
+            .isInstanceOf(ProviderUnavailableException.class);
+    }
+
+    @Test
+    void quickCancelledCallsHaveNoOutcome() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 0.5, 60_000, 1);
+        LatencyTracker latency = new LatencyTracker(16, 0.95);
+        GuardedLocationProvider guarded = new GuardedLocationProvider(provider(Mono.never()), breaker, 4, latency, 10_000);
+
+        for (int i = 0; i < 3; i++) {
+            guarded.search("rome", "en", 3).subscribe().dispose();
+        }
+
+        assertThat(latency.getSampleCount()).isEqualTo(3);
+        assertThat(guarded.getStats()).containsEntry("slowCalls", 0L).containsEntry("inFlight", 0);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void slowSuccessesCountAsFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 0.5, 60_000, 1);
+        GuardedLocationProvider guarded = new GuardedLocationProvider(
+            provider(Mono.delay(Duration.ofMillis(30)).thenReturn(RESPONSE)), breaker, 4, new LatencyTracker(16, 0.95), 10);
+
+        assertThat(guarded.search("rome", "en", 3).block()).isSameAs(RESPONSE);
+        assertThat(guarded.search("rome", "en", 3).block()).isSameAs(RESPONSE);
+
+        assertThat(guarded.getStats()).containsEntry("successes", 2L).containsEntry("slowCalls", 2L);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutCallingTheProvider() {
+        GuardedLocationProvider guarded = new GuardedLocationProvider(provider(Mono.never()),
+            new CircuitBreaker(10, 2, 0.5, 60_000, 1), 1, new LatencyTracker(16, 0.95), 10_000);
+
+        Disposable first = guarded.search("rome", "en", 3).subscribe();
+
+        assertThatThrownBy(() -> guarded.search("rome", "en", 3).block())
+            .isInstanceOf(ProviderUnavailableException.class)
+            .hasMessageContaining("concurrency limit");
+        first.dispose();
+        assertThat(guarded.getStats()).containsEntry("rejectedFull", 1L).containsEntry("inFlight", 0);
+    }
+
+    private static LocationProvider provider(Mono<LocationSearchResponseDTO> response) {
+        return new LocationProvider() {
+            @Override
+            public String getName() {
+                return "test";
+            }
+
+            @Override
+            public Mono<LocationSearchResponseDTO> search(String query, String languageCode, int limit) {
+                return response;
+            }
+        };
+    }
+}
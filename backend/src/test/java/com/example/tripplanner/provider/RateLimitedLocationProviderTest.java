@@ -0,0 +1,115 @@
+package com.example.tripplanner.provider;
+
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitedLocationProviderTest {
+
+    private static final LocationSearchResponseDTO RESPONSE = LocationSearchResponseDTO.of(List.of());
+
+    private final List<String> upstreamCalls = new CopyOnWriteArrayList<>();
+
+    private final LocationProvider upstream = new LocationProvider() {
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public Mono<LocationSearchResponseDTO> search(String query, String languageCode, int limit) {
+            return Mono.fromCallable(() -> {
+                upstreamCalls.add(query);
+                return RESPONSE;
+            });
+        }
+    };
+
+    @Test
+    void callsWithinTheBurstGoStraightThrough() {
+        RateLimitedLocationProvider limited = new RateLimitedLocationProvider(upstream, 2, 1, 10, 5_000);
+
+        assertThat(limited.search("a", "en", 3).block()).isSameAs(RESPONSE);
+        assertThat(limited.search("b", "en", 3).block()).isSameAs(RESPONSE);
+
+        assertThat(limited.getStats()).containsEntry("immediate", 2L).containsEntry("queued", 0L);
+    }
+
+    @Test
+    void queuedCallsAreReleasedInOrderAsTokensRefill() {
+        RateLimitedLocationProvider limited = new RateLimitedLocationProvider(upstream, 1, 2, 10, 5_000);
+        limited.search("a", "en", 3).block();
+        long started = System.nanoTime();
+
+        List<LocationSearchResponseDTO> responses = Flux.merge(
+            limited.search("b", "en", 3), limited.search("c", "en", 3), limited.search("d", "en", 3)).collectList().block();
+
+        assertThat(responses).hasSize(3);
+        assertThat(upstreamCalls).containsExactly("a", "b", "c", "d");
+        // Three more tokens at two per second
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(Duration.ofSeconds(1).toNanos());
+        assertThat(limited.getStats()).containsEntry("queued", 3L).containsEntry("queueDepth", 0);
+    }
+
+    @Test
+    void fullQueueRefusesImmediately() {
+        RateLimitedLocationProvider limited = new RateLimitedLocationProvider(upstream, 1, 2, 2, 5_000);
+        limited.search("a", "en", 3).block();
+        Disposable b = limited.search("b", "en", 3).subscribe();
+        Disposable c = limited.search("c", "en", 3).subscribe();
+
+        assertThatThrownBy(() -> limited.search("d", "en", 3).block())
+            .isInstanceOf(ProviderUnavailableException.class)
+            .hasMessageContaining("queue is full");
+        assertThat(limited.getStats()).containsEntry("rejectedFull", 1L);
+        b.dispose();
+        c.dispose();
+    }
+
+    @Test
+    void waitBeyondTheDeadlineIsRefusedUpFront() {
+        RateLimitedLocationProvider limited = new RateLimitedLocationProvider(upstream, 1, 1, 10, 500);
+        limited.search("a", "en", 3).block();
+
+        assertThatThrownBy(() -> limited.search("b", "en", 3).block())
+            .isInstanceOf(ProviderUnavailableException.class)
+            .hasMessageContaining("deadline");
+        assertThat(limited.getStats()).containsEntry("rejectedDeadline", 1L);
+        assertThat(upstreamCalls).containsExactly("a");
+    }
+
+    @Test
+    void identicalQueuedQueriesShareOneUpstreamCall() {
+        RateLimitedLocationProvider limited = new RateLimitedLocationProvider(upstream, 1, 2, 10, 5_000);
+        limited.search("a", "en", 3).block();
+
+        List<LocationSearchResponseDTO> responses = Flux.merge(
+            limited.search("rome", "en", 3), limited.search("rome", "en", 3)).collectList().block();
+
+        assertThat(responses).containsExactly(RESPONSE, RESPONSE);
+        assertThat(upstreamCalls).containsExactly("a", "rome");
+        assertThat(limited.getStats()).containsEntry("coalesced", 1L);
+    }
+
+    @Test
+    void abandonedQueuedCallIsNeverSent() {
+        RateLimitedLocationProvider limited = new RateLimitedLocationProvider(upstream, 1, 2, 10, 5_000);
+        limited.search("a", "en", 3).block();
+
+        limited.search("gone", "en", 3).subscribe().dispose();
+        LockSupport.parkNanos(Duration.ofMillis(700).toNanos());
+
+        assertThat(upstreamCalls).containsExactly("a");
+        assertThat(limited.getStats()).containsEntry("abandoned", 1L).containsEntry("queueDepth", 0);
+    }
+}
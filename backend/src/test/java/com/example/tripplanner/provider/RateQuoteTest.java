@@ -0,0 +1,43 @@
+package com.example.tripplanner.provider;
+
+import com.example.tripplanner.model.CurrencyCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateQuoteTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void ratesAgainstAnotherBaseAreRebasedToUsd() throws Exception {
+        RateQuote quote = RateQuote.fromJson(objectMapper.readTree(
+            "{\"base\": \"EUR\", \"date\": \"2026-03-01\", \"rates\": {\"USD\": 2.0, \"GBP\": 1.0, \"XXX\": 3.0}}"), "http");
+
+        assertThat(quote.effectiveDate()).isEqualTo(LocalDate.of(2026, 3, 1));
+        assertThat(quote.ratesPerUsd().get(CurrencyCode.USD)).isEqualByComparingTo("1");
+        assertThat(quote.ratesPerUsd().get(CurrencyCode.EUR)).isEqualByComparingTo("0.5");
+        assertThat(quote.ratesPerUsd().get(CurrencyCode.GBP)).isEqualByComparingTo("0.5");
+        assertThat(quote.ratesPerUsd()).hasSize(3);
+    }
+
+    @Test
+    void missingDateTakesTheDefault() throws Exception {
+        LocalDate fileDate = LocalDate.of(2025, 12, 31);
+
+        RateQuote quote = RateQuote.fromJson(objectMapper.readTree("{\"rates\": {\"EUR\": 0.85}}"), "file", fileDate);
+
+        assertThat(quote.effectiveDate()).isEqualTo(fileDate);
+    }
+
+    @Test
+    void missingUsdRateIsRejected() {
+        assertThatThrownBy(() -> RateQuote.fromJson(objectMapper.readTree("{\"base\": \"EUR\", \"rates\": {\"GBP\": 0.8}}"), "http"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("No USD rate");
+    }
+}
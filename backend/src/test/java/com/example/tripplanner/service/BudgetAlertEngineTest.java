@@ -0,0 +1,194 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.config.AsyncConfig;
+import com.example.tripplanner.event.BudgetAlertChangedEvent;
+import com.example.tripplanner.event.ExpenseWrittenEvent;
+import com.example.tripplanner.model.BudgetAlert;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.repository.BudgetAlertRepository;
+import com.example.tripplanner.repository.ExpenseDailyRollupRepository;
+import com.example.tripplanner.repository.TripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BudgetAlertEngineTest {
+
+    private static final Long TRIP_ID = 7L;
+    private static final LocalDate DAY = LocalDate.of(2026, 5, 3);
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private BudgetAlertRepository budgetAlertRepository;
+
+    @Mock
+    private ExpenseDailyRollupRepository dailyRollupRepository;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BudgetAlertEngine budgetAlertEngine;
+
+    // Stands in for the budget_alerts table
+    private final List<BudgetAlert> alerts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Trip trip = new Trip();
+        trip.setId(TRIP_ID);
+        trip.setCurrency("EUR");
+        trip.setBudget(new BigDecimal("100.00"));
+        trip.setStartDate(DAY);
+        trip.setEndDate(DAY.plusDays(9));
+        when(tripRepository.findById(TRIP_ID)).thenReturn(Optional.of(trip));
+        ReflectionTestUtils.setField(budgetAlertEngine, "warningPercentage", 80);
+        ReflectionTestUtils.setField(budgetAlertEngine, "dailyLimitPercentage", 150);
+        ReflectionTestUtils.setField(budgetAlertEngine, "categoryLimitPercentage", 40);
+
+        when(budgetAlertRepository.findOpenAlertsByKey(anyLong(), any(BudgetAlert.AlertType.class), anyString()))
+            .thenAnswer(invocation -> alerts.stream()
+                .filter(alert -> alert.getTrip().getId().equals(invocation.getArgument(0)))
+                .filter(alert -> alert.getAlertType() == invocation.getArgument(1))
+                .filter(alert -> alert.getAlertKey().equals(invocation.getArgument(2)))
+                .filter(alert -> !alert.isResolved())
+                .sorted(Comparator.comparing(BudgetAlert::getId).reversed())
+                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll));
+        when(budgetAlertRepository.save(any(BudgetAlert.class))).thenAnswer(invocation -> {
+            BudgetAlert alert = invocation.getArgument(0);
+            if (alert.getId() == null) {
+                alert.setId((long) alerts.size() + 1);
+                alerts.add(alert);
+            }
+            return alert;
+        });
+    }
+
+    @Test
+    void expenseWritesAreEvaluatedAsynchronouslyAfterCommit() throws Exception {
+        Method listener = BudgetAlertEngine.class.getMethod("onExpenseWritten", ExpenseWrittenEvent.class);
+
+        assertThat(listener.getAnnotation(Async.class).value()).isEqualTo(AsyncConfig.BUDGET_ALERT_EXECUTOR);
+        TransactionalEventListener afterCommit = listener.getAnnotation(TransactionalEventListener.class);
+        assertThat(afterCommit.phase()).isEqualTo(TransactionPhase.AFTER_COMMIT);
+        assertThat(afterCommit.fallbackExecution()).isTrue();
+        // The writing transaction is over by then, so the evaluation needs its own
+        assertThat(listener.getAnnotation(Transactional.class).propagation()).isEqualTo(Propagation.REQUIRES_NEW);
+
+        budgetAlertEngine.onExpenseWritten(new ExpenseWrittenEvent(TRIP_ID, 1L, 2L, DAY,
+            Expense.ExpenseCategory.FOOD, Expense.Currency.EUR, new BigDecimal("5.00")));
+
+        verify(dailyRollupRepository).findDailyCurrencyTotalsByTripId(TRIP_ID);
+        verify(dailyRollupRepository).findDailyCurrencyTotalsByTripIdAndDate(TRIP_ID, DAY);
+        verify(dailyRollupRepository).findDailyCurrencyTotalsByTripIdAndCategory(TRIP_ID, Expense.ExpenseCategory.FOOD);
+    }
+
+    @Test
+    void warningAndExceededAreRaisedAtTheirThresholds() {
+        spend("79.99");
+        assertThat(alerts).isEmpty();
+
+        spend("80.00");
+        assertThat(alerts).extracting(BudgetAlert::getAlertType, BudgetAlert::getStatus)
+            .containsExactly(tuple(BudgetAlert.AlertType.BUDGET_WARNING, BudgetAlert.AlertStatus.ACTIVE));
+
+        // Over budget: the warning gives way to BUDGET_EXCEEDED
+        spend("100.01");
+        assertThat(alerts).extracting(BudgetAlert::getAlertType, BudgetAlert::getStatus)
+            .containsExactly(
+                tuple(BudgetAlert.AlertType.BUDGET_WARNING, BudgetAlert.AlertStatus.RESOLVED),
+                tuple(BudgetAlert.AlertType.BUDGET_EXCEEDED, BudgetAlert.AlertStatus.ACTIVE));
+        assertThat(alerts.get(1).getCurrentAmount()).isEqualByComparingTo("100.01");
+        assertThat(alerts.get(1).getAlertKey()).isEqualTo("TRIP");
+    }
+
+    @Test
+    void reEvaluatingUpdatesTheSameAlertAndOnlyNotifiesOnChange() {
+        spend("85.00");
+        spend("85.00");
+
+        assertThat(alerts).singleElement().satisfies(alert -> assertThat(alert.getCurrentAmount()).isEqualByComparingTo("85.00"));
+        verify(eventPublisher, times(1)).publishEvent(any(BudgetAlertChangedEvent.class));
+
+        spend("90.00");
+
+        assertThat(alerts).singleElement().satisfies(alert -> assertThat(alert.getCurrentAmount()).isEqualByComparingTo("90.00"));
+        verify(eventPublisher, times(2)).publishEvent(any(BudgetAlertChangedEvent.class));
+    }
+
+    @Test
+    void alertsResolveWhenSpendDrops() {
+        spend("85.00");
+        BudgetAlert warning = alerts.get(0);
+
+        // An expense was removed
+        spend("50.00");
+
+        assertThat(warning.getStatus()).isEqualTo(BudgetAlert.AlertStatus.RESOLVED);
+        assertThat(warning.getActionTaken()).isEqualTo("Resolved automatically");
+        assertThat(warning.getCurrentAmount()).isEqualByComparingTo("50.00");
+
+        // Crossing again raises a fresh alert rather than reopening the resolved one
+        spend("81.00");
+        assertThat(alerts).extracting(BudgetAlert::getStatus)
+            .containsExactly(BudgetAlert.AlertStatus.RESOLVED, BudgetAlert.AlertStatus.ACTIVE);
+    }
+
+    @Test
+    void dismissedAlertsStayDismissedWhileTheConditionHolds() {
+        spend("85.00");
+        alerts.get(0).dismiss();
+
+        spend("95.00");
+
+        assertThat(alerts).singleElement().satisfies(alert -> {
+            assertThat(alert.getStatus()).isEqualTo(BudgetAlert.AlertStatus.DISMISSED);
+            assertThat(alert.getCurrentAmount()).isEqualByComparingTo("95.00");
+        });
+    }
+
+    // Sets the trip's rolled-up total and evaluates the whole-trip budget
+    private void spend(String total) {
+        // [date, currency, sum]
+        when(dailyRollupRepository.findDailyCurrencyTotalsByTripId(TRIP_ID)).thenReturn(List.<Object[]>of(
+            new Object[]{DAY, Expense.Currency.EUR, new BigDecimal(total)}));
+        budgetAlertEngine.evaluate(TRIP_ID, null, null);
+    }
+}
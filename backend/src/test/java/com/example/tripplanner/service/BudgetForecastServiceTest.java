@@ -0,0 +1,143 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.BudgetForecastDTO;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.repository.ExpenseDailyRollupRepository;
+import com.example.tripplanner.repository.TripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BudgetForecastServiceTest {
+
+    private static final Long TRIP_ID = 7L;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private ExpenseDailyRollupRepository dailyRollupRepository;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private BudgetAlertEngine budgetAlertEngine;
+
+    @InjectMocks
+    private BudgetForecastService budgetForecastService;
+
+    private final LocalDate today = LocalDate.now();
+    private final List<Object[]> rollupRows = new ArrayList<>();
+    private Trip trip;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(budgetForecastService, "alpha", 0.3);
+        ReflectionTestUtils.setField(budgetForecastService, "batchSize", 500);
+
+        trip = new Trip();
+        trip.setId(TRIP_ID);
+        trip.setStartDate(today.minusDays(1));
+        trip.setEndDate(today.plusDays(3));
+        trip.setBudget(new BigDecimal("300.00"));
+        trip.setCurrency("USD");
+        trip.setDataVersion(1L);
+
+        // [tripId, date, currency, sum]
+        rollupRows.add(new Object[]{TRIP_ID, today.minusDays(1), Expense.Currency.USD, new BigDecimal("100.00")});
+        rollupRows.add(new Object[]{TRIP_ID, today, Expense.Currency.USD, new BigDecimal("100.00")});
+
+        when(tripRepository.findById(TRIP_ID)).thenReturn(Optional.of(trip));
+        when(tripRepository.findAllById(any())).thenReturn(List.of(trip));
+        when(dailyRollupRepository.findDailyCurrencyTotalsByTripIds(any())).thenReturn(rollupRows);
+    }
+
+    @Test
+    void readingAForecastDoesNotRaiseAlerts() {
+        BudgetForecastDTO forecast = budgetForecastService.getForecast(TRIP_ID);
+
+        assertThat(forecast.getSpentToDate()).isEqualByComparingTo("200.00");
+        assertThat(forecast.getProjectedTotal()).isEqualByComparingTo("500.00");
+        assertThat(forecast.isProjectedOverBudget()).isTrue();
+        verify(budgetAlertEngine, never()).evaluateForecast(any(), any());
+    }
+
+    @Test
+    void refreshEvaluatesEveryActiveTrip() {
+        when(tripRepository.findActiveTripIdsAfter(eq(today), anyLong(), anyInt(), anyInt(), any())).thenReturn(List.of(TRIP_ID));
+
+        budgetForecastService.refreshActiveTrips();
+
+        verify(budgetAlertEngine).evaluateForecast(eq(trip), any(BudgetForecastDTO.class));
+        assertThat(budgetForecastService.getCachedForecast(trip)).isNotNull();
+    }
+
+    @Test
+    void cachedForecastIsDroppedWhenTheDataVersionMoves() {
+        budgetForecastService.getForecast(TRIP_ID);
+        assertThat(budgetForecastService.getCachedForecast(trip)).isNotNull();
+
+        trip.setDataVersion(2L);
+
+        assertThat(budgetForecastService.getCachedForecast(trip)).isNull();
+    }
+
+    @Test
+    void leastRecentlyUsedTripsLeaveTheCache() {
+        // Trips 1..1001 on top of TRIP_ID, each with no expenses
+        when(tripRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(trip(invocation.getArgument(0))));
+        when(tripRepository.findById(TRIP_ID)).thenReturn(Optional.of(trip));
+        when(dailyRollupRepository.findDailyCurrencyTotalsByTripIds(any())).thenAnswer(invocation ->
+            ((Collection<?>) invocation.getArgument(0)).contains(TRIP_ID) ? rollupRows : List.of());
+        budgetForecastService.getForecast(TRIP_ID);
+        for (long id = 1; id <= 1_000; id++) {
+            budgetForecastService.getForecast(id);
+            // Keeps TRIP_ID the most recently used
+            budgetForecastService.getCachedForecast(trip);
+        }
+
+        budgetForecastService.getForecast(1_001L);
+
+        assertThat(budgetForecastService.getCachedForecast(trip)).isNotNull();
+        assertThat(budgetForecastService.getCachedForecast(trip(1L))).isNull();
+        assertThat(budgetForecastService.getCachedForecast(trip(2L))).isNotNull();
+        assertThat(budgetForecastService.getCachedForecast(trip(1_001L))).isNotNull();
+    }
+
+    private Trip trip(Long id) {
+        Trip other = new Trip();
+        other.setId(id);
+        other.setStartDate(today);
+        other.setEndDate(today.plusDays(1));
+        other.setBudget(new BigDecimal("100.00"));
+        other.setCurrency("USD");
+        other.setDataVersion(1L);
+        return other;
+    }
+}
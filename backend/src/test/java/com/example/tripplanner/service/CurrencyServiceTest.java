@@ -0,0 +1,102 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.CurrencyConversionItemDTO;
+import com.example.tripplanner.dto.CurrencyConversionResultDTO;
+import com.example.tripplanner.model.CurrencyCode;
+import com.example.tripplanner.util.ExchangeRateHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CurrencyServiceTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @InjectMocks
+    private CurrencyService currencyService;
+
+    @BeforeEach
+    void setUp() {
+        int n = CurrencyCode.values().length;
+        long[][] days = new long[n][0];
+        double[][] rates = new double[n][0];
+        days[CurrencyCode.EUR.ordinal()] = new long[]{JAN_1.toEpochDay(), FEB_1.toEpochDay()};
+        rates[CurrencyCode.EUR.ordinal()] = new double[]{0.80, 0.90};
+        double[] fallback = new double[n];
+        Arrays.fill(fallback, 1.0);
+        // No rate at all for Swiss francs
+        fallback[CurrencyCode.CHF.ordinal()] = Double.NaN;
+        ExchangeRateHistory history = new ExchangeRateHistory(days, rates, fallback, 1L, FEB_1, 4);
+
+        when(exchangeRateService.getSnapshot()).thenReturn(history.getCurrent());
+        when(exchangeRateService.getSnapshot(any())).thenAnswer(invocation -> history.snapshotOn(invocation.getArgument(0)));
+    }
+
+    @Test
+    void mixedDatesUseTheRatesInForceOnEachDate() {
+        List<CurrencyConversionResultDTO> results = currencyService.convertBatch(List.of(
+            new CurrencyConversionItemDTO(80.0, "EUR", "USD", "2026-01-15"),
+            new CurrencyConversionItemDTO(90.0, "EUR", "USD", null),
+            new CurrencyConversionItemDTO(90.0, "EUR", "USD", "2027-06-01")));
+
+        assertThat(results).extracting(CurrencyConversionResultDTO::getIndex, CurrencyConversionResultDTO::isSuccess,
+                CurrencyConversionResultDTO::getConvertedAmount, CurrencyConversionResultDTO::getRateDate)
+            .containsExactly(
+                tuple(0, true, 100.0, JAN_1),
+                tuple(1, true, 100.0, FEB_1),
+                // Future dates use the latest rates, as /convert does
+                tuple(2, true, 100.0, FEB_1));
+    }
+
+    @Test
+    void invalidItemsGetTheirOwnErrorsWithoutFailingTheBatch() {
+        List<CurrencyConversionItemDTO> items = Arrays.asList(
+            new CurrencyConversionItemDTO(null, "EUR", "USD", null),
+            new CurrencyConversionItemDTO(1.0, "EUR", "USD", "01/02/2026"),
+            new CurrencyConversionItemDTO(1.0, "XXX", "USD", null),
+            new CurrencyConversionItemDTO(1.0, "USD", "CHF", null),
+            null,
+            new CurrencyConversionItemDTO(9.0, "EUR", "USD", null));
+
+        assertThat(currencyService.convertBatch(items)).extracting(CurrencyConversionResultDTO::getIndex,
+                CurrencyConversionResultDTO::isSuccess, CurrencyConversionResultDTO::getError)
+            .containsExactly(
+                tuple(0, false, "Amount is required"),
+                tuple(1, false, "Invalid date: 01/02/2026"),
+                tuple(2, false, "Invalid source currency: XXX"),
+                tuple(3, false, "Invalid target currency: CHF"),
+                tuple(4, false, "Amount is required"),
+                tuple(5, true, null));
+    }
+
+    @Test
+    void batchAndSingleConversionShareOneCurrencyRule() {
+        // RUB has a rate but is not a supported currency
+        assertThat(currencyService.validateConversion("RUB", "USD", null)).isEqualTo("Invalid source currency: RUB");
+        assertThat(currencyService.convertBatch(List.of(new CurrencyConversionItemDTO(1.0, "RUB", "USD", null))))
+            .singleElement().extracting(CurrencyConversionResultDTO::getError).isEqualTo("Invalid source currency: RUB");
+
+        assertThat(currencyService.validateConversion("EUR", "CHF", FEB_1)).isEqualTo("Invalid target currency: CHF");
+        assertThat(currencyService.validateConversion("EUR", "USD", LocalDate.of(2027, 6, 1))).isNull();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.model.BudgetAlert;
+import com.example.tripplanner.model.TripShare;
+import com.example.tripplanner.model.User;
+import com.example.tripplanner.repository.BlogRatingRepository;
+import com.example.tripplanner.repository.BudgetAlertRepository;
+import com.example.tripplanner.repository.TripShareRepository;
+import com.example.tripplanner.repository.UserRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DigestServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private BudgetAlertRepository budgetAlertRepository;
+
+    @Mock
+    private TripShareRepository tripShareRepository;
+
+    @Mock
+    private BlogRatingRepository blogRatingRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private DigestService digestService;
+
+    private EmailDeliveryService emailDeliveryService;
+
+    private final List<Object[]> alertRows = new ArrayList<>();
+    private final List<Object[]> invitationRows = new ArrayList<>();
+    private final List<Object[]> ratingRows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        emailDeliveryService = EmailDeliveryServiceTest.deliveryService(EmailDeliveryServiceTest.smtpSender(), 1, 20, 2);
+        emailDeliveryService.start();
+        ReflectionTestUtils.setField(digestService, "emailDeliveryService", emailDeliveryService);
+        ReflectionTestUtils.setField(digestService, "lookbackHours", 24L);
+        digestService.compileTemplates();
+
+        when(budgetAlertRepository.findDigestAlertRows(any())).thenReturn(alertRows);
+        when(tripShareRepository.findDigestInvitationRows(any())).thenReturn(invitationRows);
+        when(blogRatingRepository.findDigestRatingRows(any())).thenReturn(ratingRows);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user(1L, "Ana <Admin>", "ana@example.com"), user(2L, "Bo", "bo@example.com")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailDeliveryService.stop();
+    }
+
+    @Test
+    void digestIsRenderedAndSentPerUser() throws Exception {
+        // [ownerId, tripTitle, alertType, message]
+        alertRows.add(new Object[]{1L, "Lisbon", BudgetAlert.AlertType.BUDGET_WARNING, "80% of budget spent"});
+        // [inviteeId, tripTitle, ownerName, permission]
+        invitationRows.add(new Object[]{1L, "Porto", "Bo", TripShare.SharePermission.VIEW});
+        // [authorId, postTitle, ratingCount, averageRating]
+        ratingRows.add(new Object[]{2L, "Ten days in Japan", 3L, 4.5});
+
+        assertThat(digestService.sendDailyDigests()).isEqualTo(2);
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 2)).isTrue();
+        String ana = body(greenMail.getReceivedMessagesForDomain("ana@example.com"));
+        assertThat(ana).contains("Ana &lt;Admin&gt;", "Lisbon", "80% of budget spent", "Porto", "Trip invitations")
+            .doesNotContain("Ratings on your posts", "{{");
+        String bo = body(greenMail.getReceivedMessagesForDomain("bo@example.com"));
+        assertThat(bo).contains("Ten days in Japan", "4.5").doesNotContain("Budget alerts");
+    }
+
+    @Test
+    void usersWithNothingToReportGetNoDigest() {
+        when(userRepository.findAllById(any())).thenReturn(List.of());
+
+        assertThat(digestService.sendDailyDigests()).isZero();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    private static String body(MimeMessage[] messages) {
+        assertThat(messages).hasSize(1);
+        return GreenMailUtil.getBody(messages[0]).replaceAll("=\\r?\\n", "");
+    }
+
+    private static User user(Long id, String displayName, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setDisplayName(displayName);
+        user.setEmail(email);
+        return user;
+    }
+}
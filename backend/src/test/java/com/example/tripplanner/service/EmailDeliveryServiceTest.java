@@ -0,0 +1,147 @@
+package com.example.tripplanner.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EmailDeliveryServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private JavaMailSenderImpl mailSender;
+    private EmailDeliveryService emailDeliveryService;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = spy(smtpSender());
+        emailDeliveryService = deliveryService(mailSender, 2, 20, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailDeliveryService.stop();
+    }
+
+    @Test
+    void queuedEmailIsSent() throws Exception {
+        emailDeliveryService.start();
+
+        assertThat(emailDeliveryService.enqueue("ana@example.com", "Hello", "<p>Hi Ana</p>")).isTrue();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        MimeMessage message = greenMail.getReceivedMessages()[0];
+        assertThat(message.getSubject()).isEqualTo("Hello");
+        assertThat(GreenMailUtil.getBody(message)).contains("Hi Ana");
+    }
+
+    @Test
+    void domainBucketThrottlesBurstsButNotOtherDomains() {
+        emailDeliveryService = deliveryService(mailSender, 2, 2, 2);
+        emailDeliveryService.start();
+
+        for (int i = 0; i < 4; i++) {
+            emailDeliveryService.enqueue("user" + i + "@busy.com", "Burst " + i, "<p>" + i + "</p>");
+        }
+        emailDeliveryService.enqueue("bo@quiet.com", "Other domain", "<p>hi</p>");
+
+        // Burst of two plus the other domain go out at once, the rest at two per second
+        assertThat(greenMail.waitForIncomingEmail(2000, 3)).isTrue();
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+        assertThat(greenMail.getReceivedMessagesForDomain("quiet.com")).hasSize(1);
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 5)).isTrue();
+    }
+
+    @Test
+    void transientSmtpFailureIsRetriedWithBackoff() {
+        doThrow(new MailSendException("451 4.3.0 Temporary local problem"))
+            .doThrow(new MailSendException("554 5.7.1 Rejected by policy"))
+            .doCallRealMethod()
+            .when(mailSender).send(any(MimeMessage.class));
+        emailDeliveryService.start();
+        long started = System.nanoTime();
+
+        emailDeliveryService.enqueue("ana@example.com", "Retry", "<p>again</p>");
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        // Initial backoff is 100 ms, drawn from the upper half of a doubling window: at least 50 + 100 ms
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(150_000_000L);
+        awaitStat("sent", 1L);
+        verify(mailSender, times(3)).send(any(MimeMessage.class));
+        assertThat(emailDeliveryService.getStats()).containsEntry("failed", 0L);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        doThrow(new MailSendException("421 4.7.0 Try again later")).when(mailSender).send(any(MimeMessage.class));
+        emailDeliveryService.start();
+
+        emailDeliveryService.enqueue("ana@example.com", "Never", "<p>no</p>");
+
+        awaitStat("failed", 1L);
+        assertThat(emailDeliveryService.getStats()).containsEntry("queued", 0L);
+        verify(mailSender, times(3)).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void stopFlushesWhatIsStillQueued() {
+        emailDeliveryService = deliveryService(mailSender, 0, 20, 2);
+        emailDeliveryService.start();
+        emailDeliveryService.enqueue("ana@example.com", "First", "<p>1</p>");
+        emailDeliveryService.enqueue("bo@example.com", "Second", "<p>2</p>");
+
+        emailDeliveryService.stop();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(emailDeliveryService.enqueue("cy@example.com", "Late", "<p>3</p>")).isFalse();
+    }
+
+    // Counters move after the SMTP exchange, so they can lag what the server has seen
+    private void awaitStat(String name, long expected) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (emailDeliveryService.getStats().get(name) != expected && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(10_000_000L);
+        }
+        assertThat(emailDeliveryService.getStats()).containsEntry(name, expected);
+    }
+
+    static JavaMailSenderImpl smtpSender() {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        return sender;
+    }
+
+    static EmailDeliveryService deliveryService(JavaMailSenderImpl sender, int workers, double burst, double ratePerSecond) {
+        EmailDeliveryService service = new EmailDeliveryService();
+        ReflectionTestUtils.setField(service, "mailSender", sender);
+        ReflectionTestUtils.setField(service, "fromAddress", "no-reply@tripplanner.local");
+        ReflectionTestUtils.setField(service, "queueCapacity", 100);
+        ReflectionTestUtils.setField(service, "workerCount", workers);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "initialBackoffMs", 100L);
+        ReflectionTestUtils.setField(service, "maxBackoffMs", 1000L);
+        ReflectionTestUtils.setField(service, "domainBurst", burst);
+        ReflectionTestUtils.setField(service, "domainRatePerSecond", ratePerSecond);
+        ReflectionTestUtils.setField(service, "shutdownFlushSeconds", 5L);
+        return service;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.model.CurrencyCode;
+import com.example.tripplanner.provider.ExchangeRateProvider;
+import com.example.tripplanner.provider.RateQuote;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.quartz.JobDataMap;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExchangeRateRefresherTest {
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private ExchangeRateProvider provider;
+
+    @InjectMocks
+    private ExchangeRateRefresher exchangeRateRefresher;
+
+    private final JobDataMap state = new JobDataMap();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exchangeRateRefresher, "provider", Optional.of(provider));
+        ReflectionTestUtils.setField(exchangeRateRefresher, "staleAfterMs", 86_400_000L);
+        when(provider.getName()).thenReturn("file");
+    }
+
+    @Test
+    void unchangedQuoteIsStoredOnce() throws Exception {
+        when(provider.fetch()).thenReturn(quote("0.85"), quote("0.85"));
+
+        exchangeRateRefresher.refresh(state);
+        exchangeRateRefresher.refresh(state);
+
+        verify(exchangeRateService, times(1)).saveRates(any(), any(), any());
+        assertThat(state.get(ExchangeRateRefresher.SUCCESS_COUNT)).isEqualTo(2L);
+        assertThat(exchangeRateRefresher.isStale(state)).isFalse();
+    }
+
+    @Test
+    void changedQuoteIsStoredAgain() throws Exception {
+        when(provider.fetch()).thenReturn(quote("0.85"), quote("0.86"));
+
+        exchangeRateRefresher.refresh(state);
+        exchangeRateRefresher.refresh(state);
+
+        verify(exchangeRateService, times(2)).saveRates(any(), any(), any());
+    }
+
+    @Test
+    void failureKeepsRatesAndIsReported() throws Exception {
+        when(provider.fetch()).thenThrow(new IllegalStateException("timeout"));
+
+        exchangeRateRefresher.refresh(state);
+
+        verify(exchangeRateService, never()).saveRates(any(), any(), any());
+        assertThat(state.getString(ExchangeRateRefresher.LAST_ERROR)).contains("timeout");
+        assertThat(state.get(ExchangeRateRefresher.CONSECUTIVE_FAILURES)).isEqualTo(1);
+        assertThat(exchangeRateRefresher.isStale(state)).isTrue();
+    }
+
+    @Test
+    void oldSuccessIsStale() {
+        state.put(ExchangeRateRefresher.LAST_SUCCESS_AT, System.currentTimeMillis() - 90_000_000L);
+
+        assertThat(exchangeRateRefresher.isStale(state)).isTrue();
+    }
+
+    private static RateQuote quote(String eurPerUsd) {
+        return new RateQuote(LocalDate.of(2026, 3, 1),
+            Map.of(CurrencyCode.USD, BigDecimal.ONE, CurrencyCode.EUR, new BigDecimal(eurPerUsd)), "file");
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.model.CurrencyCode;
+import com.example.tripplanner.repository.ExchangeRateRepository;
+import com.example.tripplanner.util.ExchangeRateHistory;
+import com.example.tripplanner.util.ExchangeRateSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExchangeRateServiceTest {
+
+    private static final int USD = CurrencyCode.USD.ordinal();
+    private static final int EUR = CurrencyCode.EUR.ordinal();
+    private static final int GBP = CurrencyCode.GBP.ordinal();
+
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @InjectMocks
+    private ExchangeRateService exchangeRateService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exchangeRateService, "sliceCacheSize", 8);
+        exchangeRateService.init();
+    }
+
+    @Test
+    void bootstrapRatesApplyUntilTheFirstReload() {
+        ExchangeRateSnapshot snapshot = exchangeRateService.getSnapshot();
+
+        assertThat(snapshot.getVersion()).isZero();
+        assertThat(snapshot.getEffectiveDate()).isNull();
+        assertThat(snapshot.ratePerUsd(EUR)).isEqualTo(0.85);
+        assertThat(snapshot.rate(USD, GBP)).isEqualTo(0.73);
+    }
+
+    @Test
+    void reloadBuildsTheHistoryFromStoredRates() {
+        // [currency, effectiveDate, ratePerUsd]
+        when(exchangeRateRepository.findAllRates()).thenReturn(List.of(
+            new Object[]{CurrencyCode.EUR, JAN_1, new BigDecimal("0.80")},
+            new Object[]{CurrencyCode.EUR, FEB_1, new BigDecimal("0.90")},
+            new Object[]{CurrencyCode.USD, FEB_1, new BigDecimal("2.00")}));
+
+        exchangeRateService.reload();
+
+        ExchangeRateSnapshot current = exchangeRateService.getSnapshot();
+        assertThat(current.getVersion()).isEqualTo(1L);
+        assertThat(current.ratePerUsd(EUR)).isEqualTo(0.90);
+        assertThat(current.getEffectiveDate()).isEqualTo(FEB_1);
+        // USD is the base and ignores stored rows; currencies without rows keep the bootstrap rate
+        assertThat(current.ratePerUsd(USD)).isEqualTo(1.0);
+        assertThat(current.ratePerUsd(GBP)).isEqualTo(0.73);
+        assertThat(exchangeRateService.getSnapshot(JAN_1.plusDays(10)).ratePerUsd(EUR)).isEqualTo(0.80);
+        assertThat(exchangeRateService.getSnapshot(null)).isSameAs(current);
+    }
+
+    @Test
+    void reloadSwapsInANewHistoryAndLeavesTheOldOneIntact() {
+        when(exchangeRateRepository.findAllRates()).thenReturn(List.<Object[]>of(
+            new Object[]{CurrencyCode.EUR, JAN_1, new BigDecimal("0.80")}));
+        exchangeRateService.reload();
+        ExchangeRateHistory before = exchangeRateService.getHistory();
+        ExchangeRateSnapshot snapshotBefore = exchangeRateService.getSnapshot();
+
+        when(exchangeRateRepository.findAllRates()).thenReturn(List.<Object[]>of(
+            new Object[]{CurrencyCode.EUR, JAN_1, new BigDecimal("0.95")}));
+        exchangeRateService.reload();
+
+        assertThat(exchangeRateService.getHistory()).isNotSameAs(before);
+        assertThat(exchangeRateService.getSnapshot().ratePerUsd(EUR)).isEqualTo(0.95);
+        assertThat(exchangeRateService.getSnapshot().getVersion()).isEqualTo(2L);
+        // Readers holding the old snapshot keep a complete, unchanged matrix
+        assertThat(snapshotBefore.ratePerUsd(EUR)).isEqualTo(0.80);
+        assertThat(snapshotBefore.getVersion()).isEqualTo(1L);
+        assertThat(before.getCurrent()).isSameAs(snapshotBefore);
+    }
+
+    @Test
+    void readersNeverSeeAHalfBuiltSnapshotDuringReloads() throws Exception {
+        // Each version moves EUR and GBP together, so a mixed matrix would show a different cross rate
+        List<Object[]> odd = List.of(
+            new Object[]{CurrencyCode.EUR, JAN_1, new BigDecimal("0.80")},
+            new Object[]{CurrencyCode.GBP, JAN_1, new BigDecimal("0.40")});
+        List<Object[]> even = List.of(
+            new Object[]{CurrencyCode.EUR, JAN_1, new BigDecimal("0.90")},
+            new Object[]{CurrencyCode.GBP, JAN_1, new BigDecimal("0.45")});
+        when(exchangeRateRepository.findAllRates()).thenReturn(odd, even, odd, even);
+        exchangeRateService.reload();
+
+        AtomicBoolean reloading = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                readers.add(pool.submit(() -> {
+                    long lastVersion = 0;
+                    while (reloading.get()) {
+                        ExchangeRateSnapshot snapshot = exchangeRateService.getSnapshot();
+                        assertThat(snapshot.rate(GBP, EUR)).isEqualTo(2.0);
+                        assertThat(snapshot.getVersion()).isGreaterThanOrEqualTo(lastVersion);
+                        lastVersion = snapshot.getVersion();
+                    }
+                }));
+            }
+            for (int i = 0; i < 200; i++) {
+                exchangeRateService.reload();
+            }
+            reloading.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(exchangeRateService.getSnapshot().getVersion()).isEqualTo(201L);
+    }
+
+    @Test
+    void saveRatesRejectsNonPositiveRatesWithoutReloading() {
+        Map<CurrencyCode, BigDecimal> rates = new EnumMap<>(CurrencyCode.class);
+        rates.put(CurrencyCode.EUR, BigDecimal.ZERO);
+        rates.put(CurrencyCode.GBP, new BigDecimal("0.75"));
+
+        assertThatThrownBy(() -> exchangeRateService.saveRates(rates, FEB_1, "test"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("EUR");
+        verify(exchangeRateRepository, never()).findAllRates();
+
+        rates.put(CurrencyCode.EUR, new BigDecimal("0.90"));
+        exchangeRateService.saveRates(rates, FEB_1, "test");
+
+        verify(exchangeRateRepository).upsert("EUR", new BigDecimal("0.90"), FEB_1, "test");
+        verify(exchangeRateRepository).upsert("GBP", new BigDecimal("0.75"), FEB_1, "test");
+        verify(exchangeRateRepository).findAllRates();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.DuplicateGroupDTO;
+import com.example.tripplanner.dto.ExpenseDTO;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.repository.ExpenseRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.util.StringSimilarity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExpenseDeduplicationServiceTest {
+
+    private static final Long TRIP_ID = 7L;
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private ExpenseRollupService expenseRollupService;
+
+    @Mock
+    private TripService tripService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ExpenseDeduplicationService deduplicationService;
+
+    private final Trip trip = new Trip();
+    private final List<Expense> expenses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        trip.setId(TRIP_ID);
+        ReflectionTestUtils.setField(deduplicationService, "dateWindowDays", 1);
+        ReflectionTestUtils.setField(deduplicationService, "similarityThreshold", 0.85);
+        when(expenseRepository.findByTripId(TRIP_ID)).thenReturn(expenses);
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tripService.convertToExpenseDTO(any(Expense.class))).thenAnswer(invocation -> {
+            ExpenseDTO dto = new ExpenseDTO();
+            dto.setId(((Expense) invocation.getArgument(0)).getId());
+            return dto;
+        });
+    }
+
+    @Test
+    void accentsCaseAndPunctuationDoNotHideADuplicate() {
+        expenses.add(expense(1L, "12.50", JAN_1, "Café Central", "Breakfast!"));
+        expenses.add(expense(2L, "12.50", JAN_1, "CAFE CENTRAL", "breakfast"));
+
+        assertThat(deduplicationService.findSuspectedDuplicates(TRIP_ID)).singleElement().satisfies(group -> {
+            assertThat(ids(group)).containsExactly(1L, 2L);
+            assertThat(group.getSimilarity()).isEqualTo(1.0);
+        });
+    }
+
+    @Test
+    void neighbouringDaysMatchAcrossBucketsButNotBeyondTheWindow() {
+        expenses.add(expense(1L, "4.20", JAN_1, "Starbucks", "Coffee"));
+        expenses.add(expense(2L, "4.20", JAN_1.plusDays(1), "Starbucks", "Coffee"));
+        expenses.add(expense(3L, "4.20", JAN_1.minusDays(1), "Starbucks", "Coffee"));
+        expenses.add(expense(4L, "4.20", JAN_1.plusDays(3), "Starbucks", "Coffee"));
+        // Same text and day but a different amount is a different bucket
+        expenses.add(expense(5L, "4.30", JAN_1, "Starbucks", "Coffee"));
+
+        assertThat(deduplicationService.findSuspectedDuplicates(TRIP_ID))
+            .singleElement().satisfies(group -> assertThat(ids(group)).containsExactly(1L, 2L, 3L));
+    }
+
+    @Test
+    void pairsAreGroupedTransitivelyWithTheWeakestLink() {
+        // 1-2 and 2-3 are within a day of each other; 1 and 3 are two days apart
+        expenses.add(expense(1L, "30.00", JAN_1, "Uber", "Ride to airport"));
+        expenses.add(expense(2L, "30.00", JAN_1.plusDays(1), "Uber", "Ride to the airport"));
+        expenses.add(expense(3L, "30.00", JAN_1.plusDays(2), "Uber", "Ride to the airport"));
+        expenses.add(expense(4L, "9.00", JAN_1, "Louvre", "Museum tickets"));
+        expenses.add(expense(5L, "9.00", JAN_1, "Louvre", "Museum ticket"));
+        expenses.add(expense(6L, "9.00", JAN_1, "Bakery", "Croissants"));
+
+        double weakest = (1.0 + StringSimilarity.jaroWinkler("ride to airport", "ride to the airport")) / 2.0;
+        List<DuplicateGroupDTO> groups = deduplicationService.findSuspectedDuplicates(TRIP_ID);
+
+        assertThat(groups).hasSize(2);
+        assertThat(ids(groups.get(0))).containsExactly(1L, 2L, 3L);
+        assertThat(groups.get(0).getSimilarity()).isEqualTo(weakest);
+        assertThat(ids(groups.get(1))).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void pairsExactlyAtTheThresholdMatch() {
+        // Without vendors only the descriptions are compared
+        expenses.add(expense(1L, "8.00", JAN_1, null, "dwayne"));
+        expenses.add(expense(2L, "8.00", JAN_1, null, "duane"));
+        double similarity = StringSimilarity.jaroWinkler("dwayne", "duane");
+
+        ReflectionTestUtils.setField(deduplicationService, "similarityThreshold", similarity);
+        assertThat(deduplicationService.findSuspectedDuplicates(TRIP_ID)).hasSize(1);
+
+        ReflectionTestUtils.setField(deduplicationService, "similarityThreshold", Math.nextUp(similarity));
+        assertThat(deduplicationService.findSuspectedDuplicates(TRIP_ID)).isEmpty();
+    }
+
+    @Test
+    void mergeRejectsAnAmountMismatchUnlessConfirmed() {
+        Expense keep = expense(1L, "10.00", JAN_1, null, "Dinner");
+        Expense duplicate = expense(2L, "12.00", JAN_1, "Trattoria", "Dinner");
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(keep));
+        when(expenseRepository.findAllById(anyList())).thenReturn(List.of(duplicate));
+
+        assertThatThrownBy(() -> deduplicationService.mergeDuplicates(TRIP_ID, 1L, List.of(2L), false))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("confirm the amount mismatch");
+        verify(expenseRepository, never()).delete(any(Expense.class));
+        verify(expenseRollupService, never()).removeExpense(any(Expense.class));
+        verify(tripRepository, never()).incrementDataVersion(TRIP_ID);
+
+        ExpenseDTO merged = deduplicationService.mergeDuplicates(TRIP_ID, 1L, List.of(2L), true);
+
+        assertThat(merged.getId()).isEqualTo(1L);
+        assertThat(keep.getVendor()).isEqualTo("Trattoria");
+        verify(expenseRollupService).removeExpense(duplicate);
+        verify(expenseRepository).delete(duplicate);
+        verify(tripRepository).incrementDataVersion(TRIP_ID);
+        verify(eventPublisher).publishEvent(new TripChangedEvent(TRIP_ID, TripChangedEvent.Change.EXPENSES_CHANGED));
+    }
+
+    private Expense expense(Long id, String amount, LocalDate date, String vendor, String description) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setTrip(trip);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setCurrency(Expense.Currency.EUR);
+        expense.setExpenseDate(date);
+        expense.setVendor(vendor);
+        expense.setDescription(description);
+        return expense;
+    }
+
+    private static List<Long> ids(DuplicateGroupDTO group) {
+        return group.getExpenses().stream().map(ExpenseDTO::getId).toList();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.ExpenseTotalDTO;
+import com.example.tripplanner.model.CurrencyCode;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.User;
+import com.example.tripplanner.repository.ExpenseDailyRollupRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.repository.UserExpenseRollupRepository;
+import com.example.tripplanner.repository.UserRepository;
+import com.example.tripplanner.util.ExchangeRateHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExpenseRollupServiceTest {
+
+    private static final Long TRIP_ID = 7L;
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+
+    @Mock
+    private ExpenseDailyRollupRepository dailyRollupRepository;
+
+    @Mock
+    private UserExpenseRollupRepository userRollupRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @InjectMocks
+    private ExpenseRollupService expenseRollupService;
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        int n = CurrencyCode.values().length;
+        long[][] days = new long[n][0];
+        double[][] rates = new double[n][0];
+        days[CurrencyCode.EUR.ordinal()] = new long[]{JAN_1.toEpochDay(), FEB_1.toEpochDay()};
+        rates[CurrencyCode.EUR.ordinal()] = new double[]{0.80, 0.90};
+        double[] fallback = new double[n];
+        Arrays.fill(fallback, 1.0);
+
+        when(exchangeRateService.getHistory()).thenReturn(new ExchangeRateHistory(days, rates, fallback, 1L, FEB_1, 4));
+        when(tripRepository.findCurrencyById(TRIP_ID)).thenReturn(Optional.of("USD"));
+        when(dailyRollupRepository.findDailyCurrencyTotalsByTripId(TRIP_ID)).thenReturn(rows);
+        ReflectionTestUtils.setField(expenseRollupService, "reportingCurrency", "USD");
+    }
+
+    @Test
+    void eachDayIsConvertedAtItsOwnRate() {
+        // [date, currency, sum]
+        rows.add(new Object[]{JAN_1, Expense.Currency.EUR, new BigDecimal("80.00")});
+        rows.add(new Object[]{FEB_1, Expense.Currency.EUR, new BigDecimal("90.00")});
+        rows.add(new Object[]{FEB_1, Expense.Currency.USD, new BigDecimal("12.34")});
+
+        assertThat(expenseRollupService.getTotalAmount(TRIP_ID)).isEqualByComparingTo("212.34");
+    }
+
+    @Test
+    void tripWithoutExpensesTotalsZero() {
+        assertThat(expenseRollupService.getTotalAmount(TRIP_ID)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void dailyAndMonthlyTotalsAreInTheTripCurrency() {
+        // [date, currency, sum, count]
+        when(dailyRollupRepository.findDailyCurrencyTotalsWithCountsByTripId(TRIP_ID)).thenReturn(List.of(
+            new Object[]{JAN_1, Expense.Currency.EUR, new BigDecimal("80.00"), 2L},
+            new Object[]{JAN_1, Expense.Currency.USD, new BigDecimal("5.00"), 1L},
+            new Object[]{JAN_1.plusDays(1), Expense.Currency.EUR, new BigDecimal("8.00"), 1L},
+            new Object[]{FEB_1, Expense.Currency.EUR, new BigDecimal("90.00"), 1L}));
+
+        assertThat(expenseRollupService.getDailyTotals(TRIP_ID))
+            .extracting(ExpenseTotalDTO::getPeriod, total -> total.getTotalAmount().toPlainString(), ExpenseTotalDTO::getExpenseCount, ExpenseTotalDTO::getCurrency)
+            .containsExactly(
+                tuple("2026-01-01", "105.00", 3L, "USD"),
+                tuple("2026-01-02", "10.00", 1L, "USD"),
+                tuple("2026-02-01", "100.00", 1L, "USD"));
+        assertThat(expenseRollupService.getMonthlyTotals(TRIP_ID))
+            .extracting(ExpenseTotalDTO::getPeriod, total -> total.getTotalAmount().toPlainString())
+            .containsExactly(
+                tuple("2026-01", "115.00"),
+                tuple("2026-02", "100.00"));
+    }
+
+    @Test
+    void categoryTotalsConvertEachDayAndCurrency() {
+        when(tripRepository.findCurrencyById(TRIP_ID)).thenReturn(Optional.of("EUR"));
+        // [category, date, currency, sum, count]
+        when(dailyRollupRepository.findCategoryCurrencyTotalsByTripId(TRIP_ID)).thenReturn(List.of(
+            new Object[]{Expense.ExpenseCategory.FOOD, JAN_1, Expense.Currency.USD, new BigDecimal("10.00"), 1L},
+            new Object[]{Expense.ExpenseCategory.FOOD, JAN_1, Expense.Currency.EUR, new BigDecimal("2.00"), 1L},
+            new Object[]{Expense.ExpenseCategory.TRANSPORT, FEB_1, Expense.Currency.USD, new BigDecimal("10.00"), 1L}));
+
+        List<ExpenseTotalDTO> totals = expenseRollupService.getCategoryTotals(TRIP_ID);
+
+        assertThat(totals).extracting(ExpenseTotalDTO::getCategory, total -> total.getTotalAmount().toPlainString(), ExpenseTotalDTO::getExpenseCount, ExpenseTotalDTO::getCurrency)
+            .containsExactly(
+                tuple(Expense.ExpenseCategory.FOOD, "10.00", 2L, "EUR"),
+                tuple(Expense.ExpenseCategory.TRANSPORT, "9.00", 1L, "EUR"));
+    }
+
+    @Test
+    void userTotalsAreInTheReportingCurrency() {
+        User user = new User();
+        user.setId(3L);
+        when(userRepository.findByFirebaseUid("uid-1")).thenReturn(Optional.of(user));
+        when(userRollupRepository.findCategoryCurrencyTotalsByUserIdAndDateRange(anyLong(), any(), any())).thenReturn(List.<Object[]>of(
+            new Object[]{Expense.ExpenseCategory.FOOD, JAN_1, Expense.Currency.EUR, new BigDecimal("8.00"), 1L},
+            new Object[]{Expense.ExpenseCategory.FOOD, JAN_1, Expense.Currency.USD, new BigDecimal("1.00"), 1L}));
+
+        assertThat(expenseRollupService.getUserMonthCategoryTotals("uid-1", YearMonth.of(2026, 1))).hasValueSatisfying(totals ->
+            assertThat(totals).singleElement().satisfies(total -> {
+                assertThat(total.getTotalAmount()).isEqualByComparingTo("11.00");
+                assertThat(total.getCurrency()).isEqualTo("USD");
+            }));
+    }
+
+    @Test
+    void unknownUserHasNoTotals() {
+        when(userRepository.findByFirebaseUid("missing")).thenReturn(Optional.empty());
+
+        assertThat(expenseRollupService.getUserWeekCategoryTotals("missing", JAN_1)).isEmpty();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.Activity;
+import com.example.tripplanner.model.Itinerary;
+import com.example.tripplanner.model.Place;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.repository.ActivityRepository;
+import com.example.tripplanner.repository.ItineraryRepository;
+import com.example.tripplanner.repository.PlaceRepository;
+import com.example.tripplanner.repository.TripRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ItineraryGeneratorServiceTest {
+
+    private static final Long TRIP_ID = 7L;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private PlaceRepository placeRepository;
+
+    @Mock
+    private ItineraryRepository itineraryRepository;
+
+    @Mock
+    private ActivityRepository activityRepository;
+
+    @Mock
+    private TravelTimeService travelTimeService;
+
+    @Mock
+    private TripService tripService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ItineraryGeneratorService itineraryGeneratorService;
+
+    private ThreadPoolTaskExecutor plannerExecutor;
+
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+    // Calls that must happen inside the write transaction, and whether they did
+    private final List<String> transactionalCalls = new ArrayList<>();
+
+    private Trip trip;
+
+    private Itinerary dayOne;
+
+    @BeforeEach
+    void setUp() {
+        plannerExecutor = new ThreadPoolTaskExecutor();
+        plannerExecutor.setCorePoolSize(2);
+        plannerExecutor.setMaxPoolSize(2);
+        plannerExecutor.initialize();
+        ReflectionTestUtils.setField(itineraryGeneratorService, "plannerExecutor", plannerExecutor);
+        ReflectionTestUtils.setField(itineraryGeneratorService, "restarts", 4);
+        ReflectionTestUtils.setField(itineraryGeneratorService, "timeBudgetMs", 1000L);
+        ReflectionTestUtils.setField(itineraryGeneratorService, "balanceSlack", 0.25);
+        ReflectionTestUtils.setField(itineraryGeneratorService, "dayStart", "09:00");
+        ReflectionTestUtils.setField(itineraryGeneratorService, "maxPlaces", 300);
+        ReflectionTestUtils.setField(itineraryGeneratorService, "maxDays", 60);
+
+        trip = new Trip();
+        trip.setId(TRIP_ID);
+        trip.setStartDate(LocalDate.of(2026, 5, 1));
+        trip.setEndDate(LocalDate.of(2026, 5, 2));
+        dayOne = new Itinerary();
+        dayOne.setId(10L);
+        dayOne.setDayNumber(1);
+        dayOne.setTrip(trip);
+
+        when(tripRepository.findById(TRIP_ID)).thenReturn(Optional.of(trip));
+        when(itineraryRepository.findByTripId(TRIP_ID)).thenReturn(List.of(dayOne));
+        when(travelTimeService.estimate(anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            assertThat(inTransaction).as("routing runs outside the transaction").isFalse();
+            return new TravelTimeService.Estimate(1.0, 12.0, "test");
+        });
+        doAnswer(invocation -> {
+            Consumer<Object> action = invocation.getArgument(0);
+            inTransaction.set(true);
+            try {
+                action.accept(null);
+            } finally {
+                inTransaction.set(false);
+            }
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        doAnswer(invocation -> transactionalCalls.add("deleteAllInBatch " + inTransaction.get()))
+            .when(activityRepository).deleteAllInBatch(anyList());
+        when(itineraryRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            transactionalCalls.add("saveAll itineraries " + inTransaction.get());
+            return invocation.getArgument(0);
+        });
+        when(activityRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            transactionalCalls.add("saveAll activities " + inTransaction.get());
+            return invocation.getArgument(0);
+        });
+        doAnswer(invocation -> transactionalCalls.add("publishEvent " + inTransaction.get()))
+            .when(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        plannerExecutor.shutdown();
+    }
+
+    @Test
+    void onlyTheWritesRunInTheTransaction() {
+        Place planned = place(1L, 48.8584, 2.2945);
+        when(activityRepository.findByTripId(TRIP_ID)).thenReturn(List.of(plannedActivity(planned)));
+        when(placeRepository.findByTripId(TRIP_ID)).thenReturn(List.of(
+            planned, place(2L, 48.8606, 2.3376), place(3L, 48.8530, 2.3499), place(4L, 48.8867, 2.3431)));
+
+        itineraryGeneratorService.generate(TRIP_ID, 2, true);
+
+        assertThat(transactionalCalls).containsExactly(
+            "deleteAllInBatch true", "saveAll itineraries true", "saveAll activities true", "publishEvent true");
+        verify(travelTimeService, atLeastOnce()).estimate(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        verify(eventPublisher).publishEvent(any(TripChangedEvent.class));
+    }
+
+    @Test
+    void replacingWithNothingLeftToScheduleStillRemovesInTheTransaction() {
+        Place unlocated = new Place();
+        unlocated.setId(1L);
+        when(activityRepository.findByTripId(TRIP_ID)).thenReturn(List.of(plannedActivity(unlocated)));
+        when(placeRepository.findByTripId(TRIP_ID)).thenReturn(List.of(unlocated));
+
+        itineraryGeneratorService.generate(TRIP_ID, 2, true);
+
+        assertThat(transactionalCalls).containsExactly("deleteAllInBatch true");
+        verify(activityRepository, never()).saveAll(anyList());
+    }
+
+    private Activity plannedActivity(Place place) {
+        Activity activity = new Activity();
+        activity.setStatus(Activity.ActivityStatus.PLANNED);
+        activity.setPlace(place);
+        activity.setItinerary(dayOne);
+        activity.setStartTime(LocalTime.of(9, 0));
+        return activity;
+    }
+
+    private static Place place(Long id, double latitude, double longitude) {
+        Place place = new Place();
+        place.setId(id);
+        place.setName("Place " + id);
+        place.setLatitude(BigDecimal.valueOf(latitude));
+        place.setLongitude(BigDecimal.valueOf(longitude));
+        place.setCategory(Place.PlaceCategory.ATTRACTION);
+        return place;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.LocationSearchResponseDTO;
+import com.example.tripplanner.provider.BookingLocationProvider;
+import com.example.tripplanner.provider.GuardedLocationProvider;
+import com.example.tripplanner.provider.NominatimLocationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.PublisherProbe;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LocationSearchServiceTest {
+
+    private static final LocationSearchResponseDTO BOOKING = response("booking");
+    private static final LocationSearchResponseDTO NOMINATIM = response("nominatim");
+    private static final LocationSearchService.SearchKey ROME = LocationSearchService.SearchKey.of("Rome", "en", 3);
+
+    @Mock
+    private BookingLocationProvider bookingProvider;
+
+    @Mock
+    private NominatimLocationProvider nominatimProvider;
+
+    @InjectMocks
+    private LocationSearchService locationSearchService;
+
+    // Created when each provider is called, so delays run on the virtual clock
+    private PublisherProbe<LocationSearchResponseDTO> bookingCall;
+    private PublisherProbe<LocationSearchResponseDTO> nominatimCall;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(locationSearchService, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(locationSearchService, "cacheTtlMs", 600_000L);
+        ReflectionTestUtils.setField(locationSearchService, "cacheStaleWhileRevalidateMs", 3_600_000L);
+        ReflectionTestUtils.setField(locationSearchService, "cacheStaleIfErrorMs", 86_400_000L);
+        ReflectionTestUtils.setField(locationSearchService, "hedgePercentile", 0.95);
+        ReflectionTestUtils.setField(locationSearchService, "hedgeMinDelayMs", 150L);
+        ReflectionTestUtils.setField(locationSearchService, "hedgeMaxDelayMs", 1_500L);
+        ReflectionTestUtils.setField(locationSearchService, "hedgeInitialDelayMs", 600L);
+        ReflectionTestUtils.setField(locationSearchService, "bookingMaxConcurrent", 20);
+        ReflectionTestUtils.setField(locationSearchService, "nominatimMaxConcurrent", 2);
+        ReflectionTestUtils.setField(locationSearchService, "bookingRatePerSecond", 20.0);
+        ReflectionTestUtils.setField(locationSearchService, "bookingBurst", 40.0);
+        ReflectionTestUtils.setField(locationSearchService, "bookingQueueCapacity", 100);
+        ReflectionTestUtils.setField(locationSearchService, "bookingMaxQueueWaitMs", 500L);
+        ReflectionTestUtils.setField(locationSearchService, "nominatimRatePerSecond", 1.0);
+        ReflectionTestUtils.setField(locationSearchService, "nominatimBurst", 1.0);
+        ReflectionTestUtils.setField(locationSearchService, "nominatimQueueCapacity", 10);
+        ReflectionTestUtils.setField(locationSearchService, "nominatimMaxQueueWaitMs", 3_000L);
+        ReflectionTestUtils.setField(locationSearchService, "breakerWindowSize", 50);
+        ReflectionTestUtils.setField(locationSearchService, "breakerMinimumCalls", 10);
+        ReflectionTestUtils.setField(locationSearchService, "breakerFailureRate", 0.5);
+        ReflectionTestUtils.setField(locationSearchService, "breakerOpenMs", 30_000L);
+        ReflectionTestUtils.setField(locationSearchService, "breakerHalfOpenCalls", 3);
+        ReflectionTestUtils.setField(locationSearchService, "breakerSlowCallMs", 2_000L);
+        when(bookingProvider.getName()).thenReturn("booking");
+        when(nominatimProvider.getName()).thenReturn("nominatim");
+        locationSearchService.init();
+    }
+
+    @Test
+    void primaryAnsweringBeforeTheHedgeDelayNeverStartsNominatim() {
+        bookingAnswers(() -> Mono.delay(Duration.ofMillis(100)).thenReturn(BOOKING));
+        nominatimAnswers(() -> Mono.just(NOMINATIM));
+
+        StepVerifier.withVirtualTime(() -> locationSearchService.fetchLocations(ROME))
+            .expectSubscription()
+            .thenAwait(Duration.ofMillis(100))
+            .assertNext(response -> assertThat(response).isSameAs(BOOKING))
+            .verifyComplete();
+
+        verify(nominatimProvider, never()).search(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void primaryFailureStartsNominatimAtOnce() {
+        bookingAnswers(() -> Mono.error(new IllegalStateException("503 from Booking.com")));
+        nominatimAnswers(() -> Mono.delay(Duration.ofMillis(50)).thenReturn(NOMINATIM));
+
+        StepVerifier.withVirtualTime(() -> locationSearchService.fetchLocations(ROME))
+            .expectSubscription()
+            // No waiting for the 600 ms hedge delay
+            .then(() -> verify(nominatimProvider).search("rome", "en", 3))
+            .thenAwait(Duration.ofMillis(50))
+            .assertNext(response -> assertThat(response).isSameAs(NOMINATIM))
+            .verifyComplete();
+    }
+
+    @Test
+    void slowPrimaryStartsNominatimAfterTheDelayAndIsCancelledWhenItWins() {
+        bookingAnswers(Mono::never);
+        nominatimAnswers(() -> Mono.delay(Duration.ofMillis(100)).thenReturn(NOMINATIM));
+
+        StepVerifier.withVirtualTime(() -> locationSearchService.fetchLocations(ROME))
+            .expectSubscription()
+            .thenAwait(Duration.ofMillis(599))
+            .then(() -> verify(nominatimProvider, never()).search(anyString(), anyString(), anyInt()))
+            .thenAwait(Duration.ofMillis(1))
+            .then(() -> verify(nominatimProvider).search("rome", "en", 3))
+            .thenAwait(Duration.ofMillis(100))
+            .assertNext(response -> assertThat(response).isSameAs(NOMINATIM))
+            .verifyComplete();
+
+        bookingCall.assertWasCancelled();
+    }
+
+    @Test
+    void primaryWinningAfterTheHedgeStartedCancelsNominatim() {
+        bookingAnswers(() -> Mono.delay(Duration.ofMillis(800)).thenReturn(BOOKING));
+        nominatimAnswers(() -> Mono.delay(Duration.ofMillis(1_000)).thenReturn(NOMINATIM));
+
+        StepVerifier.withVirtualTime(() -> locationSearchService.fetchLocations(ROME))
+            .expectSubscription()
+            .thenAwait(Duration.ofMillis(800))
+            .assertNext(response -> assertThat(response).isSameAs(BOOKING))
+            .verifyComplete();
+
+        nominatimCall.assertWasSubscribed();
+        nominatimCall.assertWasCancelled();
+    }
+
+    @Test
+    void bothFailingFailsTheLookup() {
+        bookingAnswers(() -> Mono.error(new IllegalStateException("503 from Booking.com")));
+        nominatimAnswers(() -> Mono.error(new IllegalStateException("429 from Nominatim")));
+
+        StepVerifier.withVirtualTime(() -> locationSearchService.fetchLocations(ROME))
+            .expectSubscription()
+            .verifyError();
+    }
+
+    @Test
+    void hedgeDelayIsTheBookingPercentileClampedToItsBounds() {
+        assertThat(locationSearchService.hedgeDelay()).isEqualTo(Duration.ofMillis(600));
+
+        GuardedLocationProvider booking = (GuardedLocationProvider) ReflectionTestUtils.getField(locationSearchService, "booking");
+        record(booking, 16, 300);
+        assertThat(locationSearchService.hedgeDelay()).isEqualTo(Duration.ofMillis(300));
+
+        // Enough samples to fill the 256-sample window
+        record(booking, 256, 20);
+        assertThat(locationSearchService.hedgeDelay()).isEqualTo(Duration.ofMillis(150));
+
+        record(booking, 256, 9_000);
+        assertThat(locationSearchService.hedgeDelay()).isEqualTo(Duration.ofMillis(1_500));
+    }
+
+    private void bookingAnswers(Supplier<Mono<LocationSearchResponseDTO>> answer) {
+        when(bookingProvider.search(anyString(), anyString(), anyInt())).thenAnswer(invocation -> {
+            bookingCall = PublisherProbe.of(answer.get());
+            return bookingCall.mono();
+        });
+    }
+
+    private void nominatimAnswers(Supplier<Mono<LocationSearchResponseDTO>> answer) {
+        when(nominatimProvider.search(anyString(), anyString(), anyInt())).thenAnswer(invocation -> {
+            nominatimCall = PublisherProbe.of(answer.get());
+            return nominatimCall.mono();
+        });
+    }
+
+    private static void record(GuardedLocationProvider provider, int samples, long millis) {
+        for (int i = 0; i < samples; i++) {
+            provider.getLatency().record(millis);
+        }
+    }
+
+    private static LocationSearchResponseDTO response(String destId) {
+        return LocationSearchResponseDTO.of(List.of(new LocationSearchResponseDTO.Result(
+            new LocationSearchResponseDTO.Destination(destId, "city", "it", 41.9, 12.5, null), null)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.NotificationDTO;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.User;
+import com.example.tripplanner.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NotificationHubTest {
+
+    private static final String UID = "uid-1";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private NotificationHub notificationHub;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(notificationHub, "bufferSize", 64);
+        ReflectionTestUtils.setField(notificationHub, "heartbeatSeconds", 25L);
+        ReflectionTestUtils.setField(notificationHub, "retrySeconds", 5L);
+        ReflectionTestUtils.setField(notificationHub, "streamTimeoutMinutes", 30L);
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findByFirebaseUid(UID)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void sinkLivesUntilTheLastConnectionCloses() {
+        List<ServerSentEvent<NotificationDTO>> received = new CopyOnWriteArrayList<>();
+        Disposable first = notificationHub.subscribe(UID).subscribe();
+        Disposable second = notificationHub.subscribe(UID).subscribe(received::add);
+        assertThat(notificationHub.getConnectedUserCount()).isEqualTo(1);
+
+        first.dispose();
+        assertThat(notificationHub.getConnectedUserCount()).isEqualTo(1);
+        notificationHub.onTripChanged(new TripChangedEvent(7L, TripChangedEvent.Change.UPDATED, Set.of(1L)));
+        assertThat(received).extracting(ServerSentEvent::event).contains("trip-changed");
+
+        second.dispose();
+        assertThat(notificationHub.getConnectedUserCount()).isZero();
+    }
+
+    @Test
+    void reconnectAfterCloseGetsAFreshSink() {
+        notificationHub.subscribe(UID).subscribe().dispose();
+        assertThat(notificationHub.getConnectedUserCount()).isZero();
+
+        List<ServerSentEvent<NotificationDTO>> received = new CopyOnWriteArrayList<>();
+        Disposable connection = notificationHub.subscribe(UID).subscribe(received::add);
+        notificationHub.onTripChanged(new TripChangedEvent(7L, TripChangedEvent.Change.UPDATED, Set.of(1L)));
+
+        assertThat(received).extracting(ServerSentEvent::event).contains("trip-changed");
+        connection.dispose();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.ReimbursementReportDTO;
+import com.example.tripplanner.dto.ReimbursementRequestDTO;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.repository.ExpenseRepository;
+import com.example.tripplanner.repository.TripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReimbursementServiceTest {
+
+    private static final Long TRIP_ID = 7L;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ReimbursementService reimbursementService;
+
+    @BeforeEach
+    void setUp() {
+        when(tripRepository.existsById(TRIP_ID)).thenReturn(true);
+    }
+
+    @Test
+    void selectedExpensesAreMarkedWithOneUpdateAndOneVersionBump() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(expenseRepository.markReimbursed(TRIP_ID, ids, "RB-1")).thenReturn(3);
+
+        ReimbursementReportDTO report = reimbursementService.reimburse(TRIP_ID, new ReimbursementRequestDTO(ids, " RB-1 "));
+
+        assertThat(report.getReference()).isEqualTo("RB-1");
+        assertThat(report.getUpdatedCount()).isEqualTo(3);
+        verify(expenseRepository, times(1)).markReimbursed(TRIP_ID, ids, "RB-1");
+        verify(expenseRepository, never()).markAllPendingReimbursed(anyLong(), anyString());
+        verify(expenseRepository, never()).save(any(Expense.class));
+        verify(tripRepository, times(1)).incrementDataVersion(TRIP_ID);
+        verify(eventPublisher, times(1)).publishEvent(new TripChangedEvent(TRIP_ID, TripChangedEvent.Change.EXPENSES_CHANGED));
+    }
+
+    @Test
+    void reportTotalsAreGroupedByCurrency() {
+        when(expenseRepository.markReimbursed(eq(TRIP_ID), anyList(), eq("RB-2"))).thenReturn(3);
+        // [currency, count, sum]
+        when(expenseRepository.findReimbursedTotalsByReference(TRIP_ID, "RB-2")).thenReturn(List.of(
+            new Object[]{Expense.Currency.EUR, 2L, new BigDecimal("45.00")},
+            new Object[]{Expense.Currency.USD, 1L, new BigDecimal("12.50")}));
+        when(expenseRepository.findPendingReimbursementTotals(TRIP_ID)).thenReturn(List.<Object[]>of(
+            new Object[]{Expense.Currency.JPY, 4L, new BigDecimal("3200")}));
+
+        ReimbursementReportDTO report = reimbursementService.reimburse(TRIP_ID, new ReimbursementRequestDTO(List.of(1L, 2L, 3L), "RB-2"));
+
+        assertThat(report.getReimbursed())
+            .extracting(ReimbursementReportDTO.CurrencyTotalDTO::getCurrency, ReimbursementReportDTO.CurrencyTotalDTO::getExpenseCount,
+                total -> total.getTotalAmount().toPlainString())
+            .containsExactly(tuple(Expense.Currency.EUR, 2L, "45.00"), tuple(Expense.Currency.USD, 1L, "12.50"));
+        assertThat(report.getStillPending()).singleElement().satisfies(total -> {
+            assertThat(total.getCurrency()).isEqualTo(Expense.Currency.JPY);
+            assertThat(total.getExpenseCount()).isEqualTo(4L);
+        });
+    }
+
+    @Test
+    void updateOnlyTouchesPendingReimbursableRows() {
+        for (String method : new String[]{"markReimbursed", "markAllPendingReimbursed"}) {
+            String jpql = Arrays.stream(ExpenseRepository.class.getMethods())
+                .filter(m -> m.getName().equals(method))
+                .findFirst().orElseThrow()
+                .getAnnotation(Query.class).value();
+            assertThat(jpql).as(method).startsWith("UPDATE").contains("e.reimbursable = true AND e.reimbursed = false");
+        }
+    }
+
+    @Test
+    void skippedRowsAreNotCountedAndNothingChangedMeansNoVersionBump() {
+        // Two of the three are already reimbursed or not reimbursable, so the guarded UPDATE changes one
+        when(expenseRepository.markReimbursed(eq(TRIP_ID), anyList(), eq("RB-3"))).thenReturn(1);
+        assertThat(reimbursementService.reimburse(TRIP_ID, new ReimbursementRequestDTO(List.of(1L, 2L, 3L), "RB-3")).getUpdatedCount())
+            .isEqualTo(1);
+        verify(tripRepository, times(1)).incrementDataVersion(TRIP_ID);
+
+        when(expenseRepository.markReimbursed(eq(TRIP_ID), anyList(), eq("RB-4"))).thenReturn(0);
+        assertThat(reimbursementService.reimburse(TRIP_ID, new ReimbursementRequestDTO(List.of(2L, 3L), "RB-4")).getUpdatedCount())
+            .isZero();
+        verify(tripRepository, times(1)).incrementDataVersion(TRIP_ID);
+        verify(eventPublisher, times(1)).publishEvent(any(TripChangedEvent.class));
+    }
+
+    @Test
+    void noIdsMeansEveryPendingExpenseUnderAGeneratedReference() {
+        when(expenseRepository.markAllPendingReimbursed(eq(TRIP_ID), anyString())).thenReturn(5);
+
+        ReimbursementReportDTO report = reimbursementService.reimburse(TRIP_ID, new ReimbursementRequestDTO(null, "  "));
+
+        assertThat(report.getReference()).startsWith("RB-");
+        assertThat(report.getUpdatedCount()).isEqualTo(5);
+        verify(expenseRepository).markAllPendingReimbursed(eq(TRIP_ID), startsWith("RB-"));
+        verify(expenseRepository, never()).markReimbursed(anyLong(), anyList(), anyString());
+        verify(tripRepository, times(1)).incrementDataVersion(TRIP_ID);
+
+        reimbursementService.reimburse(TRIP_ID, new ReimbursementRequestDTO(List.of(), "RB-5"));
+        verify(expenseRepository).markAllPendingReimbursed(TRIP_ID, "RB-5");
+    }
+
+    @Test
+    void unknownTripIsRejectedBeforeAnyUpdate() {
+        assertThatThrownBy(() -> reimbursementService.reimburse(99L, new ReimbursementRequestDTO(null, null)))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessage("Trip not found with ID: 99");
+        verifyNoInteractions(expenseRepository, eventPublisher);
+    }
+}
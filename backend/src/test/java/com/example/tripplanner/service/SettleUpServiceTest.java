@@ -0,0 +1,175 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.SettlementDTO;
+import com.example.tripplanner.event.TripChangedEvent;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.model.User;
+import com.example.tripplanner.repository.ExpenseRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.repository.TripShareRepository;
+import com.example.tripplanner.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SettleUpServiceTest {
+
+    private static final Long TRIP_ID = 7L;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private TripShareRepository tripShareRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private SettleUpService settleUpService;
+
+    private final List<Object[]> expenseRows = new ArrayList<>();
+    private final List<Object[]> shareRows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User owner = new User();
+        owner.setId(1L);
+        Trip trip = new Trip();
+        trip.setId(TRIP_ID);
+        trip.setUser(owner);
+
+        when(tripRepository.findDataVersionById(TRIP_ID)).thenReturn(Optional.of(1L));
+        when(tripRepository.findById(TRIP_ID)).thenReturn(Optional.of(trip));
+        when(tripShareRepository.findAcceptedParticipantIds(TRIP_ID)).thenReturn(List.of(2L, 3L));
+        when(expenseRepository.findSettlementRowsByTripId(TRIP_ID)).thenReturn(expenseRows);
+        when(expenseRepository.findShareRowsByTripId(TRIP_ID)).thenReturn(shareRows);
+        when(userRepository.findAllById(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void equalSplitOwesThePayer() {
+        // [id, amount, currency, payer id]
+        expenseRows.add(new Object[]{10L, new BigDecimal("90.00"), Expense.Currency.USD, 1L});
+
+        SettlementDTO settlement = settleUpService.getSettlement(TRIP_ID);
+
+        assertThat(balances(settlement)).containsEntry(1L, new BigDecimal("60.00"))
+            .containsEntry(2L, new BigDecimal("-30.00"))
+            .containsEntry(3L, new BigDecimal("-30.00"));
+        assertThat(settlement.getTransfers()).hasSize(2)
+            .allSatisfy(transfer -> {
+                assertThat(transfer.getToUserId()).isEqualTo(1L);
+                assertThat(transfer.getAmount()).isEqualByComparingTo("30.00");
+            });
+    }
+
+    @Test
+    void remainderCentsKeepBalancesSummingToZero() {
+        expenseRows.add(new Object[]{10L, new BigDecimal("100.00"), Expense.Currency.EUR, 2L});
+
+        SettlementDTO settlement = settleUpService.getSettlement(TRIP_ID);
+
+        assertThat(balances(settlement).values().stream().reduce(BigDecimal.ZERO, BigDecimal::add))
+            .isEqualByComparingTo("0");
+        assertThat(settlement.getTransfers()).extracting(SettlementDTO.TransferDTO::getAmount)
+            .allSatisfy(amount -> assertThat(amount).isIn(new BigDecimal("33.33"), new BigDecimal("33.34")));
+    }
+
+    @Test
+    void explicitSharesOverrideTheEqualSplit() {
+        expenseRows.add(new Object[]{10L, new BigDecimal("50.00"), Expense.Currency.USD, 1L});
+        // [expense id, user id, share amount]
+        shareRows.add(new Object[]{10L, 3L, new BigDecimal("40.00")});
+
+        SettlementDTO settlement = settleUpService.getSettlement(TRIP_ID);
+
+        assertThat(settlement.getTransfers()).singleElement().satisfies(transfer -> {
+            assertThat(transfer.getFromUserId()).isEqualTo(3L);
+            assertThat(transfer.getToUserId()).isEqualTo(1L);
+            assertThat(transfer.getAmount()).isEqualByComparingTo("40.00");
+        });
+    }
+
+    @Test
+    void transfersSettleEveryoneInAtMostNMinusOneSteps() {
+        when(tripShareRepository.findAcceptedParticipantIds(TRIP_ID)).thenReturn(List.of(2L, 3L, 4L, 5L, 6L));
+        Random random = new Random(11);
+        for (long id = 1; id <= 40; id++) {
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(20_000), 2);
+            long payer = 1 + random.nextInt(6);
+            Expense.Currency currency = random.nextBoolean() ? Expense.Currency.USD : Expense.Currency.EUR;
+            expenseRows.add(new Object[]{id, amount, currency, payer});
+        }
+
+        SettlementDTO settlement = settleUpService.getSettlement(TRIP_ID);
+
+        for (Expense.Currency currency : List.of(Expense.Currency.USD, Expense.Currency.EUR)) {
+            Map<Long, BigDecimal> remaining = new HashMap<>();
+            settlement.getBalances().stream().filter(balance -> balance.getCurrency() == currency)
+                .forEach(balance -> remaining.put(balance.getUserId(), balance.getBalance()));
+            List<SettlementDTO.TransferDTO> transfers = settlement.getTransfers().stream()
+                .filter(transfer -> transfer.getCurrency() == currency).toList();
+            for (SettlementDTO.TransferDTO transfer : transfers) {
+                remaining.merge(transfer.getFromUserId(), transfer.getAmount(), BigDecimal::add);
+                remaining.merge(transfer.getToUserId(), transfer.getAmount().negate(), BigDecimal::add);
+            }
+            assertThat(remaining.values()).allSatisfy(balance -> assertThat(balance).isEqualByComparingTo("0"));
+            assertThat(transfers.size()).isLessThanOrEqualTo(Math.max(0, remaining.size() - 1));
+        }
+    }
+
+    @Test
+    void cachedUntilTheDataVersionChanges() {
+        expenseRows.add(new Object[]{10L, new BigDecimal("90.00"), Expense.Currency.USD, 1L});
+
+        SettlementDTO first = settleUpService.getSettlement(TRIP_ID);
+        assertThat(settleUpService.getSettlement(TRIP_ID)).isSameAs(first);
+        verify(expenseRepository, times(1)).findSettlementRowsByTripId(TRIP_ID);
+
+        when(tripRepository.findDataVersionById(TRIP_ID)).thenReturn(Optional.of(2L));
+        assertThat(settleUpService.getSettlement(TRIP_ID).getDataVersion()).isEqualTo(2L);
+        verify(expenseRepository, times(2)).findSettlementRowsByTripId(TRIP_ID);
+    }
+
+    @Test
+    void participantChangesBumpTheDataVersion() {
+        settleUpService.onTripChanged(new TripChangedEvent(TRIP_ID, TripChangedEvent.Change.PARTICIPANTS_CHANGED));
+        settleUpService.onTripChanged(new TripChangedEvent(TRIP_ID, TripChangedEvent.Change.PLACE_ADDED));
+
+        verify(tripRepository, times(1)).incrementDataVersion(TRIP_ID);
+    }
+
+    private static Map<Long, BigDecimal> balances(SettlementDTO settlement) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (SettlementDTO.BalanceDTO balance : settlement.getBalances()) {
+            balances.put(balance.getUserId(), balance.getBalance());
+        }
+        return balances;
+    }
+}
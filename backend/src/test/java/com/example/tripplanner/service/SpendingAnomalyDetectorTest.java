@@ -0,0 +1,117 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.event.ExpenseWrittenEvent;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.repository.SpendingStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SpendingAnomalyDetectorTest {
+
+    @Mock
+    private SpendingStatsRepository spendingStatsRepository;
+
+    @Mock
+    private BudgetAlertEngine budgetAlertEngine;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @InjectMocks
+    private SpendingAnomalyDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(detector, "minSamples", 10);
+        ReflectionTestUtils.setField(detector, "zScoreThreshold", 3.0);
+        ReflectionTestUtils.setField(detector, "idleEvictionMs", 3_600_000L);
+        when(currencyService.convertAmount(anyDouble(), anyString(), anyString(), any()))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(spendingStatsRepository.findByUserIdAndCategory(anyLong(), any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void flushWritesOnlyTheSamplesAddedSinceTheLastFlush() {
+        for (int i = 0; i < 3; i++) {
+            detector.onExpenseWritten(expense("20.00"));
+        }
+        detector.snapshot();
+        verify(spendingStatsRepository).mergeMoments(eq(1L), eq("FOOD"), eq(3L), anyDouble(), anyDouble());
+
+        detector.snapshot();
+        verify(spendingStatsRepository, times(1)).mergeMoments(anyLong(), anyString(), anyLong(), anyDouble(), anyDouble());
+
+        detector.onExpenseWritten(expense("25.00"));
+        detector.flushOnShutdown();
+        verify(spendingStatsRepository).mergeMoments(eq(1L), eq("FOOD"), eq(1L), anyDouble(), eq(0.0));
+    }
+
+    @Test
+    void failedWritesAreRetried() {
+        doThrow(new RuntimeException("database down")).when(spendingStatsRepository)
+            .mergeMoments(anyLong(), anyString(), anyLong(), anyDouble(), anyDouble());
+        detector.onExpenseWritten(expense("20.00"));
+        detector.onExpenseWritten(expense("30.00"));
+        detector.snapshot();
+
+        reset(spendingStatsRepository);
+        detector.snapshot();
+
+        verify(spendingStatsRepository).mergeMoments(eq(1L), eq("FOOD"), eq(2L), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void flagsAnExpenseFarAboveTheUsualSpend() {
+        for (int i = 0; i < 12; i++) {
+            detector.onExpenseWritten(expense(i % 2 == 0 ? "10.00" : "12.00"));
+        }
+        verify(budgetAlertEngine, never()).raiseUnusualSpending(any(), any(), any(), any(), any(), any(), anyDouble(), anyDouble());
+
+        detector.onExpenseWritten(expense("900.00"));
+
+        verify(budgetAlertEngine).raiseUnusualSpending(eq(3L), eq(99L), eq(Expense.ExpenseCategory.FOOD), any(),
+            eq(new BigDecimal("900.00")), eq(Expense.Currency.USD), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void idleFlushedKeysAreEvicted() {
+        detector.onExpenseWritten(expense("20.00"));
+        ReflectionTestUtils.setField(detector, "idleEvictionMs", -1L);
+
+        detector.snapshot();
+
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(detector, "statsByKey")).isEmpty();
+    }
+
+    private static ExpenseWrittenEvent expense(String amount) {
+        return new ExpenseWrittenEvent(3L, 1L, 99L, LocalDate.of(2026, 3, 1), Expense.ExpenseCategory.FOOD,
+            Expense.Currency.USD, new BigDecimal(amount));
+    }
+}
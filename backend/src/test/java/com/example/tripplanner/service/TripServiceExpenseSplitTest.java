@@ -0,0 +1,139 @@
+package com.example.tripplanner.service;
+
+import com.example.tripplanner.dto.ExpenseDTO;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.ExpenseShare;
+import com.example.tripplanner.model.Trip;
+import com.example.tripplanner.model.User;
+import com.example.tripplanner.repository.ExpenseRepository;
+import com.example.tripplanner.repository.TripRepository;
+import com.example.tripplanner.repository.TripShareRepository;
+import com.example.tripplanner.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TripServiceExpenseSplitTest {
+
+    private static final Long TRIP_ID = 7L;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private TripShareRepository tripShareRepository;
+
+    @Mock
+    private ExpenseRollupService expenseRollupService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private TripService tripService;
+
+    @BeforeEach
+    void setUp() {
+        Trip trip = new Trip();
+        trip.setId(TRIP_ID);
+        trip.setUser(user(1L));
+        when(tripRepository.findById(TRIP_ID)).thenReturn(Optional.of(trip));
+        when(tripShareRepository.findAcceptedParticipantIds(TRIP_ID)).thenReturn(List.of(2L));
+        when(userRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(user(invocation.getArgument(0))));
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void repeatedShareUsersAreMerged() {
+        ExpenseDTO dto = expense("30.00", 1L,
+            new ExpenseDTO.ShareDTO(2L, new BigDecimal("10.00")),
+            new ExpenseDTO.ShareDTO(2L, new BigDecimal("5.00")),
+            new ExpenseDTO.ShareDTO(1L, new BigDecimal("15.00")));
+
+        tripService.createExpense(dto);
+
+        ArgumentCaptor<Expense> saved = ArgumentCaptor.forClass(Expense.class);
+        verify(expenseRepository).save(saved.capture());
+        assertThat(saved.getValue().getShares()).hasSize(2);
+        assertThat(saved.getValue().getShares().stream().filter(share -> share.getUser().getId().equals(2L))
+            .map(ExpenseShare::getShareAmount).findFirst()).hasValueSatisfying(amount -> assertThat(amount).isEqualByComparingTo("15.00"));
+    }
+
+    @Test
+    void payerMustBeAParticipant() {
+        ExpenseDTO dto = expense("30.00", 9L);
+
+        assertThatThrownBy(() -> tripService.createExpense(dto))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("not a participant");
+        verify(expenseRepository, never()).save(any());
+    }
+
+    @Test
+    void shareUsersMustBeParticipants() {
+        ExpenseDTO dto = expense("30.00", 1L,
+            new ExpenseDTO.ShareDTO(2L, new BigDecimal("10.00")),
+            new ExpenseDTO.ShareDTO(9L, new BigDecimal("20.00")));
+
+        assertThatThrownBy(() -> tripService.createExpense(dto))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("User with ID: 9 is not a participant");
+    }
+
+    @Test
+    void sharesMustAddUpToTheAmount() {
+        ExpenseDTO dto = expense("30.00", 1L, new ExpenseDTO.ShareDTO(2L, new BigDecimal("10.00")));
+
+        assertThatThrownBy(() -> tripService.createExpense(dto))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("add up");
+    }
+
+    private static ExpenseDTO expense(String amount, Long paidBy, ExpenseDTO.ShareDTO... shares) {
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setTripId(TRIP_ID);
+        dto.setDayNumber(1);
+        dto.setExpenseDate("2026-03-01");
+        dto.setCategory(Expense.ExpenseCategory.FOOD);
+        dto.setDescription("Dinner");
+        dto.setAmount(new BigDecimal(amount));
+        dto.setCurrency(Expense.Currency.USD);
+        dto.setStatus(Expense.ExpenseStatus.PAID);
+        dto.setPaidByUserId(paidBy);
+        dto.setShares(shares.length > 0 ? List.of(shares) : null);
+        return dto;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
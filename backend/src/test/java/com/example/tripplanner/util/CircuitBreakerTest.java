@@ -0,0 +1,75 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedUntilTheMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, 60_000, 1);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.tryAcquirePermission();
+            breaker.onFailure();
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void failuresAgeOutOfTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, 60_000, 1);
+
+        breaker.onFailure();
+        for (int i = 0; i < 6; i++) {
+            breaker.onSuccess();
+        }
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenTrialsCloseOrReopen() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, 20, 2);
+        breaker.onFailure();
+        breaker.onFailure();
+        LockSupport.parkNanos(Duration.ofMillis(40).toNanos());
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        LockSupport.parkNanos(Duration.ofMillis(40).toNanos());
+        breaker.tryAcquirePermission();
+        breaker.tryAcquirePermission();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void ignoredCallsHandBackTheirHalfOpenPermit() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, 20, 1);
+        breaker.onFailure();
+        breaker.onFailure();
+        LockSupport.parkNanos(Duration.ofMillis(40).toNanos());
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        breaker.onIgnored();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayClustererTest {
+
+    @Test
+    void separatedAreasBecomeOneGroupEach() {
+        // Three areas of eight points each, far apart
+        Random random = new Random(42);
+        double[][] points = new double[24][];
+        for (int i = 0; i < points.length; i++) {
+            int area = i / 8;
+            points[i] = new double[]{area * 100 + random.nextDouble(), random.nextDouble()};
+        }
+        double[] weights = new double[points.length];
+        Arrays.fill(weights, 1.0);
+        DayClusterer clusterer = new DayClusterer(distances(points), weights, 3, 0.25);
+
+        DayClusterer.Result result = clusterer.run(7L);
+
+        for (int area = 0; area < 3; area++) {
+            Set<Integer> groups = new HashSet<>();
+            for (int i = area * 8; i < area * 8 + 8; i++) {
+                groups.add(result.assignment()[i]);
+            }
+            assertThat(groups).as("area %d", area).hasSize(1);
+        }
+        assertThat(Arrays.stream(result.assignment()).distinct().count()).isEqualTo(3);
+    }
+
+    @Test
+    void groupsStayWithinTheCapacity() {
+        // One dense area holding most points still has to be split evenly
+        Random random = new Random(1);
+        double[][] points = new double[40][];
+        double[] weights = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = i < 32
+                ? new double[]{random.nextDouble(), random.nextDouble()}
+                : new double[]{50 + random.nextDouble(), random.nextDouble()};
+            weights[i] = 1 + random.nextInt(3);
+        }
+        DayClusterer clusterer = new DayClusterer(distances(points), weights, 4, 0.25);
+
+        for (long seed = 0; seed < 20; seed++) {
+            DayClusterer.Result result = clusterer.run(seed);
+            double[] loads = new double[clusterer.getK()];
+            for (int i = 0; i < points.length; i++) {
+                loads[result.assignment()[i]] += weights[i];
+            }
+            for (int c = 0; c < loads.length; c++) {
+                assertThat(loads[c]).as("seed %d group %d", seed, c).isLessThanOrEqualTo(clusterer.getCapacity());
+                assertThat(result.assignment()[result.medoids()[c]]).isEqualTo(c);
+            }
+        }
+    }
+
+    @Test
+    void sameSeedGivesTheSameSplit() {
+        Random random = new Random(3);
+        double[][] points = new double[30][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{random.nextDouble() * 10, random.nextDouble() * 10};
+        }
+        double[] weights = new double[points.length];
+        Arrays.fill(weights, 1.0);
+        DayClusterer clusterer = new DayClusterer(distances(points), weights, 5, 0.25);
+
+        DayClusterer.Result first = clusterer.run(99L);
+        DayClusterer.Result second = clusterer.run(99L);
+
+        assertThat(second.assignment()).containsExactly(first.assignment());
+        assertThat(second.cost()).isEqualTo(first.cost());
+    }
+
+    @Test
+    void moreGroupsThanPointsIsCappedAtThePointCount() {
+        DayClusterer clusterer = new DayClusterer(distances(new double[][]{{0, 0}, {1, 0}}), new double[]{1, 1}, 5, 0.25);
+
+        assertThat(clusterer.getK()).isEqualTo(2);
+        assertThat(clusterer.run(0L).assignment()).containsExactlyInAnyOrder(0, 1);
+    }
+
+    @Test
+    void pointsOnALineAreVisitedEndToEnd() {
+        double[][] points = new double[12][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{i, 0};
+        }
+        List<Integer> shuffled = new ArrayList<>();
+        for (int i = 0; i < points.length; i++) {
+            shuffled.add(i);
+        }
+        Collections.shuffle(shuffled, new Random(5));
+
+        int[] path = DayClusterer.orderPath(shuffled.stream().mapToInt(Integer::intValue).toArray(), distances(points));
+
+        assertThat(pathLength(path, distances(points))).isEqualTo(11.0);
+    }
+
+    @Test
+    void orderedPathIsTwoOptOptimal() {
+        Random random = new Random(8);
+        double[][] points = new double[40][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{random.nextDouble() * 100, random.nextDouble() * 100};
+        }
+        double[][] distances = distances(points);
+        int[] subset = new int[25];
+        for (int i = 0; i < subset.length; i++) {
+            subset[i] = i * 3 % points.length;
+        }
+
+        int[] path = DayClusterer.orderPath(subset, distances);
+
+        assertThat(path).containsExactlyInAnyOrder(subset);
+        double length = pathLength(path, distances);
+        // No single segment reversal shortens the path any further
+        for (int i = 0; i < path.length - 1; i++) {
+            for (int j = i + 1; j < path.length; j++) {
+                int[] reversed = path.clone();
+                for (int a = i, b = j; a < b; a++, b--) {
+                    int swap = reversed[a];
+                    reversed[a] = reversed[b];
+                    reversed[b] = swap;
+                }
+                assertThat(pathLength(reversed, distances)).isGreaterThanOrEqualTo(length - 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void shortPathsAreReturnedAsGiven() {
+        double[][] distances = distances(new double[][]{{0, 0}, {1, 0}});
+
+        assertThat(DayClusterer.orderPath(new int[]{1, 0}, distances)).containsExactly(1, 0);
+        assertThat(DayClusterer.orderPath(new int[0], distances)).isEmpty();
+    }
+
+    private static double[][] distances(double[][] points) {
+        double[][] distances = new double[points.length][points.length];
+        for (int a = 0; a < points.length; a++) {
+            for (int b = 0; b < points.length; b++) {
+                distances[a][b] = Math.hypot(points[a][0] - points[b][0], points[a][1] - points[b][1]);
+            }
+        }
+        return distances;
+    }
+
+    private static double pathLength(int[] path, double[][] distances) {
+        double length = 0.0;
+        for (int i = 1; i < path.length; i++) {
+            length += distances[path[i - 1]][path[i]];
+        }
+        return length;
+    }
+}
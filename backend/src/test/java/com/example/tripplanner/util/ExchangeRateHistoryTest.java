@@ -0,0 +1,145 @@
+package com.example.tripplanner.util;
+
+import com.example.tripplanner.model.CurrencyCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExchangeRateHistoryTest {
+
+    private static final int N = CurrencyCode.values().length;
+    private static final int USD = CurrencyCode.USD.ordinal();
+    private static final int EUR = CurrencyCode.EUR.ordinal();
+    private static final int GBP = CurrencyCode.GBP.ordinal();
+
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FEB_1 = LocalDate.of(2026, 2, 1);
+    private static final LocalDate MAR_1 = LocalDate.of(2026, 3, 1);
+
+    @Test
+    void rateInForceIsTheLastOnOrBeforeTheDate() {
+        ExchangeRateHistory history = history(10);
+
+        assertThat(history.ratePerUsdOn(EUR, JAN_1.toEpochDay())).isEqualTo(0.80);
+        assertThat(history.ratePerUsdOn(EUR, JAN_1.plusDays(15).toEpochDay())).isEqualTo(0.80);
+        assertThat(history.ratePerUsdOn(EUR, FEB_1.toEpochDay())).isEqualTo(0.90);
+        assertThat(history.ratePerUsdOn(EUR, MAR_1.plusYears(1).toEpochDay())).isEqualTo(1.00);
+    }
+
+    @Test
+    void datesBeforeAnyRateUseTheEarliest() {
+        assertThat(history(10).ratePerUsdOn(EUR, JAN_1.minusYears(1).toEpochDay())).isEqualTo(0.80);
+    }
+
+    @Test
+    void currenciesWithoutRatesUseTheFallback() {
+        ExchangeRateHistory history = history(10);
+
+        assertThat(history.ratePerUsdOn(GBP, FEB_1.toEpochDay())).isEqualTo(0.75);
+        assertThat(history.ratePerUsdOn(USD, FEB_1.toEpochDay())).isEqualTo(1.0);
+    }
+
+    @Test
+    void snapshotsMatchTheRatesAndTheirEffectiveDate() {
+        ExchangeRateSnapshot slice = history(10).snapshotOn(FEB_1.plusDays(3));
+
+        assertThat(slice.ratePerUsd(EUR)).isEqualTo(0.90);
+        assertThat(slice.getEffectiveDate()).isEqualTo(FEB_1);
+        assertThat(slice.convert(90.0, EUR, USD)).isEqualTo(100.0);
+    }
+
+    @Test
+    void daySlicesAreCachedAndTheLeastRecentlyUsedIsEvicted() {
+        ExchangeRateHistory history = history(2);
+        LocalDate a = JAN_1.plusDays(1);
+        LocalDate b = JAN_1.plusDays(2);
+        LocalDate c = JAN_1.plusDays(3);
+
+        ExchangeRateSnapshot first = history.snapshotOn(a);
+        history.snapshotOn(b);
+        assertThat(history.snapshotOn(a)).isSameAs(first);
+
+        // b is now the least recently used and makes room for c
+        ExchangeRateSnapshot second = history.snapshotOn(b);
+        history.snapshotOn(a);
+        history.snapshotOn(c);
+        assertThat(history.snapshotOn(a)).isSameAs(first);
+        assertThat(history.snapshotOn(b)).isNotSameAs(second);
+    }
+
+    @Test
+    void todayAndNullShareTheCurrentSnapshot() {
+        ExchangeRateHistory history = history(10);
+
+        assertThat(history.snapshotOn(MAR_1)).isSameAs(history.getCurrent());
+        assertThat(history.snapshotOn(null)).isSameAs(history.getCurrent());
+    }
+
+    @Test
+    void convertsMinorUnitsAtTheDatedRate() {
+        ExchangeRateHistory history = history(10);
+
+        // 90.00 EUR at 0.90 per USD is 100.00 USD; in January, 0.80 per USD makes 112.50 USD
+        assertThat(history.convertMinorUnits(9_000, EUR, USD, FEB_1)).isEqualTo(10_000);
+        assertThat(history.convertMinorUnits(9_000, EUR, USD, JAN_1)).isEqualTo(11_250);
+        assertThat(history.convertMinorUnits(10_000, USD, GBP, JAN_1)).isEqualTo(7_500);
+        assertThat(history.convertMinorUnits(1_234, EUR, EUR, JAN_1)).isEqualTo(1_234);
+    }
+
+    @Test
+    void negativeAmountsRoundHalfAwayFromZero() {
+        ExchangeRateHistory history = history(10);
+
+        // 0.75 GBP per USD puts these exactly on a half
+        assertThat(history.convertMinorUnits(2, USD, GBP, JAN_1)).isEqualTo(2);
+        assertThat(history.convertMinorUnits(-2, USD, GBP, JAN_1)).isEqualTo(-2);
+        assertThat(history.convertMinorUnits(-10, USD, GBP, JAN_1)).isEqualTo(-8);
+        assertThat(history.convertMinorUnits(-10_000, USD, GBP, JAN_1)).isEqualTo(-7_500);
+    }
+
+    @Test
+    void concurrentLookupsWhileEvictingSeeTheRatesForTheirDate() throws Exception {
+        ExchangeRateHistory history = history(8);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> lookups = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                lookups.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        LocalDate date = JAN_1.plusDays((i * 7L + offset) % 40);
+                        assertThat(history.snapshotOn(date).ratePerUsd(EUR)).isEqualTo(date.isBefore(FEB_1) ? 0.80 : 0.90);
+                    }
+                }));
+            }
+            for (Future<?> lookup : lookups) {
+                lookup.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ExchangeRateSnapshot slice = history.snapshotOn(JAN_1.plusDays(5));
+        assertThat(history.snapshotOn(JAN_1.plusDays(5))).isSameAs(slice);
+    }
+
+    private static ExchangeRateHistory history(int sliceCacheSize) {
+        long[][] days = new long[N][0];
+        double[][] rates = new double[N][0];
+        days[EUR] = new long[]{JAN_1.toEpochDay(), FEB_1.toEpochDay(), MAR_1.toEpochDay()};
+        rates[EUR] = new double[]{0.80, 0.90, 1.00};
+        double[] fallback = new double[N];
+        Arrays.fill(fallback, 1.0);
+        fallback[GBP] = 0.75;
+        return new ExchangeRateHistory(days, rates, fallback, 1L, MAR_1, sliceCacheSize);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.tripplanner.util;
+
+import com.example.tripplanner.model.CurrencyCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ExchangeRateSnapshotTest {
+
+    private static final int N = CurrencyCode.values().length;
+    private static final int USD = CurrencyCode.USD.ordinal();
+    private static final int EUR = CurrencyCode.EUR.ordinal();
+    private static final int GBP = CurrencyCode.GBP.ordinal();
+    private static final int JPY = CurrencyCode.JPY.ordinal();
+    private static final int CHF = CurrencyCode.CHF.ordinal();
+
+    @Test
+    void crossRatesAreRatiosOfTheUsdRates() {
+        ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.of(rates(), LocalDate.of(2026, 1, 1), 3L);
+
+        assertThat(snapshot.rate(USD, EUR)).isEqualTo(0.80);
+        assertThat(snapshot.rate(EUR, GBP)).isEqualTo(0.625);
+        assertThat(snapshot.rate(GBP, JPY)).isEqualTo(200.0);
+        assertThat(snapshot.rate(EUR, EUR)).isEqualTo(1.0);
+        for (int from : new int[]{USD, EUR, GBP, JPY}) {
+            for (int to : new int[]{USD, EUR, GBP, JPY}) {
+                assertThat(snapshot.rate(from, to) * snapshot.rate(to, from)).isCloseTo(1.0, within(1e-12));
+            }
+        }
+        assertThat(snapshot.convert(50.0, GBP, EUR)).isEqualTo(80.0);
+        assertThat(snapshot.getEffectiveDate()).isEqualTo(LocalDate.of(2026, 1, 1));
+        assertThat(snapshot.getVersion()).isEqualTo(3L);
+        assertThat(snapshot.size()).isEqualTo(N);
+    }
+
+    @Test
+    void missingRatesAreNaNAndLeaveAmountsUnchanged() {
+        double[] rates = rates();
+        rates[CHF] = 0.0;
+        rates[GBP] = -1.0;
+        rates[JPY] = Double.NaN;
+        ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.of(rates, null, 1L);
+
+        for (int missing : new int[]{CHF, GBP, JPY}) {
+            assertThat(snapshot.hasRate(missing)).isFalse();
+            assertThat(snapshot.ratePerUsd(missing)).isNaN();
+            assertThat(snapshot.rate(missing, EUR)).isNaN();
+            assertThat(snapshot.rate(EUR, missing)).isNaN();
+            assertThat(snapshot.convert(12.5, EUR, missing)).isEqualTo(12.5);
+            assertThat(snapshot.convert(12.5, missing, USD)).isEqualTo(12.5);
+        }
+        // A currency still converts to itself
+        assertThat(snapshot.rate(CHF, CHF)).isEqualTo(1.0);
+        assertThat(snapshot.hasRate(EUR)).isTrue();
+        assertThat(snapshot.rate(USD, EUR)).isEqualTo(0.80);
+    }
+
+    @Test
+    void laterChangesToTheInputDoNotLeakIn() {
+        double[] rates = rates();
+        ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.of(rates, null, 1L);
+
+        rates[EUR] = 2.0;
+
+        assertThat(snapshot.ratePerUsd(EUR)).isEqualTo(0.80);
+        assertThat(snapshot.rate(USD, EUR)).isEqualTo(0.80);
+    }
+
+    private static double[] rates() {
+        double[] rates = new double[N];
+        for (int c = 0; c < N; c++) {
+            rates[c] = 1.0;
+        }
+        rates[EUR] = 0.80;
+        rates[GBP] = 0.50;
+        rates[JPY] = 100.0;
+        return rates;
+    }
+}
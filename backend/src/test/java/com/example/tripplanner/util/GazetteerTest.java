@@ -0,0 +1,63 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GazetteerTest {
+
+    private Gazetteer gazetteer;
+
+    @BeforeEach
+    void setUp() {
+        gazetteer = new Gazetteer.Builder()
+            .add("1", "São Paulo", "BR", -23.55, -46.63, 12_325_232L, List.of("Sao Paulo", "Sampa"))
+            .add("2", "San Francisco", "US", 37.77, -122.42, 864_816L, List.of())
+            .add("3", "Santiago", "CL", -33.45, -70.67, 4_837_295L, List.of("Santiago de Chile"))
+            .add("4", "Sankt Gallen", "CH", 47.42, 9.38, 75_833L, List.of("St. Gallen"))
+            .add("5", "Zürich", "CH", 47.37, 8.55, 341_730L, List.of("Zurich", "Zuerich"))
+            .build();
+    }
+
+    @Test
+    void prefixMatchesMostPopulousFirst() {
+        assertThat(names(gazetteer.search("san", 10))).containsExactly("Santiago", "San Francisco", "Sankt Gallen");
+        assertThat(names(gazetteer.search("san", 2))).containsExactly("Santiago", "San Francisco");
+    }
+
+    @Test
+    void accentsCaseAndPunctuationAreIgnored() {
+        assertThat(names(gazetteer.search("SAO p", 5))).containsExactly("São Paulo");
+        assertThat(names(gazetteer.search("zur", 5))).containsExactly("Zürich");
+        assertThat(names(gazetteer.search("st gal", 5))).containsExactly("Sankt Gallen");
+        assertThat(Gazetteer.fold("  Saint-Étienne! ")).isEqualTo("saint etienne");
+    }
+
+    @Test
+    void placeMatchingSeveralNamesIsReturnedOnce() {
+        // "sa" matches São Paulo, Sao Paulo and Sampa
+        int[] places = gazetteer.search("sa", 10);
+
+        assertThat(names(places)).containsExactly("São Paulo", "Santiago", "San Francisco", "Sankt Gallen");
+        assertThat(gazetteer.getCountryCode(places[0])).isEqualTo("BR");
+    }
+
+    @Test
+    void nothingForBlankOrUnknownPrefixes() {
+        assertThat(gazetteer.search("  ", 5)).isEmpty();
+        assertThat(gazetteer.search("xyz", 5)).isEmpty();
+        assertThat(gazetteer.search("san", 0)).isEmpty();
+        assertThat(gazetteer.size()).isEqualTo(5);
+    }
+
+    private String[] names(int[] places) {
+        String[] names = new String[places.length];
+        for (int i = 0; i < places.length; i++) {
+            names[i] = gazetteer.getName(places[i]);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    @Test
+    void findsTheFrequentItemsInASkewedStream() {
+        HeavyHitters hitters = new HeavyHitters(4, 1024, 10);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            // Zipf-like: item k turns up about 1/k as often as item 1
+            String item = "city-" + (int) Math.floor(Math.pow(2_000, random.nextDouble()));
+            hitters.add(item, 1L);
+            exact.merge(item, 1L, Long::sum);
+        }
+
+        List<String> expected = exact.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(5)
+            .map(Map.Entry::getKey)
+            .toList();
+        assertThat(hitters.top(5)).extracting(Map.Entry::getKey).containsExactlyElementsOf(expected);
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            assertThat(hitters.estimate(entry.getKey())).isGreaterThanOrEqualTo(entry.getValue());
+        }
+    }
+
+    @Test
+    void newItemReplacesTheLowestOnceItOvertakesIt() {
+        HeavyHitters hitters = new HeavyHitters(4, 1024, 3);
+        hitters.add("paris", 10L);
+        hitters.add("rome", 5L);
+        hitters.add("oslo", 2L);
+
+        hitters.add("lima", 1L);
+        assertThat(hitters.top(3)).extracting(Map.Entry::getKey).containsExactly("paris", "rome", "oslo");
+
+        hitters.add("lima", 3L);
+        assertThat(hitters.top(3)).extracting(Map.Entry::getKey).containsExactly("paris", "rome", "lima");
+        assertThat(hitters.size()).isEqualTo(3);
+    }
+
+    @Test
+    void trackedItemMovesUpAsItsCountGrows() {
+        HeavyHitters hitters = new HeavyHitters(4, 1024, 3);
+        hitters.add("paris", 10L);
+        hitters.add("rome", 5L);
+        hitters.add("oslo", 2L);
+
+        hitters.add("oslo", 20L);
+
+        assertThat(hitters.top(3)).containsExactly(Map.entry("oslo", 22L), Map.entry("paris", 10L), Map.entry("rome", 5L));
+    }
+
+    @Test
+    void decayDropsItemsThatReachZero() {
+        HeavyHitters hitters = new HeavyHitters(4, 1024, 5);
+        hitters.add("paris", 100L);
+        hitters.add("rome", 1L);
+        hitters.add("oslo", 1L);
+
+        hitters.decay(0.5);
+
+        assertThat(hitters.top(5)).containsExactly(Map.entry("paris", 50L));
+        assertThat(hitters.estimate("rome")).isZero();
+
+        hitters.add("lima", 7L);
+        assertThat(hitters.top(5)).extracting(Map.Entry::getKey).containsExactly("paris", "lima");
+    }
+
+    @Test
+    void concurrentAddsLoseNoCounts() throws InterruptedException {
+        HeavyHitters hitters = new HeavyHitters(4, 1024, 20);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    hitters.add("city-" + (i % 50), 1L);
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(hitters.estimate("city-" + i)).isGreaterThanOrEqualTo(1_600L);
+        }
+        assertThat(hitters.size()).isEqualTo(20);
+        assertThat(hitters.top(20)).allSatisfy(entry -> assertThat(entry.getValue()).isGreaterThanOrEqualTo(1_600L));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class KdTreeTest {
+
+    @Test
+    void matchesABruteForceScanOnRandomPoints() {
+        Random random = new Random(42);
+        int size = 2_000;
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+        KdTree tree = new KdTree(latitudes, longitudes);
+
+        for (int q = 0; q < 500; q++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            int expected = -1;
+            double expectedKm = Double.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                double km = KdTree.distanceKm(lat, lon, latitudes[i], longitudes[i]);
+                if (km < expectedKm) {
+                    expectedKm = km;
+                    expected = i;
+                }
+            }
+
+            int found = tree.nearest(lat, lon, 20_000);
+            assertThat(KdTree.distanceKm(lat, lon, latitudes[found], longitudes[found]))
+                .as("query %d at (%f, %f), expected point %d", q, lat, lon, expected)
+                .isCloseTo(expectedKm, within(1e-6));
+        }
+    }
+
+    @Test
+    void neighboursAcrossTheAntimeridianAndAtThePoles() {
+        KdTree tree = new KdTree(new double[]{0, 0, 89.9, -10}, new double[]{179.9, 100, -45, -179.9});
+
+        assertThat(tree.nearest(0, -179.95, 100)).isEqualTo(0);
+        assertThat(tree.nearest(-10, 179.95, 100)).isEqualTo(3);
+        assertThat(tree.nearest(90, 135, 100)).isEqualTo(2);
+    }
+
+    @Test
+    void nothingWithinTheRadius() {
+        KdTree tree = new KdTree(new double[]{51.5}, new double[]{-0.12});
+
+        // London to Paris is about 344 km
+        assertThat(tree.nearest(48.86, 2.35, 300)).isEqualTo(-1);
+        assertThat(tree.nearest(48.86, 2.35, 400)).isZero();
+    }
+
+    @Test
+    void emptyAndDuplicatePoints() {
+        assertThat(new KdTree(new double[0], new double[0]).nearest(0, 0, 1_000)).isEqualTo(-1);
+
+        KdTree tree = new KdTree(new double[]{10, 10, 10}, new double[]{20, 20, 20});
+        assertThat(tree.size()).isEqualTo(3);
+        assertThat(tree.nearest(10, 20, 1)).isBetween(0, 2);
+    }
+
+    @Test
+    void haversineDistance() {
+        assertThat(KdTree.distanceKm(51.5074, -0.1278, 48.8566, 2.3522)).isCloseTo(343.5, within(1.0));
+        assertThat(KdTree.distanceKm(0, 0, 0, 180)).isCloseTo(Math.PI * 6371.0, within(1e-6));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyTrackerTest {
+
+    @Test
+    void percentileIsUnknownUntilTheFirstRecompute() {
+        LatencyTracker tracker = new LatencyTracker(64, 0.95);
+        for (int i = 1; i < 16; i++) {
+            tracker.record(i);
+        }
+        assertThat(tracker.getPercentileMillis()).isEqualTo(-1L);
+
+        tracker.record(16);
+
+        // ceil(0.95 * 16) = 16th smallest
+        assertThat(tracker.getPercentileMillis()).isEqualTo(16L);
+    }
+
+    @Test
+    void percentileIsTheNearestRankOfTheWindow() {
+        LatencyTracker tracker = new LatencyTracker(128, 0.95);
+        // Out of order, so the result depends on sorting
+        for (int i = 100; i >= 1; i--) {
+            tracker.record(i);
+        }
+
+        assertThat(tracker.percentileMillis(0.95)).isEqualTo(95L);
+        assertThat(tracker.percentileMillis(0.50)).isEqualTo(50L);
+        // Clamped to the smallest and largest samples
+        assertThat(tracker.percentileMillis(0.0)).isEqualTo(1L);
+        assertThat(tracker.percentileMillis(1.0)).isEqualTo(100L);
+        // The cached value was last recomputed at the 96th sample (100 down to 5)
+        assertThat(tracker.getPercentileMillis()).isEqualTo(96L);
+    }
+
+    @Test
+    void oldSamplesLeaveTheWindow() {
+        LatencyTracker tracker = new LatencyTracker(16, 0.95);
+        for (int i = 0; i < 16; i++) {
+            tracker.record(1_000);
+        }
+        assertThat(tracker.getPercentileMillis()).isEqualTo(1_000L);
+
+        for (int i = 0; i < 16; i++) {
+            tracker.record(10);
+        }
+
+        assertThat(tracker.getSampleCount()).isEqualTo(16);
+        assertThat(tracker.getPercentileMillis()).isEqualTo(10L);
+        assertThat(tracker.percentileMillis(1.0)).isEqualTo(10L);
+        assertThat(new LatencyTracker(16, 0.95).percentileMillis(0.5)).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.tripplanner.util;
+
+import com.example.tripplanner.model.BudgetAlert;
+import com.example.tripplanner.model.CurrencyCode;
+import com.example.tripplanner.model.Expense;
+import com.example.tripplanner.model.Trip;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void toMinorUnitsRoundsHalfUpInsteadOfThrowing() {
+        assertThat(Money.toMinorUnits(new BigDecimal("12.34"))).isEqualTo(1234L);
+        assertThat(Money.toMinorUnits(new BigDecimal("12.345"))).isEqualTo(1235L);
+        assertThat(Money.toMinorUnits(new BigDecimal("-12.345"))).isEqualTo(-1235L);
+        assertThat(Money.toMinorUnits(new BigDecimal("7"))).isEqualTo(700L);
+        assertThat(Money.toMinorUnits(null)).isZero();
+    }
+
+    @Test
+    void fromDoubleRoundsHalfAwayFromZero() {
+        assertThat(Money.fromDouble(-0.025)).isEqualTo(-3L);
+        assertThat(Money.fromDouble(0.025)).isEqualTo(3L);
+        assertThat(Money.fromDouble(2.675)).isEqualTo(268L);
+        assertThat(Money.fromDouble(19.99)).isEqualTo(1999L);
+    }
+
+    @Test
+    void percentOfMatchesBigDecimalDivision() {
+        long[][] cases = {{1, 3}, {2, 3}, {12_345, 67_890}, {-5, 8}, {100_00, 100_00}, {1, 7}};
+        for (long[] c : cases) {
+            double expected = BigDecimal.valueOf(c[0]).divide(BigDecimal.valueOf(c[1]), 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100)).doubleValue();
+            assertThat(Money.percentOf(c[0], c[1])).as("%d / %d", c[0], c[1]).isEqualTo(expected);
+        }
+        assertThat(Money.percentOf(5, 0)).isZero();
+    }
+
+    @Test
+    void divideHalfUpIsSignAware() {
+        assertThat(Money.divideHalfUp(5, 2)).isEqualTo(3L);
+        assertThat(Money.divideHalfUp(-5, 2)).isEqualTo(-3L);
+        assertThat(Money.divideHalfUp(5, -2)).isEqualTo(-3L);
+        assertThat(Money.divideHalfUp(7, 3)).isEqualTo(2L);
+    }
+
+    @Test
+    void valueTypeKeepsCurrenciesApart() {
+        Money lunch = Money.of(new BigDecimal("12.50"), CurrencyCode.EUR);
+        Money dinner = new Money(30_00L, CurrencyCode.EUR);
+
+        assertThat(lunch.plus(dinner)).isEqualTo(new Money(42_50L, CurrencyCode.EUR));
+        assertThat(dinner.minus(lunch).toBigDecimal()).isEqualByComparingTo("17.50");
+        assertThat(dinner.isGreaterThan(lunch)).isTrue();
+        assertThatThrownBy(() -> lunch.plus(new Money(1L, CurrencyCode.USD)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tripTotalsSumCachedMinorUnits() {
+        Trip trip = new Trip();
+        trip.setCurrency("EUR");
+        trip.setBudget(new BigDecimal("100.00"));
+        for (String amount : new String[]{"10.10", "20.20", "30.30"}) {
+            Expense expense = new Expense();
+            expense.setCurrency(Expense.Currency.EUR);
+            expense.setAmount(new BigDecimal(amount));
+            trip.addExpense(expense);
+        }
+
+        // Every expense is in the trip currency, so no rate is ever read
+        int n = CurrencyCode.values().length;
+        ExchangeRateHistory rates = new ExchangeRateHistory(new long[n][0], new double[n][0], new double[n], 1L, LocalDate.now(), 4);
+
+        assertThat(trip.getTotalExpensesMoney(rates)).isEqualTo(new Money(60_60L, CurrencyCode.EUR));
+        assertThat(trip.getRemainingBudget(rates)).isEqualByComparingTo("39.40");
+        assertThat(trip.getBudgetUsagePercentage(rates)).isEqualTo(60.6);
+        assertThat(trip.isOverBudget(rates)).isFalse();
+    }
+
+    @Test
+    void budgetAlertOverBudgetRoundsExtraDecimals() {
+        BudgetAlert alert = new BudgetAlert();
+        alert.setBudgetAmount(new BigDecimal("100.004"));
+        alert.setCurrentAmount(new BigDecimal("100.006"));
+
+        assertThat(alert.isOverBudget()).isTrue();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoiIndexTest {
+
+    @Test
+    void matchesABruteForceScanOnRandomPoints() {
+        Random random = new Random(42);
+        PoiIndex.Builder builder = new PoiIndex.Builder(0.05);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // Clustered around Lisbon, with a few categories
+            double lat = 38.72 + random.nextGaussian() * 0.2;
+            double lon = -9.14 + random.nextGaussian() * 0.2;
+            int category = random.nextInt(4);
+            builder.add("poi-" + i, "Place " + i, category, lat, lon, random.nextDouble());
+            points.add(new double[]{lat, lon, category});
+        }
+        PoiIndex index = builder.build();
+
+        for (int q = 0; q < 200; q++) {
+            double lat = 38.72 + random.nextGaussian() * 0.2;
+            double lon = -9.14 + random.nextGaussian() * 0.2;
+            double radiusKm = 1 + random.nextDouble() * 10;
+            int[] wanted = q % 2 == 0 ? new int[]{0, 1, 2, 3} : new int[]{2};
+
+            Set<String> expected = new HashSet<>();
+            for (int i = 0; i < points.size(); i++) {
+                double[] point = points.get(i);
+                boolean categoryWanted = wanted.length == 4 || (int) point[2] == 2;
+                if (categoryWanted && KdTree.distanceKm(lat, lon, point[0], point[1]) <= radiusKm) {
+                    expected.add("poi-" + i);
+                }
+            }
+
+            assertThat(ids(index, index.within(lat, lon, radiusKm, wanted))).as("query %d", q).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void radiusReachesAcrossTheAntimeridian() {
+        PoiIndex index = new PoiIndex.Builder(0.05)
+            .add("east", "Taveuni", 0, -16.8, 179.98, 1.0)
+            .add("west", "Qamea", 0, -16.8, -179.98, 1.0)
+            .add("far", "Suva", 0, -18.14, 178.44, 1.0)
+            .build();
+
+        assertThat(ids(index, index.within(-16.8, 179.99, 10, new int[]{0}))).containsExactlyInAnyOrder("east", "west");
+        assertThat(ids(index, index.within(-16.8, -179.99, 10, new int[]{0}))).containsExactlyInAnyOrder("east", "west");
+    }
+
+    @Test
+    void otherCategoriesAreLeftOut() {
+        PoiIndex index = new PoiIndex.Builder(0.05)
+            .add("museum", "Museum", 1, 48.86, 2.34, 1.0)
+            .add("cafe", "Cafe", 2, 48.86, 2.34, 1.0)
+            .build();
+
+        assertThat(ids(index, index.within(48.86, 2.34, 1, new int[]{2}))).containsExactly("cafe");
+        assertThat(index.within(48.86, 2.34, 1, new int[]{5})).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void wideRadiusNearThePoleScansWholeRows() {
+        PoiIndex index = new PoiIndex.Builder(0.05)
+            .add("a", "Station A", 0, 89.95, 0, 1.0)
+            .add("b", "Station B", 0, 89.95, 180, 1.0)
+            .build();
+
+        assertThat(ids(index, index.within(89.99, 90, 20, new int[]{0}))).containsExactlyInAnyOrder("a", "b");
+    }
+
+    private static Set<String> ids(PoiIndex index, int[] pois) {
+        Set<String> ids = new HashSet<>();
+        for (int poi : pois) {
+            ids.add(index.getId(poi));
+        }
+        return ids;
+    }
+}
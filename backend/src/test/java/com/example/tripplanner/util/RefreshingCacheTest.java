@@ -0,0 +1,102 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RefreshingCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void freshEntryIsServedWithoutLoading() {
+        RefreshingCache<String, String> cache = new RefreshingCache<>(10, 60_000, 0, 0);
+
+        assertThat(cache.get("rome", this::load).join()).isEqualTo("rome-1");
+        assertThat(cache.get("rome", this::load).join()).isEqualTo("rome-1");
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        RefreshingCache<String, String> cache = new RefreshingCache<>(10, 60_000, 0, 0);
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = cache.get("rome", key -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = cache.get("rome", this::load);
+        // One caller giving up does not fail the load for the other
+        first.cancel(true);
+        upstream.complete("rome-shared");
+
+        assertThat(second.join()).isEqualTo("rome-shared");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getStats()).containsEntry("coalesced", 1L);
+        assertThat(cache.peek("rome")).isEqualTo("rome-shared");
+    }
+
+    @Test
+    void staleEntryIsServedWhileItReloads() {
+        RefreshingCache<String, String> cache = new RefreshingCache<>(10, 0, 60_000, 0);
+        cache.get("rome", this::load).join();
+
+        assertThat(cache.get("rome", this::load).join()).isEqualTo("rome-1");
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.peek("rome")).isEqualTo("rome-2");
+        assertThat(cache.getStats()).containsEntry("staleHits", 1L);
+    }
+
+    @Test
+    void staleEntryCoversAFailedLoad() {
+        RefreshingCache<String, String> cache = new RefreshingCache<>(10, 0, 0, 60_000);
+        cache.get("rome", this::load).join();
+
+        String value = cache.get("rome", key -> CompletableFuture.failedFuture(new IllegalStateException("upstream down"))).join();
+
+        assertThat(value).isEqualTo("rome-1");
+        assertThat(cache.getStats()).containsEntry("staleOnError", 1L);
+    }
+
+    @Test
+    void failedLoadWithoutFallbackFailsAndIsNotCached() {
+        RefreshingCache<String, String> cache = new RefreshingCache<>(10, 60_000, 0, 0);
+
+        CompletableFuture<String> failed = cache.get("rome", key -> {
+            throw new IllegalStateException("upstream down");
+        });
+
+        assertThatThrownBy(failed::join)
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("rome", this::load).join()).isEqualTo("rome-1");
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        RefreshingCache<String, String> cache = new RefreshingCache<>(2, 60_000, 0, 0);
+        cache.get("rome", this::load).join();
+        cache.get("oslo", this::load).join();
+        cache.get("rome", this::load).join();
+
+        cache.get("lima", this::load).join();
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.peek("oslo")).isNull();
+        assertThat(cache.peek("rome")).isNotNull();
+    }
+
+    private CompletableFuture<String> load(String key) {
+        return CompletableFuture.completedFuture(key + "-" + loads.incrementAndGet());
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RoadGraphTest {
+
+    private static final int SIDE = 30;
+    private static final double[] SPEEDS = {30, 50, 70, 90};
+
+    private double[] latitudes;
+    private double[] longitudes;
+    // Outgoing edges per node as {head, seconds}, for the reference search
+    private List<List<double[]>> outgoing;
+    private RoadGraph.Builder builder;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        int nodes = SIDE * SIDE + 1;
+        latitudes = new double[nodes];
+        longitudes = new double[nodes];
+        outgoing = new ArrayList<>();
+        builder = new RoadGraph.Builder();
+        for (int v = 0; v < nodes; v++) {
+            latitudes[v] = 48.8 + (v / SIDE) * 0.01 + random.nextDouble() * 0.003;
+            longitudes[v] = 2.3 + (v % SIDE) * 0.01 + random.nextDouble() * 0.003;
+            builder.addNode(v, latitudes[v], longitudes[v]);
+            outgoing.add(new ArrayList<>());
+        }
+        // The last node has no roads at all
+        for (int v = 0; v < SIDE * SIDE; v++) {
+            if (v % SIDE + 1 < SIDE && random.nextDouble() < 0.85) {
+                addWay(v, v + 1, SPEEDS[random.nextInt(SPEEDS.length)], random.nextDouble() < 0.2);
+            }
+            if (v + SIDE < SIDE * SIDE && random.nextDouble() < 0.85) {
+                addWay(v, v + SIDE, SPEEDS[random.nextInt(SPEEDS.length)], random.nextDouble() < 0.2);
+            }
+        }
+    }
+
+    @Test
+    void altRoutesMatchPlainDijkstra() {
+        RoadGraph graph = builder.build(8);
+        Random random = new Random(7);
+
+        int reachable = 0;
+        for (int q = 0; q < 300; q++) {
+            int source = random.nextInt(SIDE * SIDE);
+            int target = random.nextInt(SIDE * SIDE);
+            double expected = dijkstra(source)[target];
+
+            double[] route = graph.route(source, target);
+            if (expected == Double.POSITIVE_INFINITY) {
+                assertThat(route).as("route %d -> %d", source, target).isNull();
+            } else {
+                reachable++;
+                assertThat(route).as("route %d -> %d", source, target).isNotNull();
+                assertThat(route[0]).as("seconds %d -> %d", source, target).isCloseTo(expected, within(1e-3));
+                assertThat(route[1]).isGreaterThanOrEqualTo(
+                    KdTree.distanceKm(latitudes[source], longitudes[source], latitudes[target], longitudes[target]) - 1e-3);
+            }
+        }
+        assertThat(reachable).isGreaterThan(200);
+        assertThat(graph.landmarkCount()).isEqualTo(8);
+    }
+
+    @Test
+    void isolatedNodesAndTrivialRoutes() {
+        RoadGraph graph = builder.build(4);
+        int isolated = SIDE * SIDE;
+
+        assertThat(graph.route(0, isolated)).isNull();
+        assertThat(graph.route(isolated, 0)).isNull();
+        assertThat(graph.route(5, 5)).containsExactly(0.0, 0.0);
+        assertThat(graph.nearestNode(latitudes[isolated], longitudes[isolated], 1)).isEqualTo(isolated);
+    }
+
+    @Test
+    void concurrentRoutesShareTheSearchPool() throws Exception {
+        RoadGraph graph = builder.build(8);
+        Random random = new Random(11);
+        int[][] pairs = new int[200][];
+        double[][] expected = new double[pairs.length][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new int[]{random.nextInt(SIDE * SIDE), random.nextInt(SIDE * SIDE)};
+            expected[i] = graph.route(pairs[i][0], pairs[i][1]);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<double[][]>> results = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                results.add(pool.submit(() -> {
+                    double[][] routes = new double[pairs.length][];
+                    for (int i = 0; i < pairs.length; i++) {
+                        routes[i] = graph.route(pairs[i][0], pairs[i][1]);
+                    }
+                    return routes;
+                }));
+            }
+            for (Future<double[][]> result : results) {
+                assertThat(Arrays.deepEquals(result.get(), expected)).isTrue();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void addWay(int from, int to, double speedKmh, boolean oneway) {
+        builder.addWay(new long[]{from, to}, speedKmh, oneway);
+        double km = KdTree.distanceKm(latitudes[from], longitudes[from], latitudes[to], longitudes[to]);
+        float seconds = (float) (km / speedKmh * 3600.0);
+        outgoing.get(from).add(new double[]{to, seconds});
+        if (!oneway) {
+            outgoing.get(to).add(new double[]{from, seconds});
+        }
+    }
+
+    // Textbook Dijkstra over the same roads, without landmarks
+    private double[] dijkstra(int source) {
+        double[] seconds = new double[latitudes.length];
+        Arrays.fill(seconds, Double.POSITIVE_INFINITY);
+        seconds[source] = 0.0;
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[1], b[1]));
+        queue.add(new double[]{source, 0.0});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int v = (int) entry[0];
+            if (entry[1] > seconds[v]) {
+                continue;
+            }
+            for (double[] edge : outgoing.get(v)) {
+                int w = (int) edge[0];
+                double candidate = seconds[v] + (float) edge[1];
+                if (candidate < seconds[w]) {
+                    seconds[w] = candidate;
+                    queue.add(new double[]{w, candidate});
+                }
+            }
+        }
+        return seconds;
+    }
+}
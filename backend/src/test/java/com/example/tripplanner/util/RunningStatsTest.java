@@ -0,0 +1,65 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RunningStatsTest {
+
+    @Test
+    void matchesTheTwoPassVariance() {
+        double[] values = {2, 4, 4, 4, 5, 5, 7, 9};
+        RunningStats stats = new RunningStats();
+        for (double value : values) {
+            stats.add(value);
+        }
+
+        assertThat(stats.getCount()).isEqualTo(8);
+        assertThat(stats.getMean()).isEqualTo(5.0);
+        // Sum of squared deviations is 32, sample variance 32 / 7
+        assertThat(stats.getVariance()).isCloseTo(32.0 / 7.0, within(1e-12));
+        assertThat(stats.zScore(5.0)).isZero();
+    }
+
+    @Test
+    void mergeEqualsAddingEverySample() {
+        Random random = new Random(3);
+        RunningStats all = new RunningStats();
+        RunningStats left = new RunningStats();
+        RunningStats right = new RunningStats();
+        for (int i = 0; i < 1_000; i++) {
+            double value = Math.log1p(random.nextDouble() * 500);
+            all.add(value);
+            (i % 3 == 0 ? left : right).add(value);
+        }
+
+        left.merge(right);
+
+        assertThat(left.getCount()).isEqualTo(all.getCount());
+        assertThat(left.getMean()).isCloseTo(all.getMean(), within(1e-12));
+        assertThat(left.getM2()).isCloseTo(all.getM2(), within(1e-9));
+    }
+
+    @Test
+    void mergingEmptyStatsChangesNothing() {
+        RunningStats stats = new RunningStats(5, 2.0, 3.0);
+        stats.merge(new RunningStats());
+        assertThat(stats.getCount()).isEqualTo(5);
+        assertThat(stats.getMean()).isEqualTo(2.0);
+
+        RunningStats empty = new RunningStats();
+        empty.merge(stats);
+        assertThat(empty.getCount()).isEqualTo(5);
+        assertThat(empty.getM2()).isEqualTo(3.0);
+    }
+
+    @Test
+    void zScoreIsZeroWithoutSpread() {
+        RunningStats stats = new RunningStats();
+        stats.add(4.0);
+        assertThat(stats.zScore(100.0)).isZero();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StringSimilarityTest {
+
+    @Test
+    void normalizeFoldsAccentsCaseAndPunctuation() {
+        assertThat(StringSimilarity.normalize("Café  Central!")).isEqualTo("cafe central");
+        assertThat(StringSimilarity.normalize("ÜBER-Taxi #42")).isEqualTo("uber taxi 42");
+        assertThat(StringSimilarity.normalize("  Crème brûlée ")).isEqualTo("creme brulee");
+        assertThat(StringSimilarity.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void jaroWinklerMatchesTheReferenceValues() {
+        assertThat(StringSimilarity.jaroWinkler("martha", "marhta")).isCloseTo(0.9611, within(1e-4));
+        assertThat(StringSimilarity.jaroWinkler("dwayne", "duane")).isCloseTo(0.84, within(1e-4));
+        assertThat(StringSimilarity.jaroWinkler("dixon", "dicksonx")).isCloseTo(0.8133, within(1e-4));
+    }
+
+    @Test
+    void jaroWinklerEdgeCases() {
+        assertThat(StringSimilarity.jaroWinkler("taxi", "taxi")).isEqualTo(1.0);
+        assertThat(StringSimilarity.jaroWinkler("", "")).isEqualTo(1.0);
+        assertThat(StringSimilarity.jaroWinkler("taxi", "")).isZero();
+        assertThat(StringSimilarity.jaroWinkler("abc", "xyz")).isZero();
+        // Single characters have no match window beyond their own position
+        assertThat(StringSimilarity.jaroWinkler("a", "b")).isZero();
+    }
+
+    @Test
+    void jaroWinklerIsSymmetricAndRewardsACommonPrefix() {
+        assertThat(StringSimilarity.jaroWinkler("starbucks", "starbuck"))
+            .isEqualTo(StringSimilarity.jaroWinkler("starbuck", "starbucks"));
+        assertThat(StringSimilarity.jaroWinkler("xstarbuck", "starbuck"))
+            .isLessThan(StringSimilarity.jaroWinkler("starbuckx", "starbuck"));
+    }
+}
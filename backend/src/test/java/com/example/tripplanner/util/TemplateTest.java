@@ -0,0 +1,32 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TemplateTest {
+
+    @Test
+    void placeholdersAreReplaced() {
+        Template template = Template.compile("<p>Hi {{ name }}, {{count}} new</p>");
+
+        assertThat(template.render(Map.of("name", "Ana", "count", "3"))).isEqualTo("<p>Hi Ana, 3 new</p>");
+    }
+
+    @Test
+    void unknownPlaceholdersRenderEmpty() {
+        assertThat(Template.compile("a{{missing}}b").render(Map.of())).isEqualTo("ab");
+    }
+
+    @Test
+    void unclosedBracesAreLiteral() {
+        assertThat(Template.compile("{{name}} and {{oops").render(Map.of("name", "x"))).isEqualTo("x and {{oops");
+    }
+
+    @Test
+    void valuesAreNotReparsed() {
+        assertThat(Template.compile("{{a}}").render(Map.of("a", "{{b}}"))).isEqualTo("{{b}}");
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.tripplanner.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketTest {
+
+    @Test
+    void burstIsAvailableAtOnce() {
+        TokenBucket bucket = new TokenBucket(3, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire()).isZero();
+        }
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+
+    @Test
+    void emptyBucketReportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        bucket.tryAcquire();
+
+        long waitNanos = bucket.tryAcquire();
+        double available = bucket.getAvailableTokens();
+
+        // One token per second
+        assertThat(waitNanos).isBetween(Duration.ofMillis(500).toNanos(), Duration.ofSeconds(1).toNanos());
+        assertThat(available).isLessThan(0.5);
+    }
+
+    @Test
+    void refillsOverTimeUpToTheCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 50);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+
+        LockSupport.parkNanos(Duration.ofMillis(30).toNanos());
+        assertThat(bucket.tryAcquire()).isZero();
+
+        LockSupport.parkNanos(Duration.ofMillis(200).toNanos());
+        assertThat(bucket.getAvailableTokens()).isCloseTo(2.0, within(1e-9));
+    }
+}
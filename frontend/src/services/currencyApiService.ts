@@ -23,6 +23,32 @@ export interface CurrencyConversionResponse {
   error?: string;
 }
 
+export interface CurrencyConversionItem {
+  amount: number;
+  fromCurrency: string;
+  toCurrency: string;
+  date?: string; // yyyy-MM-dd
+}
+
+export interface CurrencyConversionResult {
+  index: number;
+  success: boolean;
+  originalAmount: number | null;
+  originalCurrency: string | null;
+  convertedAmount: number | null;
+  targetCurrency: string | null;
+  rate: number | null;
+  rateDate: string | null;
+  error: string | null;
+}
+
+export interface CurrencyBatchConversionResponse {
+  success: boolean;
+  results: CurrencyConversionResult[];
+  errorCount: number;
+  error?: string;
+}
+
 export interface SupportedCurrenciesResponse {
   [currencyCode: string]: {
     name: string;
@@ -154,6 +180,29 @@ class CurrencyApiService {
     }
   }
 
+  /**
+   * Convert many amounts in one request; results come back in input order
+   */
+  async convertBatch(items: CurrencyConversionItem[]): Promise<CurrencyBatchConversionResponse> {
+    try {
+      const response = await api.post(`${this.baseUrl}/convert/batch`, items);
+      return response.data;
+    } catch (error: any) {
+      console.error('Error converting currency batch:', error);
+      
+      if (error.response?.data) {
+        return error.response.data;
+      }
+      
+      return {
+        success: false,
+        results: [],
+        errorCount: items.length,
+        error: error.message || 'Failed to convert currencies'
+      };
+    }
+  }
+
   /**
    * Validate currency code
    */
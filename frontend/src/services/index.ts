@@ -5,6 +5,7 @@ export * from './placeService';
 export * from './expenseService';
 export * from './aiChatbotService';
 export * from './imageService';
+export * from './notificationService';
 
 // Export the API client for direct use if needed
 export { default as apiClient } from '../config/api';
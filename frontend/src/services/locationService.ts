@@ -46,6 +46,16 @@ export const locationService = {
     return response.data;
   },
 
+  // Most searched destinations, in the same shape as search results
+  async getPopularDestinations(limit: number = 10): Promise<LocationSearchResponse> {
+    const response = await apiClient.get('/locations/popular', {
+      params: {
+        limit
+      }
+    });
+    return response.data;
+  },
+
   // Transform search results to a simpler format for the frontend
   transformSearchResults(results: LocationSearchResult[]) {
     return results.map(result => ({
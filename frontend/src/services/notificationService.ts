@@ -0,0 +1,137 @@
+import { API_CONFIG } from '../config/api';
+import { auth } from '../config/firebase';
+
+export type NotificationType = 'budget-alert' | 'trip-changed';
+
+export interface Notification {
+  type: NotificationType;
+  tripId: number;
+  // trip-changed
+  change?: 'UPDATED' | 'PLAN_SAVED' | 'PLACE_ADDED' | 'PLACE_REMOVED' | 'EXPENSES_CHANGED' | 'PARTICIPANTS_CHANGED' | 'DELETED';
+  // budget-alert
+  alertId?: number;
+  alertType?: string;
+  alertStatus?: 'ACTIVE' | 'ACKNOWLEDGED' | 'RESOLVED' | 'DISMISSED';
+  currentAmount?: number;
+  budgetAmount?: number;
+  message?: string;
+  timestamp: string;
+}
+
+const DEFAULT_RETRY_MS = 5000;
+const MAX_RETRY_MS = 60000;
+
+// Resolves after ms, or as soon as the signal aborts
+const sleep = (ms: number, signal: AbortSignal) =>
+  new Promise<void>((resolve) => {
+    const timer = setTimeout(resolve, ms);
+    signal.addEventListener('abort', () => {
+      clearTimeout(timer);
+      resolve();
+    }, { once: true });
+  });
+
+// Reads a text/event-stream body, calling onEvent for every complete event and onRetry for retry fields
+const readEvents = async (
+  body: ReadableStream<Uint8Array>,
+  onEvent: (event: string, data: string) => void,
+  onRetry: (retryMs: number) => void
+) => {
+  const reader = body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = '';
+  let event = 'message';
+  let data: string[] = [];
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) {
+      return;
+    }
+    buffer += decoder.decode(value, { stream: true });
+    const lines = buffer.split(/\r\n|\r|\n/);
+    buffer = lines.pop() ?? '';
+    for (const line of lines) {
+      if (line === '') {
+        if (data.length > 0) {
+          onEvent(event, data.join('\n'));
+        }
+        event = 'message';
+        data = [];
+        continue;
+      }
+      if (line.startsWith(':')) {
+        // Comment: the connected greeting and heartbeats
+        continue;
+      }
+      const colon = line.indexOf(':');
+      const field = colon < 0 ? line : line.slice(0, colon);
+      const fieldValue = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '');
+      if (field === 'event') {
+        event = fieldValue;
+      } else if (field === 'data') {
+        data.push(fieldValue);
+      } else if (field === 'retry' && /^\d+$/.test(fieldValue)) {
+        onRetry(Number(fieldValue));
+      }
+    }
+  }
+};
+
+export const notificationService = {
+  // Subscribe to server-sent budget alerts and trip changes; returns a function that closes the stream.
+  // The stream is read with fetch rather than EventSource so the Firebase ID token can go in the
+  // Authorization header. It reconnects on its own with a fresh token, so callers do not need to poll.
+  subscribe(firebaseUid: string, onNotification: (notification: Notification) => void): () => void {
+    const url = `${API_CONFIG.BASE_URL}/notifications/user/${encodeURIComponent(firebaseUid)}/stream`;
+    const controller = new AbortController();
+    let retryMs = DEFAULT_RETRY_MS;
+    let failures = 0;
+
+    const handle = (event: string, data: string) => {
+      if (event !== 'budget-alert' && event !== 'trip-changed') {
+        return;
+      }
+      try {
+        onNotification(JSON.parse(data));
+      } catch (error) {
+        console.error('Failed to parse notification:', error);
+      }
+    };
+
+    const run = async () => {
+      while (!controller.signal.aborted) {
+        const user = auth.currentUser;
+        if (!user) {
+          return;
+        }
+        try {
+          const token = await user.getIdToken();
+          const response = await fetch(url, {
+            headers: { Accept: 'text/event-stream', Authorization: `Bearer ${token}` },
+            signal: controller.signal,
+          });
+          if (response.status === 401 || response.status === 403) {
+            console.error('Notification stream refused:', response.status);
+            return;
+          }
+          if (!response.ok || !response.body) {
+            throw new Error(`Notification stream failed: ${response.status}`);
+          }
+          failures = 0;
+          await readEvents(response.body, handle, (ms) => { retryMs = ms; });
+        } catch (error) {
+          if (controller.signal.aborted) {
+            return;
+          }
+          failures++;
+          console.error('Notification stream error:', error);
+        }
+        // The server ends streams periodically; reconnect after its retry delay, backing off while it fails
+        await sleep(Math.min(MAX_RETRY_MS, retryMs * 2 ** failures), controller.signal);
+      }
+    };
+
+    void run();
+    return () => controller.abort();
+  }
+};